@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Pool of direct buffers aligned in memory for direct I/O. The active file
+ * is reopened on every roll, so buffers are reused rather than allocated
+ * each time; direct memory is only reclaimed when the buffer is garbage
+ * collected. At most the configured number of buffers are retained, the
+ * most recently released first.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class AlignedBufferPool {
+
+    /* package private */ AlignedBufferPool(final int maxPooledBuffers) {
+        _maxPooledBuffers = maxPooledBuffers;
+    }
+
+    /**
+     * Acquire a cleared buffer of the specified capacity whose first byte
+     * is aligned to the specified alignment.
+     *
+     * @param capacity The capacity of the buffer.
+     * @param alignment The alignment in bytes; a power of two.
+     * @return The buffer.
+     */
+    /* package private */ ByteBuffer acquire(final int capacity, final int alignment) {
+        synchronized (_buffers) {
+            final Iterator<ByteBuffer> iterator = _buffers.iterator();
+            while (iterator.hasNext()) {
+                final ByteBuffer buffer = iterator.next();
+                if (buffer.capacity() == capacity && buffer.alignmentOffset(0, alignment) == 0) {
+                    iterator.remove();
+                    return buffer.clear();
+                }
+            }
+        }
+        return ByteBuffer.allocateDirect(capacity + alignment).alignedSlice(alignment).slice(0, capacity);
+    }
+
+    /**
+     * Release a buffer to the pool. The buffer must not be used after it
+     * is released.
+     *
+     * @param buffer The buffer.
+     */
+    /* package private */ void release(final ByteBuffer buffer) {
+        synchronized (_buffers) {
+            _buffers.addFirst(buffer);
+            if (_buffers.size() > _maxPooledBuffers) {
+                _buffers.removeLast();
+            }
+        }
+    }
+
+    /* package private */ int size() {
+        synchronized (_buffers) {
+            return _buffers.size();
+        }
+    }
+
+    private final int _maxPooledBuffers;
+    private final Deque<ByteBuffer> _buffers = new ArrayDeque<>();
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.rolling.RollingPolicy;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.util.FileSize;
+import com.arpnetworking.logback.SizeAndRandomizedTimeBasedFNATP;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Creates the chain of Logback appenders which write a file sink's events:
+ * the rolling file appender with its rolling policy and retention,
+ * optionally used as the fallback of a {@link UnixSocketAppender}, wrapped
+ * by the configured queueing appender and optionally by a
+ * {@link LazyStartAppender}. A chain is created for each output of the
+ * sink. The appenders read the settings which can be changed while the
+ * sink is running from the sink's current {@link FileSinkConfiguration}.
+ *
+ * This class is not thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class AppenderFactory {
+
+    /* package private */ AppenderFactory(
+            final LoggerContext loggerContext,
+            final SinkInstrumentation instrumentation,
+            final Supplier<FileSinkConfiguration> configuration) {
+        _loggerContext = loggerContext;
+        _instrumentation = instrumentation;
+        _configuration = configuration;
+    }
+
+    /**
+     * Create the appender chain for the specified configuration. The
+     * appenders are started before returning unless lazy start is enabled,
+     * in which case they are started in the background.
+     *
+     * @param builder The sink's {@link BaseFileSink.Builder}.
+     * @param encoder The started encoder of the sink's events.
+     * @param directory The directory of the output's files.
+     * @param name The output's file name without extension.
+     * @param socketPath The path of the output's agent socket, if any.
+     * @param fileName The name of the active file.
+     * @return The outermost {@link Appender} of the chain.
+     */
+    /* package private */ Appender<ILoggingEvent> createAppender(
+            final BaseFileSink.Builder<?, ?> builder,
+            final Encoder<ILoggingEvent> encoder,
+            final File directory,
+            final String name,
+            @Nullable final Path socketPath,
+            final String fileName) {
+        final FileSize totalSizeCap = getTotalSizeCap(builder);
+        @Nullable final RetentionManager retentionManager = builder._indexedRetention
+                ? createRetentionManager(builder, directory, name, totalSizeCap)
+                : null;
+
+        final TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = createRollingPolicy(
+                builder._extension,
+                getFileNameWithoutExtension(directory, name),
+                builder._maxFileSize,
+                builder._compress,
+                builder._streamingCompression,
+                retentionManager);
+        if (retentionManager == null) {
+            applyRollingPolicyRetention(rollingPolicy, builder._maxHistory, totalSizeCap);
+        }
+        final FileAppender<ILoggingEvent> rollingAppender = createRollingAppender(
+                builder,
+                fileName,
+                rollingPolicy,
+                encoder);
+
+        rollingPolicy.setParent(rollingAppender);
+
+        final Appender<ILoggingEvent> outputAppender = socketPath == null
+                ? rollingAppender
+                : createSocketAppender(builder, socketPath, encoder, rollingAppender);
+        final Appender<ILoggingEvent> writingAppender = createWritingAppender(builder, outputAppender);
+        final Runnable starter = () -> startAppenders(rollingPolicy, rollingAppender, outputAppender, writingAppender);
+
+        if (builder._lazyStart) {
+            return createLazyStartAppender(writingAppender, starter);
+        }
+        starter.run();
+        return writingAppender;
+    }
+
+    /* package private */ static String createFileName(
+            final BaseFileSink.Builder<?, ?> builder,
+            final File directory,
+            final String name) {
+        if (builder._streamingCompression) {
+            return getFileNameWithoutExtension(directory, name) + builder._extension + GZIP_EXTENSION;
+        }
+        return getFileNameWithoutExtension(directory, name) + builder._extension;
+    }
+
+    private static String getFileNameWithoutExtension(final File directory, final String name) {
+        return directory.getPath() + File.separator + name;
+    }
+
+    private TimeBasedRollingPolicy<ILoggingEvent> createRollingPolicy(
+            final String extension,
+            final String fileNameWithoutExtension,
+            final String maxFileSizeAsString,
+            final boolean compress,
+            final boolean streamingCompression,
+            @Nullable final RetentionManager retentionManager) {
+
+        final FileSize maxFileSize = FileSize.valueOf(maxFileSizeAsString);
+
+        final SizeAndRandomizedTimeBasedFNATP<ILoggingEvent> triggeringPolicy = new SizeAndRandomizedTimeBasedFNATP<>();
+        triggeringPolicy.setContext(_loggerContext);
+        triggeringPolicy.setMaxOffsetInMillis(MAX_RANDOM_OFFSET_IN_MILLIS);
+        triggeringPolicy.setMaxFileSize(maxFileSize);
+
+        final TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = new FileSinkRollingPolicy<>(
+                streamingCompression,
+                retentionManager);
+        rollingPolicy.setTimeBasedFileNamingAndTriggeringPolicy(triggeringPolicy);
+        rollingPolicy.setContext(_loggerContext);
+        if (compress) {
+            rollingPolicy.setFileNamePattern(fileNameWithoutExtension + DATE_AND_INDEX_EXTENSION + extension + GZIP_EXTENSION);
+        } else {
+            rollingPolicy.setFileNamePattern(fileNameWithoutExtension + DATE_AND_INDEX_EXTENSION + extension);
+        }
+
+        return rollingPolicy;
+    }
+
+    private static void applyRollingPolicyRetention(
+            final TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy,
+            final int maxHistory,
+            final FileSize totalSizeCap) {
+        rollingPolicy.setMaxHistory(maxHistory);
+        rollingPolicy.setTotalSizeCap(totalSizeCap);
+        rollingPolicy.setCleanHistoryOnStart(true);
+    }
+
+    private static RetentionManager createRetentionManager(
+            final BaseFileSink.Builder<?, ?> builder,
+            final File directory,
+            final String name,
+            final FileSize totalSizeCap) {
+        return new RetentionManager(
+                directory,
+                name,
+                builder._compress ? builder._extension + GZIP_EXTENSION : builder._extension,
+                builder._maxHistory,
+                totalSizeCap.getSize(),
+                builder._minFreeDiskPercentage);
+    }
+
+    private static FileSize getTotalSizeCap(final BaseFileSink.Builder<?, ?> builder) {
+        if (builder._maxTotalSize != null) {
+            return FileSize.valueOf(builder._maxTotalSize);
+        }
+        return new FileSize(builder._maxHistory * FileSize.valueOf(builder._maxFileSize).getSize());
+    }
+
+    private FileAppender<ILoggingEvent> createRollingAppender(
+            final BaseFileSink.Builder<?, ?> builder,
+            final String fileName,
+            final RollingPolicy rollingPolicy,
+            final Encoder<ILoggingEvent> encoder) {
+        final FileSinkAppender<ILoggingEvent> rollingAppender = new FileSinkAppender<>(
+                builder._streamingCompression,
+                builder._syncOnClose,
+                _instrumentation,
+                builder._indexIntervalSize == null ? 0 : FileSize.valueOf(builder._indexIntervalSize).getSize(),
+                builder._indexInterval == null ? 0 : builder._indexInterval.toMillis(),
+                _configuration);
+        rollingAppender.setContext(_loggerContext);
+        rollingAppender.setName("query-log");
+        rollingAppender.setFile(fileName);
+        rollingAppender.setAppend(true);
+        rollingAppender.setRollingPolicy(rollingPolicy);
+        rollingAppender.setEncoder(encoder);
+        rollingAppender.setImmediateFlush(builder._immediateFlush);
+        rollingAppender.setDirectIo(builder._directIo);
+        return rollingAppender;
+    }
+
+    private Appender<ILoggingEvent> createSocketAppender(
+            final BaseFileSink.Builder<?, ?> builder,
+            final Path socketPath,
+            final Encoder<ILoggingEvent> encoder,
+            final Appender<ILoggingEvent> rollingAppender) {
+        final UnixSocketAppender socketAppender = new UnixSocketAppender(
+                new UnixSocketAppender.UnixDomainSocketConnector(socketPath),
+                encoder,
+                rollingAppender,
+                (int) FileSize.valueOf(builder._socketBufferSize).getSize(),
+                _configuration,
+                UnixSocketAppender.RECONNECT_INTERVAL_IN_MILLIS,
+                _instrumentation);
+        socketAppender.setContext(_loggerContext);
+        socketAppender.setName("query-log-socket");
+        return socketAppender;
+    }
+
+    private Appender<ILoggingEvent> createAsyncAppender(
+            final Appender<ILoggingEvent> appender,
+            final int queueSize) {
+        final AsyncAppender asyncAppender = new FileSinkAsyncAppender(_instrumentation, _configuration);
+        asyncAppender.setContext(_loggerContext);
+        asyncAppender.setName("query-log-async");
+        asyncAppender.setQueueSize(queueSize);
+        asyncAppender.addAppender(appender);
+        return asyncAppender;
+    }
+
+    private Appender<ILoggingEvent> createWritingAppender(
+            final BaseFileSink.Builder<?, ?> builder,
+            final Appender<ILoggingEvent> rollingAppender) {
+        if (!builder._async) {
+            return rollingAppender;
+        }
+        if (builder._ioScheduler != null) {
+            return createScheduledAsyncAppender(rollingAppender, builder._ioScheduler, false, builder._maxQueueSize);
+        }
+        if (builder._writerThreadFactory != null) {
+            final IoScheduler ioScheduler = new IoScheduler.Builder()
+                    .setThreadFactory(builder._writerThreadFactory)
+                    .build();
+            return createScheduledAsyncAppender(rollingAppender, ioScheduler, true, builder._maxQueueSize);
+        }
+        return createAsyncAppender(rollingAppender, builder._maxQueueSize);
+    }
+
+    private Appender<ILoggingEvent> createScheduledAsyncAppender(
+            final Appender<ILoggingEvent> appender,
+            final IoScheduler ioScheduler,
+            final boolean ownsIoScheduler,
+            final int queueSize) {
+        final ScheduledAsyncAppender scheduledAsyncAppender = new ScheduledAsyncAppender(
+                appender,
+                ioScheduler,
+                ownsIoScheduler,
+                queueSize,
+                _configuration,
+                _instrumentation);
+        scheduledAsyncAppender.setContext(_loggerContext);
+        scheduledAsyncAppender.setName("query-log-scheduled");
+        return scheduledAsyncAppender;
+    }
+
+    private Appender<ILoggingEvent> createLazyStartAppender(
+            final Appender<ILoggingEvent> appender,
+            final Runnable starter) {
+        final LazyStartAppender lazyStartAppender = new LazyStartAppender(
+                appender,
+                starter,
+                _configuration,
+                _instrumentation);
+        lazyStartAppender.setContext(_loggerContext);
+        lazyStartAppender.setName("query-log-lazy");
+        lazyStartAppender.start();
+        return lazyStartAppender;
+    }
+
+    private static void startAppenders(
+            final RollingPolicy rollingPolicy,
+            final Appender<ILoggingEvent> rollingAppender,
+            final Appender<ILoggingEvent> outputAppender,
+            final Appender<ILoggingEvent> appender) {
+        rollingPolicy.start();
+        rollingAppender.start();
+        if (outputAppender != rollingAppender) {
+            outputAppender.start();
+        }
+        if (appender != outputAppender) {
+            appender.start();
+        }
+    }
+
+    private final LoggerContext _loggerContext;
+    private final SinkInstrumentation _instrumentation;
+    private final Supplier<FileSinkConfiguration> _configuration;
+
+    private static final int MAX_RANDOM_OFFSET_IN_MILLIS = 10 * 60 * 1000; // 10 minutes
+    private static final String DATE_AND_INDEX_EXTENSION = ".%d{yyyy-MM-dd-HH}.%i";
+    /* package private */ static final String GZIP_EXTENSION = ".gz";
+}
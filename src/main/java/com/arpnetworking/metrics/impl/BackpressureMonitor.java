@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.time.Duration;
+import java.util.function.IntSupplier;
+
+/**
+ * Reports whether a file sink is keeping up with the events recorded to it.
+ * The queue fill fraction is the number of entries in the sink's queues
+ * relative to their current capacity, which follows its
+ * {@link FileSinkConfiguration}. Both are counted in queue entries rather
+ * than events, since a batch recorded with
+ * {@link FileSink#recordAll(java.util.Collection, FileSink.BatchMode)}
+ * occupies a single entry. The writer lag is the time since
+ * the writer last wrote an event while events are waiting to be written.
+ * The sink is overloaded if either reaches its configured threshold.
+ *
+ * Queries read the size of the queues and atomic and volatile state
+ * maintained by {@link SinkInstrumentation}; they never wait for the writer
+ * and are cheap enough to call on every request. The values are approximate while events
+ * are being recorded and written concurrently.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class BackpressureMonitor {
+
+    /**
+     * Public constructor.
+     *
+     * @param instrumentation The {@link SinkInstrumentation} of the sink.
+     * @param queueCapacity The number of entries the sink can currently queue; zero for a synchronous sink.
+     * @param overloadQueueFraction The queue fill fraction at which the sink is overloaded.
+     * @param overloadWriterLag The writer lag at which the sink is overloaded.
+     */
+    /* package private */ BackpressureMonitor(
+            final SinkInstrumentation instrumentation,
+            final IntSupplier queueCapacity,
+            final double overloadQueueFraction,
+            final Duration overloadWriterLag) {
+        _instrumentation = instrumentation;
+        _queueCapacity = queueCapacity;
+        _overloadQueueFraction = overloadQueueFraction;
+        _overloadWriterLagNanos = overloadWriterLag.toNanos();
+    }
+
+    /* package private */ double getQueueFillFraction() {
+        final int queueCapacity = _queueCapacity.getAsInt();
+        if (queueCapacity == 0) {
+            return 0;
+        }
+        return Math.min(1.0, (double) _instrumentation.getQueueDepth() / queueCapacity);
+    }
+
+    /* package private */ long getWriterLagNanos() {
+        return _instrumentation.getWriterLagNanos();
+    }
+
+    /* package private */ boolean isOverloaded() {
+        return getQueueFillFraction() >= _overloadQueueFraction
+                || getWriterLagNanos() >= _overloadWriterLagNanos;
+    }
+
+    private final SinkInstrumentation _instrumentation;
+    private final IntSupplier _queueCapacity;
+    private final double _overloadQueueFraction;
+    private final long _overloadWriterLagNanos;
+}
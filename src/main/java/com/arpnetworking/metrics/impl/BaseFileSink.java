@@ -15,26 +15,26 @@
  */
 package com.arpnetworking.metrics.impl;
 
-import ch.qos.logback.classic.AsyncAppender;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
-import ch.qos.logback.core.Appender;
-import ch.qos.logback.core.FileAppender;
 import ch.qos.logback.core.encoder.Encoder;
-import ch.qos.logback.core.rolling.RollingFileAppender;
-import ch.qos.logback.core.rolling.RollingPolicy;
-import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
-import ch.qos.logback.core.util.FileSize;
-import com.arpnetworking.logback.SizeAndRandomizedTimeBasedFNATP;
+import com.arpnetworking.metrics.Event;
 import com.arpnetworking.metrics.Sink;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
+import javax.management.ObjectName;
 
 /**
  * Base class for {@link Sink} implementations which write to files. This
@@ -42,10 +42,141 @@ import javax.annotation.Nullable;
  * to disk. It is designed not to interfere with Logback or SLF4J usage for
  * application logging.
  *
+ * The sink maintains counters and latency histograms of its record and
+ * write paths which are available from {@link #getStatistics()} and,
+ * when enabled, as a {@link FileSinkMXBean}. Events dropped because the
+ * queue is full, because they could not be serialized or because writing
+ * them failed are counted by reason and can periodically be reported in the
+ * file itself; see {@link DropSummary}.
+ *
+ * The sink writes to its primary output and optionally to additional
+ * outputs; see {@link Builder#setAdditionalOutputs(List)}. Each event is
+ * serialized and encoded once however many outputs write it. Alternatively
+ * the sink may be sharded across several outputs with their own writers,
+ * each of which writes some of the events; see
+ * {@link Builder#setShardCount(Integer)}.
+ *
+ * Callers can check whether the sink is keeping up without blocking via
+ * {@link #getQueueFillFraction()}, {@link #getWriterLag()} and
+ * {@link #isOverloaded()}, for example to shed optional instrumentation
+ * before the sink has to drop events; see {@link BackpressureMonitor}.
+ *
+ * Recording, serializing, writing, flushing and rolling also emit JDK Flight
+ * Recorder events in the {@code com.arpnetworking.metrics} namespace. The
+ * events are disabled unless enabled by the recording's settings; when
+ * disabled committing an event returns immediately.
+ *
  * @author Ville Koskela (ville dot koskela at inscopemetrics dot io)
  */
 /* package private */ abstract class BaseFileSink implements Sink {
 
+    /**
+     * Close this sink. Events queued when closing starts are written until
+     * the timeout expires, after which remaining events are abandoned. The
+     * file is then flushed, forced to the storage device if sync on close
+     * is enabled, and closed. The outputs of the sink are closed in turn,
+     * each within the time remaining until the timeout. Closing a sink more
+     * than once has no effect.
+     *
+     * @param timeout The maximum time to wait for queued events to be written.
+     * @return The {@link DrainResult} of closing this sink.
+     */
+    public DrainResult close(final Duration timeout) {
+        if (!_closed.compareAndSet(false, true)) {
+            return DrainResult.EMPTY;
+        }
+        _shutdownHook.unregister();
+        final long pendingCount = getPendingCount();
+        writeDropSummary();
+        _outputs.stop(timeout);
+        _loggerContext.stop();
+        _outputs.unregisterMBeans();
+        final long abandonedCount = Math.min(pendingCount, getPendingCount());
+        return new DrainResult(pendingCount - abandonedCount, abandonedCount);
+    }
+
+    /**
+     * Create a snapshot of the counters and latency histograms maintained
+     * by this sink for its primary output, or for the first shard of a
+     * sharded sink.
+     *
+     * @return The {@link FileSinkStatistics} snapshot.
+     */
+    public FileSinkStatistics getStatistics() {
+        return _outputs.getPrimary().getInstrumentation().snapshot();
+    }
+
+    /**
+     * Create a snapshot of the counters and latency histograms maintained
+     * by this sink for each of its outputs; the primary output first
+     * followed by the additional outputs in the order configured, or each
+     * shard of a sharded sink in order.
+     *
+     * @return The {@link FileSinkStatistics} snapshot of each output.
+     */
+    public List<FileSinkStatistics> getOutputStatistics() {
+        return _outputs.getStatistics();
+    }
+
+    /**
+     * The fraction of the queue capacity occupied by entries waiting to be
+     * written, from zero to one; a batch of events recorded together
+     * occupies a single entry. A synchronous sink has no queue and always
+     * reports zero. A sink with multiple outputs reports its fullest
+     * output's queue. This method does not block.
+     *
+     * @return The queue fill fraction.
+     */
+    public double getQueueFillFraction() {
+        return _outputs.getQueueFillFraction();
+    }
+
+    /**
+     * The time since the writer last wrote an event while events are
+     * waiting to be written; zero if no events are waiting. A sink with
+     * multiple outputs reports its most lagging output's writer. This
+     * method does not block.
+     *
+     * @return The writer lag.
+     */
+    public Duration getWriterLag() {
+        return Duration.ofNanos(_outputs.getWriterLagNanos());
+    }
+
+    /**
+     * Whether the queue fill fraction or the writer lag of any output has
+     * reached its configured threshold. This method does not block and does
+     * not allocate, so it can be checked on every request.
+     *
+     * @return True if and only if the sink is overloaded.
+     */
+    public boolean isOverloaded() {
+        return _outputs.isOverloaded();
+    }
+
+    /**
+     * The settings of this sink which can be changed while it is running.
+     *
+     * @return The current {@link FileSinkConfiguration}.
+     */
+    public FileSinkConfiguration getConfiguration() {
+        return _outputs.getConfiguration();
+    }
+
+    /**
+     * Change the settings of this sink while it is running, without
+     * pausing producers or losing queued events. The configuration is
+     * published atomically and applies to every output from the next event
+     * recorded or written; start from {@link #getConfiguration()} to change
+     * only some settings.
+     *
+     * @param configuration The new {@link FileSinkConfiguration}.
+     * @throws IllegalArgumentException If the max queue size exceeds the max queue size this sink was built with.
+     */
+    public void reconfigure(final FileSinkConfiguration configuration) {
+        _outputs.reconfigure(configuration);
+    }
+
     /**
      * Accessor for the {@link Logger} instance to write to.
      *
@@ -55,63 +186,74 @@ import javax.annotation.Nullable;
         return _metricsLogger;
     }
 
-    private TimeBasedRollingPolicy<ILoggingEvent> createRollingPolicy(
-            final String extension,
-            final String fileNameWithoutExtension,
-            final int maxHistory,
-            final String maxFileSizeAsString,
-            final boolean compress) {
-
-        final FileSize maxFileSize = FileSize.valueOf(maxFileSizeAsString);
-        final FileSize totalSizeCap = FileSize.valueOf(String.valueOf(maxHistory * maxFileSize.getSize()));
-
-        final SizeAndRandomizedTimeBasedFNATP<ILoggingEvent> triggeringPolicy = new SizeAndRandomizedTimeBasedFNATP<>();
-        triggeringPolicy.setContext(_loggerContext);
-        triggeringPolicy.setMaxOffsetInMillis(MAX_RANDOM_OFFSET_IN_MILLIS);
-        triggeringPolicy.setMaxFileSize(maxFileSize);
-
-        final TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = new TimeBasedRollingPolicy<>();
-        rollingPolicy.setTimeBasedFileNamingAndTriggeringPolicy(triggeringPolicy);
-        rollingPolicy.setContext(_loggerContext);
-        rollingPolicy.setMaxHistory(maxHistory);
-        rollingPolicy.setTotalSizeCap(totalSizeCap);
-        rollingPolicy.setCleanHistoryOnStart(true);
-        if (compress) {
-            rollingPolicy.setFileNamePattern(fileNameWithoutExtension + DATE_AND_INDEX_EXTENSION + extension + GZIP_EXTENSION);
-        } else {
-            rollingPolicy.setFileNamePattern(fileNameWithoutExtension + DATE_AND_INDEX_EXTENSION + extension);
-        }
-
-        return rollingPolicy;
+    /**
+     * Write a serialized event to each output of this sink, or to the shard
+     * the event is routed to if the sink is sharded. The event is encoded
+     * once and the same bytes are written by each output.
+     *
+     * @param event The event.
+     * @param serializedEvent The serialized event.
+     * @param serializationNanos The time taken to serialize the event.
+     */
+    protected void enqueue(final Event event, final String serializedEvent, final long serializationNanos) {
+        enqueue(route(event), serializedEvent, 1, serializationNanos);
+    }
+
+    /**
+     * Write serialized events to each output of this sink, or to the
+     * specified shard if the sink is sharded, as a single entry. The events
+     * are queued, written and dropped together but are counted individually.
+     *
+     * @param shard The shard to write to; see {@link #route(Event)}.
+     * @param serializedEvents The serialized events separated by line separators.
+     * @param count The number of serialized events.
+     * @param serializationNanos The time taken to serialize the events.
+     */
+    /* package private */ void enqueue(final int shard, final String serializedEvents, final int count, final long serializationNanos) {
+        _outputs.enqueue(shard, serializedEvents, count, serializationNanos);
+    }
+
+    /* package private */ int getShardCount() {
+        return _outputs.getShardCount();
+    }
+
+    /* package private */ int route(final Event event) {
+        return _outputs.route(event);
+    }
+
+    /* package private */ void onSerializationFailure(final Event event) {
+        _outputs.onSerializationFailure(event);
+    }
+
+    /* package private */ void writeDropSummary() {
+        _outputs.writeDropSummary();
+    }
+
+    /* package private */ List<SinkOutput> getOutputs() {
+        return _outputs.getOutputs();
+    }
+
+    /* package private */ SinkInstrumentation getInstrumentation() {
+        return _outputs.getPrimary().getInstrumentation();
+    }
+
+    @Nullable
+    /* package private */ ObjectName getObjectName() {
+        return _outputs.getPrimary().getObjectName();
     }
 
-    private FileAppender<ILoggingEvent> createRollingAppender(
-            final String fileName,
-            final RollingPolicy rollingPolicy,
-            final Encoder<ILoggingEvent> encoder,
-            final boolean immediateFlush) {
-        final RollingFileAppender<ILoggingEvent> rollingAppender = new RollingFileAppender<>();
-        rollingAppender.setContext(_loggerContext);
-        rollingAppender.setName("query-log");
-        rollingAppender.setFile(fileName);
-        rollingAppender.setAppend(true);
-        rollingAppender.setRollingPolicy(rollingPolicy);
-        rollingAppender.setEncoder(encoder);
-        rollingAppender.setImmediateFlush(immediateFlush);
-        return rollingAppender;
+    /* package private */ long getPendingCount() {
+        return _outputs.getPendingCount();
     }
 
-    private Appender<ILoggingEvent> createAsyncAppender(
-            final Appender<ILoggingEvent> appender,
-            final int discardingThreshold,
-            final int queueSize) {
-        final AsyncAppender asyncAppender = new AsyncAppender();
-        asyncAppender.setContext(_loggerContext);
-        asyncAppender.setDiscardingThreshold(discardingThreshold);
-        asyncAppender.setName("query-log-async");
-        asyncAppender.setQueueSize(queueSize);
-        asyncAppender.addAppender(appender);
-        return asyncAppender;
+    private void scheduleDropSummary(final Duration interval) {
+        if (!interval.isZero()) {
+            _loggerContext.getScheduledExecutorService().scheduleAtFixedRate(
+                    this::writeDropSummary,
+                    interval.toMillis(),
+                    interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
@@ -122,77 +264,34 @@ import javax.annotation.Nullable;
     protected BaseFileSink(
             final Builder<? extends BaseFileSink, ? extends Builder<? extends Sink, ?>> builder,
             final Encoder<ILoggingEvent> encoder) {
-        final StringBuilder fileNameBuilder = new StringBuilder(builder._directory.getPath());
-        fileNameBuilder.append(File.separator);
-        fileNameBuilder.append(builder._name);
-        final String fileNameWithoutExtension = fileNameBuilder.toString();
-        fileNameBuilder.append(builder._extension);
-        final String fileName = fileNameBuilder.toString();
-
         _loggerContext = new LoggerContext();
         encoder.setContext(_loggerContext);
-
-        final TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = createRollingPolicy(
-                builder._extension,
-                fileNameWithoutExtension,
-                builder._maxHistory,
-                builder._maxFileSize,
-                builder._compress);
-        final FileAppender<ILoggingEvent> rollingAppender = createRollingAppender(
-                fileName,
-                rollingPolicy,
-                encoder,
-                builder._immediateFlush);
-
-        rollingPolicy.setParent(rollingAppender);
-        rollingPolicy.start();
+        // NOTE: The encoder is shared by the outputs
         encoder.start();
-        rollingAppender.start();
 
-        final Appender<ILoggingEvent> appender;
-        if (builder._async) {
-            appender = createAsyncAppender(
-                    rollingAppender,
-                    builder._dropWhenQueueFull ? builder._maxQueueSize : 0,
-                    builder._maxQueueSize);
-            appender.start();
-        } else {
-            appender = rollingAppender;
-        }
+        _outputs = new SinkOutputs(_loggerContext, builder, encoder);
 
         final Logger rootLogger = _loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
         rootLogger.setLevel(Level.INFO);
-        rootLogger.addAppender(appender);
-
-        Runtime.getRuntime().addShutdownHook(new ShutdownHookThread(_loggerContext));
+        for (final SinkOutput output : _outputs.getOutputs()) {
+            rootLogger.addAppender(output.getAppender());
+        }
 
         _metricsLogger = _loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+
+        scheduleDropSummary(builder._dropSummaryInterval);
+        _shutdownHook = new ShutdownHookThread(this, builder._shutdownCoordinator);
+        _shutdownHook.register();
     }
 
     private final LoggerContext _loggerContext;
+    private final ShutdownHookThread _shutdownHook;
+    private final SinkOutputs _outputs;
+    private final AtomicBoolean _closed = new AtomicBoolean(false);
     private final Logger _metricsLogger;
 
-    private static final int MAX_RANDOM_OFFSET_IN_MILLIS = 10 * 60 * 1000; // 10 minutes
-    private static final String DATE_AND_INDEX_EXTENSION = ".%d{yyyy-MM-dd-HH}.%i";
-    private static final String GZIP_EXTENSION = ".gz";
-
     private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(BaseFileSink.class);
 
-    // NOTE: Package private for testing
-    /* package private */ static final class ShutdownHookThread extends Thread {
-
-        /* package private */ ShutdownHookThread(final LoggerContext context) {
-            _context = context;
-        }
-
-        @Override
-        public void run() {
-            _context.stop();
-        }
-
-        private final LoggerContext _context;
-    }
-
     /**
      * Builder for {@link BaseFileSink}.
      *
@@ -286,6 +385,49 @@ import javax.annotation.Nullable;
             return self();
         }
 
+        /**
+         * Set the maximum total size of rolled files. Accepted units are:
+         * "KB", "MB" and "GB". Optional; default is the max history
+         * multiplied by the max file size.
+         *
+         * @param value The value for max total size.
+         * @return This {@link Builder} instance.
+         */
+        public B setMaxTotalSize(@Nullable final String value) {
+            _maxTotalSize = value;
+            return self();
+        }
+
+        /**
+         * Set whether retention of rolled files is enforced from an index of
+         * rolled files maintained in memory. The directory is scanned once
+         * on start and the index is then updated on each roll, so enforcing
+         * the max history, max total size and min free disk percentage does
+         * not scan the directory while writing. With indexed retention the
+         * max history is the maximum number of rolled files instead of the
+         * number of hourly periods. Optional; default is false.
+         *
+         * @param value Whether to enforce retention from an index.
+         * @return This {@link Builder} instance.
+         */
+        public B setIndexedRetention(@Nullable final Boolean value) {
+            _indexedRetention = value;
+            return self();
+        }
+
+        /**
+         * Set the minimum percentage of free disk space to maintain by
+         * deleting the oldest rolled files. Requires indexed retention.
+         * Optional; default is 0 (disabled).
+         *
+         * @param value The minimum percentage of free disk space.
+         * @return This {@link Builder} instance.
+         */
+        public B setMinFreeDiskPercentage(@Nullable final Integer value) {
+            _minFreeDiskPercentage = value;
+            return self();
+        }
+
         /**
          * Set whether files are compressed on roll. Optional; default is true.
          *
@@ -297,6 +439,55 @@ import javax.annotation.Nullable;
             return self();
         }
 
+        /**
+         * Set whether the active file is written compressed. The file is
+         * written as a sequence of independently decompressible gzip members
+         * which are completed every 64 kilobytes of uncompressed data and
+         * at least once per second, but not on each flush. Rolled files are
+         * then renamed without a separate compression pass. The active file
+         * name has a ".gz" suffix and the max file size applies to the
+         * compressed size. Requires compression to be enabled. Optional;
+         * default is false.
+         *
+         * @param value Whether to compress the active file while writing.
+         * @return This {@link Builder} instance.
+         */
+        public B setStreamingCompression(@Nullable final Boolean value) {
+            _streamingCompression = value;
+            return self();
+        }
+
+        /**
+         * Set the interval in bytes written at which an entry is added to
+         * a sparse index of the active file, mapping the time to the file
+         * offset. The index is written to a sidecar file with an ".idx"
+         * suffix which is moved and deleted with the file, and allows a
+         * {@link FileSinkReader} to read a time range without scanning the
+         * whole file. Accepted units are: "KB", "MB" and "GB". Requires
+         * streaming compression if compression is enabled. Optional;
+         * default is no size based index entries.
+         *
+         * @param value The index interval size.
+         * @return This {@link Builder} instance.
+         */
+        public B setIndexIntervalSize(@Nullable final String value) {
+            _indexIntervalSize = value;
+            return self();
+        }
+
+        /**
+         * Set the interval in time at which an entry is added to a sparse
+         * index of the active file; see {@link #setIndexIntervalSize(String)}.
+         * Optional; default is no time based index entries.
+         *
+         * @param value The index interval.
+         * @return This {@link Builder} instance.
+         */
+        public B setIndexInterval(@Nullable final Duration value) {
+            _indexInterval = value;
+            return self();
+        }
+
         /**
          * Set whether entries are flushed immediately. Entries are still
          * written asynchronously unless async is disabled. Optional; default
@@ -310,6 +501,123 @@ import javax.annotation.Nullable;
             return self();
         }
 
+        /**
+         * Set the path of a Unix domain socket on which a co-located agent
+         * accepts events. When set events are streamed to the agent instead
+         * of written to the file; each event is written as it would be
+         * written to the file, prefixed by its length as a four byte big
+         * endian integer. Events are written to the file while the agent is
+         * unavailable or not reading, and connecting is retried every
+         * second. Queueing and dropping events are configured as for the
+         * file. Optional; default is none.
+         *
+         * @param value The path of the agent's socket.
+         * @return This {@link Builder} instance.
+         */
+        public B setSocketPath(@Nullable final Path value) {
+            _socketPath = value;
+            return self();
+        }
+
+        /**
+         * Set the size of the buffer of events written to the agent's
+         * socket. Events which do not fit while the agent is not reading
+         * are written to the file. Accepted units are: "KB", "MB" and "GB".
+         * Optional; default is "1MB".
+         *
+         * @param value The socket buffer size.
+         * @return This {@link Builder} instance.
+         */
+        public B setSocketBufferSize(@Nullable final String value) {
+            _socketBufferSize = value;
+            return self();
+        }
+
+        /**
+         * Set additional outputs of the sink. Each event is serialized and
+         * encoded once and the same bytes are written to the sink's primary
+         * output, configured by this builder, and to each additional output.
+         * Each output writes and rolls its own files, and has its own queue,
+         * backpressure, drop accounting and drop summaries, so an output
+         * which falls behind drops only its own events. The additional
+         * outputs otherwise share the sink's settings. Optional; default is
+         * none.
+         *
+         * @param value The additional outputs.
+         * @return This {@link Builder} instance.
+         */
+        public B setAdditionalOutputs(@Nullable final List<FileSinkOutput> value) {
+            _additionalOutputs = value == null ? null : List.copyOf(value);
+            return self();
+        }
+
+        /**
+         * Set the number of shards of the sink. A sharded sink writes to
+         * the specified number of outputs, each with its own active file,
+         * queue and writer, and each event is written to one of them. This
+         * allows a sink to write faster than a single file and writer
+         * thread permit, especially with the shards on different disks;
+         * see {@link #setShardDirectories(List)}. Events are routed by the
+         * hash of an annotation or by producer thread; see
+         * {@link #setShardAnnotation(String)}. The shards' files are named
+         * with the shard number appended to the name, e.g. "query-0.log",
+         * and are rolled, compressed and retained independently. A sharded
+         * sink cannot have additional outputs. Optional; default is 1
+         * (not sharded).
+         *
+         * @param value The number of shards.
+         * @return This {@link Builder} instance.
+         */
+        public B setShardCount(@Nullable final Integer value) {
+            _shardCount = value;
+            return self();
+        }
+
+        /**
+         * Set the directories of the shards of a sharded sink. The shards
+         * are assigned to the directories in round-robin order. Optional;
+         * default is the sink's directory.
+         *
+         * @param value The directories of the shards.
+         * @return This {@link Builder} instance.
+         */
+        public B setShardDirectories(@Nullable final List<File> value) {
+            _shardDirectories = value == null ? null : List.copyOf(value);
+            return self();
+        }
+
+        /**
+         * Set the annotation by which the events of a sharded sink are
+         * routed. Events with the same value of the annotation are written
+         * to the same shard. Events without the annotation are routed by
+         * producer thread; each thread writes to one shard and threads are
+         * assigned to shards in round-robin order. Optional; default is
+         * none (all events are routed by producer thread).
+         *
+         * @param value The annotation by which events are routed.
+         * @return This {@link Builder} instance.
+         */
+        public B setShardAnnotation(@Nullable final String value) {
+            _shardAnnotation = value;
+            return self();
+        }
+
+        /**
+         * Set whether the sink is started lazily. When enabled building the
+         * sink returns without opening the file; the file is opened and
+         * history is cleaned up on a background thread. Events recorded in
+         * the meantime are buffered up to the max queue size, after which
+         * they are either dropped or recording blocks as configured by drop
+         * when queue full. Optional; default is false.
+         *
+         * @param value Whether to start the sink lazily.
+         * @return This {@link Builder} instance.
+         */
+        public B setLazyStart(@Nullable final Boolean value) {
+            _lazyStart = value;
+            return self();
+        }
+
         /**
          * Set whether files are written asynchronously. Optional; default is true.
          *
@@ -321,6 +629,134 @@ import javax.annotation.Nullable;
             return self();
         }
 
+        /**
+         * Set the shared {@link IoScheduler} used to write events. When set
+         * events are queued per sink as usual but written by the scheduler's
+         * threads instead of a writer thread owned by this sink, allowing
+         * many sinks to share a few threads. The scheduler is not closed by
+         * the sink. Only applies when writing asynchronously. Optional;
+         * default is no scheduler.
+         *
+         * @param value The shared {@link IoScheduler}.
+         * @return This {@link Builder} instance.
+         */
+        public B setIoScheduler(@Nullable final IoScheduler value) {
+            _ioScheduler = value;
+            return self();
+        }
+
+        /**
+         * Set the {@link ThreadFactory} creating the writer thread of each
+         * output, for example to set its name, priority or group. Ignored
+         * when an {@link IoScheduler} is set; only applies when writing
+         * asynchronously. Optional; default is Logback's writer thread.
+         *
+         * @param value The {@link ThreadFactory} of writer threads.
+         * @return This {@link Builder} instance.
+         */
+        public B setWriterThreadFactory(@Nullable final ThreadFactory value) {
+            _writerThreadFactory = value;
+            return self();
+        }
+
+        /**
+         * Set the {@link ShutdownCoordinator} which closes this sink on
+         * shutdown. When set the sink registers with the coordinator instead
+         * of installing its own shutdown hook. Optional; default is no
+         * coordinator.
+         *
+         * @param value The {@link ShutdownCoordinator}.
+         * @return This {@link Builder} instance.
+         */
+        public B setShutdownCoordinator(@Nullable final ShutdownCoordinator value) {
+            _shutdownCoordinator = value;
+            return self();
+        }
+
+        /**
+         * Set whether the file is forced to the storage device when the sink
+         * is closed. Optional; default is false.
+         *
+         * @param value Whether to sync the file on close.
+         * @return This {@link Builder} instance.
+         */
+        public B setSyncOnClose(@Nullable final Boolean value) {
+            _syncOnClose = value;
+            return self();
+        }
+
+        /**
+         * Set whether the active file is written with direct I/O, bypassing
+         * the page cache, on filesystems which support it. The file is
+         * written through the page cache when they do not. Best suited to
+         * sinks without immediate flush; see {@link DirectFileOutputStream}.
+         * Optional; default is false.
+         *
+         * @param value Whether to write the file with direct I/O.
+         * @return This {@link Builder} instance.
+         */
+        public B setDirectIo(@Nullable final Boolean value) {
+            _directIo = value;
+            return self();
+        }
+
+        /**
+         * Set the interval at which a summary of dropped events is written
+         * to the file. A summary is only written for intervals in which
+         * events were dropped, and once more when the sink is closed. Each
+         * summary is a single line of JSON with a {@code "type"} of
+         * {@code "dropSummary"} which reports the events dropped in the
+         * interval by reason: queue full, serialization failure and I/O
+         * error. Optional; default is zero (disabled).
+         *
+         * @param value The interval at which to write drop summaries.
+         * @return This {@link Builder} instance.
+         */
+        public B setDropSummaryInterval(@Nullable final Duration value) {
+            _dropSummaryInterval = value;
+            return self();
+        }
+
+        /**
+         * Set whether the sink's counters and latency histograms are
+         * registered with the platform MBean server as a
+         * {@link FileSinkMXBean}. The MBean is unregistered when the sink is
+         * closed. Optional; default is false.
+         *
+         * @param value Whether to register the sink's MBean.
+         * @return This {@link Builder} instance.
+         */
+        public B setJmxEnabled(@Nullable final Boolean value) {
+            _jmxEnabled = value;
+            return self();
+        }
+
+        /**
+         * Set the queue fill fraction at which the sink reports itself as
+         * overloaded; see {@link BaseFileSink#isOverloaded()}. Must be
+         * greater than zero and at most one. Optional; default is 0.8.
+         *
+         * @param value The queue fill fraction at which the sink is overloaded.
+         * @return This {@link Builder} instance.
+         */
+        public B setOverloadQueueFraction(@Nullable final Double value) {
+            _overloadQueueFraction = value;
+            return self();
+        }
+
+        /**
+         * Set the writer lag at which the sink reports itself as overloaded;
+         * see {@link BaseFileSink#isOverloaded()}. Must be positive.
+         * Optional; default is 1 second.
+         *
+         * @param value The writer lag at which the sink is overloaded.
+         * @return This {@link Builder} instance.
+         */
+        public B setOverloadWriterLag(@Nullable final Duration value) {
+            _overloadWriterLag = value;
+            return self();
+        }
+
         /**
          * Set whether to drop events when the queue is full. If events are not
          * dropped when the queue is full closing a {@link com.arpnetworking.metrics.Metrics}
@@ -351,6 +787,13 @@ import javax.annotation.Nullable;
          * defaulting behavior to fields.
          */
         protected void applyDefaults() {
+            applyFileDefaults();
+            applyRetentionDefaults();
+            applyWriterDefaults();
+            applyBackpressureDefaults();
+        }
+
+        private void applyFileDefaults() {
             if (_directory == null) {
                 _directory = DEFAULT_DIRECTORY;
                 LOGGER.info(String.format("Defaulted null directory; directory=%s", _directory));
@@ -363,6 +806,21 @@ import javax.annotation.Nullable;
                 _extension = DEFAULT_EXTENSION;
                 LOGGER.info(String.format("Defaulted null extension; extension=%s", _extension));
             }
+            if (_compress == null) {
+                _compress = DEFAULT_COMPRESS;
+                LOGGER.info(String.format("Defaulted null compress; compress=%b", _compress));
+            }
+            if (_streamingCompression == null) {
+                _streamingCompression = DEFAULT_STREAMING_COMPRESSION;
+                LOGGER.info(String.format("Defaulted null streaming compression; streamingCompression=%b", _streamingCompression));
+            }
+            if (_directIo == null) {
+                _directIo = DEFAULT_DIRECT_IO;
+                LOGGER.info(String.format("Defaulted null direct io; directIo=%b", _directIo));
+            }
+        }
+
+        private void applyRetentionDefaults() {
             if (_maxHistory == null) {
                 _maxHistory = DEFAULT_MAX_HISTORY;
                 LOGGER.info(String.format("Defaulted null max history; maxHistory=%d", _maxHistory));
@@ -371,14 +829,53 @@ import javax.annotation.Nullable;
                 _maxFileSize = DEFAULT_MAX_FILE_SIZE;
                 LOGGER.info(String.format("Defaulted null max file size; maxFileSize=%s", _maxFileSize));
             }
-            if (_compress == null) {
-                _compress = DEFAULT_COMPRESS;
-                LOGGER.info(String.format("Defaulted null compress; compress=%b", _compress));
+            if (_indexedRetention == null) {
+                _indexedRetention = DEFAULT_INDEXED_RETENTION;
+                LOGGER.info(String.format("Defaulted null indexed retention; indexedRetention=%b", _indexedRetention));
+            }
+            if (_minFreeDiskPercentage == null) {
+                _minFreeDiskPercentage = DEFAULT_MIN_FREE_DISK_PERCENTAGE;
+                LOGGER.info(String.format("Defaulted null min free disk percentage; minFreeDiskPercentage=%d", _minFreeDiskPercentage));
             }
+        }
+
+        private void applyWriterDefaults() {
             if (_immediateFlush == null) {
                 _immediateFlush = DEFAULT_IMMEDIATE_FLUSH;
                 LOGGER.info(String.format("Defaulted null immediate flush; immediateFlush=%b", _immediateFlush));
             }
+            if (_syncOnClose == null) {
+                _syncOnClose = DEFAULT_SYNC_ON_CLOSE;
+                LOGGER.info(String.format("Defaulted null sync on close; syncOnClose=%b", _syncOnClose));
+            }
+            if (_dropSummaryInterval == null) {
+                _dropSummaryInterval = DEFAULT_DROP_SUMMARY_INTERVAL;
+                LOGGER.info(String.format("Defaulted null drop summary interval; dropSummaryInterval=%s", _dropSummaryInterval));
+            }
+            if (_jmxEnabled == null) {
+                _jmxEnabled = DEFAULT_JMX_ENABLED;
+                LOGGER.info(String.format("Defaulted null jmx enabled; jmxEnabled=%b", _jmxEnabled));
+            }
+            if (_socketBufferSize == null) {
+                _socketBufferSize = DEFAULT_SOCKET_BUFFER_SIZE;
+                LOGGER.info(String.format("Defaulted null socket buffer size; socketBufferSize=%s", _socketBufferSize));
+            }
+            if (_additionalOutputs == null) {
+                _additionalOutputs = DEFAULT_ADDITIONAL_OUTPUTS;
+                LOGGER.info(String.format("Defaulted null additional outputs; additionalOutputs=%s", _additionalOutputs));
+            }
+            if (_shardCount == null) {
+                _shardCount = DEFAULT_SHARD_COUNT;
+                LOGGER.info(String.format("Defaulted null shard count; shardCount=%d", _shardCount));
+            }
+            if (_shardDirectories == null) {
+                _shardDirectories = DEFAULT_SHARD_DIRECTORIES;
+                LOGGER.info(String.format("Defaulted null shard directories; shardDirectories=%s", _shardDirectories));
+            }
+            if (_lazyStart == null) {
+                _lazyStart = DEFAULT_LAZY_START;
+                LOGGER.info(String.format("Defaulted null lazy start; lazyStart=%b", _lazyStart));
+            }
             if (_async == null) {
                 _async = DEFAULT_ASYNC;
                 LOGGER.info(String.format("Defaulted null async; async=%b", _async));
@@ -393,6 +890,17 @@ import javax.annotation.Nullable;
             }
         }
 
+        private void applyBackpressureDefaults() {
+            if (_overloadQueueFraction == null) {
+                _overloadQueueFraction = DEFAULT_OVERLOAD_QUEUE_FRACTION;
+                LOGGER.info(String.format("Defaulted null overload queue fraction; overloadQueueFraction=%s", _overloadQueueFraction));
+            }
+            if (_overloadWriterLag == null) {
+                _overloadWriterLag = DEFAULT_OVERLOAD_WRITER_LAG;
+                LOGGER.info(String.format("Defaulted null overload writer lag; overloadWriterLag=%s", _overloadWriterLag));
+            }
+        }
+
         /**
          * Protected method allows child builder classes to add additional
          * validation to fields.
@@ -400,12 +908,7 @@ import javax.annotation.Nullable;
          * @param failures List of validation failures.
          */
         protected void validate(final List<String> failures) {
-            if (!_directory.isDirectory()) {
-                failures.add(String.format("Path is not a directory; path=%s", _directory));
-            }
-            if (!_directory.exists()) {
-                failures.add(String.format("Path does not exist; path=%s", _directory));
-            }
+            BuilderValidator.validate(this, failures);
         }
 
         /**
@@ -428,21 +931,65 @@ import javax.annotation.Nullable;
         protected String _extension = DEFAULT_EXTENSION;
         protected Integer _maxHistory = DEFAULT_MAX_HISTORY;
         protected String _maxFileSize = DEFAULT_MAX_FILE_SIZE;
+        @Nullable
+        protected String _maxTotalSize;
+        protected Boolean _indexedRetention = DEFAULT_INDEXED_RETENTION;
+        protected Integer _minFreeDiskPercentage = DEFAULT_MIN_FREE_DISK_PERCENTAGE;
         protected Boolean _compress = DEFAULT_COMPRESS;
+        protected Boolean _streamingCompression = DEFAULT_STREAMING_COMPRESSION;
+        @Nullable
+        protected String _indexIntervalSize;
+        @Nullable
+        protected Duration _indexInterval;
         protected Boolean _immediateFlush = DEFAULT_IMMEDIATE_FLUSH;
+        @Nullable
+        protected Path _socketPath;
+        protected String _socketBufferSize = DEFAULT_SOCKET_BUFFER_SIZE;
+        protected List<FileSinkOutput> _additionalOutputs = DEFAULT_ADDITIONAL_OUTPUTS;
+        protected Integer _shardCount = DEFAULT_SHARD_COUNT;
+        protected List<File> _shardDirectories = DEFAULT_SHARD_DIRECTORIES;
+        @Nullable
+        protected String _shardAnnotation;
+        protected Boolean _lazyStart = DEFAULT_LAZY_START;
+        protected Boolean _syncOnClose = DEFAULT_SYNC_ON_CLOSE;
+        protected Boolean _directIo = DEFAULT_DIRECT_IO;
+        protected Boolean _jmxEnabled = DEFAULT_JMX_ENABLED;
+        protected Duration _dropSummaryInterval = DEFAULT_DROP_SUMMARY_INTERVAL;
+        @Nullable
+        protected ShutdownCoordinator _shutdownCoordinator;
         protected Boolean _async = DEFAULT_ASYNC;
+        @Nullable
+        protected IoScheduler _ioScheduler;
+        @Nullable
+        protected ThreadFactory _writerThreadFactory;
         protected Boolean _dropWhenQueueFull = DEFAULT_DROP_WHEN_QUEUE_FULL;
         protected Integer _maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+        protected Double _overloadQueueFraction = DEFAULT_OVERLOAD_QUEUE_FRACTION;
+        protected Duration _overloadWriterLag = DEFAULT_OVERLOAD_WRITER_LAG;
 
         private static final File DEFAULT_DIRECTORY = new File("./");
         private static final String DEFAULT_NAME = "query";
         private static final String DEFAULT_EXTENSION = ".log";
         private static final Integer DEFAULT_MAX_HISTORY = 24;
         private static final String DEFAULT_MAX_FILE_SIZE = "100MB";
+        private static final Boolean DEFAULT_INDEXED_RETENTION = Boolean.FALSE;
+        private static final Integer DEFAULT_MIN_FREE_DISK_PERCENTAGE = 0;
         private static final Boolean DEFAULT_COMPRESS = Boolean.TRUE;
+        private static final Boolean DEFAULT_STREAMING_COMPRESSION = Boolean.FALSE;
         private static final Boolean DEFAULT_IMMEDIATE_FLUSH = Boolean.FALSE;
+        private static final String DEFAULT_SOCKET_BUFFER_SIZE = "1MB";
+        private static final List<FileSinkOutput> DEFAULT_ADDITIONAL_OUTPUTS = Collections.emptyList();
+        private static final Integer DEFAULT_SHARD_COUNT = 1;
+        private static final List<File> DEFAULT_SHARD_DIRECTORIES = Collections.emptyList();
+        private static final Boolean DEFAULT_LAZY_START = Boolean.FALSE;
+        private static final Boolean DEFAULT_SYNC_ON_CLOSE = Boolean.FALSE;
+        private static final Boolean DEFAULT_DIRECT_IO = Boolean.FALSE;
+        private static final Boolean DEFAULT_JMX_ENABLED = Boolean.FALSE;
+        private static final Duration DEFAULT_DROP_SUMMARY_INTERVAL = Duration.ZERO;
         private static final Boolean DEFAULT_ASYNC = Boolean.TRUE;
         private static final Boolean DEFAULT_DROP_WHEN_QUEUE_FULL = Boolean.FALSE;
         private static final Integer DEFAULT_MAX_QUEUE_SIZE = 500;
+        private static final Double DEFAULT_OVERLOAD_QUEUE_FRACTION = 0.8;
+        private static final Duration DEFAULT_OVERLOAD_WRITER_LAG = Duration.ofSeconds(1);
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for writing a batch of queued events on an {@link IoScheduler} thread.
+ *
+ * @author agent (agent at local)
+ */
+@Name("com.arpnetworking.metrics.FileSinkBatchWrite")
+@Label("File Sink Batch Write")
+@Description("Writing a batch of queued events")
+@Category({"Metrics", "File Sink"})
+@StackTrace(false)
+@Threshold("1 ms")
+/* package private */ final class BatchWriteEvent extends Event {
+
+    /* package private */ void setBatchSize(final int value) {
+        _batchSize = value;
+    }
+
+    /* package private */ void setQueueDepth(final int value) {
+        _queueDepth = value;
+    }
+
+    @Label("Batch Size")
+    @Description("The number of events written")
+    @Name("batchSize")
+    private int _batchSize;
+
+    @Label("Queue Depth")
+    @Description("The number of events still queued after the batch")
+    @Name("queueDepth")
+    private int _queueDepth;
+}
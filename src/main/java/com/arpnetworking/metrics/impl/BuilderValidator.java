@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.core.util.FileSize;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates the configuration of a {@link BaseFileSink.Builder} after the
+ * defaults have been applied. Each invalid setting adds a failure
+ * describing it.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class BuilderValidator {
+
+    /* package private */ static void validate(final BaseFileSink.Builder<?, ?> builder, final List<String> failures) {
+        if (!builder._directory.isDirectory()) {
+            failures.add(String.format("Path is not a directory; path=%s", builder._directory));
+        }
+        if (!builder._directory.exists()) {
+            failures.add(String.format("Path does not exist; path=%s", builder._directory));
+        }
+        if (builder._streamingCompression && !builder._compress) {
+            failures.add(String.format(
+                    "Streaming compression requires compression; streamingCompression=%b, compress=%b",
+                    builder._streamingCompression,
+                    builder._compress));
+        }
+        if (builder._minFreeDiskPercentage < 0 || builder._minFreeDiskPercentage > 100) {
+            failures.add(String.format(
+                    "Min free disk percentage must be between 0 and 100; minFreeDiskPercentage=%d",
+                    builder._minFreeDiskPercentage));
+        }
+        if (builder._dropSummaryInterval.isNegative()) {
+            failures.add(String.format(
+                    "Drop summary interval must not be negative; dropSummaryInterval=%s",
+                    builder._dropSummaryInterval));
+        }
+        if (builder._minFreeDiskPercentage > 0 && !builder._indexedRetention) {
+            failures.add(String.format(
+                    "Min free disk percentage requires indexed retention; minFreeDiskPercentage=%d, indexedRetention=%b",
+                    builder._minFreeDiskPercentage,
+                    builder._indexedRetention));
+        }
+        validateIndex(builder, failures);
+        validateBackpressure(builder, failures);
+        validateAdditionalOutputs(builder, failures);
+        validateShards(builder, failures);
+        final long socketBufferSize = FileSize.valueOf(builder._socketBufferSize).getSize();
+        if (socketBufferSize <= 0 || socketBufferSize > Integer.MAX_VALUE) {
+            failures.add(String.format(
+                    "Socket buffer size must be positive and less than 2GB; socketBufferSize=%s",
+                    builder._socketBufferSize));
+        }
+    }
+
+    private static void validateIndex(final BaseFileSink.Builder<?, ?> builder, final List<String> failures) {
+        if (builder._indexIntervalSize != null && FileSize.valueOf(builder._indexIntervalSize).getSize() <= 0) {
+            failures.add(String.format("Index interval size must be positive; indexIntervalSize=%s", builder._indexIntervalSize));
+        }
+        if (builder._indexInterval != null && (builder._indexInterval.isNegative() || builder._indexInterval.toMillis() == 0)) {
+            failures.add(String.format("Index interval must be at least one millisecond; indexInterval=%s", builder._indexInterval));
+        }
+        if ((builder._indexIntervalSize != null || builder._indexInterval != null) && builder._compress && !builder._streamingCompression) {
+            failures.add(String.format(
+                    "Index requires streaming compression when compressing; compress=%b, streamingCompression=%b",
+                    builder._compress,
+                    builder._streamingCompression));
+        }
+    }
+
+    private static void validateAdditionalOutputs(final BaseFileSink.Builder<?, ?> builder, final List<String> failures) {
+        final List<Path> directories = new ArrayList<>();
+        directories.add(builder._directory.toPath().toAbsolutePath().normalize());
+        for (final FileSinkOutput output : builder._additionalOutputs) {
+            if (!output.getDirectory().isDirectory()) {
+                failures.add(String.format("Output path is not a directory; path=%s", output.getDirectory()));
+            }
+            final Path directory = output.getDirectory().toPath().toAbsolutePath().normalize();
+            if (directories.contains(directory)) {
+                failures.add(String.format("Output directory is not distinct; path=%s", output.getDirectory()));
+            }
+            directories.add(directory);
+        }
+    }
+
+    private static void validateShards(final BaseFileSink.Builder<?, ?> builder, final List<String> failures) {
+        if (builder._shardCount < 1) {
+            failures.add(String.format("Shard count must be positive; shardCount=%d", builder._shardCount));
+        }
+        if (builder._shardCount > 1 && !builder._additionalOutputs.isEmpty()) {
+            failures.add(String.format(
+                    "Sharding does not support additional outputs; shardCount=%d, additionalOutputs=%s",
+                    builder._shardCount,
+                    builder._additionalOutputs));
+        }
+        for (final File directory : builder._shardDirectories) {
+            if (!directory.isDirectory()) {
+                failures.add(String.format("Shard path is not a directory; path=%s", directory));
+            }
+        }
+    }
+
+    private static void validateBackpressure(final BaseFileSink.Builder<?, ?> builder, final List<String> failures) {
+        if (!(builder._overloadQueueFraction > 0 && builder._overloadQueueFraction <= 1)) {
+            failures.add(String.format(
+                    "Overload queue fraction must be greater than 0 and at most 1; overloadQueueFraction=%s",
+                    builder._overloadQueueFraction));
+        }
+        if (builder._overloadWriterLag.isNegative() || builder._overloadWriterLag.isZero()) {
+            failures.add(String.format(
+                    "Overload writer lag must be positive; overloadWriterLag=%s",
+                    builder._overloadWriterLag));
+        }
+    }
+
+    private BuilderValidator() {}
+}
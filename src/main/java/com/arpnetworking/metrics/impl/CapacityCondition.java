@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Condition on which callers of a queueing appender wait for queue
+ * capacity. The writer signals it after taking events from the queue and the
+ * appender signals it when stopped or reconfigured, so that waiting callers
+ * re-evaluate whether they may proceed instead of polling the queue. The
+ * writer also signals it when it finishes writing, so that stopping the
+ * appender waits for the writer in the same way, bounded by a deadline.
+ *
+ * Callers wait on a {@link ReentrantLock} rather than a monitor so that a
+ * blocked caller parks; a virtual thread blocked here releases its carrier
+ * thread. The writer only acquires the lock while callers are waiting.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class CapacityCondition {
+
+    /**
+     * Wait until the caller may proceed. Interrupts do not end the wait but
+     * the interrupt status is preserved.
+     *
+     * @param proceed Whether the caller may proceed; evaluated on each signal.
+     */
+    /* package private */ void await(final BooleanSupplier proceed) {
+        _waiting.incrementAndGet();
+        _lock.lock();
+        try {
+            while (!proceed.getAsBoolean()) {
+                _signalled.awaitUninterruptibly();
+            }
+        } finally {
+            _lock.unlock();
+            _waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Wait until the caller may proceed or the deadline passes. Interrupts do
+     * not end the wait but the interrupt status is preserved.
+     *
+     * @param proceed Whether the caller may proceed; evaluated on each signal.
+     * @param deadlineNanos The deadline in terms of {@link System#nanoTime()}.
+     * @return True if and only if the caller may proceed.
+     */
+    /* package private */ boolean await(final BooleanSupplier proceed, final long deadlineNanos) {
+        boolean interrupted = false;
+        _waiting.incrementAndGet();
+        _lock.lock();
+        try {
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            while (!proceed.getAsBoolean()) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                try {
+                    remainingNanos = _signalled.awaitNanos(remainingNanos);
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                    remainingNanos = deadlineNanos - System.nanoTime();
+                }
+            }
+            return true;
+        } finally {
+            _lock.unlock();
+            _waiting.decrementAndGet();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wake the waiting callers to re-evaluate whether they may proceed.
+     */
+    /* package private */ void signal() {
+        // NOTE: Waiters are counted before evaluating so a signal is never missed
+        if (_waiting.get() > 0) {
+            _lock.lock();
+            try {
+                _signalled.signalAll();
+            } finally {
+                _lock.unlock();
+            }
+        }
+    }
+
+    private final ReentrantLock _lock = new ReentrantLock();
+    private final Condition _signalled = _lock.newCondition();
+    private final AtomicInteger _waiting = new AtomicInteger(0);
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for completing a compressed frame of the active file
+ * with streaming compression; see {@link GzipFrameOutputStream}.
+ *
+ * @author agent (agent at local)
+ */
+@Name("com.arpnetworking.metrics.FileSinkCompressFrame")
+@Label("File Sink Compress Frame")
+@Description("Completing a compressed frame of the active file")
+@Category({"Metrics", "File Sink"})
+@StackTrace(false)
+/* package private */ final class CompressFrameEvent extends Event {
+
+    /* package private */ void setUncompressedBytes(final long value) {
+        _uncompressedBytes = value;
+    }
+
+    /* package private */ void setCompressedBytes(final long value) {
+        _compressedBytes = value;
+    }
+
+    @Label("Uncompressed Bytes")
+    @Description("The number of bytes in the frame before compression")
+    @DataAmount
+    @Name("uncompressedBytes")
+    private long _uncompressedBytes;
+
+    @Label("Compressed Bytes")
+    @Description("The number of bytes in the frame after compression excluding the header and trailer")
+    @DataAmount
+    @Name("compressedBytes")
+    private long _compressedBytes;
+}
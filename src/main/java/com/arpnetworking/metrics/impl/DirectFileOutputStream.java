@@ -0,0 +1,287 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.sun.nio.file.ExtendedOpenOption;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Output stream which appends to a file with direct I/O so that the bytes
+ * written do not pollute the page cache. Direct I/O requires that the
+ * buffer, the file position and the length of every write are aligned to
+ * the block size of the filesystem, so bytes are accumulated in an aligned
+ * direct buffer from an {@link AlignedBufferPool} and written in whole
+ * blocks.
+ *
+ * On flush the whole blocks are written with direct I/O and the final
+ * partial block is written through a second channel opened without direct
+ * I/O, so the file never extends past the bytes written and a reader
+ * following it never observes padding. The partial block is carried over
+ * in the buffer and written again with direct I/O, at the same aligned
+ * position, once the bytes which follow it complete the block; a direct
+ * write first writes back and then invalidates the cached pages it covers,
+ * so the two channels remain coherent. Consequently each flush of a partial
+ * block also costs a write through the page cache; sinks without immediate
+ * flush amortize this over many events. The second channel is opened on
+ * the first such flush. Forcing {@link #getChannel()} also forces the bytes
+ * written through it since both channels refer to the same file.
+ *
+ * Unlike a {@link java.io.FileOutputStream}, I/O on a file channel from an
+ * interrupted thread closes the channel; the writer thread is interrupted
+ * when an asynchronous sink is stopped. The interrupt status is therefore
+ * cleared for the duration of each read and write and restored after it.
+ *
+ * When opened the partial block at the end of an existing file is read
+ * into the buffer so that appending preserves it; the channel is closed if
+ * this fails. The buffer is at least {@link #MIN_BUFFER_SIZE} bytes since
+ * each write of the buffer waits for the storage device.
+ *
+ * This class is not thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class DirectFileOutputStream extends OutputStream {
+
+    /**
+     * Open a file for appending with direct I/O.
+     *
+     * @param file The existing file to append to.
+     * @param bufferSize The minimum size of the buffer in bytes.
+     * @return The output stream.
+     * @throws IOException If the file could not be opened or the filesystem does not support direct I/O.
+     * @throws UnsupportedOperationException If the platform does not support direct I/O.
+     */
+    /* package private */ static DirectFileOutputStream open(final File file, final long bufferSize) throws IOException {
+        final Path path = file.toPath();
+        final int blockSize = Math.toIntExact(Files.getFileStore(path).getBlockSize());
+        final FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                ExtendedOpenOption.DIRECT);
+        return new DirectFileOutputStream(channel, path, blockSize, bufferSize, BUFFER_POOL);
+    }
+
+    /* package private */ DirectFileOutputStream(
+            final FileChannel channel,
+            final Path path,
+            final int blockSize,
+            final long bufferSize,
+            final AlignedBufferPool pool) throws IOException {
+        final long capacity = Math.max(bufferSize, MIN_BUFFER_SIZE) + blockSize - 1;
+        _channel = channel;
+        _path = path;
+        _blockSize = blockSize;
+        _pool = pool;
+        _buffer = pool.acquire(Math.toIntExact(capacity - capacity % blockSize), blockSize);
+        try {
+            readPartialBlock();
+        } catch (final IOException e) {
+            pool.release(_buffer);
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        ensureOpen();
+        _buffer.put((byte) value);
+        if (!_buffer.hasRemaining()) {
+            writeFullBuffer();
+        }
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        ensureOpen();
+        int written = 0;
+        while (written < length) {
+            final int chunk = Math.min(length - written, _buffer.remaining());
+            _buffer.put(bytes, offset + written, chunk);
+            written += chunk;
+            if (!_buffer.hasRemaining()) {
+                writeFullBuffer();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        final int length = _buffer.position();
+        if (length == _flushedLength) {
+            return;
+        }
+        final int wholeLength = length - length % _blockSize;
+        final int tailOffset = Math.max(wholeLength, _flushedLength);
+        // NOTE: I/O on an interrupted thread closes the channel so the interrupt is deferred until after it
+        final boolean interrupted = Thread.interrupted();
+        try {
+            if (wholeLength > 0) {
+                _buffer.flip().limit(wholeLength);
+                writeDirect();
+            }
+            if (tailOffset < length) {
+                _buffer.limit(length).position(tailOffset);
+                writeTail(_position + tailOffset);
+            }
+        } finally {
+            restoreInterrupt(interrupted);
+        }
+
+        // NOTE: The partial block is carried over to be written again with the bytes which follow it
+        _buffer.limit(length).position(wholeLength);
+        _buffer.compact();
+        _position += wholeLength;
+        _flushedLength = length - wholeLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (_closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            _closed = true;
+            _pool.release(_buffer);
+            closeChannels();
+        }
+    }
+
+    /* package private */ FileChannel getChannel() {
+        return _channel;
+    }
+
+    /* package private */ int getBlockSize() {
+        return _blockSize;
+    }
+
+    /* package private */ int getBufferCapacity() {
+        return _buffer.capacity();
+    }
+
+    private void readPartialBlock() throws IOException {
+        final boolean interrupted = Thread.interrupted();
+        try {
+            final long size = _channel.size();
+            final int partialLength = (int) (size % _blockSize);
+            _position = size - partialLength;
+            if (partialLength > 0) {
+                _buffer.limit(_blockSize);
+                if (_channel.read(_buffer, _position) < partialLength) {
+                    throw new IOException(String.format("Failed to read partial block; position=%d", _position));
+                }
+                _buffer.limit(_buffer.capacity()).position(partialLength);
+            }
+            _flushedLength = partialLength;
+        } finally {
+            restoreInterrupt(interrupted);
+        }
+    }
+
+    private void writeFullBuffer() throws IOException {
+        _buffer.flip();
+        final boolean interrupted = Thread.interrupted();
+        try {
+            writeDirect();
+        } finally {
+            restoreInterrupt(interrupted);
+        }
+        _position += _buffer.limit();
+        _buffer.clear();
+        _flushedLength = 0;
+    }
+
+    private void writeDirect() throws IOException {
+        long offset = _position;
+        while (_buffer.hasRemaining()) {
+            offset += _channel.write(_buffer, offset);
+        }
+    }
+
+    private void writeTail(final long position) throws IOException {
+        if (_tailChannel == null) {
+            _tailChannel = FileChannel.open(_path, StandardOpenOption.WRITE);
+        }
+        long offset = position;
+        while (_buffer.hasRemaining()) {
+            offset += _tailChannel.write(_buffer, offset);
+        }
+    }
+
+    private void closeChannels() throws IOException {
+        try {
+            if (_tailChannel != null) {
+                _tailChannel.close();
+            }
+        } finally {
+            _channel.close();
+        }
+    }
+
+    private static void restoreInterrupt(final boolean interrupted) {
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (_closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private final FileChannel _channel;
+    private final Path _path;
+    private final int _blockSize;
+    private final AlignedBufferPool _pool;
+    private final ByteBuffer _buffer;
+    private FileChannel _tailChannel;
+    private long _position;
+    private int _flushedLength;
+    private boolean _closed = false;
+
+    /* package private */ static final int MIN_BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 8;
+    private static final AlignedBufferPool BUFFER_POOL = new AlignedBufferPool(MAX_POOLED_BUFFERS);
+
+    /**
+     * Opens a file for appending with direct I/O.
+     */
+    /* package private */ interface Opener {
+
+        /**
+         * Open a file for appending with direct I/O.
+         *
+         * @param file The file to append to.
+         * @param bufferSize The minimum size of the buffer in bytes.
+         * @return The output stream.
+         * @throws IOException If the file could not be opened with direct I/O.
+         */
+        DirectFileOutputStream open(File file, long bufferSize) throws IOException;
+    }
+}
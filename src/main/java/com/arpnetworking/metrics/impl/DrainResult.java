@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+/**
+ * Outcome of closing one or more file sinks: the number of events which
+ * were queued when closing started and were written, and the number which
+ * were abandoned because the deadline expired.
+ *
+ * This class is immutable.
+ *
+ * @author agent (agent at local)
+ */
+public final class DrainResult {
+
+    /**
+     * The number of queued events which were written.
+     *
+     * @return The number of queued events which were written.
+     */
+    public long getWrittenCount() {
+        return _writtenCount;
+    }
+
+    /**
+     * The number of queued events which were abandoned. This is an
+     * approximation as events recorded concurrently with closing are not
+     * accounted for.
+     *
+     * @return The number of queued events which were abandoned.
+     */
+    public long getAbandonedCount() {
+        return _abandonedCount;
+    }
+
+    /**
+     * Whether all queued events were written.
+     *
+     * @return True if and only if no queued events were abandoned.
+     */
+    public boolean isComplete() {
+        return _abandonedCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "DrainResult{WrittenCount=%d, AbandonedCount=%d}",
+                _writtenCount,
+                _abandonedCount);
+    }
+
+    /* package private */ DrainResult add(final DrainResult other) {
+        return new DrainResult(_writtenCount + other._writtenCount, _abandonedCount + other._abandonedCount);
+    }
+
+    /* package private */ DrainResult(final long writtenCount, final long abandonedCount) {
+        _writtenCount = writtenCount;
+        _abandonedCount = abandonedCount;
+    }
+
+    private final long _writtenCount;
+    private final long _abandonedCount;
+
+    /* package private */ static final DrainResult EMPTY = new DrainResult(0, 0);
+}
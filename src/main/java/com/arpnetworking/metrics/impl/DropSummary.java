@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.time.Instant;
+import javax.annotation.Nullable;
+
+/**
+ * Creates the drop summary records a file sink writes into its own file.
+ * A record is created only for intervals in which events were dropped, so
+ * a sink which drops nothing writes nothing and its record path is not
+ * affected. Each record is a single line of JSON which identifies itself
+ * and covers the interval since the summary was last checked:
+ *
+ * <pre>{@code
+ * {"type":"dropSummary","version":"1","start":"2026-01-01T00:00:00Z","end":"2026-01-01T00:01:00Z",
+ *  "dropped":{"queueFull":12,"serializationFailure":0,"ioError":0},
+ *  "totalDropped":{"queueFull":15,"serializationFailure":1,"ioError":0}}
+ * }</pre>
+ *
+ * The drops in the interval allow consumers to correct or flag the affected
+ * window; the totals since the sink was created allow a consumer to detect
+ * drops reported by a record which was itself lost.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class DropSummary {
+
+    /* package private */ DropSummary(final SinkInstrumentation instrumentation, final Instant start) {
+        _instrumentation = instrumentation;
+        _start = start;
+    }
+
+    /**
+     * Create the record for the interval ending now.
+     *
+     * @param now The end of the interval.
+     * @return The record or {@code null} if no events were dropped in the interval.
+     */
+    @Nullable
+    /* package private */ synchronized String createRecord(final Instant now) {
+        final long queueFullCount = _instrumentation.getDiscardedCount();
+        final long serializationFailureCount = _instrumentation.getSerializationFailureCount();
+        final long ioErrorCount = _instrumentation.getIoErrorCount();
+        final Instant start = _start;
+        _start = now;
+        if (queueFullCount == _queueFullCount
+                && serializationFailureCount == _serializationFailureCount
+                && ioErrorCount == _ioErrorCount) {
+            return null;
+        }
+        final String record = String.format(
+                "{\"type\":\"dropSummary\",\"version\":\"%s\",\"start\":\"%s\",\"end\":\"%s\","
+                        + "\"dropped\":{\"queueFull\":%d,\"serializationFailure\":%d,\"ioError\":%d},"
+                        + "\"totalDropped\":{\"queueFull\":%d,\"serializationFailure\":%d,\"ioError\":%d}}",
+                VERSION,
+                start,
+                now,
+                queueFullCount - _queueFullCount,
+                serializationFailureCount - _serializationFailureCount,
+                ioErrorCount - _ioErrorCount,
+                queueFullCount,
+                serializationFailureCount,
+                ioErrorCount);
+        _queueFullCount = queueFullCount;
+        _serializationFailureCount = serializationFailureCount;
+        _ioErrorCount = ioErrorCount;
+        return record;
+    }
+
+    private final SinkInstrumentation _instrumentation;
+    private Instant _start;
+    private long _queueFullCount = 0;
+    private long _serializationFailureCount = 0;
+    private long _ioErrorCount = 0;
+
+    private static final String VERSION = "1";
+}
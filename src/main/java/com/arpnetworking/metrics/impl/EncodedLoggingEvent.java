@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Logging event of a serialized event which is encoded at most once. A
+ * file sink with several outputs passes the same instance to each output's
+ * appenders; the first {@link RecordEncoder} to encode it retains the bytes
+ * and the other outputs write the same bytes by reference instead of
+ * encoding the event again. Writers only read the bytes.
+ *
+ * The event may contain several serialized events, one per line, which are
+ * queued and written as a single entry; the number of serialized events is
+ * retained so that they are counted individually.
+ *
+ * This class is thread safe; outputs encoding the event concurrently may
+ * each encode it, in which case the first result is retained.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class EncodedLoggingEvent extends LoggingEvent {
+
+    /* package private */ EncodedLoggingEvent(final Logger logger, final String serializedEvents, final int eventCount) {
+        super(FQCN, logger, Level.INFO, serializedEvents, null, null);
+        _eventCount = eventCount;
+    }
+
+    /**
+     * Return the number of serialized events in a logging event.
+     *
+     * @param event The logging event.
+     * @return The number of serialized events; one unless the logging event is an {@link EncodedLoggingEvent}.
+     */
+    /* package private */ static int getEventCount(final Object event) {
+        return event instanceof EncodedLoggingEvent ? ((EncodedLoggingEvent) event)._eventCount : 1;
+    }
+
+    /* package private */ byte[] encode(final Function<EncodedLoggingEvent, byte[]> encoder) {
+        @Nullable final byte[] encoded = _encoded.get();
+        if (encoded != null) {
+            return encoded;
+        }
+        _encoded.compareAndSet(null, encoder.apply(this));
+        return _encoded.get();
+    }
+
+    private final int _eventCount;
+    private final AtomicReference<byte[]> _encoded = new AtomicReference<>();
+
+    private static final String FQCN = EncodedLoggingEvent.class.getName();
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * View of an event decoded from a file sink's "2f" records by a
+ * {@link SegmentReader}. The view is reused for each record read so it and
+ * the maps and lists it returns are only valid until the next record is
+ * read; copy any values that are needed afterwards.
+ *
+ * This class is not thread safe.
+ *
+ * @author agent (agent at local)
+ */
+public final class EventView {
+
+    /**
+     * The annotations of the event.
+     *
+     * @return The annotations by name.
+     */
+    public Map<String, String> getAnnotations() {
+        return Collections.unmodifiableMap(_annotations);
+    }
+
+    /**
+     * The counter samples of the event.
+     *
+     * @return The samples by counter name.
+     */
+    public Map<String, List<Number>> getCounters() {
+        return Collections.unmodifiableMap(_counters);
+    }
+
+    /**
+     * The gauge samples of the event.
+     *
+     * @return The samples by gauge name.
+     */
+    public Map<String, List<Number>> getGauges() {
+        return Collections.unmodifiableMap(_gauges);
+    }
+
+    /**
+     * The timer samples of the event.
+     *
+     * @return The samples by timer name.
+     */
+    public Map<String, List<Number>> getTimers() {
+        return Collections.unmodifiableMap(_timers);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "EventView{Annotations=%s, Counters=%s, Gauges=%s, Timers=%s}",
+                _annotations,
+                _counters,
+                _gauges,
+                _timers);
+    }
+
+    /* package private */ EventView() {}
+
+    /* package private */ EventView copy() {
+        final EventView copy = new EventView();
+        copy._annotations.putAll(_annotations);
+        copyMetrics(_counters, copy._counters);
+        copyMetrics(_gauges, copy._gauges);
+        copyMetrics(_timers, copy._timers);
+        return copy;
+    }
+
+    /**
+     * The time in an annotation of the event.
+     *
+     * @param annotation The name of the annotation.
+     * @return The ISO-8601 time in the annotation or null if the annotation
+     * is missing or not a valid time.
+     */
+    @Nullable
+    /* package private */ Instant getTime(final String annotation) {
+        final String value = _annotations.get(annotation);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (final DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /* package private */ void annotate(final String name, final String value) {
+        _annotations.put(name, value);
+    }
+
+    /* package private */ List<Number> newCounter(final String name) {
+        return newMetric(_counters, name);
+    }
+
+    /* package private */ List<Number> newGauge(final String name) {
+        return newMetric(_gauges, name);
+    }
+
+    /* package private */ List<Number> newTimer(final String name) {
+        return newMetric(_timers, name);
+    }
+
+    /* package private */ void reset() {
+        _annotations.clear();
+        recycle(_counters);
+        recycle(_gauges);
+        recycle(_timers);
+    }
+
+    private List<Number> newMetric(final Map<String, List<Number>> metrics, final String name) {
+        List<Number> samples = _pool.pollFirst();
+        if (samples == null) {
+            samples = new ArrayList<>();
+        }
+        metrics.put(name, samples);
+        return samples;
+    }
+
+    private static void copyMetrics(final Map<String, List<Number>> source, final Map<String, List<Number>> target) {
+        for (final Map.Entry<String, List<Number>> entry : source.entrySet()) {
+            target.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+    }
+
+    private void recycle(final Map<String, List<Number>> metrics) {
+        for (final List<Number> samples : metrics.values()) {
+            samples.clear();
+            _pool.addFirst(samples);
+        }
+        metrics.clear();
+    }
+
+    private final Map<String, String> _annotations = new LinkedHashMap<>();
+    private final Map<String, List<Number>> _counters = new LinkedHashMap<>();
+    private final Map<String, List<Number>> _gauges = new LinkedHashMap<>();
+    private final Map<String, List<Number>> _timers = new LinkedHashMap<>();
+    // NOTE: Sample lists of previous records are reused to avoid allocation
+    private final Deque<List<Number>> _pool = new ArrayDeque<>();
+}
@@ -31,6 +31,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  * Implementation of {@link com.arpnetworking.metrics.Sink} for the query log file.
@@ -41,15 +42,114 @@ public class FileSink extends BaseFileSink {
 
     @Override
     public void record(final Event event) {
+        final RecordEvent recordEvent = new RecordEvent();
+        recordEvent.begin();
+        final long startNanos = System.nanoTime();
+        final String serializedEvent = serialize(event);
+        if (serializedEvent == null) {
+            return;
+        }
+        enqueue(event, serializedEvent, System.nanoTime() - startNanos);
+        if (recordEvent.shouldCommit()) {
+            recordEvent.setBytes(getEncodedLength(serializedEvent));
+            recordEvent.commit();
+        }
+    }
+
+    /**
+     * Record a batch of events. The events are serialized into one buffer
+     * per output, or per shard of a sharded sink, which is queued and
+     * written as a single entry instead of one entry per event. The events
+     * of a batch are therefore queued, written and, if the queue is full,
+     * dropped together, although the sink's statistics count each event.
+     * The batch mode determines whether an event which cannot be serialized
+     * drops the whole batch or only that event.
+     *
+     * @param events The events to record.
+     * @param batchMode The {@link BatchMode} of the batch.
+     */
+    public void recordAll(final Collection<? extends Event> events, final BatchMode batchMode) {
+        final RecordEvent recordEvent = new RecordEvent();
+        recordEvent.begin();
+        final long startNanos = System.nanoTime();
+        final StringBuilder[] batches = new StringBuilder[getShardCount()];
+        final int[] eventCounts = new int[batches.length];
+        final boolean measureBytes = recordEvent.isEnabled();
+        int bytes = 0;
+        for (final Event event : events) {
+            final String serializedEvent = serialize(event);
+            if (serializedEvent == null) {
+                if (batchMode == BatchMode.ALL_OR_NOTHING) {
+                    dropAll(events, event);
+                    return;
+                }
+                continue;
+            }
+            final int shard = route(event);
+            if (batches[shard] == null) {
+                batches[shard] = new StringBuilder(serializedEvent);
+            } else {
+                batches[shard].append(LINE_SEPARATOR).append(serializedEvent);
+            }
+            ++eventCounts[shard];
+            if (measureBytes) {
+                bytes += getEncodedLength(serializedEvent);
+            }
+        }
+        final long serializationNanos = System.nanoTime() - startNanos;
+        for (int shard = 0; shard < batches.length; ++shard) {
+            if (batches[shard] != null) {
+                enqueue(shard, batches[shard].toString(), eventCounts[shard], serializationNanos);
+            }
+        }
+        if (recordEvent.shouldCommit()) {
+            recordEvent.setBytes(bytes);
+            recordEvent.commit();
+        }
+    }
+
+    private void dropAll(final Collection<? extends Event> events, final Event failedEvent) {
+        // NOTE: The failed event was counted when its serialization failed
+        for (final Event event : events) {
+            if (event != failedEvent) {
+                onSerializationFailure(event);
+            }
+        }
+    }
+
+    @Nullable
+    private String serialize(final Event event) {
+        final SerializeEvent serializeEvent = new SerializeEvent();
+        serializeEvent.begin();
+        final String serializedEvent;
         try {
-            getMetricsLogger().info(_objectMapper.writeValueAsString(event));
+            serializedEvent = _objectMapper.writeValueAsString(event);
         } catch (final IOException e) {
             _logger.warn("Exception recording event", e);
+            onSerializationFailure(event);
+            return null;
+        }
+        if (serializeEvent.shouldCommit()) {
+            serializeEvent.setBytes(getEncodedLength(serializedEvent));
+            serializeEvent.commit();
+        }
+        return serializedEvent;
+    }
+
+    private static int getEncodedLength(final String value) {
+        // NOTE: The length encoded as UTF-8 without encoding; a surrogate pair encodes to four bytes
+        int length = value.length();
+        for (int i = 0; i < value.length(); ++i) {
+            final char character = value.charAt(i);
+            if (character >= 0x80) {
+                length += character < 0x800 || Character.isSurrogate(character) ? 1 : 2;
+            }
         }
+        return length;
     }
 
     private static Encoder<ILoggingEvent> createEncoder() {
-        final PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        final PatternLayoutEncoder encoder = new RecordEncoder();
         encoder.setPattern("%msg%n");
         return encoder;
     }
@@ -70,9 +170,15 @@ public class FileSink extends BaseFileSink {
         _logger = logger;
     }
 
+    // NOTE: Package private for testing
+    /* package private */ static ObjectMapper getObjectMapper() {
+        return OBJECT_MAPPER;
+    }
+
     private final ObjectMapper _objectMapper;
     private final org.slf4j.Logger _logger;
 
+    private static final String LINE_SEPARATOR = System.lineSeparator();
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(FileSink.class);
 
@@ -84,6 +190,24 @@ public class FileSink extends BaseFileSink {
         OBJECT_MAPPER.registerModule(simpleModule);
     }
 
+    /**
+     * How {@link FileSink#recordAll(Collection, BatchMode)} handles events
+     * of a batch which cannot be serialized.
+     */
+    public enum BatchMode {
+        /**
+         * The whole batch is dropped if any of its events cannot be
+         * serialized; each of its events is counted as a serialization
+         * failure.
+         */
+        ALL_OR_NOTHING,
+        /**
+         * Only the events which cannot be serialized are dropped; the
+         * other events of the batch are recorded.
+         */
+        PER_EVENT
+    }
+
     private static final class EventSerializer extends JsonSerializer<Event> {
 
         public static JsonSerializer<Event> newInstance() {
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.core.recovery.ResilientFileOutputStream;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeAndTimeBasedFNATP;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.util.FileSize;
+import ch.qos.logback.core.util.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Extension of Logback's {@link RollingFileAppender} for file sinks. When
+ * streaming compression is enabled the active file is written as a sequence
+ * of independently decompressible gzip frames; see
+ * {@link GzipFrameOutputStream}. A frame is finished when it reaches
+ * {@link #MAX_FRAME_SIZE} uncompressed bytes, by a periodic task once it is
+ * older than {@link #FRAME_FLUSH_INTERVAL_IN_MILLIS}, or on sync; not on
+ * every flush, so that immediate flush does not write a frame per event.
+ *
+ * When an index interval is configured a sparse {@link SegmentIndex} of
+ * the active file is written by an {@link IndexingOutputStream}.
+ *
+ * When a {@link FileSinkConfiguration} is provided the max file size and
+ * immediate flush are applied from it before the first event written after
+ * each change.
+ *
+ * Before appending to an existing file a partial record, or a partial
+ * frame if the file is written with streaming compression, left by a torn
+ * write is quarantined; see {@link TornWriteRecovery}.
+ *
+ * When direct I/O is enabled the file is written with a
+ * {@link DirectFileOutputStream}. If the filesystem or platform does not
+ * support direct I/O a warning is reported and this and subsequent files
+ * are written through the page cache.
+ *
+ * When sync on stop is enabled the file is flushed and forced to the
+ * storage device before it is closed on stop.
+ *
+ * Writes, flushes and rolls are reported to the {@link SinkInstrumentation}.
+ * The file is opened as a {@link FileSinkOutputStream} so that writes lost
+ * to I/O errors are reported as dropped events.
+ *
+ * @param <E> The type of event.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ class FileSinkAppender<E> extends RollingFileAppender<E> {
+
+    /* package private */ FileSinkAppender(
+            final boolean streamingCompression,
+            final boolean syncOnStop,
+            final SinkInstrumentation instrumentation) {
+        this(streamingCompression, syncOnStop, instrumentation, 0, 0);
+    }
+
+    /* package private */ FileSinkAppender(
+            final boolean streamingCompression,
+            final boolean syncOnStop,
+            final SinkInstrumentation instrumentation,
+            final long indexIntervalInBytes,
+            final long indexIntervalInMillis) {
+        this(streamingCompression, syncOnStop, instrumentation, indexIntervalInBytes, indexIntervalInMillis, null);
+    }
+
+    /* package private */ FileSinkAppender(
+            final boolean streamingCompression,
+            final boolean syncOnStop,
+            final SinkInstrumentation instrumentation,
+            final long indexIntervalInBytes,
+            final long indexIntervalInMillis,
+            @Nullable final Supplier<FileSinkConfiguration> configuration) {
+        _streamingCompression = streamingCompression;
+        _syncOnStop = syncOnStop;
+        _instrumentation = instrumentation;
+        _indexIntervalInBytes = indexIntervalInBytes;
+        _indexIntervalInMillis = indexIntervalInMillis;
+        _configuration = configuration;
+    }
+
+    @Override
+    public void openFile(final String fileName) throws IOException {
+        lock.lock();
+        try {
+            final File file = new File(fileName);
+            if (!FileUtil.createMissingParentDirectories(file)) {
+                addError("Failed to create parent directories for [" + file.getAbsolutePath() + "]");
+            }
+            if (isAppend()) {
+                try {
+                    if (_streamingCompression) {
+                        TornWriteRecovery.recoverCompressed(file, TornWriteRecovery.MAX_SCAN_SIZE);
+                    } else {
+                        TornWriteRecovery.recover(file, TornWriteRecovery.MAX_SCAN_SIZE);
+                    }
+                } catch (final IOException e) {
+                    addError("Failed to recover torn write from [" + file.getAbsolutePath() + "]", e);
+                }
+            }
+            final FileSinkOutputStream outputStream = new FileSinkOutputStream(file, isAppend(), _bufferSize.getSize());
+            if (_directIoOpener != null) {
+                try {
+                    outputStream.useDirectIo(_directIoOpener, _bufferSize.getSize());
+                } catch (final IOException | UnsupportedOperationException e) {
+                    addWarn("Direct I/O is not supported for [" + file.getAbsolutePath() + "]; writing through the page cache", e);
+                    _directIoOpener = null;
+                }
+            }
+            outputStream.setContext(context);
+            setOutputStream(outputStream);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void setBufferSize(final FileSize bufferSize) {
+        super.setBufferSize(bufferSize);
+        _bufferSize = bufferSize;
+    }
+
+    /**
+     * Set whether files are written with direct I/O.
+     *
+     * @param directIo Whether to write files with direct I/O.
+     */
+    public void setDirectIo(final boolean directIo) {
+        setDirectIoOpener(directIo ? DirectFileOutputStream::open : null);
+    }
+
+    /* package private */ void setDirectIoOpener(@Nullable final DirectFileOutputStream.Opener opener) {
+        _directIoOpener = opener;
+    }
+
+    @Override
+    public void setOutputStream(final OutputStream outputStream) {
+        if (outputStream instanceof ResilientFileOutputStream) {
+            _fileOutputStream = (ResilientFileOutputStream) outputStream;
+        }
+        @Nullable final FileSinkOutputStream fileSinkOutputStream = outputStream instanceof FileSinkOutputStream
+                ? (FileSinkOutputStream) outputStream
+                : null;
+        OutputStream delegate = outputStream;
+        if (_streamingCompression) {
+            _frameOutputStream = new GzipFrameOutputStream(outputStream, MAX_FRAME_SIZE);
+            delegate = _frameOutputStream;
+        }
+        if (fileSinkOutputStream != null && (_indexIntervalInBytes > 0 || _indexIntervalInMillis > 0)) {
+            delegate = new IndexingOutputStream(
+                    delegate,
+                    fileSinkOutputStream,
+                    _frameOutputStream,
+                    _indexIntervalInBytes,
+                    _indexIntervalInMillis);
+        }
+        super.setOutputStream(new InstrumentedOutputStream(
+                delegate,
+                fileSinkOutputStream,
+                _instrumentation,
+                () -> _eventCount.get()[0]));
+    }
+
+    @Override
+    protected void subAppend(final E event) {
+        if (_configuration != null && _configuration.get() != _appliedConfiguration) {
+            applyConfiguration(_configuration);
+        }
+        // NOTE: Logback encodes and writes the event on this thread within subAppend
+        _eventCount.get()[0] = EncodedLoggingEvent.getEventCount(event);
+        super.subAppend(event);
+    }
+
+    @Override
+    public void rollover() {
+        final RollEvent rollEvent = new RollEvent();
+        rollEvent.begin();
+        final String file = getFile();
+        final long startNanos = System.nanoTime();
+        super.rollover();
+        _instrumentation.onRoll(System.nanoTime() - startNanos);
+        rollEvent.setFile(file);
+        rollEvent.commit();
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        if (isStarted() && _streamingCompression) {
+            _frameFlushFuture = getContext().getScheduledExecutorService().scheduleAtFixedRate(
+                    this::flushStaleFrame,
+                    FRAME_FLUSH_INTERVAL_IN_MILLIS,
+                    FRAME_FLUSH_INTERVAL_IN_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (_syncOnStop && isStarted()) {
+            sync();
+        }
+        if (_frameFlushFuture != null) {
+            _frameFlushFuture.cancel(false);
+            _frameFlushFuture = null;
+        }
+        super.stop();
+    }
+
+    /* package private */ void flushStaleFrame() {
+        lock.lock();
+        try {
+            if (_frameOutputStream != null) {
+                final FlushEvent flushEvent = new FlushEvent();
+                flushEvent.begin();
+                final long startNanos = System.nanoTime();
+                if (_frameOutputStream.flushIfOlderThan(TimeUnit.MILLISECONDS.toNanos(FRAME_FLUSH_INTERVAL_IN_MILLIS))) {
+                    _instrumentation.onFlush(System.nanoTime() - startNanos);
+                    flushEvent.commit();
+                }
+            }
+        } catch (final IOException e) {
+            addError("Failed to flush compressed frame", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void applyConfiguration(final Supplier<FileSinkConfiguration> supplier) {
+        // NOTE: Lock ordering matches rolling; the triggering policy then the output stream
+        synchronized (getTriggeringPolicy()) {
+            lock.lock();
+            try {
+                // NOTE: Read again under the locks so that a concurrent writer cannot apply an older configuration
+                final FileSinkConfiguration configuration = supplier.get();
+                // NOTE: The rolling policy is always size and time based when configured by the sink
+                final TimeBasedRollingPolicy<?> rollingPolicy = (TimeBasedRollingPolicy<?>) getRollingPolicy();
+                ((SizeAndTimeBasedFNATP<?>) rollingPolicy.getTimeBasedFileNamingAndTriggeringPolicy())
+                        .setMaxFileSize(configuration.getMaxFileSizeInBytes());
+                setImmediateFlush(configuration.isImmediateFlush());
+                _appliedConfiguration = configuration;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /* package private */ void sync() {
+        lock.lock();
+        try {
+            if (_frameOutputStream != null) {
+                _frameOutputStream.finishFrame();
+            }
+            final OutputStream outputStream = getOutputStream();
+            if (outputStream != null) {
+                outputStream.flush();
+            }
+            if (_fileOutputStream != null) {
+                _fileOutputStream.getChannel().force(true);
+            }
+        } catch (final IOException e) {
+            addError("Failed to sync file", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final boolean _streamingCompression;
+    private final boolean _syncOnStop;
+    private final SinkInstrumentation _instrumentation;
+    private final long _indexIntervalInBytes;
+    private final long _indexIntervalInMillis;
+    // NOTE: The number of events in the entry the calling thread is writing
+    private final ThreadLocal<int[]> _eventCount = ThreadLocal.withInitial(() -> new int[] {1});
+    @Nullable
+    private final Supplier<FileSinkConfiguration> _configuration;
+    @Nullable
+    private volatile FileSinkConfiguration _appliedConfiguration;
+    @Nullable
+    private ResilientFileOutputStream _fileOutputStream;
+    @Nullable
+    private GzipFrameOutputStream _frameOutputStream;
+    private FileSize _bufferSize = new FileSize(DEFAULT_BUFFER_SIZE);
+    @Nullable
+    private DirectFileOutputStream.Opener _directIoOpener;
+    @Nullable
+    private ScheduledFuture<?> _frameFlushFuture;
+
+    /* package private */ static final int MAX_FRAME_SIZE = 64 * 1024;
+    /* package private */ static final long FRAME_FLUSH_INTERVAL_IN_MILLIS = 1000;
+}
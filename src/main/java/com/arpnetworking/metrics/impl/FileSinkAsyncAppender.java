@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.util.function.Supplier;
+
+/**
+ * Extension of Logback's {@link AsyncAppender} for file sinks which reports
+ * events discarded because the queue is full to the
+ * {@link SinkInstrumentation}.
+ *
+ * The queue is allocated with the queue size the sink was built with, while
+ * the discarding threshold and the number of events which may be queued
+ * before the caller blocks follow the sink's current
+ * {@link FileSinkConfiguration}.
+ *
+ * Callers blocked on a reduced max queue size wait on a
+ * {@link CapacityCondition} signalled as Logback's worker takes events, when
+ * the sink is reconfigured and when this appender stops. Since the worker
+ * offers no hook of its own the attached appender is wrapped to signal it;
+ * {@link #getAppender(String)} returns the attached appender itself. Events
+ * appended once it has stopped are discarded.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ class FileSinkAsyncAppender extends AsyncAppender implements QueueingAppender {
+
+    /* package private */ FileSinkAsyncAppender(
+            final SinkInstrumentation instrumentation,
+            final Supplier<FileSinkConfiguration> configuration) {
+        _instrumentation = instrumentation;
+        _configuration = configuration;
+        // NOTE: Discarding is decided by append from the current configuration
+        super.setDiscardingThreshold(0);
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        _capacity.signal();
+    }
+
+    @Override
+    public void addAppender(final Appender<ILoggingEvent> appender) {
+        final SignallingAppender signallingAppender = new SignallingAppender(appender, _capacity);
+        signallingAppender.start();
+        super.addAppender(signallingAppender);
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(final String name) {
+        final Appender<ILoggingEvent> appender = super.getAppender(name);
+        if (appender instanceof SignallingAppender) {
+            return ((SignallingAppender) appender)._delegate;
+        }
+        return appender;
+    }
+
+    @Override
+    public void onReconfigure() {
+        _capacity.signal();
+    }
+
+    @Override
+    public int getDiscardingThreshold() {
+        return _configuration.get().getDiscardingThreshold();
+    }
+
+    @Override
+    protected void append(final ILoggingEvent event) {
+        final FileSinkConfiguration configuration = _configuration.get();
+        // NOTE: The queue may exceed a reduced max queue size until it is written
+        final int remainingCapacity = Math.max(0, configuration.getMaxQueueSize() - getNumberOfElementsInQueue());
+        if (remainingCapacity < configuration.getDiscardingThreshold()
+                && isDiscardable(event)) {
+            return;
+        }
+        if (configuration.getMaxQueueSize() < getQueueSize() && !awaitCapacity()) {
+            _instrumentation.onDiscard(EncodedLoggingEvent.getEventCount(event));
+            return;
+        }
+        super.append(event);
+    }
+
+    @Override
+    protected boolean isDiscardable(final ILoggingEvent event) {
+        // NOTE: Only consulted once the queue is below the discarding threshold
+        final boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            _instrumentation.onDiscard(EncodedLoggingEvent.getEventCount(event));
+        }
+        return discardable;
+    }
+
+    private boolean awaitCapacity() {
+        // NOTE: The queue only blocks when full at its allocated size
+        _capacity.await(() -> !isStarted() || getNumberOfElementsInQueue() < _configuration.get().getMaxQueueSize());
+        return isStarted();
+    }
+
+    private final SinkInstrumentation _instrumentation;
+    private final Supplier<FileSinkConfiguration> _configuration;
+    private final CapacityCondition _capacity = new CapacityCondition();
+
+    /**
+     * Appender attached in place of the sink's appender which signals
+     * capacity as the worker takes each event and then forwards it.
+     */
+    private static final class SignallingAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+        SignallingAppender(final Appender<ILoggingEvent> delegate, final CapacityCondition capacity) {
+            _delegate = delegate;
+            _capacity = capacity;
+            setContext(delegate.getContext());
+            setName(delegate.getName());
+        }
+
+        @Override
+        public void stop() {
+            super.stop();
+            _delegate.stop();
+        }
+
+        @Override
+        protected void append(final ILoggingEvent event) {
+            _capacity.signal();
+            _delegate.doAppend(event);
+        }
+
+        private final Appender<ILoggingEvent> _delegate;
+        private final CapacityCondition _capacity;
+    }
+}
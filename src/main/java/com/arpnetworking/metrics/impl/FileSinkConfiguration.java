@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * The settings of a file sink which can be changed while it is running; see
+ * {@link BaseFileSink#reconfigure(FileSinkConfiguration)}. The settings are
+ * published as a single snapshot which the sink's appenders read once per
+ * event, so each event is queued, flushed and rolled according to one
+ * consistent configuration and producers are never paused. A change takes
+ * effect from the next event recorded or written.
+ *
+ * Settings not represented here, such as the file name, compression and
+ * retention, are fixed when the sink is built.
+ *
+ * This class is immutable.
+ *
+ * @author agent (agent at local)
+ */
+public final class FileSinkConfiguration {
+
+    /**
+     * The maximum number of events queued for writing. It cannot exceed the
+     * max queue size the sink was built with, for which the queue is
+     * allocated.
+     *
+     * @return The maximum event queue size.
+     */
+    public int getMaxQueueSize() {
+        return _maxQueueSize;
+    }
+
+    /**
+     * Whether events are dropped instead of blocking the caller when the
+     * queue is full.
+     *
+     * @return True if and only if events are dropped when the queue is full.
+     */
+    public boolean isDropWhenQueueFull() {
+        return _dropWhenQueueFull;
+    }
+
+    /**
+     * Whether entries are flushed immediately.
+     *
+     * @return True if and only if entries are flushed immediately.
+     */
+    public boolean isImmediateFlush() {
+        return _immediateFlush;
+    }
+
+    /**
+     * The size at which the active file is rolled.
+     *
+     * @return The max file size; for example "100MB".
+     */
+    public String getMaxFileSize() {
+        return _maxFileSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "FileSinkConfiguration{MaxQueueSize=%d, DropWhenQueueFull=%s, ImmediateFlush=%s, MaxFileSize=%s}",
+                _maxQueueSize,
+                _dropWhenQueueFull,
+                _immediateFlush,
+                _maxFileSize);
+    }
+
+    /* package private */ FileSize getMaxFileSizeInBytes() {
+        return _maxFileSizeInBytes;
+    }
+
+    // NOTE: Logback's queueing appenders discard events while the remaining capacity is below this threshold
+    /* package private */ int getDiscardingThreshold() {
+        return _dropWhenQueueFull ? _maxQueueSize : 0;
+    }
+
+    /* package private */ FileSinkConfiguration(
+            final int maxQueueSize,
+            final boolean dropWhenQueueFull,
+            final boolean immediateFlush,
+            final String maxFileSize) {
+        _maxQueueSize = maxQueueSize;
+        _dropWhenQueueFull = dropWhenQueueFull;
+        _immediateFlush = immediateFlush;
+        _maxFileSize = maxFileSize;
+        _maxFileSizeInBytes = FileSize.valueOf(maxFileSize);
+    }
+
+    private final int _maxQueueSize;
+    private final boolean _dropWhenQueueFull;
+    private final boolean _immediateFlush;
+    private final String _maxFileSize;
+    private final FileSize _maxFileSizeInBytes;
+
+    /**
+     * Builder for {@link FileSinkConfiguration}. The builder starts from an
+     * existing configuration, typically the sink's current configuration,
+     * so that only the settings being changed need to be set.
+     *
+     * This class is not thread safe.
+     *
+     * @author agent (agent at local)
+     */
+    public static final class Builder {
+
+        /**
+         * Public constructor.
+         *
+         * @param configuration The {@link FileSinkConfiguration} to start from.
+         */
+        public Builder(final FileSinkConfiguration configuration) {
+            _maxQueueSize = configuration._maxQueueSize;
+            _dropWhenQueueFull = configuration._dropWhenQueueFull;
+            _immediateFlush = configuration._immediateFlush;
+            _maxFileSize = configuration._maxFileSize;
+        }
+
+        /**
+         * Create an instance of {@link FileSinkConfiguration}.
+         *
+         * @return Instance of {@link FileSinkConfiguration}.
+         */
+        public FileSinkConfiguration build() {
+            if (_maxQueueSize < 1) {
+                throw new IllegalArgumentException("MaxQueueSize must be at least 1");
+            }
+            if (FileSize.valueOf(_maxFileSize).getSize() <= 0) {
+                throw new IllegalArgumentException("MaxFileSize must be positive");
+            }
+            return new FileSinkConfiguration(_maxQueueSize, _dropWhenQueueFull, _immediateFlush, _maxFileSize);
+        }
+
+        /**
+         * Set the maximum event queue size. It cannot exceed the max queue
+         * size the sink was built with.
+         *
+         * @param value The maximum event queue size.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setMaxQueueSize(final int value) {
+            _maxQueueSize = value;
+            return this;
+        }
+
+        /**
+         * Set whether to drop events when the queue is full.
+         *
+         * @param value Whether to drop events when the queue is full.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setDropWhenQueueFull(final boolean value) {
+            _dropWhenQueueFull = value;
+            return this;
+        }
+
+        /**
+         * Set whether entries are flushed immediately.
+         *
+         * @param value Whether to flush immediately.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setImmediateFlush(final boolean value) {
+            _immediateFlush = value;
+            return this;
+        }
+
+        /**
+         * Set the max file size. Accepted units are: "KB", "MB" and "GB". A
+         * smaller size rolls the active file at the next event if it is
+         * already larger.
+         *
+         * @param value The max file size.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setMaxFileSize(final String value) {
+            _maxFileSize = value;
+            return this;
+        }
+
+        private int _maxQueueSize;
+        private boolean _dropWhenQueueFull;
+        private boolean _immediateFlush;
+        private String _maxFileSize;
+    }
+}
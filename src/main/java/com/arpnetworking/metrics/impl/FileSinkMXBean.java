@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+/**
+ * Management interface exposing the self-instrumentation of a file sink.
+ * Sinks built with JMX enabled register an instance under
+ * {@code com.arpnetworking.metrics:type=FileSink,name="<file>"}. Each
+ * attribute is read from the live counters when it is requested; use
+ * {@link BaseFileSink#getStatistics()} for a snapshot of all attributes.
+ *
+ * @author agent (agent at local)
+ */
+public interface FileSinkMXBean {
+
+    /**
+     * The number of events queued but not yet written.
+     *
+     * @return The number of queued events.
+     */
+    int getQueueDepth();
+
+    /**
+     * The number of events recorded.
+     *
+     * @return The number of events recorded.
+     */
+    long getRecordedCount();
+
+    /**
+     * The number of events discarded because the queue was full.
+     *
+     * @return The number of discarded events.
+     */
+    long getDiscardedCount();
+
+    /**
+     * The number of events dropped because they could not be serialized.
+     *
+     * @return The number of events which failed serialization.
+     */
+    long getSerializationFailureCount();
+
+    /**
+     * The number of events dropped because writing them to the file failed.
+     *
+     * @return The number of events lost to I/O errors.
+     */
+    long getIoErrorCount();
+
+    /**
+     * The number of events written to the file.
+     *
+     * @return The number of events written.
+     */
+    long getWrittenCount();
+
+    /**
+     * The number of bytes written to the file before any compression.
+     *
+     * @return The number of bytes written.
+     */
+    long getBytesWritten();
+
+    /**
+     * Latency of recording an event including serialization and enqueueing.
+     *
+     * @return The record latency.
+     */
+    LatencyStatistics getRecordLatency();
+
+    /**
+     * Latency of serializing an event.
+     *
+     * @return The serialization latency.
+     */
+    LatencyStatistics getSerializationLatency();
+
+    /**
+     * Latency of handing a serialized event to the writer, including any
+     * time blocked waiting for queue capacity.
+     *
+     * @return The enqueue latency.
+     */
+    LatencyStatistics getEnqueueLatency();
+
+    /**
+     * Latency of writing an event to the file.
+     *
+     * @return The write latency.
+     */
+    LatencyStatistics getWriteLatency();
+
+    /**
+     * Latency of flushing the file.
+     *
+     * @return The flush latency.
+     */
+    LatencyStatistics getFlushLatency();
+
+    /**
+     * Latency of rolling the file.
+     *
+     * @return The roll latency.
+     */
+    LatencyStatistics getRollLatency();
+}
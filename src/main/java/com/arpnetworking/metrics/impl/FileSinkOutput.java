@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.io.File;
+import java.nio.file.Path;
+import javax.annotation.Nullable;
+
+/**
+ * An additional destination of a file sink's events; see
+ * {@link BaseFileSink.Builder#setAdditionalOutputs(java.util.List)}. An
+ * output writes the sink's files to its own directory, for example on
+ * another disk, and optionally streams the events to an agent's Unix domain
+ * socket. All other settings, such as the file name, rolling, compression,
+ * retention and queueing, are those of the sink.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+public final class FileSinkOutput {
+
+    /* package private */ File getDirectory() {
+        return _directory;
+    }
+
+    @Nullable
+    /* package private */ Path getSocketPath() {
+        return _socketPath;
+    }
+
+    @Override
+    public String toString() {
+        return "FileSinkOutput{Directory=" + _directory + ", SocketPath=" + _socketPath + "}";
+    }
+
+    private FileSinkOutput(final Builder builder) {
+        _directory = builder._directory;
+        _socketPath = builder._socketPath;
+    }
+
+    private final File _directory;
+    @Nullable
+    private final Path _socketPath;
+
+    /**
+     * Builder for {@link FileSinkOutput}.
+     *
+     * This class is not thread safe.
+     *
+     * @author agent (agent at local)
+     */
+    public static final class Builder {
+
+        /**
+         * Create an instance of {@link FileSinkOutput}.
+         *
+         * @return Instance of {@link FileSinkOutput}.
+         */
+        public FileSinkOutput build() {
+            if (_directory == null) {
+                throw new IllegalArgumentException("Directory must be set");
+            }
+            return new FileSinkOutput(this);
+        }
+
+        /**
+         * Set the directory of the output's files. Required; the directory
+         * must exist and differ from the directories of the sink's other
+         * outputs.
+         *
+         * @param value The directory of the output's files.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setDirectory(@Nullable final File value) {
+            _directory = value;
+            return this;
+        }
+
+        /**
+         * Set the path of a Unix domain socket on which a co-located agent
+         * accepts the output's events; see
+         * {@link BaseFileSink.Builder#setSocketPath(Path)}. Optional; default
+         * is none.
+         *
+         * @param value The path of the agent's socket.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setSocketPath(@Nullable final Path value) {
+            _socketPath = value;
+            return this;
+        }
+
+        @Nullable
+        private File _directory;
+        @Nullable
+        private Path _socketPath;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.core.recovery.ResilientFileOutputStream;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import javax.annotation.Nullable;
+
+/**
+ * Extension of Logback's {@link ResilientFileOutputStream} which counts
+ * writes that were lost. The resilient stream does not propagate write
+ * failures; after a failure it skips writes until it has reopened the file.
+ * Both the failed write and any skipped writes are counted so that the
+ * events they contained can be accounted for as dropped.
+ *
+ * The position in the file after the bytes written so far, including
+ * bytes still buffered, is tracked for indexing; lost writes do not
+ * advance the position.
+ *
+ * The file may be switched to direct I/O with a
+ * {@link DirectFileOutputStream} after it is opened. Recovery from a write
+ * failure reopens the file without direct I/O.
+ *
+ * This class is not thread safe; callers must serialize access as Logback's
+ * {@link ch.qos.logback.core.OutputStreamAppender} does.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class FileSinkOutputStream extends ResilientFileOutputStream {
+
+    /* package private */ FileSinkOutputStream(
+            final File file,
+            final boolean append,
+            final long bufferSize) throws FileNotFoundException {
+        super(file, append, bufferSize);
+        _position = append ? file.length() : 0;
+    }
+
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length) {
+        final boolean clean = presumedClean;
+        super.write(buffer, offset, length);
+        // NOTE: The write is skipped when in error and fails when it leaves the stream in error
+        if (!clean || !presumedClean) {
+            ++_lostWriteCount;
+        } else {
+            _position += length;
+        }
+    }
+
+    @Override
+    public void write(final int value) {
+        final boolean clean = presumedClean;
+        super.write(value);
+        if (!clean || !presumedClean) {
+            ++_lostWriteCount;
+        } else {
+            ++_position;
+        }
+    }
+
+    @Override
+    @Nullable
+    public FileChannel getChannel() {
+        if (_directOutputStream != null && os == _directOutputStream) {
+            return _directOutputStream.getChannel();
+        }
+        return super.getChannel();
+    }
+
+    /**
+     * Switch the file to direct I/O. Must be called before any bytes are
+     * written. The stream is unchanged if the file cannot be opened with
+     * direct I/O.
+     *
+     * @param opener The {@link DirectFileOutputStream.Opener} for the file.
+     * @param bufferSize The minimum size of the buffer in bytes.
+     * @throws IOException If the file could not be opened with direct I/O.
+     * @throws UnsupportedOperationException If the platform does not support direct I/O.
+     */
+    /* package private */ void useDirectIo(final DirectFileOutputStream.Opener opener, final long bufferSize) throws IOException {
+        final DirectFileOutputStream directOutputStream = opener.open(getFile(), bufferSize);
+        // NOTE: Closing the channel closes the buffered stream which has not been written to
+        super.getChannel().close();
+        _directOutputStream = directOutputStream;
+        os = directOutputStream;
+    }
+
+    /* package private */ boolean isDirectIo() {
+        return _directOutputStream != null && os == _directOutputStream;
+    }
+
+    /* package private */ long getLostWriteCount() {
+        return _lostWriteCount;
+    }
+
+    /* package private */ long getPosition() {
+        return _position;
+    }
+
+    private long _lostWriteCount = 0;
+    private long _position;
+    @Nullable
+    private DirectFileOutputStream _directOutputStream;
+}
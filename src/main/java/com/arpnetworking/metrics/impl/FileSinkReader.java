@@ -0,0 +1,372 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the events written by a file sink for replay or backfill. The
+ * reader is configured with the same directory, name and extension as the
+ * sink and discovers its segments from the file names the sink uses: the
+ * rolled segments {@code <name>.<yyyy-MM-dd-HH>.<index><extension>}, with
+ * or without a {@code .gz} suffix, ordered by date and then by index,
+ * followed by the active segment. Each segment is read with a
+ * {@link SegmentReader}.
+ *
+ * A time range may be read using the sparse {@link SegmentIndex} written
+ * by a sink configured with an index interval to skip the parts of each
+ * segment written before the range and, allowing for the maximum delay
+ * between an event ending and being written, after it.
+ *
+ * Segments rolled or deleted while reading are not detected; the reader
+ * is intended for segments which are no longer being written or for a
+ * point in time snapshot of an active sink.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+public final class FileSinkReader {
+
+    /**
+     * The segments of the sink in the order they were written.
+     *
+     * @return The segment files.
+     */
+    public List<File> getSegments() {
+        final List<File> segments = new ArrayList<>();
+        for (final RolledSegment segment : listRolledSegments(_rolledPatterns)) {
+            segments.add(segment.getFile());
+        }
+        for (final File active : Arrays.asList(getActiveFile(), new File(_directory, _activeName + AppenderFactory.GZIP_EXTENSION))) {
+            if (active.exists()) {
+                segments.add(active);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Read the events of all segments in the order they were written. The
+     * {@link EventView} passed to the consumer is only valid for the
+     * duration of the call.
+     *
+     * @param consumer The consumer of each event.
+     * @return The number of events read.
+     * @throws IOException If a segment cannot be read or is malformed.
+     */
+    public long read(final Consumer<EventView> consumer) throws IOException {
+        long count = 0;
+        for (final File segment : getSegments()) {
+            count += read(segment, 0, Long.MAX_VALUE, event -> true, consumer);
+        }
+        return count;
+    }
+
+    /**
+     * Read the events which ended in a time range, as given by their
+     * {@code _end} annotation, in the order they were written. Events
+     * without a valid end time are skipped. Where a segment has an index
+     * only the part of the segment which may contain such events is read.
+     * The {@link EventView} passed to the consumer is only valid for the
+     * duration of the call.
+     *
+     * @param start The start of the range, inclusive.
+     * @param end The end of the range, exclusive.
+     * @param consumer The consumer of each event.
+     * @return The number of events read.
+     * @throws IOException If a segment cannot be read or is malformed.
+     */
+    public long read(final Instant start, final Instant end, final Consumer<EventView> consumer) throws IOException {
+        final Predicate<EventView> inRange = event -> {
+            final Instant time = event.getTime(END_ANNOTATION);
+            return time != null && !time.isBefore(start) && time.isBefore(end);
+        };
+        long count = 0;
+        for (final File segment : getSegments()) {
+            final SegmentIndex index = SegmentIndex.read(segment);
+            final long startOffset = index.getStartOffset(start.toEpochMilli());
+            final long endOffset = index.getEndOffset(end.plus(_maxWriteDelay).toEpochMilli());
+            if (startOffset < endOffset) {
+                count += read(segment, startOffset, endOffset, inRange, consumer);
+            }
+        }
+        return count;
+    }
+
+    private static long read(
+            final File segment,
+            final long startOffset,
+            final long endOffset,
+            final Predicate<EventView> filter,
+            final Consumer<EventView> consumer) throws IOException {
+        long count = 0;
+        try (SegmentReader reader = SegmentReader.open(segment, startOffset, endOffset)) {
+            while (reader.next()) {
+                if (filter.test(reader.getEvent())) {
+                    consumer.accept(reader.getEvent());
+                    ++count;
+                }
+            }
+            if (reader.isTruncated()) {
+                LOGGER.warn(String.format("Segment ends in an incomplete record; file=%s", segment));
+            }
+        }
+        return count;
+    }
+
+    /* package private */ File getDirectory() {
+        return _directory;
+    }
+
+    /* package private */ File getActiveFile() {
+        return new File(_directory, _activeName);
+    }
+
+    /**
+     * The rolled segments in the order they were written including those
+     * being compressed; a segment which exists both uncompressed and
+     * compressed is listed once by its uncompressed file.
+     *
+     * @return The rolled segments.
+     */
+    /* package private */ List<RolledSegment> getRolledSegments() {
+        final List<RolledSegment> segments = new ArrayList<>();
+        for (final RolledSegment segment : listRolledSegments(_rolledAndTemporaryPatterns)) {
+            final int last = segments.size() - 1;
+            if (last < 0 || SEGMENT_ORDER.compare(segments.get(last), segment) != 0) {
+                segments.add(segment);
+            } else if (segments.get(last).isCompressed()) {
+                segments.set(last, segment);
+            }
+        }
+        return segments;
+    }
+
+    /* package private */ RolledSegment createRolledSegment(final String date, final long index) {
+        return new RolledSegment(new File(_directory, _name + "." + date + "." + index + _extension), date, index);
+    }
+
+    /* package private */ File getCompressedFile(final RolledSegment segment) {
+        final File file = createRolledSegment(segment.getDate(), segment.getIndex()).getFile();
+        return new File(file.getPath() + AppenderFactory.GZIP_EXTENSION);
+    }
+
+    private List<RolledSegment> listRolledSegments(final List<Pattern> patterns) {
+        final List<RolledSegment> segments = new ArrayList<>();
+        final File[] candidates = _directory.listFiles();
+        if (candidates != null) {
+            for (final File candidate : candidates) {
+                final Matcher matcher = match(patterns, candidate.getName());
+                if (matcher != null) {
+                    segments.add(new RolledSegment(candidate, matcher.group(1), Long.parseLong(matcher.group(2))));
+                }
+            }
+        }
+        segments.sort(ORDER);
+        return segments;
+    }
+
+    @Nullable
+    private static Matcher match(final List<Pattern> patterns, final String fileName) {
+        for (final Pattern pattern : patterns) {
+            final Matcher matcher = pattern.matcher(fileName);
+            if (matcher.matches()) {
+                return matcher;
+            }
+        }
+        return null;
+    }
+
+    private FileSinkReader(final Builder builder) {
+        _directory = builder._directory;
+        _name = builder._name;
+        _extension = builder._extension;
+        _activeName = builder._name + builder._extension;
+        _maxWriteDelay = builder._maxWriteDelay;
+        _rolledPatterns = Arrays.asList(
+                RetentionManager.createRolledFilePattern(builder._name, builder._extension),
+                RetentionManager.createRolledFilePattern(builder._name, builder._extension + AppenderFactory.GZIP_EXTENSION));
+        // NOTE: Logback renames a segment to <rolled name><nanos>.tmp while compressing it
+        _rolledAndTemporaryPatterns = Arrays.asList(
+                _rolledPatterns.get(0),
+                _rolledPatterns.get(1),
+                Pattern.compile(_rolledPatterns.get(0).pattern() + "\\d+\\.tmp"));
+    }
+
+    private final File _directory;
+    private final String _name;
+    private final String _extension;
+    private final String _activeName;
+    private final Duration _maxWriteDelay;
+    private final List<Pattern> _rolledPatterns;
+    private final List<Pattern> _rolledAndTemporaryPatterns;
+
+    /* package private */ static final Comparator<RolledSegment> SEGMENT_ORDER = Comparator
+            .comparing(RolledSegment::getDate)
+            .thenComparingLong(RolledSegment::getIndex);
+    private static final Comparator<RolledSegment> ORDER = SEGMENT_ORDER
+            .thenComparing(segment -> segment.getFile().getName());
+    private static final String END_ANNOTATION = "_end";
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(FileSinkReader.class);
+
+    /**
+     * A rolled segment identified by the date and index in its file name.
+     */
+    /* package private */ static final class RolledSegment {
+
+        RolledSegment(final File file, final String date, final long index) {
+            _file = file;
+            _date = date;
+            _index = index;
+        }
+
+        public File getFile() {
+            return _file;
+        }
+
+        public boolean isCompressed() {
+            return _file.getName().endsWith(AppenderFactory.GZIP_EXTENSION);
+        }
+
+        public String getDate() {
+            return _date;
+        }
+
+        public long getIndex() {
+            return _index;
+        }
+
+        private final File _file;
+        private final String _date;
+        private final long _index;
+    }
+
+    /**
+     * Builder for {@link FileSinkReader}.
+     *
+     * This class is not thread safe.
+     *
+     * @author agent (agent at local)
+     */
+    public static final class Builder {
+
+        /**
+         * Create an instance of {@link FileSinkReader}.
+         *
+         * @return Instance of {@link FileSinkReader}.
+         */
+        public FileSinkReader build() {
+            if (_directory == null) {
+                _directory = DEFAULT_DIRECTORY;
+                LOGGER.info(String.format("Defaulted null directory; directory=%s", _directory));
+            }
+            if (_name == null) {
+                _name = DEFAULT_NAME;
+                LOGGER.info(String.format("Defaulted null name; name=%s", _name));
+            }
+            if (_extension == null) {
+                _extension = DEFAULT_EXTENSION;
+                LOGGER.info(String.format("Defaulted null extension; extension=%s", _extension));
+            }
+            if (_maxWriteDelay == null) {
+                _maxWriteDelay = DEFAULT_MAX_WRITE_DELAY;
+                LOGGER.info(String.format("Defaulted null max write delay; maxWriteDelay=%s", _maxWriteDelay));
+            }
+            if (_name.isEmpty()) {
+                throw new IllegalArgumentException("Name must not be empty");
+            }
+            if (_maxWriteDelay.isNegative()) {
+                throw new IllegalArgumentException(String.format("Max write delay must not be negative; maxWriteDelay=%s", _maxWriteDelay));
+            }
+            return new FileSinkReader(this);
+        }
+
+        /**
+         * Set the directory containing the sink's files. Optional; default
+         * is the current working directory of the application.
+         *
+         * @param value The directory.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setDirectory(@Nullable final File value) {
+            _directory = value;
+            return this;
+        }
+
+        /**
+         * Set the file name without extension the sink was configured
+         * with. Optional; default is "query".
+         *
+         * @param value The file name without extension.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setName(@Nullable final String value) {
+            _name = value;
+            return this;
+        }
+
+        /**
+         * Set the file extension the sink was configured with excluding
+         * any compression suffix. Optional; default is ".log".
+         *
+         * @param value The file extension.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setExtension(@Nullable final String value) {
+            _extension = value;
+            return this;
+        }
+
+        /**
+         * Set the maximum time between an event ending and being written by
+         * the sink, such as the time spent in its queue. When reading a time
+         * range the part of a segment written this long after the end of
+         * the range is skipped. Optional; default is 1 minute.
+         *
+         * @param value The maximum write delay.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setMaxWriteDelay(@Nullable final Duration value) {
+            _maxWriteDelay = value;
+            return this;
+        }
+
+        private File _directory = DEFAULT_DIRECTORY;
+        private String _name = DEFAULT_NAME;
+        private String _extension = DEFAULT_EXTENSION;
+        private Duration _maxWriteDelay = DEFAULT_MAX_WRITE_DELAY;
+
+        private static final File DEFAULT_DIRECTORY = new File("./");
+        private static final String DEFAULT_NAME = "query";
+        private static final String DEFAULT_EXTENSION = ".log";
+        private static final Duration DEFAULT_MAX_WRITE_DELAY = Duration.ofMinutes(1);
+    }
+}
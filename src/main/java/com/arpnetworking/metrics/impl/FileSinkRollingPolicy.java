@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.core.rolling.RolloverFailure;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.rolling.helper.CompressionMode;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * Extension of Logback's {@link TimeBasedRollingPolicy} for file sinks. When
+ * the active file is already written compressed the rolled file name keeps
+ * its compression suffix but the file is only renamed on roll instead of
+ * being compressed a second time. When a {@link RetentionManager} is
+ * provided it is initialized on start and notified of each rolled file.
+ *
+ * The {@link SegmentIndex} of the active file, if any, is moved with it on
+ * roll. Without a {@link RetentionManager} the indexes of rolled files
+ * deleted by Logback are removed on the next roll. The directory is only
+ * listed on the first roll which moves an index, for indexes left by
+ * earlier runs; the indexes of rolled files are tracked from then on.
+ *
+ * @param <E> The type of event.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ class FileSinkRollingPolicy<E> extends TimeBasedRollingPolicy<E> {
+
+    /* package private */ FileSinkRollingPolicy(final boolean precompressed) {
+        this(precompressed, null);
+    }
+
+    /* package private */ FileSinkRollingPolicy(
+            final boolean precompressed,
+            @Nullable final RetentionManager retentionManager) {
+        _precompressed = precompressed;
+        _retentionManager = retentionManager;
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        if (isStarted() && _retentionManager != null) {
+            _retentionManager.initialize();
+        }
+    }
+
+    @Override
+    public void rollover() throws RolloverFailure {
+        final String elapsedPeriodsFileName = getTimeBasedFileNamingAndTriggeringPolicy().getElapsedPeriodsFileName();
+        final long activeFileSize = new File(getParentsRawFileProperty()).length();
+
+        super.rollover();
+
+        final String rolledFileName;
+        if (getCompressionMode() == CompressionMode.GZ) {
+            rolledFileName = elapsedPeriodsFileName + GZIP_EXTENSION;
+        } else {
+            rolledFileName = elapsedPeriodsFileName;
+        }
+        moveIndex(new File(getParentsRawFileProperty()), new File(rolledFileName));
+        if (_retentionManager != null) {
+            _retentionManager.onRollover(new File(rolledFileName), activeFileSize);
+        }
+    }
+
+    @Override
+    protected void determineCompressionMode() {
+        if (_precompressed) {
+            addInfo("Active file is compressed; rolled files will be renamed only");
+            compressionMode = CompressionMode.NONE;
+        } else {
+            super.determineCompressionMode();
+        }
+    }
+
+    private void moveIndex(final File activeFile, final File rolledFile) {
+        final File activeIndexFile = SegmentIndex.getFile(activeFile);
+        if (!activeIndexFile.exists()) {
+            return;
+        }
+        if (_retentionManager == null && _rolledIndexFiles == null) {
+            // NOTE: The directory is listed once for indexes left by earlier runs
+            _rolledIndexFiles = findIndexes(activeFile.getAbsoluteFile().getParentFile(), activeIndexFile);
+        }
+        final File rolledIndexFile = SegmentIndex.getFile(rolledFile);
+        try {
+            Files.move(activeIndexFile.toPath(), rolledIndexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            addWarn("Failed to move segment index [" + activeIndexFile + "]", e);
+        }
+        if (_rolledIndexFiles != null) {
+            deleteOrphanedIndexes();
+            _rolledIndexFiles.addLast(rolledIndexFile);
+        }
+    }
+
+    private Deque<File> findIndexes(final File directory, final File activeIndexFile) {
+        final File[] indexFiles = Objects.requireNonNullElse(
+                directory.listFiles((dir, name) -> name.endsWith(SegmentIndex.EXTENSION)),
+                new File[0]);
+        Arrays.sort(indexFiles, Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+        final Deque<File> indexes = new ArrayDeque<>();
+        for (final File indexFile : indexFiles) {
+            if (indexFile.getName().equals(activeIndexFile.getName())) {
+                continue;
+            }
+            if (getSegmentFile(indexFile).exists()) {
+                indexes.addLast(indexFile);
+            } else {
+                delete(indexFile);
+            }
+        }
+        return indexes;
+    }
+
+    private void deleteOrphanedIndexes() {
+        // NOTE: Logback removes the oldest rolled files first
+        while (!_rolledIndexFiles.isEmpty() && !getSegmentFile(_rolledIndexFiles.peekFirst()).exists()) {
+            delete(_rolledIndexFiles.removeFirst());
+        }
+    }
+
+    private void delete(final File indexFile) {
+        try {
+            Files.deleteIfExists(indexFile.toPath());
+        } catch (final IOException e) {
+            addWarn("Failed to delete segment index [" + indexFile + "]", e);
+        }
+    }
+
+    private static File getSegmentFile(final File indexFile) {
+        final String path = indexFile.getPath();
+        return new File(path.substring(0, path.length() - SegmentIndex.EXTENSION.length()));
+    }
+
+    private final boolean _precompressed;
+    @Nullable
+    private final RetentionManager _retentionManager;
+    @Nullable
+    private Deque<File> _rolledIndexFiles;
+
+    private static final String GZIP_EXTENSION = ".gz";
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+/**
+ * Snapshot of the self-instrumentation of a file sink. The counters are
+ * read one after another and are not atomic with respect to concurrent
+ * recording and writing.
+ *
+ * This class is immutable.
+ *
+ * @author agent (agent at local)
+ */
+public final class FileSinkStatistics {
+
+    /**
+     * The number of events queued but not yet written.
+     *
+     * @return The number of queued events.
+     */
+    public int getQueueDepth() {
+        return _queueDepth;
+    }
+
+    /**
+     * The number of events recorded.
+     *
+     * @return The number of events recorded.
+     */
+    public long getRecordedCount() {
+        return _recordedCount;
+    }
+
+    /**
+     * The number of events discarded because the queue was full.
+     *
+     * @return The number of discarded events.
+     */
+    public long getDiscardedCount() {
+        return _discardedCount;
+    }
+
+    /**
+     * The number of events dropped because they could not be serialized.
+     *
+     * @return The number of events which failed serialization.
+     */
+    public long getSerializationFailureCount() {
+        return _serializationFailureCount;
+    }
+
+    /**
+     * The number of events dropped because writing them to the file failed.
+     *
+     * @return The number of events lost to I/O errors.
+     */
+    public long getIoErrorCount() {
+        return _ioErrorCount;
+    }
+
+    /**
+     * The number of events written to the file.
+     *
+     * @return The number of events written.
+     */
+    public long getWrittenCount() {
+        return _writtenCount;
+    }
+
+    /**
+     * The number of bytes written to the file before any compression.
+     *
+     * @return The number of bytes written.
+     */
+    public long getBytesWritten() {
+        return _bytesWritten;
+    }
+
+    /**
+     * Latency of recording an event including serialization and enqueueing.
+     *
+     * @return The record latency.
+     */
+    public LatencyStatistics getRecordLatency() {
+        return _recordLatency;
+    }
+
+    /**
+     * Latency of serializing an event.
+     *
+     * @return The serialization latency.
+     */
+    public LatencyStatistics getSerializationLatency() {
+        return _serializationLatency;
+    }
+
+    /**
+     * Latency of handing a serialized event to the writer, including any
+     * time blocked waiting for queue capacity.
+     *
+     * @return The enqueue latency.
+     */
+    public LatencyStatistics getEnqueueLatency() {
+        return _enqueueLatency;
+    }
+
+    /**
+     * Latency of writing an event to the file.
+     *
+     * @return The write latency.
+     */
+    public LatencyStatistics getWriteLatency() {
+        return _writeLatency;
+    }
+
+    /**
+     * Latency of flushing the file.
+     *
+     * @return The flush latency.
+     */
+    public LatencyStatistics getFlushLatency() {
+        return _flushLatency;
+    }
+
+    /**
+     * Latency of rolling the file.
+     *
+     * @return The roll latency.
+     */
+    public LatencyStatistics getRollLatency() {
+        return _rollLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "FileSinkStatistics{QueueDepth=%d, RecordedCount=%d, DiscardedCount=%d, SerializationFailureCount=%d, "
+                        + "IoErrorCount=%d, WrittenCount=%d, BytesWritten=%d, "
+                        + "RecordLatency=%s, SerializationLatency=%s, EnqueueLatency=%s, WriteLatency=%s, FlushLatency=%s, "
+                        + "RollLatency=%s}",
+                _queueDepth,
+                _recordedCount,
+                _discardedCount,
+                _serializationFailureCount,
+                _ioErrorCount,
+                _writtenCount,
+                _bytesWritten,
+                _recordLatency,
+                _serializationLatency,
+                _enqueueLatency,
+                _writeLatency,
+                _flushLatency,
+                _rollLatency);
+    }
+
+    /* package private */ FileSinkStatistics(final FileSinkMXBean source) {
+        _queueDepth = source.getQueueDepth();
+        _recordedCount = source.getRecordedCount();
+        _discardedCount = source.getDiscardedCount();
+        _serializationFailureCount = source.getSerializationFailureCount();
+        _ioErrorCount = source.getIoErrorCount();
+        _writtenCount = source.getWrittenCount();
+        _bytesWritten = source.getBytesWritten();
+        _recordLatency = source.getRecordLatency();
+        _serializationLatency = source.getSerializationLatency();
+        _enqueueLatency = source.getEnqueueLatency();
+        _writeLatency = source.getWriteLatency();
+        _flushLatency = source.getFlushLatency();
+        _rollLatency = source.getRollLatency();
+    }
+
+    private final int _queueDepth;
+    private final long _recordedCount;
+    private final long _discardedCount;
+    private final long _serializationFailureCount;
+    private final long _ioErrorCount;
+    private final long _writtenCount;
+    private final long _bytesWritten;
+    private final LatencyStatistics _recordLatency;
+    private final LatencyStatistics _serializationLatency;
+    private final LatencyStatistics _enqueueLatency;
+    private final LatencyStatistics _writeLatency;
+    private final LatencyStatistics _flushLatency;
+    private final LatencyStatistics _rollLatency;
+}
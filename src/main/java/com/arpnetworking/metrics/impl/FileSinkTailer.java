@@ -0,0 +1,708 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.Nullable;
+
+/**
+ * Follows the events written by a file sink as they are written, like
+ * {@code tail -F}, across rolls of the active segment. The tailer is
+ * configured with a {@link FileSinkReader} for the sink's directory, name
+ * and extension; the sink must write its active segment uncompressed,
+ * although rolled segments may be compressed on roll.
+ *
+ * The active segment is tracked by its file key (e.g. its inode) rather
+ * than its name. When the active segment is replaced its remaining events
+ * are read through the open file, which may since have been renamed or
+ * deleted, and tailing continues with any segments rolled since followed
+ * by the new active segment. Rolled segments are identified by the date
+ * and index in their names, so a segment is followed from its active name
+ * to its rolled name and, if compressed on roll, its compressed file.
+ * Events are delivered a complete line at a time, decoded by a single
+ * {@link SegmentReader} per open segment; malformed lines are logged and
+ * skipped.
+ *
+ * Instead of polling the directory is watched for changes with the
+ * platform's file notification mechanism (e.g. inotify); the poll interval
+ * only bounds the wait where notifications are unavailable.
+ *
+ * The position is optionally persisted to a checkpoint file periodically,
+ * whenever tailing catches up and when it stops. The checkpoint is a
+ * single line: the byte offset of the next event followed by either the
+ * date and index of a rolled segment and {@code - -}, with an offset of
+ * {@code -1} once the rolled segment was read completely, or for the active
+ * segment the date and index of the newest segment rolled before it
+ * ({@code - 0} if none), a checksum of its first bytes and its file key.
+ * The checksum distinguishes the segment from a later one reusing its file
+ * key after it was deleted. On start tailing resumes at the
+ * checkpointed offset, also if the segment was rolled or compressed in the
+ * meantime. Without a checkpoint tailing starts at the beginning of the
+ * active segment. Events delivered after the last checkpoint are
+ * delivered again after a restart, so delivery is at least once.
+ *
+ * This class is thread safe; however, {@link #tail(Consumer)} may only
+ * be invoked by one thread at a time.
+ *
+ * @author agent (agent at local)
+ */
+public final class FileSinkTailer implements AutoCloseable {
+
+    /**
+     * Deliver events as they are written until the tailer is closed. The
+     * {@link EventView} passed to the consumer is only valid for the
+     * duration of the call.
+     *
+     * @param consumer The consumer of each event.
+     * @throws IOException If a segment or the checkpoint cannot be read or written.
+     * @throws InterruptedException If interrupted while waiting for events.
+     */
+    public void tail(final Consumer<EventView> consumer) throws IOException, InterruptedException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            _reader.getDirectory().toPath().register(
+                    watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            _watchService = watchService;
+            restore();
+            try {
+                while (!_closed) {
+                    if (!advance(consumer)) {
+                        checkpoint();
+                        awaitChange(watchService);
+                    } else if (System.nanoTime() - _lastCheckpointNanos >= _checkpointIntervalInNanos) {
+                        checkpoint();
+                    }
+                }
+            } catch (final ClosedWatchServiceException e) {
+                // NOTE: The tailer was closed while waiting
+            } finally {
+                checkpoint();
+                closeSegment();
+            }
+        }
+    }
+
+    /**
+     * Stop tailing. The checkpoint is written before {@link #tail(Consumer)}
+     * returns.
+     *
+     * @throws IOException If the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        _closed = true;
+        final WatchService watchService = _watchService;
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private boolean advance(final Consumer<EventView> consumer) throws IOException {
+        if (_segment == null) {
+            _segment = openNext();
+            return _segment != null;
+        }
+        // NOTE: The sink closes the active segment before rolling it; once
+        // replaced its remaining events are read before moving on
+        final boolean complete = !_segment.isActive()
+                || !Objects.equals(_segment.getFileKey(), getFileKey(_reader.getActiveFile()));
+        if (read(consumer, complete)) {
+            return true;
+        }
+        if (!complete) {
+            return false;
+        }
+        if (_segment.isActive()) {
+            setAfter(locate(_segment.getFileKey(), _segment.getFingerprint(), _segment.getOffset(), _segment.getRolled()));
+        } else {
+            setAfter(_segment.getRolled());
+        }
+        closeSegment();
+        return true;
+    }
+
+    private boolean read(final Consumer<EventView> consumer, final boolean complete) throws IOException {
+        if (_length == _buffer.length) {
+            _buffer = Arrays.copyOf(_buffer, _buffer.length * 2);
+        }
+        final int read = _segment.getStream().read(_buffer, _length, _buffer.length - _length);
+        if (read < 0) {
+            if (complete && _length > 0) {
+                // NOTE: The segment ends in a partial line
+                deliver(consumer, 0, _length);
+                _length = 0;
+            }
+            return false;
+        }
+        _length += read;
+        int start = 0;
+        for (int i = 0; i < _length; ++i) {
+            if (_buffer[i] == '\n') {
+                deliver(consumer, start, i + 1);
+                start = i + 1;
+            }
+        }
+        System.arraycopy(_buffer, start, _buffer, 0, _length - start);
+        _length -= start;
+        return true;
+    }
+
+    private void deliver(final Consumer<EventView> consumer, final int start, final int end) throws IOException {
+        final SegmentReader reader = _segment.getReader();
+        try {
+            reader.feed(_buffer, start, end);
+            while (reader.next()) {
+                consumer.accept(reader.getEvent());
+            }
+            if (reader.isTruncated()) {
+                LOGGER.warn(String.format("Skipped incomplete record; file=%s, offset=%d", _segment.getFile(), _segment.getOffset()));
+                _segment.resetReader();
+            }
+        } catch (final JsonProcessingException e) {
+            LOGGER.warn(String.format("Skipped malformed record; file=%s, offset=%d", _segment.getFile(), _segment.getOffset()), e);
+            // NOTE: The parser cannot resume after a malformed record
+            _segment.resetReader();
+        }
+        _segment.advance(end - start);
+    }
+
+    private void restore() throws IOException {
+        final List<FileSinkReader.RolledSegment> rolled = _reader.getRolledSegments();
+        _after = rolled.isEmpty() ? null : rolled.get(rolled.size() - 1);
+        _pending.clear();
+        if (_checkpointFile == null || !_checkpointFile.exists()) {
+            return;
+        }
+        final String checkpoint = Files.readString(_checkpointFile.toPath(), StandardCharsets.UTF_8).trim();
+        final String[] fields = checkpoint.split(" ", CHECKPOINT_FIELDS);
+        if (fields.length == CHECKPOINT_FIELDS) {
+            try {
+                final long offset = Long.parseLong(fields[0]);
+                final FileSinkReader.RolledSegment segment = NONE.equals(fields[1])
+                        ? null
+                        : _reader.createRolledSegment(fields[1], Long.parseLong(fields[2]));
+                if (segment == null || !NONE.equals(fields[4])) {
+                    restoreActive(fields[4], fields[3], segment, offset);
+                } else {
+                    restoreRolled(segment, offset);
+                }
+                return;
+            } catch (final NumberFormatException e) {
+                // NOTE: Reported below
+            }
+        }
+        LOGGER.warn(String.format("Ignored invalid checkpoint; file=%s, checkpoint=%s", _checkpointFile, checkpoint));
+    }
+
+    private void restoreActive(
+            final String fileKey,
+            final String fingerprint,
+            @Nullable final FileSinkReader.RolledSegment after,
+            final long offset) throws IOException {
+        _after = after;
+        if (isSegment(_reader.getActiveFile(), fileKey, fingerprint, offset)) {
+            _segment = openActive(offset);
+            return;
+        }
+        // NOTE: The active segment was rolled while not tailing
+        final FileSinkReader.RolledSegment segment = locate(fileKey, fingerprint, offset, after);
+        if (segment != null) {
+            _segment = openRolled(segment, offset);
+        }
+        if (_segment == null) {
+            LOGGER.warn(String.format("Checkpointed segment no longer exists; fileKey=%s", fileKey));
+            setAfter(segment);
+        }
+    }
+
+    private void restoreRolled(final FileSinkReader.RolledSegment segment, final long offset) throws IOException {
+        _after = segment;
+        if (offset == COMPLETED) {
+            return;
+        }
+        for (final FileSinkReader.RolledSegment candidate : _reader.getRolledSegments()) {
+            if (FileSinkReader.SEGMENT_ORDER.compare(candidate, segment) == 0) {
+                _segment = openRolled(candidate, offset);
+            }
+        }
+        if (_segment == null) {
+            LOGGER.warn(String.format("Checkpointed segment no longer exists; file=%s", segment.getFile()));
+        }
+    }
+
+    private void checkpoint() throws IOException {
+        _lastCheckpointNanos = System.nanoTime();
+        if (_checkpointFile == null) {
+            return;
+        }
+        final String checkpoint;
+        if (_segment == null) {
+            if (_after == null) {
+                return;
+            }
+            // NOTE: Resume after the last segment completed
+            checkpoint = String.format("%d %s %d %s %s", COMPLETED, _after.getDate(), _after.getIndex(), NONE, NONE);
+        } else if (_segment.isActive()) {
+            final FileSinkReader.RolledSegment after = _segment.getRolled();
+            checkpoint = String.format(
+                    "%d %s %d %s %s",
+                    _segment.getOffset(),
+                    after == null ? NONE : after.getDate(),
+                    after == null ? 0 : after.getIndex(),
+                    _segment.getFingerprint(),
+                    _segment.getFileKey());
+        } else {
+            checkpoint = String.format(
+                    "%d %s %d %s %s",
+                    _segment.getOffset(),
+                    _segment.getRolled().getDate(),
+                    _segment.getRolled().getIndex(),
+                    NONE,
+                    NONE);
+        }
+        if (checkpoint.equals(_lastCheckpoint)) {
+            return;
+        }
+        final File temporaryFile = new File(_checkpointFile.getPath() + TEMPORARY_EXTENSION);
+        Files.writeString(temporaryFile.toPath(), checkpoint + "\n", StandardCharsets.UTF_8);
+        Files.move(
+                temporaryFile.toPath(),
+                _checkpointFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        _lastCheckpoint = checkpoint;
+    }
+
+    private void awaitChange(final WatchService watchService) throws InterruptedException {
+        final WatchKey key = watchService.poll(_pollIntervalInNanos, TimeUnit.NANOSECONDS);
+        if (key != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+
+    @Nullable
+    private Segment openNext() throws IOException {
+        while (true) {
+            final FileSinkReader.RolledSegment next = _pending.isEmpty() ? findNext(_after) : _pending.removeFirst();
+            if (next == null) {
+                return openActive(0);
+            }
+            final Segment segment = openRolled(next, 0);
+            if (segment != null) {
+                return segment;
+            }
+            LOGGER.warn(String.format("Segment deleted before it was read; file=%s", next.getFile()));
+            setAfter(next);
+        }
+    }
+
+    @Nullable
+    private Segment openActive(final long offset) throws IOException {
+        final File file = _reader.getActiveFile();
+        final String fileKey = getFileKey(file);
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(file.toPath());
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+        long position = offset;
+        if (position > channel.size()) {
+            LOGGER.warn(String.format("Active segment is shorter than checkpoint; file=%s, offset=%d", file, offset));
+            position = 0;
+        }
+        channel.position(position);
+        return new Segment(file, channel, position, fileKey, _after);
+    }
+
+    @Nullable
+    private Segment openRolled(final FileSinkReader.RolledSegment segment, final long offset) throws IOException {
+        try {
+            return new Segment(segment.getFile(), open(segment.getFile(), offset), offset, segment);
+        } catch (final NoSuchFileException e) {
+            // NOTE: An uncompressed segment is deleted once it has been compressed
+            final File compressedFile = _reader.getCompressedFile(segment);
+            try {
+                return new Segment(compressedFile, open(compressedFile, offset), offset, segment);
+            } catch (final NoSuchFileException e2) {
+                return null;
+            }
+        }
+    }
+
+    private static InputStream open(final File file, final long offset) throws IOException {
+        if (!file.getName().endsWith(AppenderFactory.GZIP_EXTENSION)) {
+            return Channels.newInputStream(FileChannel.open(file.toPath()).position(offset));
+        }
+        final InputStream stream = new GZIPInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE);
+        try {
+            stream.skipNBytes(offset);
+        } catch (final EOFException e) {
+            // NOTE: The segment is shorter than the offset and is skipped
+        }
+        return stream;
+    }
+
+    /**
+     * Locate the segment an active segment was rolled to from the segments
+     * rolled after the newest segment before it. A segment rolled while the
+     * active segment was being opened may precede it; such segments are
+     * read next.
+     */
+    @Nullable
+    private FileSinkReader.RolledSegment locate(
+            final String fileKey,
+            final String fingerprint,
+            final long offset,
+            @Nullable final FileSinkReader.RolledSegment after) {
+        final List<FileSinkReader.RolledSegment> candidates = getRolledAfter(after);
+        for (int i = 0; i < candidates.size(); ++i) {
+            if (isSegment(candidates.get(i).getFile(), fileKey, fingerprint, offset)) {
+                _pending.addAll(candidates.subList(0, i));
+                return candidates.get(i);
+            }
+        }
+        // NOTE: A segment compressed on roll no longer has the file key
+        return candidates.isEmpty() ? null : candidates.get(0);
+    }
+
+    @Nullable
+    private FileSinkReader.RolledSegment findNext(@Nullable final FileSinkReader.RolledSegment after) {
+        final List<FileSinkReader.RolledSegment> candidates = getRolledAfter(after);
+        return candidates.isEmpty() ? null : candidates.get(0);
+    }
+
+    private List<FileSinkReader.RolledSegment> getRolledAfter(@Nullable final FileSinkReader.RolledSegment after) {
+        final List<FileSinkReader.RolledSegment> segments = _reader.getRolledSegments();
+        if (after != null) {
+            segments.removeIf(segment -> FileSinkReader.SEGMENT_ORDER.compare(segment, after) <= 0);
+        }
+        return segments;
+    }
+
+    private void setAfter(@Nullable final FileSinkReader.RolledSegment segment) {
+        if (segment != null && (_after == null || FileSinkReader.SEGMENT_ORDER.compare(segment, _after) > 0)) {
+            _after = segment;
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (_segment != null) {
+            _segment.close();
+            _segment = null;
+            _length = 0;
+        }
+    }
+
+    /**
+     * Whether the file is the segment with the file key and fingerprint. A
+     * file key alone is ambiguous across restarts since it may be reused
+     * once the segment is deleted.
+     */
+    private static boolean isSegment(final File file, final String fileKey, final String fingerprint, final long offset) {
+        try (FileChannel channel = FileChannel.open(file.toPath())) {
+            return fileKey.equals(getFileKey(file)) && fingerprint.equals(getFingerprint(channel, offset));
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checksum of the start of a segment up to the offset; the start of a
+     * segment does not change once it has been read.
+     */
+    private static String getFingerprint(final FileChannel channel, final long offset) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(offset, FINGERPRINT_SIZE));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                // NOTE: The file is shorter than the offset
+                break;
+            }
+        }
+        final CRC32 checksum = new CRC32();
+        checksum.update(buffer.flip());
+        return Long.toHexString(checksum.getValue());
+    }
+
+    @Nullable
+    private static String getFileKey(final File file) {
+        try {
+            return String.valueOf(Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey());
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    private FileSinkTailer(final Builder builder) {
+        _reader = builder._reader;
+        _checkpointFile = builder._checkpointFile;
+        _pollIntervalInNanos = builder._pollInterval.toNanos();
+        _checkpointIntervalInNanos = builder._checkpointInterval.toNanos();
+    }
+
+    private final FileSinkReader _reader;
+    @Nullable
+    private final File _checkpointFile;
+    private final long _pollIntervalInNanos;
+    private final long _checkpointIntervalInNanos;
+    private final Deque<FileSinkReader.RolledSegment> _pending = new ArrayDeque<>();
+    @Nullable
+    private volatile WatchService _watchService;
+    private volatile boolean _closed = false;
+    @Nullable
+    private Segment _segment;
+    @Nullable
+    private FileSinkReader.RolledSegment _after;
+    private byte[] _buffer = new byte[BUFFER_SIZE];
+    private int _length = 0;
+    @Nullable
+    private String _lastCheckpoint;
+    private long _lastCheckpointNanos = System.nanoTime();
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String NONE = "-";
+    private static final long COMPLETED = -1;
+    private static final int CHECKPOINT_FIELDS = 5;
+    private static final int FINGERPRINT_SIZE = 1024;
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(FileSinkTailer.class);
+
+    /**
+     * An open segment, the reader its lines are fed to and the offset of the
+     * next event in it. The rolled segment is the segment itself if rolled,
+     * or the newest segment rolled before it if active.
+     */
+    private static final class Segment implements Closeable {
+
+        Segment(
+                final File file,
+                final FileChannel channel,
+                final long offset,
+                final String fileKey,
+                @Nullable final FileSinkReader.RolledSegment rolled) throws IOException {
+            _file = file;
+            _stream = Channels.newInputStream(channel);
+            _reader = SegmentReader.create(file);
+            _channel = channel;
+            _offset = offset;
+            _fileKey = fileKey;
+            _rolled = rolled;
+        }
+
+        Segment(
+                final File file,
+                final InputStream stream,
+                final long offset,
+                final FileSinkReader.RolledSegment rolled) throws IOException {
+            _file = file;
+            _stream = stream;
+            _reader = SegmentReader.create(file);
+            _channel = null;
+            _offset = offset;
+            _fileKey = null;
+            _rolled = rolled;
+        }
+
+        @Override
+        public void close() throws IOException {
+            _reader.close();
+            _stream.close();
+        }
+
+        public File getFile() {
+            return _file;
+        }
+
+        public InputStream getStream() {
+            return _stream;
+        }
+
+        public SegmentReader getReader() {
+            return _reader;
+        }
+
+        public void resetReader() throws IOException {
+            _reader.close();
+            _reader = SegmentReader.create(_file);
+        }
+
+        public long getOffset() {
+            return _offset;
+        }
+
+        public void advance(final long length) {
+            _offset += length;
+        }
+
+        public boolean isActive() {
+            return _fileKey != null;
+        }
+
+        @Nullable
+        public String getFileKey() {
+            return _fileKey;
+        }
+
+        public String getFingerprint() throws IOException {
+            return FileSinkTailer.getFingerprint(_channel, _offset);
+        }
+
+        @Nullable
+        public FileSinkReader.RolledSegment getRolled() {
+            return _rolled;
+        }
+
+        private final File _file;
+        private final InputStream _stream;
+        private SegmentReader _reader;
+        @Nullable
+        private final FileChannel _channel;
+        private long _offset;
+        @Nullable
+        private final String _fileKey;
+        @Nullable
+        private final FileSinkReader.RolledSegment _rolled;
+    }
+
+    /**
+     * Builder for {@link FileSinkTailer}.
+     *
+     * This class is not thread safe.
+     *
+     * @author agent (agent at local)
+     */
+    public static final class Builder {
+
+        /**
+         * Create an instance of {@link FileSinkTailer}.
+         *
+         * @return Instance of {@link FileSinkTailer}.
+         */
+        public FileSinkTailer build() {
+            if (_reader == null) {
+                _reader = new FileSinkReader.Builder().build();
+                LOGGER.info("Defaulted null reader");
+            }
+            if (_pollInterval == null) {
+                _pollInterval = DEFAULT_POLL_INTERVAL;
+                LOGGER.info(String.format("Defaulted null poll interval; pollInterval=%s", _pollInterval));
+            }
+            if (_checkpointInterval == null) {
+                _checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+                LOGGER.info(String.format("Defaulted null checkpoint interval; checkpointInterval=%s", _checkpointInterval));
+            }
+            if (_pollInterval.isNegative() || _pollInterval.isZero()) {
+                throw new IllegalArgumentException(String.format("Poll interval must be positive; pollInterval=%s", _pollInterval));
+            }
+            if (_checkpointInterval.isNegative()) {
+                throw new IllegalArgumentException(String.format(
+                        "Checkpoint interval must not be negative; checkpointInterval=%s",
+                        _checkpointInterval));
+            }
+            return new FileSinkTailer(this);
+        }
+
+        /**
+         * Set the reader configured for the sink's files. Optional; default
+         * is a reader with default configuration.
+         *
+         * @param value The reader.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setReader(@Nullable final FileSinkReader value) {
+            _reader = value;
+            return this;
+        }
+
+        /**
+         * Set the file to persist the position to. Optional; default is
+         * none, in which case tailing always starts at the beginning of the
+         * active segment.
+         *
+         * @param value The checkpoint file.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setCheckpointFile(@Nullable final File value) {
+            _checkpointFile = value;
+            return this;
+        }
+
+        /**
+         * Set the maximum time to wait for a change notification before
+         * checking for new events. Optional; default is 1 second.
+         *
+         * @param value The poll interval.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setPollInterval(@Nullable final Duration value) {
+            _pollInterval = value;
+            return this;
+        }
+
+        /**
+         * Set the minimum time between checkpoints while events are being
+         * delivered. Optional; default is 1 second.
+         *
+         * @param value The checkpoint interval.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setCheckpointInterval(@Nullable final Duration value) {
+            _checkpointInterval = value;
+            return this;
+        }
+
+        private FileSinkReader _reader;
+        @Nullable
+        private File _checkpointFile;
+        private Duration _pollInterval = DEFAULT_POLL_INTERVAL;
+        private Duration _checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+
+        private static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(1);
+        private static final Duration DEFAULT_CHECKPOINT_INTERVAL = Duration.ofSeconds(1);
+    }
+}
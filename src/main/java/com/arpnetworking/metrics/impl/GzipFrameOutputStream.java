@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * {@link OutputStream} which writes its content as a sequence of complete
+ * gzip members (frames). The current frame is finished whenever its
+ * uncompressed size reaches the configured maximum, by
+ * {@link #flushIfOlderThan(long)} and on close. Flushing does not finish the
+ * frame, since flushing after each event, as immediate flush does, would
+ * otherwise write a gzip member with its header and trailer per event. Each frame
+ * can be decompressed independently and the concatenation of frames is
+ * itself a valid gzip file, so readers can consume the active file frame by
+ * frame while it is still being written.
+ *
+ * This class is not thread safe; callers must serialize access as Logback's
+ * {@link ch.qos.logback.core.OutputStreamAppender} does.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class GzipFrameOutputStream extends OutputStream {
+
+    /* package private */ GzipFrameOutputStream(final OutputStream outputStream, final int maxFrameSize) {
+        _outputStream = outputStream;
+        _maxFrameSize = maxFrameSize;
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        _singleByte[0] = (byte) value;
+        write(_singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (!_inFrame) {
+            _outputStream.write(HEADER);
+            _inFrame = true;
+            _frameStartNanos = System.nanoTime();
+        }
+        _crc.update(buffer, offset, length);
+        _deflater.setInput(buffer, offset, length);
+        while (!_deflater.needsInput()) {
+            deflate();
+        }
+        _frameSize += length;
+        if (_frameSize >= _maxFrameSize) {
+            finishFrame();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // NOTE: Data of the current frame is written once the frame is finished
+        _outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (_closed) {
+            return;
+        }
+        _closed = true;
+        try {
+            finishFrame();
+        } finally {
+            _inFrame = false;
+            _deflater.end();
+            _outputStream.close();
+        }
+    }
+
+    /**
+     * Finish and flush the current frame if it was started at least the
+     * specified number of nanoseconds ago. This allows a periodic task to
+     * bound how long written data remains invisible to readers when the
+     * event rate is too low to fill a frame.
+     *
+     * @param maxAgeNanos The maximum age of the current frame in nanoseconds.
+     * @return True if and only if the current frame was flushed.
+     * @throws IOException if writing to the underlying stream fails.
+     */
+    /* package private */ boolean flushIfOlderThan(final long maxAgeNanos) throws IOException {
+        if (_inFrame && System.nanoTime() - _frameStartNanos >= maxAgeNanos) {
+            finishFrame();
+            _outputStream.flush();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finish the current frame without flushing the underlying stream, so
+     * that the next byte written starts a new frame.
+     *
+     * @throws IOException if writing to the underlying stream fails.
+     */
+    /* package private */ void finishFrame() throws IOException {
+        if (!_inFrame) {
+            return;
+        }
+        final CompressFrameEvent frameEvent = new CompressFrameEvent();
+        frameEvent.begin();
+        _deflater.finish();
+        while (!_deflater.finished()) {
+            deflate();
+        }
+        writeIntLittleEndian((int) _crc.getValue());
+        writeIntLittleEndian((int) _frameSize);
+        frameEvent.setUncompressedBytes(_frameSize);
+        frameEvent.setCompressedBytes(_deflater.getBytesWritten());
+        frameEvent.commit();
+        _deflater.reset();
+        _crc.reset();
+        _frameSize = 0;
+        _inFrame = false;
+    }
+
+    private void deflate() throws IOException {
+        final int length = _deflater.deflate(_buffer, 0, _buffer.length, Deflater.NO_FLUSH);
+        if (length > 0) {
+            _outputStream.write(_buffer, 0, length);
+        }
+    }
+
+    private void writeIntLittleEndian(final int value) throws IOException {
+        _trailer[0] = (byte) value;
+        _trailer[1] = (byte) (value >> 8);
+        _trailer[2] = (byte) (value >> 16);
+        _trailer[3] = (byte) (value >> 24);
+        _outputStream.write(_trailer);
+    }
+
+    private final OutputStream _outputStream;
+    private final int _maxFrameSize;
+    private final Deflater _deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 _crc = new CRC32();
+    private final byte[] _buffer = new byte[BUFFER_SIZE];
+    private final byte[] _trailer = new byte[4];
+    private final byte[] _singleByte = new byte[1];
+    private boolean _inFrame = false;
+    private boolean _closed = false;
+    private long _frameSize = 0;
+    private long _frameStartNanos;
+
+    private static final int BUFFER_SIZE = 8192;
+    // NOTE: Magic number, deflate method, no flags, no modification time, no extra flags, unknown OS
+    /* package private */ static final byte[] HEADER = new byte[] {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+}
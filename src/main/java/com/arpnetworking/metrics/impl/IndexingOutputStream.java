@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import javax.annotation.Nullable;
+
+/**
+ * {@link OutputStream} which records a sparse {@link SegmentIndex} of the
+ * segment it writes. Logback writes each encoded event with a single write;
+ * before an event is written an entry with the current time and the file
+ * position is recorded if the configured number of bytes or milliseconds
+ * has passed since the previous entry, and always for the first event. When
+ * the segment is written compressed the current gzip frame is finished
+ * first so that the entry's offset is the start of a frame.
+ *
+ * Entries are buffered and written to the sidecar file in batches: when
+ * the buffer is full, on a flush at most once per second and on close.
+ * Index entries are hints for readers, so a failure to write them is
+ * logged and disables the index for the segment without affecting the
+ * events written.
+ *
+ * This class is not thread safe; callers must serialize access as Logback's
+ * {@link ch.qos.logback.core.OutputStreamAppender} does.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class IndexingOutputStream extends OutputStream {
+
+    /* package private */ IndexingOutputStream(
+            final OutputStream outputStream,
+            final FileSinkOutputStream fileOutputStream,
+            @Nullable final GzipFrameOutputStream frameOutputStream,
+            final long intervalInBytes,
+            final long intervalInMillis) {
+        _outputStream = outputStream;
+        _fileOutputStream = fileOutputStream;
+        _frameOutputStream = frameOutputStream;
+        _intervalInBytes = intervalInBytes;
+        _intervalInMillis = intervalInMillis;
+        _indexFile = SegmentIndex.getFile(fileOutputStream.getFile());
+        // NOTE: An index left behind for a previous empty or missing segment is replaced
+        _append = fileOutputStream.getPosition() > 0;
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        _outputStream.write(value);
+    }
+
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+        if (length > 0) {
+            final long now = System.currentTimeMillis();
+            if (isEntryDue(now)) {
+                addEntry(now);
+            }
+        }
+        _outputStream.write(buffer, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        _outputStream.flush();
+        if (System.currentTimeMillis() - _lastWriteTime >= WRITE_INTERVAL_IN_MILLIS) {
+            writeEntries();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            _outputStream.close();
+        } finally {
+            writeEntries();
+            closeIndex();
+        }
+    }
+
+    /* package private */ File getIndexFile() {
+        return _indexFile;
+    }
+
+    private boolean isEntryDue(final long now) {
+        return !_hasEntry
+                || _intervalInBytes > 0 && _fileOutputStream.getPosition() - _lastOffset >= _intervalInBytes
+                || _intervalInMillis > 0 && now - _lastTime >= _intervalInMillis;
+    }
+
+    private void addEntry(final long now) throws IOException {
+        if (_frameOutputStream != null) {
+            _frameOutputStream.finishFrame();
+        }
+        _hasEntry = true;
+        _lastTime = now;
+        _lastOffset = _fileOutputStream.getPosition();
+        if (_failed) {
+            return;
+        }
+        _entries.putLong(_lastTime);
+        _entries.putLong(_lastOffset);
+        if (!_entries.hasRemaining()) {
+            writeEntries();
+        }
+    }
+
+    private void writeEntries() {
+        _lastWriteTime = System.currentTimeMillis();
+        if (_entries.position() == 0) {
+            return;
+        }
+        _entries.flip();
+        try {
+            if (_channel == null) {
+                _channel = _append
+                        ? FileChannel.open(_indexFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                        : FileChannel.open(
+                                _indexFile.toPath(),
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.WRITE,
+                                StandardOpenOption.TRUNCATE_EXISTING);
+            }
+            _channel.write(_entries);
+        } catch (final IOException e) {
+            LOGGER.warn(String.format("Unable to write segment index; file=%s", _indexFile), e);
+            _failed = true;
+        }
+        _entries.clear();
+    }
+
+    private void closeIndex() throws IOException {
+        if (_channel != null) {
+            _channel.close();
+            _channel = null;
+        }
+    }
+
+    private final OutputStream _outputStream;
+    private final FileSinkOutputStream _fileOutputStream;
+    @Nullable
+    private final GzipFrameOutputStream _frameOutputStream;
+    private final long _intervalInBytes;
+    private final long _intervalInMillis;
+    private final File _indexFile;
+    private final boolean _append;
+    private final ByteBuffer _entries = ByteBuffer.allocate(BATCH_SIZE * SegmentIndex.ENTRY_SIZE);
+    @Nullable
+    private FileChannel _channel;
+    private boolean _hasEntry = false;
+    private boolean _failed = false;
+    private long _lastTime;
+    private long _lastOffset;
+    private long _lastWriteTime = System.currentTimeMillis();
+
+    private static final int BATCH_SIZE = 64;
+    private static final long WRITE_INTERVAL_IN_MILLIS = 1000;
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(IndexingOutputStream.class);
+}
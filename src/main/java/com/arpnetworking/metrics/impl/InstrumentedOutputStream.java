@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.IntSupplier;
+import javax.annotation.Nullable;
+
+/**
+ * {@link OutputStream} which reports the bytes written and the latency of
+ * each write and flush to a {@link SinkInstrumentation} and as flight
+ * recorder events. Logback writes each encoded entry with a single write
+ * and the number of events in the entry being written is supplied by the
+ * appender, so the events of a batch are written with one write but counted
+ * individually without inspecting the bytes written.
+ *
+ * A write which fails, or which causes a write to the underlying
+ * {@link FileSinkOutputStream} to be lost, is reported as an event dropped
+ * due to an I/O error instead of as written. With buffering or compression
+ * the bytes of earlier events may reach the file only during a later write;
+ * a loss is attributed to the event whose write it occurred in.
+ *
+ * This class is not thread safe; callers must serialize access as Logback's
+ * {@link ch.qos.logback.core.OutputStreamAppender} does.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class InstrumentedOutputStream extends OutputStream {
+
+    /* package private */ InstrumentedOutputStream(
+            final OutputStream outputStream,
+            @Nullable final FileSinkOutputStream fileOutputStream,
+            final SinkInstrumentation instrumentation,
+            final IntSupplier eventCount) {
+        _outputStream = outputStream;
+        _fileOutputStream = fileOutputStream;
+        _instrumentation = instrumentation;
+        _eventCount = eventCount;
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        _outputStream.write(value);
+    }
+
+    @Override
+    public void write(final byte[] buffer, final int offset, final int length) throws IOException {
+        final WriteEvent writeEvent = new WriteEvent();
+        writeEvent.begin();
+        final int eventCount = _eventCount.getAsInt();
+        final long lostWriteCount = getLostWriteCount();
+        final long startNanos = System.nanoTime();
+        try {
+            _outputStream.write(buffer, offset, length);
+        } catch (final IOException e) {
+            _instrumentation.onIoError(eventCount);
+            throw e;
+        }
+        if (getLostWriteCount() != lostWriteCount) {
+            _instrumentation.onIoError(eventCount);
+        } else {
+            _instrumentation.onWrite(eventCount, length, System.nanoTime() - startNanos);
+        }
+        writeEvent.setBytes(length);
+        writeEvent.commit();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        final FlushEvent flushEvent = new FlushEvent();
+        flushEvent.begin();
+        final long startNanos = System.nanoTime();
+        _outputStream.flush();
+        _instrumentation.onFlush(System.nanoTime() - startNanos);
+        flushEvent.commit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        _outputStream.close();
+    }
+
+    /* package private */ OutputStream getDelegate() {
+        return _outputStream;
+    }
+
+    private long getLostWriteCount() {
+        return _fileOutputStream == null ? 0 : _fileOutputStream.getLostWriteCount();
+    }
+
+    private final OutputStream _outputStream;
+    @Nullable
+    private final FileSinkOutputStream _fileOutputStream;
+    private final SinkInstrumentation _instrumentation;
+    private final IntSupplier _eventCount;
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.Nullable;
+
+/**
+ * Writer threads shared by multiple file sinks. Each sink configured with
+ * the same instance keeps its own bounded event queue, but instead of each
+ * sink owning a writer thread the queues are serviced by a small fixed
+ * number of threads. Sinks with pending events are serviced in round-robin
+ * order and each turn writes at most a fixed number of events so that a
+ * busy sink cannot starve the others. At most one thread writes a given
+ * sink's events at a time so events are written in order.
+ *
+ * The threads are started on construction. By default they are daemon
+ * threads; alternatively they are created by a {@link ThreadFactory}, for
+ * example to set their name, priority or group, or to run the writers on
+ * virtual threads where the runtime supports them. Sinks drain their own
+ * queues when they are stopped and, once the scheduler is closed, write
+ * their events on the recording thread instead, so the scheduler may be
+ * closed before or after the sinks using it.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+public final class IoScheduler implements AutoCloseable {
+
+    /**
+     * Stop the writer threads. Tasks scheduled but not yet started are run
+     * on the calling thread, and sinks using the scheduler write their
+     * events on the recording thread once it is closed.
+     */
+    @Override
+    public void close() {
+        final List<Task> tasks = new ArrayList<>();
+        synchronized (_scheduleLock) {
+            _closed = true;
+            _ready.drainTo(tasks);
+        }
+        for (final Thread thread : _threads) {
+            thread.interrupt();
+        }
+        for (final Task task : tasks) {
+            run(task, Integer.MAX_VALUE);
+        }
+    }
+
+    /* package private */ int getThreadCount() {
+        return _threads.size();
+    }
+
+    /**
+     * Schedule a task to be run on a writer thread.
+     *
+     * @param task The task to run.
+     * @return True if and only if the task will be run; false if the scheduler is closed.
+     */
+    /* package private */ boolean schedule(final Task task) {
+        // NOTE: A thread interrupted before it started running may not
+        // observe the interrupt; it must not be given tasks after closing.
+        synchronized (_scheduleLock) {
+            if (_closed) {
+                return false;
+            }
+            _ready.add(task);
+            return true;
+        }
+    }
+
+    private void run() {
+        while (true) {
+            final Task task;
+            try {
+                task = _ready.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            run(task, _batchSize);
+        }
+    }
+
+    private static void run(final Task task, final int maxEvents) {
+        // CHECKSTYLE.OFF: IllegalCatch - A failing sink must not stop the shared thread
+        try {
+            task.run(maxEvents);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unexpected exception writing events", e);
+        }
+        // CHECKSTYLE.ON: IllegalCatch
+    }
+
+    private IoScheduler(final Builder builder) {
+        _batchSize = builder._batchSize;
+        _threads = new ArrayList<>(builder._threadCount);
+        for (int i = 0; i < builder._threadCount; ++i) {
+            @Nullable final Thread thread = builder._threadFactory == null
+                    ? createThread(i)
+                    : builder._threadFactory.newThread(this::run);
+            if (thread == null) {
+                close();
+                throw new IllegalStateException(String.format(
+                        "Thread factory rejected writer thread; threadFactory=%s",
+                        builder._threadFactory));
+            }
+            thread.start();
+            _threads.add(thread);
+        }
+    }
+
+    private Thread createThread(final int index) {
+        final Thread thread = new Thread(this::run, "metrics-file-sink-io-" + index);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private final int _batchSize;
+    private final List<Thread> _threads;
+    private final BlockingQueue<Task> _ready = new LinkedBlockingQueue<>();
+    private final Object _scheduleLock = new Object();
+    private boolean _closed = false;
+
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(IoScheduler.class);
+
+    /**
+     * Unit of work scheduled on an {@link IoScheduler}.
+     */
+    /* package private */ interface Task {
+
+        /**
+         * Write up to the specified number of pending events.
+         *
+         * @param maxEvents The maximum number of events to write.
+         */
+        void run(int maxEvents);
+    }
+
+    /**
+     * Builder for {@link IoScheduler}.
+     *
+     * This class is not thread safe.
+     *
+     * @author agent (agent at local)
+     */
+    public static final class Builder {
+
+        /**
+         * Create an instance of {@link IoScheduler}.
+         *
+         * @return Instance of {@link IoScheduler}.
+         */
+        public IoScheduler build() {
+            if (_threadCount == null) {
+                _threadCount = DEFAULT_THREAD_COUNT;
+                LOGGER.info(String.format("Defaulted null thread count; threadCount=%d", _threadCount));
+            }
+            if (_batchSize == null) {
+                _batchSize = DEFAULT_BATCH_SIZE;
+                LOGGER.info(String.format("Defaulted null batch size; batchSize=%d", _batchSize));
+            }
+            if (_threadCount < 1) {
+                throw new IllegalArgumentException(String.format("Thread count must be positive; threadCount=%d", _threadCount));
+            }
+            if (_batchSize < 1) {
+                throw new IllegalArgumentException(String.format("Batch size must be positive; batchSize=%d", _batchSize));
+            }
+            return new IoScheduler(this);
+        }
+
+        /**
+         * Set the number of writer threads. Optional; default is 1.
+         *
+         * @param value The number of writer threads.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setThreadCount(@Nullable final Integer value) {
+            _threadCount = value;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of events written for one sink before
+         * servicing the next sink. Optional; default is 64.
+         *
+         * @param value The maximum number of events written per turn.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setBatchSize(@Nullable final Integer value) {
+            _batchSize = value;
+            return this;
+        }
+
+        /**
+         * Set the {@link ThreadFactory} which creates the writer threads.
+         * The threads are started by the scheduler. Threads which are not
+         * daemon threads prevent the JVM from exiting until the scheduler is
+         * closed. Optional; default is daemon threads named
+         * {@code metrics-file-sink-io-<n>}.
+         *
+         * @param value The {@link ThreadFactory}.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setThreadFactory(@Nullable final ThreadFactory value) {
+            _threadFactory = value;
+            return this;
+        }
+
+        private Integer _threadCount = DEFAULT_THREAD_COUNT;
+        private Integer _batchSize = DEFAULT_BATCH_SIZE;
+        @Nullable
+        private ThreadFactory _threadFactory;
+
+        private static final Integer DEFAULT_THREAD_COUNT = 1;
+        private static final Integer DEFAULT_BATCH_SIZE = 64;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram. Latencies are recorded in nanoseconds into
+ * power of two buckets; bucket {@code i} counts latencies in
+ * {@code [2^(i-1), 2^i)} and the last bucket counts all larger latencies.
+ * Each bucket is a striped {@link LongAdder} so recording from many threads
+ * does not contend on a single counter and costs no allocation.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class LatencyHistogram {
+
+    /* package private */ LatencyHistogram() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            _buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos The latency in nanoseconds; negative values are recorded as zero.
+     */
+    /* package private */ void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        _buckets[getBucketIndex(value)].increment();
+        _totalNanos.add(value);
+        _maxNanos.accumulate(value);
+    }
+
+    /**
+     * Create a snapshot of the recorded latencies. The snapshot is not
+     * atomic with respect to concurrent recording.
+     *
+     * @return The {@link LatencyStatistics} snapshot.
+     */
+    /* package private */ LatencyStatistics snapshot() {
+        final long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            counts[i] = _buckets[i].sum();
+        }
+        return new LatencyStatistics(counts, _totalNanos.sum(), _maxNanos.get());
+    }
+
+    /* package private */ static int getBucketIndex(final long nanos) {
+        return Math.min(BUCKET_COUNT - 1, Long.SIZE - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /* package private */ static long getBucketUpperBound(final int index) {
+        return index == BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << index;
+    }
+
+    private final LongAdder[] _buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder _totalNanos = new LongAdder();
+    private final LongAccumulator _maxNanos = new LongAccumulator(Math::max, 0);
+
+    // NOTE: The last bounded bucket ends at 2^38 nanoseconds (about 275 seconds)
+    /* package private */ static final int BUCKET_COUNT = 40;
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of a latency histogram maintained by a file sink. Latencies are
+ * counted in power of two buckets of nanoseconds; see
+ * {@link #getBucketUpperBoundsNanos()}. Percentiles are therefore
+ * approximate and reported as the upper bound of the bucket containing the
+ * percentile, limited to the maximum recorded latency.
+ *
+ * This class is immutable.
+ *
+ * @author agent (agent at local)
+ */
+public final class LatencyStatistics {
+
+    /**
+     * The number of recorded latencies.
+     *
+     * @return The number of recorded latencies.
+     */
+    public long getCount() {
+        return _count;
+    }
+
+    /**
+     * The sum of the recorded latencies in nanoseconds.
+     *
+     * @return The sum of the recorded latencies in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return _totalNanos;
+    }
+
+    /**
+     * The largest recorded latency in nanoseconds.
+     *
+     * @return The largest recorded latency in nanoseconds.
+     */
+    public long getMaxNanos() {
+        return _maxNanos;
+    }
+
+    /**
+     * The mean of the recorded latencies in nanoseconds.
+     *
+     * @return The mean latency in nanoseconds or zero if none were recorded.
+     */
+    public double getMeanNanos() {
+        return _count == 0 ? 0 : (double) _totalNanos / _count;
+    }
+
+    /**
+     * The exclusive upper bound of each bucket in nanoseconds. The last
+     * bucket is unbounded and reported as {@link Long#MAX_VALUE}.
+     *
+     * @return The upper bound of each bucket in nanoseconds.
+     */
+    public long[] getBucketUpperBoundsNanos() {
+        final long[] upperBounds = new long[_bucketCounts.length];
+        for (int i = 0; i < upperBounds.length; ++i) {
+            upperBounds[i] = LatencyHistogram.getBucketUpperBound(i);
+        }
+        return upperBounds;
+    }
+
+    /**
+     * The number of recorded latencies in each bucket.
+     *
+     * @return The number of recorded latencies in each bucket.
+     */
+    public long[] getBucketCounts() {
+        return Arrays.copyOf(_bucketCounts, _bucketCounts.length);
+    }
+
+    /**
+     * Approximate a percentile of the recorded latencies.
+     *
+     * @param percentile The percentile between 0 and 100.
+     * @return The approximate percentile in nanoseconds or zero if none were recorded.
+     */
+    public long getPercentileNanos(final double percentile) {
+        final long rank = (long) Math.ceil(percentile / 100.0 * _count);
+        long cumulative = 0;
+        for (int i = 0; i < _bucketCounts.length; ++i) {
+            cumulative += _bucketCounts[i];
+            if (cumulative >= rank && cumulative > 0) {
+                return Math.min(LatencyHistogram.getBucketUpperBound(i), _maxNanos);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "LatencyStatistics{Count=%d, MeanNanos=%.1f, P50Nanos=%d, P99Nanos=%d, MaxNanos=%d}",
+                _count,
+                getMeanNanos(),
+                getPercentileNanos(50),
+                getPercentileNanos(99),
+                _maxNanos);
+    }
+
+    /* package private */ LatencyStatistics(final long[] bucketCounts, final long totalNanos, final long maxNanos) {
+        _bucketCounts = bucketCounts;
+        _totalNanos = totalNanos;
+        _maxNanos = maxNanos;
+        long count = 0;
+        for (final long bucketCount : bucketCounts) {
+            count += bucketCount;
+        }
+        _count = count;
+    }
+
+    private final long[] _bucketCounts;
+    private final long _count;
+    private final long _totalNanos;
+    private final long _maxNanos;
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Appender which starts its delegate {@link Appender} on a background thread
+ * and buffers events until the delegate has started. Starting the delegate
+ * (e.g. opening the file and cleaning up history) is therefore removed from
+ * the caller's path. Buffered events are forwarded to the delegate in the
+ * order they were appended before any subsequent event.
+ *
+ * The buffer holds up to the max queue size of the sink's current
+ * {@link FileSinkConfiguration}. When the buffer is full events are either
+ * discarded or the caller blocks until the delegate has started; discarded
+ * events are reported to the {@link SinkInstrumentation}. Stopping this
+ * appender before the background start completes starts the delegate on
+ * the calling thread so that buffered events are written.
+ *
+ * Callers wait on a {@link ReentrantLock} rather than a monitor so that a
+ * blocked caller parks; a virtual thread blocked here releases its carrier
+ * thread.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class LazyStartAppender
+        extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements QueueingAppender {
+
+    /* package private */ LazyStartAppender(
+            final Appender<ILoggingEvent> delegate,
+            final Runnable starter,
+            final Supplier<FileSinkConfiguration> configuration,
+            final SinkInstrumentation instrumentation) {
+        _delegate = delegate;
+        _starter = starter;
+        _configuration = configuration;
+        _instrumentation = instrumentation;
+        _buffer = new ArrayDeque<>(configuration.get().getMaxQueueSize());
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        getContext().getScheduledExecutorService().execute(this::startDelegate);
+    }
+
+    @Override
+    public void stop() {
+        startDelegate();
+        _delegate.stop();
+        super.stop();
+    }
+
+    @Override
+    public int getNumberOfElementsInQueue() {
+        final int buffered;
+        _bufferLock.lock();
+        try {
+            buffered = _buffer.size();
+        } finally {
+            _bufferLock.unlock();
+        }
+        if (_delegate instanceof QueueingAppender) {
+            return buffered + ((QueueingAppender) _delegate).getNumberOfElementsInQueue();
+        }
+        return buffered;
+    }
+
+    @Override
+    public void setMaxFlushTime(final int maxFlushTime) {
+        if (_delegate instanceof QueueingAppender) {
+            ((QueueingAppender) _delegate).setMaxFlushTime(maxFlushTime);
+        }
+    }
+
+    @Override
+    public void onReconfigure() {
+        if (_delegate instanceof QueueingAppender) {
+            ((QueueingAppender) _delegate).onReconfigure();
+        }
+    }
+
+    /* package private */ Appender<ILoggingEvent> getDelegate() {
+        return _delegate;
+    }
+
+    /* package private */ boolean isDelegateStarted() {
+        return _delegateStarted;
+    }
+
+    @Override
+    protected void append(final ILoggingEvent event) {
+        if (!_delegateStarted) {
+            _bufferLock.lock();
+            try {
+                while (!_delegateStarted) {
+                    final FileSinkConfiguration configuration = _configuration.get();
+                    if (_buffer.size() < configuration.getMaxQueueSize()) {
+                        event.prepareForDeferredProcessing();
+                        _buffer.addLast(event);
+                        return;
+                    }
+                    if (configuration.isDropWhenQueueFull()) {
+                        _instrumentation.onDiscard(EncodedLoggingEvent.getEventCount(event));
+                        return;
+                    }
+                    try {
+                        _started.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        addWarn("Interrupted while waiting for start; event discarded", e);
+                        _instrumentation.onDiscard(EncodedLoggingEvent.getEventCount(event));
+                        return;
+                    }
+                }
+            } finally {
+                _bufferLock.unlock();
+            }
+        }
+        _delegate.doAppend(event);
+    }
+
+    /* package private */ void startDelegate() {
+        synchronized (_startLock) {
+            if (_delegateStarted) {
+                return;
+            }
+            // CHECKSTYLE.OFF: IllegalCatch - A failed start must not block waiting callers
+            try {
+                _starter.run();
+            } catch (final RuntimeException e) {
+                addError("Failed to start appender", e);
+            }
+            // CHECKSTYLE.ON: IllegalCatch
+            _bufferLock.lock();
+            try {
+                for (final ILoggingEvent event : _buffer) {
+                    _delegate.doAppend(event);
+                }
+                _buffer.clear();
+                _delegateStarted = true;
+                _started.signalAll();
+            } finally {
+                _bufferLock.unlock();
+            }
+        }
+    }
+
+    private final Appender<ILoggingEvent> _delegate;
+    private final Runnable _starter;
+    private final Supplier<FileSinkConfiguration> _configuration;
+    private final SinkInstrumentation _instrumentation;
+    private final Deque<ILoggingEvent> _buffer;
+    private final Object _startLock = new Object();
+    private final ReentrantLock _bufferLock = new ReentrantLock();
+    private final Condition _started = _bufferLock.newCondition();
+    private volatile boolean _delegateStarted = false;
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+/**
+ * Appender which queues events before writing them. Allows the file sink to
+ * bound how long stopping waits for queued events and to report how many
+ * events were written or abandoned.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ interface QueueingAppender {
+
+    /**
+     * The number of events queued but not yet written.
+     *
+     * @return The number of queued events.
+     */
+    int getNumberOfElementsInQueue();
+
+    /**
+     * Set the maximum time to wait for queued events to be written on stop.
+     *
+     * @param maxFlushTime The maximum time to wait in milliseconds.
+     */
+    void setMaxFlushTime(int maxFlushTime);
+
+    /**
+     * Notify the appender that the sink's {@link FileSinkConfiguration}
+     * changed so that callers waiting for capacity re-evaluate the current
+     * max queue size.
+     */
+    void onReconfigure();
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Encoder of a file sink's records which encodes each
+ * {@link EncodedLoggingEvent} once however many outputs write it. Other
+ * events, such as drop summaries, are encoded by the pattern on each write.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class RecordEncoder extends PatternLayoutEncoder {
+
+    @Override
+    public byte[] encode(final ILoggingEvent event) {
+        if (event instanceof EncodedLoggingEvent) {
+            return ((EncodedLoggingEvent) event).encode(super::encode);
+        }
+        return super.encode(event);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Enforces retention of rolled files from an in-memory index of rolled files
+ * and their sizes. The directory is scanned once when the index is
+ * initialized; afterwards the index is updated incrementally on each roll so
+ * that enforcing the file count, total size and free disk space limits
+ * costs a constant number of file system operations per roll instead of a
+ * directory scan.
+ *
+ * Rolled files are expected to be named
+ * {@code <name>.<yyyy-MM-dd-HH>.<index><extension>} as created by
+ * {@link BaseFileSink}; the files are ordered by date and then by index.
+ * The {@link SegmentIndex} of a rolled file is deleted with it.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class RetentionManager {
+
+    /**
+     * Public constructor.
+     *
+     * @param directory The directory containing the rolled files.
+     * @param name The file name without extension.
+     * @param extension The extension of rolled files including any compression suffix.
+     * @param maxFiles The maximum number of rolled files to retain; zero for unbounded.
+     * @param maxTotalSize The maximum total size of rolled files in bytes; zero for unbounded.
+     * @param minFreeDiskPercentage The minimum percentage of free disk space to maintain.
+     */
+    /* package private */ RetentionManager(
+            final File directory,
+            final String name,
+            final String extension,
+            final int maxFiles,
+            final long maxTotalSize,
+            final int minFreeDiskPercentage) {
+        _directory = directory;
+        _pattern = createRolledFilePattern(name, extension);
+        _maxFiles = maxFiles;
+        _maxTotalSize = maxTotalSize;
+        _minFreeDiskPercentage = minFreeDiskPercentage;
+    }
+
+    /**
+     * Build the index from the rolled files in the directory and enforce
+     * the retention limits. This is the only operation which scans the
+     * directory.
+     */
+    /* package private */ synchronized void initialize() {
+        _segments.clear();
+        _totalSize = 0;
+        _pending = null;
+        final List<IndexedFile> files = new ArrayList<>();
+        final File[] candidates = _directory.listFiles();
+        if (candidates != null) {
+            for (final File candidate : candidates) {
+                final Matcher matcher = _pattern.matcher(candidate.getName());
+                if (matcher.matches()) {
+                    files.add(new IndexedFile(
+                            candidate,
+                            matcher.group(1),
+                            Long.parseLong(matcher.group(2)),
+                            candidate.length()));
+                }
+            }
+        }
+        files.sort(ORDER);
+        for (final IndexedFile file : files) {
+            add(file);
+        }
+        enforce();
+    }
+
+    /**
+     * Record a newly rolled file and enforce the retention limits.
+     *
+     * @param file The rolled file.
+     * @param estimatedSize The size of the rolled file if it does not exist yet
+     * (e.g. while it is being compressed); the estimate is replaced by the
+     * actual size on the next roll.
+     */
+    /* package private */ synchronized void onRollover(final File file, final long estimatedSize) {
+        resolvePending();
+        final IndexedFile indexedFile;
+        if (file.exists()) {
+            indexedFile = new IndexedFile(file, "", 0, file.length());
+        } else {
+            indexedFile = new IndexedFile(file, "", 0, estimatedSize);
+            _pending = indexedFile;
+        }
+        add(indexedFile);
+        enforce();
+    }
+
+    /* package private */ synchronized int getFileCount() {
+        return _segments.size();
+    }
+
+    /* package private */ synchronized long getTotalSize() {
+        return _totalSize;
+    }
+
+    /* package private */ static Pattern createRolledFilePattern(final String name, final String extension) {
+        return Pattern.compile(Pattern.quote(name) + "\\.(\\d{4}-\\d{2}-\\d{2}-\\d{2})\\.(\\d+)" + Pattern.quote(extension));
+    }
+
+    private void resolvePending() {
+        if (_pending != null) {
+            if (_pending.getFile().exists()) {
+                final long actualSize = _pending.getFile().length();
+                _totalSize += actualSize - _pending.getSize();
+                _pending.setSize(actualSize);
+            }
+            _pending = null;
+        }
+    }
+
+    private void add(final IndexedFile file) {
+        _segments.addLast(file);
+        _totalSize += file.getSize();
+    }
+
+    private void enforce() {
+        // NOTE: A file still being compressed is never deleted since the
+        // compressor would recreate it; it is the newest file in the index.
+        while (!_segments.isEmpty() && _segments.peekFirst() != _pending && isOverBudget()) {
+            final IndexedFile oldest = _segments.removeFirst();
+            _totalSize -= oldest.getSize();
+            try {
+                Files.deleteIfExists(oldest.getFile().toPath());
+                Files.deleteIfExists(SegmentIndex.getFile(oldest.getFile()).toPath());
+            } catch (final IOException e) {
+                LOGGER.warn(String.format("Unable to delete rolled file; file=%s", oldest.getFile()), e);
+            }
+        }
+    }
+
+    private boolean isOverBudget() {
+        return _maxFiles > 0 && _segments.size() > _maxFiles
+                || _maxTotalSize > 0 && _totalSize > _maxTotalSize
+                || isDiskSpaceLow();
+    }
+
+    private boolean isDiskSpaceLow() {
+        if (_minFreeDiskPercentage <= 0) {
+            return false;
+        }
+        return _directory.getUsableSpace() * 100 < _directory.getTotalSpace() * _minFreeDiskPercentage;
+    }
+
+    private final File _directory;
+    private final Pattern _pattern;
+    private final int _maxFiles;
+    private final long _maxTotalSize;
+    private final int _minFreeDiskPercentage;
+    private final Deque<IndexedFile> _segments = new ArrayDeque<>();
+    private long _totalSize = 0;
+    @Nullable
+    private IndexedFile _pending;
+
+    private static final Comparator<IndexedFile> ORDER = Comparator
+            .comparing(IndexedFile::getDate)
+            .thenComparingLong(IndexedFile::getIndex);
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(RetentionManager.class);
+
+    private static final class IndexedFile {
+
+        IndexedFile(final File file, final String date, final long index, final long size) {
+            _file = file;
+            _date = date;
+            _index = index;
+            _size = size;
+        }
+
+        public File getFile() {
+            return _file;
+        }
+
+        public String getDate() {
+            return _date;
+        }
+
+        public long getIndex() {
+            return _index;
+        }
+
+        public long getSize() {
+            return _size;
+        }
+
+        public void setSize(final long value) {
+            _size = value;
+        }
+
+        private final File _file;
+        private final String _date;
+        private final long _index;
+        private long _size;
+    }
+}
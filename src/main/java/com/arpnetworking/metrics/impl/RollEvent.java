@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for rolling the file. Compression of the rolled file
+ * by Logback runs asynchronously and is not included.
+ *
+ * @author agent (agent at local)
+ */
+@Name("com.arpnetworking.metrics.FileSinkRoll")
+@Label("File Sink Roll")
+@Description("Rolling the file")
+@Category({"Metrics", "File Sink"})
+@StackTrace(false)
+/* package private */ final class RollEvent extends Event {
+
+    /* package private */ void setFile(final String value) {
+        _file = value;
+    }
+
+    @Label("File")
+    @Description("The active file which was rolled")
+    @Name("file")
+    private String _file;
+}
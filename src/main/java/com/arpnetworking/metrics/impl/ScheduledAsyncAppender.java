@@ -0,0 +1,234 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous appender which queues events and writes them to its delegate
+ * {@link Appender} on the threads of a shared {@link IoScheduler} instead
+ * of a dedicated worker thread. Queueing and discarding behave like
+ * Logback's {@link ch.qos.logback.classic.AsyncAppender}; events at or below
+ * {@link Level#INFO} are discarded when the remaining queue capacity drops
+ * below the discarding threshold, otherwise the caller blocks until space
+ * is available. The queue is allocated with the queue size the sink was
+ * built with, while the discarding threshold and the number of events which
+ * may be queued before the caller blocks follow the sink's current
+ * {@link FileSinkConfiguration}.
+ *
+ * Callers blocked on a reduced max queue size wait on a
+ * {@link CapacityCondition} signalled as events are written, when the sink
+ * is reconfigured and when this appender stops. Events appended once it has
+ * stopped are discarded.
+ *
+ * Discarded events are reported to the {@link SinkInstrumentation}.
+ *
+ * Once the scheduler is closed queued events are written on the recording
+ * thread instead, so that they are neither stranded in the queue nor block
+ * producers waiting for capacity.
+ *
+ * On stop the remaining queued events are written on the calling thread
+ * within the max flush time; events still queued when it expires are
+ * abandoned and remain counted by {@link #getNumberOfElementsInQueue()}. A
+ * scheduler owned by this appender, rather than shared, is then closed.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class ScheduledAsyncAppender
+        extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements IoScheduler.Task, QueueingAppender {
+
+    /* package private */ ScheduledAsyncAppender(
+            final Appender<ILoggingEvent> delegate,
+            final IoScheduler scheduler,
+            final boolean ownsScheduler,
+            final int queueSize,
+            final Supplier<FileSinkConfiguration> configuration,
+            final SinkInstrumentation instrumentation) {
+        _delegate = delegate;
+        _scheduler = scheduler;
+        _ownsScheduler = ownsScheduler;
+        _queue = new ArrayBlockingQueue<>(queueSize);
+        _queueSize = queueSize;
+        _configuration = configuration;
+        _instrumentation = instrumentation;
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        _capacity.signal();
+        drain();
+        _delegate.stop();
+        if (_ownsScheduler) {
+            _scheduler.close();
+        }
+    }
+
+    @Override
+    public void run(final int maxEvents) {
+        final BatchWriteEvent batchWriteEvent = new BatchWriteEvent();
+        batchWriteEvent.begin();
+        final int batchSize = write(maxEvents);
+        batchWriteEvent.setBatchSize(batchSize);
+        batchWriteEvent.setQueueDepth(_queue.size());
+        batchWriteEvent.commit();
+        release();
+        if (!_queue.isEmpty() && isStarted()) {
+            schedule();
+        }
+    }
+
+    /* package private */ Appender<ILoggingEvent> getDelegate() {
+        return _delegate;
+    }
+
+    @Override
+    public int getNumberOfElementsInQueue() {
+        return _queue.size();
+    }
+
+    /* package private */ int getRemainingCapacity() {
+        return _queue.remainingCapacity();
+    }
+
+    @Override
+    public void setMaxFlushTime(final int maxFlushTime) {
+        _maxFlushTimeInMillis = maxFlushTime;
+    }
+
+    @Override
+    public void onReconfigure() {
+        _capacity.signal();
+    }
+
+    @Override
+    protected void append(final ILoggingEvent event) {
+        final FileSinkConfiguration configuration = _configuration.get();
+        // NOTE: The queue may exceed a reduced max queue size until it is written
+        final int remainingCapacity = Math.max(0, configuration.getMaxQueueSize() - _queue.size());
+        if (remainingCapacity < configuration.getDiscardingThreshold()
+                && event.getLevel().toInt() <= Level.INFO_INT) {
+            _instrumentation.onDiscard(EncodedLoggingEvent.getEventCount(event));
+            return;
+        }
+        if (configuration.getMaxQueueSize() < _queueSize && !awaitCapacity()) {
+            _instrumentation.onDiscard(EncodedLoggingEvent.getEventCount(event));
+            return;
+        }
+        event.prepareForDeferredProcessing();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                _queue.put(event);
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        // NOTE: Events appended while writing on the caller are written by the same loop
+        while (!_queue.isEmpty() && _running.compareAndSet(false, true)) {
+            if (_scheduler.schedule(this)) {
+                return;
+            }
+            write(Integer.MAX_VALUE);
+            release();
+        }
+    }
+
+    private void release() {
+        _running.set(false);
+        // NOTE: Wakes a stop waiting to write the remaining events
+        _capacity.signal();
+    }
+
+    private void drain() {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(_maxFlushTimeInMillis);
+        if (!_capacity.await(() -> _running.compareAndSet(false, true), deadline)) {
+            warnFlushTimeout();
+            return;
+        }
+        while (!_queue.isEmpty()) {
+            if (System.nanoTime() - deadline >= 0) {
+                warnFlushTimeout();
+                return;
+            }
+            write(1);
+        }
+    }
+
+    private void warnFlushTimeout() {
+        addWarn(String.format(
+                "Max queue flush timeout (%d ms) exceeded. Approximately %d queued events were possibly discarded.",
+                _maxFlushTimeInMillis,
+                _queue.size()));
+    }
+
+    private boolean awaitCapacity() {
+        // NOTE: The queue only blocks when full at its allocated size
+        _capacity.await(() -> !isStarted() || _queue.size() < _configuration.get().getMaxQueueSize());
+        return isStarted();
+    }
+
+    private int write(final int maxEvents) {
+        int written = 0;
+        while (written < maxEvents) {
+            final ILoggingEvent event = _queue.poll();
+            if (event == null) {
+                break;
+            }
+            _capacity.signal();
+            _delegate.doAppend(event);
+            ++written;
+        }
+        return written;
+    }
+
+    private final Appender<ILoggingEvent> _delegate;
+    private final IoScheduler _scheduler;
+    private final boolean _ownsScheduler;
+    private final BlockingQueue<ILoggingEvent> _queue;
+    private final int _queueSize;
+    private final Supplier<FileSinkConfiguration> _configuration;
+    private final SinkInstrumentation _instrumentation;
+    private final CapacityCondition _capacity = new CapacityCondition();
+    // NOTE: Set while the queue is scheduled or being written to ensure a single writer
+    private final AtomicBoolean _running = new AtomicBoolean(false);
+    private volatile int _maxFlushTimeInMillis = DEFAULT_MAX_FLUSH_TIME_IN_MILLIS;
+
+    private static final int DEFAULT_MAX_FLUSH_TIME_IN_MILLIS = 1000;
+}
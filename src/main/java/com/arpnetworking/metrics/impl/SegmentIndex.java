@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+/**
+ * Sparse index of a file sink segment mapping times to byte offsets. The
+ * index is written by {@link IndexingOutputStream} to a sidecar file named
+ * after the segment with an {@code .idx} suffix, which is moved and deleted
+ * together with the segment.
+ *
+ * The sidecar is a sequence of 16 byte entries, each a big endian wall
+ * clock time in milliseconds followed by a big endian byte offset. An entry
+ * is recorded immediately before the event at its offset is written, so
+ * every event before the offset was written no later than the entry's
+ * time. For a compressed segment each offset is the start of a gzip
+ * member. A trailing partial entry is ignored.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class SegmentIndex {
+
+    /**
+     * Read the index of a segment. A segment without an index has an
+     * empty index.
+     *
+     * @param segment The segment file.
+     * @return The {@link SegmentIndex} of the segment.
+     * @throws IOException If the index exists but cannot be read.
+     */
+    /* package private */ static SegmentIndex read(final File segment) throws IOException {
+        final File file = getFile(segment);
+        if (!file.exists()) {
+            return EMPTY;
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        final int size = buffer.remaining() / ENTRY_SIZE;
+        final long[] times = new long[size];
+        final long[] offsets = new long[size];
+        for (int i = 0; i < size; ++i) {
+            times[i] = buffer.getLong();
+            offsets[i] = buffer.getLong();
+        }
+        return new SegmentIndex(times, offsets);
+    }
+
+    /**
+     * The sidecar index file of a segment.
+     *
+     * @param segment The segment file.
+     * @return The index file.
+     */
+    /* package private */ static File getFile(final File segment) {
+        return new File(segment.getPath() + EXTENSION);
+    }
+
+    /**
+     * The offset from which to read events written at or after the
+     * specified time; every event before it was written earlier.
+     *
+     * @param timeInMillis The time in milliseconds since the epoch.
+     * @return The offset of the last entry before the first entry at or
+     * after the time, or zero.
+     */
+    /* package private */ long getStartOffset(final long timeInMillis) {
+        long offset = 0;
+        for (int i = 0; i < _times.length && _times[i] < timeInMillis; ++i) {
+            offset = _offsets[i];
+        }
+        return offset;
+    }
+
+    /**
+     * The offset after which every event was written at or after the
+     * specified time.
+     *
+     * @param timeInMillis The time in milliseconds since the epoch.
+     * @return The offset of the first entry at or after the time, or
+     * {@link Long#MAX_VALUE}.
+     */
+    /* package private */ long getEndOffset(final long timeInMillis) {
+        for (int i = 0; i < _times.length; ++i) {
+            if (_times[i] >= timeInMillis) {
+                return _offsets[i];
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /* package private */ int size() {
+        return _times.length;
+    }
+
+    private SegmentIndex(final long[] times, final long[] offsets) {
+        _times = times;
+        _offsets = offsets;
+    }
+
+    private final long[] _times;
+    private final long[] _offsets;
+
+    /* package private */ static final String EXTENSION = ".idx";
+    /* package private */ static final int ENTRY_SIZE = 2 * Long.BYTES;
+    private static final SegmentIndex EMPTY = new SegmentIndex(new long[0], new long[0]);
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the events of a single active or rolled file sink segment. Gzip
+ * compressed segments, including those written with streaming compression,
+ * are decompressed as they are read. Records are decoded with a streaming
+ * parser into a single reused {@link EventView}; records which are not "2f"
+ * events, such as drop summaries, are skipped.
+ *
+ * A segment which ends in an incomplete record or gzip member, as the
+ * active segment may while it is being written, ends at the last complete
+ * record and is reported as truncated. Any other malformed content fails
+ * the read with an {@link IOException}.
+ *
+ * A reader created with {@link #create(File)} is instead fed the bytes of
+ * the segment as they become available, for example a line at a time while
+ * tailing. Its non-blocking parser and event view are reused across feeds;
+ * a feed which ends within a record is reported as truncated.
+ *
+ * This class is not thread safe.
+ *
+ * @author agent (agent at local)
+ */
+public final class SegmentReader implements Closeable {
+
+    /**
+     * Open a segment.
+     *
+     * @param file The segment file; files ending in {@code .gz} are decompressed.
+     * @return New {@link SegmentReader} instance.
+     * @throws IOException If the segment cannot be opened.
+     */
+    public static SegmentReader open(final File file) throws IOException {
+        return open(file, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Open a range of a segment, typically located with its
+     * {@link SegmentIndex}. An uncompressed range is read from the first
+     * line starting at or after the start offset. A compressed range must
+     * start at a gzip member; if it does not the whole segment is read.
+     *
+     * @param file The segment file; files ending in {@code .gz} are decompressed.
+     * @param startOffset The offset of the first byte to read.
+     * @param endOffset The offset after the last byte to read.
+     * @return New {@link SegmentReader} instance.
+     * @throws IOException If the segment cannot be opened.
+     */
+    /* package private */ static SegmentReader open(
+            final File file,
+            final long startOffset,
+            final long endOffset) throws IOException {
+        final boolean compressed = file.getName().endsWith(AppenderFactory.GZIP_EXTENSION);
+        // NOTE: Start at the end of the preceding line to skip a partial line
+        final long position = compressed || startOffset == 0 ? startOffset : startOffset - 1;
+        final InputStream stream = new BoundedInputStream(
+                Channels.newInputStream(FileChannel.open(file.toPath()).position(position)),
+                endOffset - position);
+        try {
+            if (compressed) {
+                return openCompressed(file, stream, position);
+            }
+            if (position != startOffset) {
+                skipLine(stream);
+            }
+            return new SegmentReader(file, stream);
+        } catch (final IOException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create a reader which is fed the bytes of a segment with
+     * {@link #feed(byte[], int, int)} rather than reading the segment.
+     *
+     * @param file The segment file the bytes are read from.
+     * @return New {@link SegmentReader} instance.
+     * @throws IOException If the parser cannot be created.
+     */
+    /* package private */ static SegmentReader create(final File file) throws IOException {
+        return new SegmentReader(file, JSON_FACTORY.createNonBlockingByteArrayParser());
+    }
+
+    /**
+     * Feed the next bytes of the segment to a reader created with
+     * {@link #create(File)}. The bytes previously fed must have been read
+     * with {@link #next()} until it returned false.
+     *
+     * @param buffer The buffer containing the bytes.
+     * @param start The offset of the first byte in the buffer.
+     * @param end The offset after the last byte in the buffer.
+     * @throws IOException If the bytes cannot be fed.
+     */
+    /* package private */ void feed(final byte[] buffer, final int start, final int end) throws IOException {
+        ((ByteArrayFeeder) _parser.getNonBlockingInputFeeder()).feedInput(buffer, start, end);
+    }
+
+    /**
+     * Read the next event.
+     *
+     * @return True if an event was read and false if the end of the segment was reached.
+     * @throws IOException If the segment cannot be read or is malformed.
+     */
+    public boolean next() throws IOException {
+        _event.reset();
+        if (_truncated) {
+            return false;
+        }
+        try {
+            JsonToken token = _parser.nextToken();
+            // NOTE: A fed reader has read all bytes fed between records
+            while (token != null && token != JsonToken.NOT_AVAILABLE) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(_parser, "Expected record object");
+                }
+                if (readRecord()) {
+                    return true;
+                }
+                _event.reset();
+                token = _parser.nextToken();
+            }
+        } catch (final JsonEOFException | EOFException e) {
+            _event.reset();
+            _truncated = true;
+        }
+        return false;
+    }
+
+    /**
+     * The event most recently read by {@link #next()}. The same instance is
+     * returned and updated for each event.
+     *
+     * @return The {@link EventView}.
+     */
+    public EventView getEvent() {
+        return _event;
+    }
+
+    /**
+     * The segment file.
+     *
+     * @return The segment file.
+     */
+    public File getFile() {
+        return _file;
+    }
+
+    /**
+     * Whether the segment ended in an incomplete record or gzip member.
+     *
+     * @return True if and only if the segment was truncated.
+     */
+    public boolean isTruncated() {
+        return _truncated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _parser.close();
+    }
+
+    private static SegmentReader openCompressed(
+            final File file,
+            final InputStream stream,
+            final long position) throws IOException {
+        try {
+            return new SegmentReader(file, new GZIPInputStream(stream, BUFFER_SIZE));
+        } catch (final EOFException e) {
+            // NOTE: The range is empty or ends within the header of the first member
+            stream.close();
+            return new SegmentReader(file, InputStream.nullInputStream());
+        } catch (final ZipException e) {
+            if (position == 0) {
+                throw e;
+            }
+            stream.close();
+            return open(file);
+        }
+    }
+
+    private static void skipLine(final InputStream stream) throws IOException {
+        int value = stream.read();
+        while (value >= 0 && value != '\n') {
+            value = stream.read();
+        }
+    }
+
+    private boolean readRecord() throws IOException {
+        boolean isEvent = false;
+        while (nextToken() == JsonToken.FIELD_NAME) {
+            final String field = _parser.getCurrentName();
+            final JsonToken token = nextToken();
+            if (VERSION_FIELD.equals(field) && token == JsonToken.VALUE_STRING) {
+                isEvent = VERSION.equals(_parser.getText());
+            } else if (ANNOTATIONS_FIELD.equals(field) && token == JsonToken.START_OBJECT) {
+                readAnnotations();
+            } else if (COUNTERS_FIELD.equals(field) && token == JsonToken.START_OBJECT) {
+                readMetrics(_event::newCounter);
+            } else if (GAUGES_FIELD.equals(field) && token == JsonToken.START_OBJECT) {
+                readMetrics(_event::newGauge);
+            } else if (TIMERS_FIELD.equals(field) && token == JsonToken.START_OBJECT) {
+                readMetrics(_event::newTimer);
+            } else {
+                skipChildren();
+            }
+        }
+        return isEvent;
+    }
+
+    private void readAnnotations() throws IOException {
+        while (nextToken() == JsonToken.FIELD_NAME) {
+            final String name = _parser.getCurrentName();
+            if (nextToken().isScalarValue()) {
+                _event.annotate(name, _parser.getValueAsString());
+            } else {
+                skipChildren();
+            }
+        }
+    }
+
+    private void readMetrics(final Function<String, List<Number>> addMetric) throws IOException {
+        while (nextToken() == JsonToken.FIELD_NAME) {
+            final List<Number> samples = addMetric.apply(_parser.getCurrentName());
+            if (nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(_parser, "Expected metric object");
+            }
+            while (nextToken() == JsonToken.FIELD_NAME) {
+                final String field = _parser.getCurrentName();
+                if (nextToken() == JsonToken.START_ARRAY && VALUES_FIELD.equals(field)) {
+                    readSamples(samples);
+                } else {
+                    skipChildren();
+                }
+            }
+        }
+    }
+
+    private void readSamples(final List<Number> samples) throws IOException {
+        while (nextToken() == JsonToken.START_OBJECT) {
+            while (nextToken() == JsonToken.FIELD_NAME) {
+                final String field = _parser.getCurrentName();
+                if (nextToken().isNumeric() && VALUE_FIELD.equals(field)) {
+                    samples.add(_parser.getNumberValue());
+                } else {
+                    skipChildren();
+                }
+            }
+        }
+        if (_parser.currentToken() != JsonToken.END_ARRAY) {
+            throw new JsonParseException(_parser, "Expected sample object");
+        }
+    }
+
+    private JsonToken nextToken() throws IOException {
+        final JsonToken token = _parser.nextToken();
+        if (token == JsonToken.NOT_AVAILABLE) {
+            // NOTE: The bytes fed end within a record
+            throw new EOFException();
+        }
+        return token;
+    }
+
+    private void skipChildren() throws IOException {
+        // NOTE: The parser's own implementation does not end on bytes not yet fed
+        int depth = _parser.currentToken().isStructStart() ? 1 : 0;
+        while (depth > 0) {
+            final JsonToken token = nextToken();
+            if (token.isStructStart()) {
+                ++depth;
+            } else if (token.isStructEnd()) {
+                --depth;
+            }
+        }
+    }
+
+    /* package private */ SegmentReader(final File file, final InputStream stream) throws IOException {
+        this(file, JSON_FACTORY.createParser(stream));
+    }
+
+    private SegmentReader(final File file, final JsonParser parser) {
+        _file = file;
+        _parser = parser;
+    }
+
+    private final File _file;
+    private final JsonParser _parser;
+    private final EventView _event = new EventView();
+    private boolean _truncated = false;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String VERSION = "2f";
+    private static final String VERSION_FIELD = "version";
+    private static final String ANNOTATIONS_FIELD = "annotations";
+    private static final String COUNTERS_FIELD = "counters";
+    private static final String GAUGES_FIELD = "gauges";
+    private static final String TIMERS_FIELD = "timers";
+    private static final String VALUES_FIELD = "values";
+    private static final String VALUE_FIELD = "value";
+
+    /**
+     * Reads at most a fixed number of bytes from an {@link InputStream}.
+     */
+    private static final class BoundedInputStream extends InputStream {
+
+        BoundedInputStream(final InputStream stream, final long limit) {
+            _stream = stream;
+            _remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (_remaining <= 0) {
+                return -1;
+            }
+            final int value = _stream.read();
+            if (value >= 0) {
+                --_remaining;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            if (_remaining <= 0) {
+                return -1;
+            }
+            final int read = _stream.read(buffer, offset, (int) Math.min(length, _remaining));
+            if (read > 0) {
+                _remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            // NOTE: Reading further gzip members depends on the available bytes
+            return (int) Math.min(_stream.available(), _remaining);
+        }
+
+        @Override
+        public void close() throws IOException {
+            _stream.close();
+        }
+
+        private final InputStream _stream;
+        private long _remaining;
+    }
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+
+/**
+ * Replays many file sink segments concurrently. Segments are decompressed
+ * and decoded by a {@link SegmentReader} per segment on a bounded pool of
+ * threads while the events are delivered to the consumer on the calling
+ * thread, either segment by segment in the order given or merged across
+ * all segments in time order.
+ *
+ * Each segment buffers a bounded number of decoded events. A segment whose
+ * buffer is full yields its thread until the consumer drains half of it, so a
+ * slow consumer bounds memory and the threads are shared fairly between
+ * any number of segments. In per file order the threads decode at most one
+ * segment per thread ahead of the consumer; in time merged order every
+ * segment is open at once.
+ *
+ * The time merged order compares the time in an annotation of each event,
+ * by default {@code _end}, since events are written in the order they end.
+ * Events within a segment are assumed to be in time order; events without
+ * a valid time order before all others.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+public final class SegmentReplayer {
+
+    /**
+     * Replay the segments of a file sink.
+     *
+     * @param reader The {@link FileSinkReader} providing the segments.
+     * @param consumer The consumer of each event.
+     * @return The number of events replayed.
+     * @throws IOException If a segment cannot be read or is malformed.
+     */
+    public long replay(final FileSinkReader reader, final Consumer<EventView> consumer) throws IOException {
+        return replay(reader.getSegments(), consumer);
+    }
+
+    /**
+     * Replay segments. Unlike {@link FileSinkReader#read(Consumer)} each
+     * {@link EventView} passed to the consumer is a distinct instance which
+     * remains valid after the call.
+     *
+     * @param segments The segment files in order.
+     * @param consumer The consumer of each event.
+     * @return The number of events replayed.
+     * @throws IOException If a segment cannot be read or is malformed.
+     */
+    public long replay(final List<File> segments, final Consumer<EventView> consumer) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(_threadCount, runnable -> {
+            final Thread thread = new Thread(runnable, "metrics-file-sink-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final List<SegmentSource> sources = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); ++i) {
+            sources.add(new SegmentSource(segments.get(i), i, SegmentReader::open, executor, _bufferSize, _timeAnnotation));
+        }
+        try {
+            if (_order == Order.TIME_MERGED) {
+                return replayMerged(sources, consumer);
+            }
+            return replayPerFile(sources, consumer);
+        } finally {
+            for (final SegmentSource source : sources) {
+                source.close();
+            }
+            executor.shutdown();
+        }
+    }
+
+    private long replayPerFile(final List<SegmentSource> sources, final Consumer<EventView> consumer) throws IOException {
+        long count = 0;
+        for (int i = 0; i < sources.size(); ++i) {
+            // NOTE: Decode ahead of the consumer by one segment per thread
+            for (int j = i; j < Math.min(i + _threadCount, sources.size()); ++j) {
+                sources.get(j).start();
+            }
+            final SegmentSource source = sources.get(i);
+            Entry entry = source.take();
+            while (entry != null) {
+                consumer.accept(entry.getEvent());
+                ++count;
+                entry = source.take();
+            }
+        }
+        return count;
+    }
+
+    private long replayMerged(final List<SegmentSource> sources, final Consumer<EventView> consumer) throws IOException {
+        for (final SegmentSource source : sources) {
+            source.start();
+        }
+        final PriorityQueue<Entry> heads = new PriorityQueue<>(sources.size() + 1, TIME_ORDER);
+        for (final SegmentSource source : sources) {
+            final Entry entry = source.take();
+            if (entry != null) {
+                heads.add(entry);
+            }
+        }
+        long count = 0;
+        Entry head = heads.poll();
+        while (head != null) {
+            consumer.accept(head.getEvent());
+            ++count;
+            final Entry next = sources.get(head.getSourceIndex()).take();
+            if (next != null) {
+                heads.add(next);
+            }
+            head = heads.poll();
+        }
+        return count;
+    }
+
+    private SegmentReplayer(final Builder builder) {
+        _threadCount = builder._threadCount;
+        _bufferSize = builder._bufferSize;
+        _order = builder._order;
+        _timeAnnotation = builder._timeAnnotation;
+    }
+
+    private final int _threadCount;
+    private final int _bufferSize;
+    private final Order _order;
+    private final String _timeAnnotation;
+
+    private static final Comparator<Entry> TIME_ORDER = Comparator
+            .comparing(Entry::getTime, Comparator.nullsFirst(Comparator.<Instant>naturalOrder()))
+            .thenComparingInt(Entry::getSourceIndex);
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(SegmentReplayer.class);
+
+    /**
+     * The order in which replayed events are delivered.
+     */
+    public enum Order {
+        /**
+         * All events of each segment in the order the segments are given.
+         */
+        PER_FILE,
+        /**
+         * The events of all segments merged in time order.
+         */
+        TIME_MERGED
+    }
+
+    /* package private */ static final class Entry {
+
+        Entry(final EventView event, @Nullable final Instant time, final int sourceIndex) {
+            _event = event;
+            _time = time;
+            _sourceIndex = sourceIndex;
+        }
+
+        EventView getEvent() {
+            return _event;
+        }
+
+        @Nullable
+        Instant getTime() {
+            return _time;
+        }
+
+        int getSourceIndex() {
+            return _sourceIndex;
+        }
+
+        private final EventView _event;
+        @Nullable
+        private final Instant _time;
+        private final int _sourceIndex;
+    }
+
+    /**
+     * Decodes one segment into a bounded buffer. At most one thread decodes
+     * the segment at a time; it is scheduled when started and again
+     * whenever the consumer takes from a full buffer. The reader is closed
+     * by the decoding thread or, while no thread is scheduled, by the
+     * caller of {@link #close()}.
+     */
+    /* package private */ static final class SegmentSource implements Runnable {
+
+        SegmentSource(
+                final File file,
+                final int index,
+                final Opener opener,
+                final Executor executor,
+                final int capacity,
+                final String timeAnnotation) {
+            _file = file;
+            _index = index;
+            _opener = opener;
+            _executor = executor;
+            _capacity = capacity;
+            _timeAnnotation = timeAnnotation;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    synchronized (_lock) {
+                        if (_closed) {
+                            _scheduled = false;
+                            closeReader();
+                            return;
+                        }
+                        if (_buffer.size() >= _capacity) {
+                            _scheduled = false;
+                            return;
+                        }
+                    }
+                    if (_reader == null) {
+                        _reader = _opener.open(_file);
+                    }
+                    if (!_reader.next()) {
+                        finish(null);
+                        return;
+                    }
+                    final EventView event = _reader.getEvent().copy();
+                    final Entry entry = new Entry(event, event.getTime(_timeAnnotation), _index);
+                    synchronized (_lock) {
+                        _buffer.addLast(entry);
+                        if (_waiting) {
+                            _lock.notifyAll();
+                        }
+                    }
+                }
+            } catch (final IOException e) {
+                finish(e);
+            }
+        }
+
+        void start() {
+            synchronized (_lock) {
+                if (_started) {
+                    return;
+                }
+                _started = true;
+                _scheduled = true;
+            }
+            _executor.execute(this);
+        }
+
+        @Nullable
+        Entry take() throws IOException {
+            final Entry entry;
+            synchronized (_lock) {
+                while (_buffer.isEmpty() && !_done) {
+                    _waiting = true;
+                    try {
+                        _lock.wait();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while replaying " + _file);
+                    } finally {
+                        _waiting = false;
+                    }
+                }
+                entry = _buffer.pollFirst();
+                if (entry == null) {
+                    if (_failure != null) {
+                        throw new IOException("Unable to replay " + _file, _failure);
+                    }
+                    return null;
+                }
+                // NOTE: Resume decoding once half the buffer is drained to
+                // avoid rescheduling the segment for every event taken
+                if (_scheduled || _done || _buffer.size() > _capacity / 2) {
+                    return entry;
+                }
+                _scheduled = true;
+            }
+            _executor.execute(this);
+            return entry;
+        }
+
+        void close() {
+            synchronized (_lock) {
+                _closed = true;
+                if (!_scheduled) {
+                    closeReader();
+                }
+            }
+        }
+
+        private void finish(@Nullable final IOException failure) {
+            synchronized (_lock) {
+                _done = true;
+                _scheduled = false;
+                _failure = failure;
+                closeReader();
+                _lock.notifyAll();
+            }
+        }
+
+        private void closeReader() {
+            if (_reader != null) {
+                try {
+                    _reader.close();
+                } catch (final IOException e) {
+                    LOGGER.warn(String.format("Unable to close segment; file=%s", _file), e);
+                }
+                _reader = null;
+            }
+        }
+
+        private final File _file;
+        private final int _index;
+        private final Opener _opener;
+        private final Executor _executor;
+        private final int _capacity;
+        private final String _timeAnnotation;
+        private final Object _lock = new Object();
+        private final Deque<Entry> _buffer = new ArrayDeque<>();
+        @Nullable
+        private SegmentReader _reader;
+        private boolean _started = false;
+        private boolean _scheduled = false;
+        private boolean _closed = false;
+        private boolean _done = false;
+        private boolean _waiting = false;
+        @Nullable
+        private IOException _failure;
+    }
+
+    /**
+     * Opens the {@link SegmentReader} of a segment.
+     */
+    @FunctionalInterface
+    /* package private */ interface Opener {
+
+        /**
+         * Open a segment.
+         *
+         * @param file The segment file.
+         * @return The {@link SegmentReader} for the segment.
+         * @throws IOException If the segment cannot be opened.
+         */
+        SegmentReader open(File file) throws IOException;
+    }
+
+    /**
+     * Builder for {@link SegmentReplayer}.
+     *
+     * This class is not thread safe.
+     *
+     * @author agent (agent at local)
+     */
+    public static final class Builder {
+
+        /**
+         * Create an instance of {@link SegmentReplayer}.
+         *
+         * @return Instance of {@link SegmentReplayer}.
+         */
+        public SegmentReplayer build() {
+            if (_threadCount == null) {
+                _threadCount = Runtime.getRuntime().availableProcessors();
+                LOGGER.info(String.format("Defaulted null thread count; threadCount=%d", _threadCount));
+            }
+            if (_bufferSize == null) {
+                _bufferSize = DEFAULT_BUFFER_SIZE;
+                LOGGER.info(String.format("Defaulted null buffer size; bufferSize=%d", _bufferSize));
+            }
+            if (_order == null) {
+                _order = DEFAULT_ORDER;
+                LOGGER.info(String.format("Defaulted null order; order=%s", _order));
+            }
+            if (_timeAnnotation == null) {
+                _timeAnnotation = DEFAULT_TIME_ANNOTATION;
+                LOGGER.info(String.format("Defaulted null time annotation; timeAnnotation=%s", _timeAnnotation));
+            }
+            if (_threadCount < 1) {
+                throw new IllegalArgumentException(String.format("Thread count must be positive; threadCount=%d", _threadCount));
+            }
+            if (_bufferSize < 1) {
+                throw new IllegalArgumentException(String.format("Buffer size must be positive; bufferSize=%d", _bufferSize));
+            }
+            return new SegmentReplayer(this);
+        }
+
+        /**
+         * Set the number of threads decoding segments. Optional; default is
+         * the number of available processors.
+         *
+         * @param value The number of threads.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setThreadCount(@Nullable final Integer value) {
+            _threadCount = value;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of decoded events buffered per segment.
+         * Optional; default is 1024.
+         *
+         * @param value The maximum number of buffered events per segment.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setBufferSize(@Nullable final Integer value) {
+            _bufferSize = value;
+            return this;
+        }
+
+        /**
+         * Set the order in which events are delivered. Optional; default is
+         * {@link Order#PER_FILE}.
+         *
+         * @param value The {@link Order}.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setOrder(@Nullable final Order value) {
+            _order = value;
+            return this;
+        }
+
+        /**
+         * Set the annotation containing the ISO-8601 time of each event for
+         * {@link Order#TIME_MERGED}. Optional; default is "_end".
+         *
+         * @param value The name of the time annotation.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setTimeAnnotation(@Nullable final String value) {
+            _timeAnnotation = value;
+            return this;
+        }
+
+        private Integer _threadCount = Runtime.getRuntime().availableProcessors();
+        private Integer _bufferSize = DEFAULT_BUFFER_SIZE;
+        private Order _order = DEFAULT_ORDER;
+        private String _timeAnnotation = DEFAULT_TIME_ANNOTATION;
+
+        private static final Integer DEFAULT_BUFFER_SIZE = 1024;
+        private static final Order DEFAULT_ORDER = Order.PER_FILE;
+        private static final String DEFAULT_TIME_ANNOTATION = "_end";
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for serializing an event with {@link FileSink}.
+ *
+ * @author agent (agent at local)
+ */
+@Name("com.arpnetworking.metrics.FileSinkSerialize")
+@Label("File Sink Serialize")
+@Description("Serializing an event")
+@Category({"Metrics", "File Sink"})
+@StackTrace(false)
+@Threshold("1 ms")
+/* package private */ final class SerializeEvent extends Event {
+
+    /* package private */ void setBytes(final int value) {
+        _bytes = value;
+    }
+
+    @Label("Bytes")
+    @Description("The length of the serialized event encoded as UTF-8")
+    @DataAmount
+    @Name("bytes")
+    private int _bytes;
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.arpnetworking.metrics.Event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Routes the events of a sharded file sink to its shards. Events are routed
+ * by the hash of the value of the configured annotation so that events with
+ * the same value are written to the same shard. Events without the
+ * annotation, or all events if no annotation is configured, are routed by
+ * producer thread; each thread is assigned a shard in round-robin order on
+ * its first event, so the events of a thread are written in order.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class ShardRouter {
+
+    /* package private */ ShardRouter(final int shardCount, @Nullable final String annotation) {
+        _shardCount = shardCount;
+        _annotation = annotation;
+    }
+
+    /* package private */ int route(final Event event) {
+        if (_annotation != null) {
+            @Nullable final String value = event.getAnnotations().get(_annotation);
+            if (value != null) {
+                return Math.floorMod(value.hashCode(), _shardCount);
+            }
+        }
+        return _threadShard.get();
+    }
+
+    private Integer nextShard() {
+        return Math.floorMod(_nextShard.getAndIncrement(), _shardCount);
+    }
+
+    private final int _shardCount;
+    @Nullable
+    private final String _annotation;
+    private final AtomicInteger _nextShard = new AtomicInteger();
+    private final ThreadLocal<Integer> _threadShard = ThreadLocal.withInitial(this::nextShard);
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+
+/**
+ * Closes a set of file sinks in parallel within a shared deadline. Sinks
+ * built with a coordinator register with it instead of installing their
+ * own shutdown hook, and unregister when closed; the coordinator installs a
+ * single shutdown hook for all of them unless disabled.
+ *
+ * Each sink's queued events are written until the deadline expires; events
+ * still queued at the deadline are abandoned. The combined number of events
+ * written and abandoned is returned and logged.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+public final class ShutdownCoordinator {
+
+    /**
+     * Close all registered sinks within the configured timeout.
+     *
+     * @return The combined {@link DrainResult} of the registered sinks.
+     */
+    public DrainResult close() {
+        return close(_timeout);
+    }
+
+    /**
+     * Close all registered sinks within the specified timeout.
+     *
+     * @param timeout The maximum time to wait for queued events to be written.
+     * @return The combined {@link DrainResult} of the registered sinks.
+     */
+    public DrainResult close(final Duration timeout) {
+        final List<BaseFileSink> sinks;
+        synchronized (_sinks) {
+            sinks = new ArrayList<>(_sinks);
+            _sinks.clear();
+        }
+        if (sinks.isEmpty()) {
+            return DrainResult.EMPTY;
+        }
+
+        final long startNanos = System.nanoTime();
+        final long timeoutNanos = timeout.toNanos();
+        final List<Long> pendingCounts = new ArrayList<>(sinks.size());
+        final List<Future<DrainResult>> futures = new ArrayList<>(sinks.size());
+        final ExecutorService executor = Executors.newFixedThreadPool(sinks.size(), runnable -> {
+            final Thread thread = new Thread(runnable, "metrics-file-sink-shutdown");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (final BaseFileSink sink : sinks) {
+                pendingCounts.add(sink.getPendingCount());
+                futures.add(executor.submit(() -> sink.close(timeout)));
+            }
+            DrainResult result = DrainResult.EMPTY;
+            for (int i = 0; i < futures.size(); ++i) {
+                final long remainingNanos = Math.max(0, timeoutNanos - (System.nanoTime() - startNanos));
+                result = result.add(await(futures.get(i), remainingNanos, pendingCounts.get(i)));
+            }
+            LOGGER.info(String.format(
+                    "Closed file sinks; sinks=%d, written=%d, abandoned=%d, elapsed=%s",
+                    sinks.size(),
+                    result.getWrittenCount(),
+                    result.getAbandonedCount(),
+                    Duration.ofNanos(System.nanoTime() - startNanos)));
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /* package private */ void register(final BaseFileSink sink) {
+        synchronized (_sinks) {
+            _sinks.add(sink);
+        }
+    }
+
+    /* package private */ void unregister(final BaseFileSink sink) {
+        synchronized (_sinks) {
+            _sinks.remove(sink);
+        }
+    }
+
+    /* package private */ int getRegisteredCount() {
+        synchronized (_sinks) {
+            return _sinks.size();
+        }
+    }
+
+    /* package private */ Duration getTimeout() {
+        return _timeout;
+    }
+
+    private static DrainResult await(
+            final Future<DrainResult> future,
+            final long timeoutNanos,
+            final long pendingCount) {
+        try {
+            // NOTE: Allow for the sink's own flush timeout to be reached before giving up
+            return future.get(timeoutNanos + GRACE_PERIOD_IN_NANOS, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while closing file sink");
+        } catch (final ExecutionException | CancellationException | TimeoutException e) {
+            LOGGER.warn("Unable to close file sink within timeout", e);
+        }
+        return new DrainResult(0, pendingCount);
+    }
+
+    private ShutdownCoordinator(final Builder builder) {
+        _timeout = builder._timeout;
+        if (builder._shutdownHook) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "metrics-file-sink-shutdown-hook"));
+        }
+    }
+
+    private final Duration _timeout;
+    private final List<BaseFileSink> _sinks = new ArrayList<>();
+
+    private static final long GRACE_PERIOD_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(ShutdownCoordinator.class);
+
+    /**
+     * Builder for {@link ShutdownCoordinator}.
+     *
+     * This class is not thread safe.
+     *
+     * @author agent (agent at local)
+     */
+    public static final class Builder {
+
+        /**
+         * Create an instance of {@link ShutdownCoordinator}.
+         *
+         * @return Instance of {@link ShutdownCoordinator}.
+         */
+        public ShutdownCoordinator build() {
+            if (_timeout == null) {
+                _timeout = DEFAULT_TIMEOUT;
+                LOGGER.info(String.format("Defaulted null timeout; timeout=%s", _timeout));
+            }
+            if (_shutdownHook == null) {
+                _shutdownHook = DEFAULT_SHUTDOWN_HOOK;
+                LOGGER.info(String.format("Defaulted null shutdown hook; shutdownHook=%b", _shutdownHook));
+            }
+            if (_timeout.isNegative()) {
+                throw new IllegalArgumentException(String.format("Timeout must not be negative; timeout=%s", _timeout));
+            }
+            return new ShutdownCoordinator(this);
+        }
+
+        /**
+         * Set the maximum time to wait for queued events to be written when
+         * closing. Optional; default is 5 seconds.
+         *
+         * @param value The timeout.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setTimeout(@Nullable final Duration value) {
+            _timeout = value;
+            return this;
+        }
+
+        /**
+         * Set whether to close the registered sinks from a JVM shutdown
+         * hook. Optional; default is true.
+         *
+         * @param value Whether to install a shutdown hook.
+         * @return This {@link Builder} instance.
+         */
+        public Builder setShutdownHook(@Nullable final Boolean value) {
+            _shutdownHook = value;
+            return this;
+        }
+
+        private Duration _timeout = DEFAULT_TIMEOUT;
+        private Boolean _shutdownHook = DEFAULT_SHUTDOWN_HOOK;
+
+        private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+        private static final Boolean DEFAULT_SHUTDOWN_HOOK = Boolean.TRUE;
+    }
+}
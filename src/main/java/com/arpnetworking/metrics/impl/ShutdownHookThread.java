@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.time.Duration;
+import javax.annotation.Nullable;
+
+/**
+ * Shutdown hook which closes a sink, writing its queued events within a
+ * bounded timeout, when the sink is not closed by a
+ * {@link ShutdownCoordinator}. A sink built with a coordinator registers
+ * with the coordinator instead. Closing the sink unregisters it from
+ * whichever closes it on shutdown so that a closed sink is not retained.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class ShutdownHookThread extends Thread {
+
+    /* package private */ ShutdownHookThread(
+            final BaseFileSink sink,
+            @Nullable final ShutdownCoordinator shutdownCoordinator) {
+        super("metrics-file-sink-shutdown-hook");
+        _sink = sink;
+        _shutdownCoordinator = shutdownCoordinator;
+    }
+
+    @Override
+    public void run() {
+        _sink.close(TIMEOUT);
+    }
+
+    /* package private */ void register() {
+        if (_shutdownCoordinator != null) {
+            _shutdownCoordinator.register(_sink);
+        } else {
+            Runtime.getRuntime().addShutdownHook(this);
+        }
+    }
+
+    /* package private */ void unregister() {
+        if (_shutdownCoordinator != null) {
+            _shutdownCoordinator.unregister(_sink);
+        } else {
+            try {
+                Runtime.getRuntime().removeShutdownHook(this);
+            } catch (final IllegalStateException e) {
+                // NOTE: The sink is being closed on shutdown
+            }
+        }
+    }
+
+    private final BaseFileSink _sink;
+    @Nullable
+    private final ShutdownCoordinator _shutdownCoordinator;
+
+    // NOTE: Matches the default timeout of the shutdown coordinator
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters and latency histograms maintained by a file sink on its record
+ * and write paths. Recording is allocation free and uses striped
+ * {@link LongAdder} counters so that it does not add contention between
+ * recording threads. Entries which carry several events, such as those
+ * of a batch, are counted as that many events while their latency is
+ * recorded once.
+ *
+ * The number of events waiting to be written and the time the writer last
+ * made progress are also tracked for {@link BackpressureMonitor}. Both are
+ * read without locking; the pending count is a single atomic counter since
+ * it must be read on every query.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class SinkInstrumentation implements FileSinkMXBean {
+
+    /* package private */ SinkInstrumentation(final IntSupplier queueDepth) {
+        _queueDepth = queueDepth;
+    }
+
+    /* package private */ void onEnqueue(final int eventCount) {
+        if (_pendingCount.get() <= 0) {
+            // NOTE: The writer is only lagging from the time it has work
+            _progressNanos = System.nanoTime();
+        }
+        _pendingCount.addAndGet(eventCount);
+    }
+
+    /* package private */ void onRecord(final int eventCount, final long serializationNanos, final long enqueueNanos) {
+        _recordedCount.add(eventCount);
+        _serializationLatency.record(serializationNanos);
+        _enqueueLatency.record(enqueueNanos);
+        _recordLatency.record(serializationNanos + enqueueNanos);
+    }
+
+    /* package private */ void onDiscard(final int eventCount) {
+        _discardedCount.add(eventCount);
+        _pendingCount.addAndGet(-eventCount);
+    }
+
+    /* package private */ void onSerializationFailure() {
+        _serializationFailureCount.increment();
+    }
+
+    /* package private */ void onIoError(final int eventCount) {
+        _ioErrorCount.add(eventCount);
+        onProgress(eventCount);
+    }
+
+    /* package private */ void onWrite(final int eventCount, final int bytes, final long nanos) {
+        _writtenCount.add(eventCount);
+        _bytesWritten.add(bytes);
+        _writeLatency.record(nanos);
+        onProgress(eventCount);
+    }
+
+    /* package private */ void onFlush(final long nanos) {
+        _flushLatency.record(nanos);
+    }
+
+    /* package private */ void onRoll(final long nanos) {
+        _rollLatency.record(nanos);
+    }
+
+    /* package private */ FileSinkStatistics snapshot() {
+        return new FileSinkStatistics(this);
+    }
+
+    /* package private */ long getPendingCount() {
+        return Math.max(0, _pendingCount.get());
+    }
+
+    /* package private */ long getWriterLagNanos() {
+        if (_pendingCount.get() <= 0) {
+            return 0;
+        }
+        return Math.max(0, System.nanoTime() - _progressNanos);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return _queueDepth.getAsInt();
+    }
+
+    @Override
+    public long getRecordedCount() {
+        return _recordedCount.sum();
+    }
+
+    @Override
+    public long getDiscardedCount() {
+        return _discardedCount.sum();
+    }
+
+    @Override
+    public long getSerializationFailureCount() {
+        return _serializationFailureCount.sum();
+    }
+
+    @Override
+    public long getIoErrorCount() {
+        return _ioErrorCount.sum();
+    }
+
+    @Override
+    public long getWrittenCount() {
+        return _writtenCount.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return _bytesWritten.sum();
+    }
+
+    @Override
+    public LatencyStatistics getRecordLatency() {
+        return _recordLatency.snapshot();
+    }
+
+    @Override
+    public LatencyStatistics getSerializationLatency() {
+        return _serializationLatency.snapshot();
+    }
+
+    @Override
+    public LatencyStatistics getEnqueueLatency() {
+        return _enqueueLatency.snapshot();
+    }
+
+    @Override
+    public LatencyStatistics getWriteLatency() {
+        return _writeLatency.snapshot();
+    }
+
+    @Override
+    public LatencyStatistics getFlushLatency() {
+        return _flushLatency.snapshot();
+    }
+
+    @Override
+    public LatencyStatistics getRollLatency() {
+        return _rollLatency.snapshot();
+    }
+
+    private void onProgress(final int eventCount) {
+        _progressNanos = System.nanoTime();
+        _pendingCount.addAndGet(-eventCount);
+    }
+
+    private final IntSupplier _queueDepth;
+    // NOTE: Events written or dropped before being counted as enqueued may drive this negative briefly
+    private final AtomicLong _pendingCount = new AtomicLong();
+    private volatile long _progressNanos = System.nanoTime();
+    private final LongAdder _recordedCount = new LongAdder();
+    private final LongAdder _discardedCount = new LongAdder();
+    private final LongAdder _serializationFailureCount = new LongAdder();
+    private final LongAdder _ioErrorCount = new LongAdder();
+    private final LongAdder _writtenCount = new LongAdder();
+    private final LongAdder _bytesWritten = new LongAdder();
+    private final LatencyHistogram _recordLatency = new LatencyHistogram();
+    private final LatencyHistogram _serializationLatency = new LatencyHistogram();
+    private final LatencyHistogram _enqueueLatency = new LatencyHistogram();
+    private final LatencyHistogram _writeLatency = new LatencyHistogram();
+    private final LatencyHistogram _flushLatency = new LatencyHistogram();
+    private final LatencyHistogram _rollLatency = new LatencyHistogram();
+}
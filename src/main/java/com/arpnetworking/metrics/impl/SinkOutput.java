@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.encoder.Encoder;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * One of the destinations a file sink writes its events to. Each output
+ * has its own chain of appenders, queue, {@link SinkInstrumentation},
+ * {@link BackpressureMonitor} and {@link DropSummary}, so an output which
+ * falls behind or fails drops and reports its own events without affecting
+ * the other outputs of the sink. The outputs of a sharded sink are its
+ * shards, each of which is written only the events routed to it.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class SinkOutput {
+
+    /* package private */ SinkOutput(
+            final LoggerContext loggerContext,
+            final BaseFileSink.Builder<?, ?> builder,
+            final Encoder<ILoggingEvent> encoder,
+            final File directory,
+            final String name,
+            @Nullable final Path socketPath,
+            final Supplier<FileSinkConfiguration> configuration) {
+        final String fileName = AppenderFactory.createFileName(builder, directory, name);
+        _instrumentation = new SinkInstrumentation(this::getQueueDepth);
+        _appender = new AppenderFactory(loggerContext, _instrumentation, configuration)
+                .createAppender(builder, encoder, directory, name, socketPath, fileName);
+        _queueingAppender = _appender instanceof QueueingAppender ? (QueueingAppender) _appender : null;
+        _backpressureMonitor = createBackpressureMonitor(builder, configuration);
+        _dropSummary = builder._dropSummaryInterval.isZero() ? null : new DropSummary(_instrumentation, Instant.now());
+        _objectName = registerMBean(builder._jmxEnabled, fileName);
+    }
+
+    /* package private */ Appender<ILoggingEvent> getAppender() {
+        return _appender;
+    }
+
+    /* package private */ SinkInstrumentation getInstrumentation() {
+        return _instrumentation;
+    }
+
+    /* package private */ BackpressureMonitor getBackpressureMonitor() {
+        return _backpressureMonitor;
+    }
+
+    @Nullable
+    /* package private */ ObjectName getObjectName() {
+        return _objectName;
+    }
+
+    /* package private */ int getQueueDepth() {
+        return _queueingAppender == null ? 0 : _queueingAppender.getNumberOfElementsInQueue();
+    }
+
+    /* package private */ void stop(final long deadlineNanos) {
+        if (_queueingAppender != null) {
+            // NOTE: Zero waits indefinitely for Logback's async appender
+            _queueingAppender.setMaxFlushTime((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+        }
+        _appender.stop();
+    }
+
+    /* package private */ void onReconfigure() {
+        if (_queueingAppender != null) {
+            _queueingAppender.onReconfigure();
+        }
+    }
+
+    /* package private */ void writeDropSummary(final Logger logger) {
+        if (_dropSummary != null) {
+            final String record = _dropSummary.createRecord(Instant.now());
+            if (record != null) {
+                // NOTE: Queueing appenders never discard events above info
+                _instrumentation.onEnqueue(1);
+                _appender.doAppend(new LoggingEvent(FQCN, logger, Level.WARN, record, null, null));
+            }
+        }
+    }
+
+    /* package private */ void unregisterMBean() {
+        if (_objectName == null) {
+            return;
+        }
+        try {
+            MBEAN_SERVER.unregisterMBean(_objectName);
+        } catch (final JMException e) {
+            LOGGER.warn(String.format("Unable to unregister file sink MBean; objectName=%s", _objectName), e);
+        }
+    }
+
+    @Nullable
+    private ObjectName registerMBean(final boolean jmxEnabled, final String fileName) {
+        if (!jmxEnabled) {
+            return null;
+        }
+        try {
+            final ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(fileName));
+            MBEAN_SERVER.registerMBean(_instrumentation, objectName);
+            return objectName;
+        } catch (final JMException e) {
+            LOGGER.warn(String.format("Unable to register file sink MBean; file=%s", fileName), e);
+            return null;
+        }
+    }
+
+    private BackpressureMonitor createBackpressureMonitor(
+            final BaseFileSink.Builder<?, ?> builder,
+            final Supplier<FileSinkConfiguration> configuration) {
+        int queues = 0;
+        if (builder._async) {
+            ++queues;
+        }
+        if (builder._lazyStart) {
+            ++queues;
+        }
+        final int queueCount = queues;
+        return new BackpressureMonitor(
+                _instrumentation,
+                () -> queueCount * configuration.get().getMaxQueueSize(),
+                builder._overloadQueueFraction,
+                builder._overloadWriterLag);
+    }
+
+    private final SinkInstrumentation _instrumentation;
+    private final Appender<ILoggingEvent> _appender;
+    @Nullable
+    private final QueueingAppender _queueingAppender;
+    private final BackpressureMonitor _backpressureMonitor;
+    @Nullable
+    private final DropSummary _dropSummary;
+    @Nullable
+    private final ObjectName _objectName;
+
+    private static final String FQCN = SinkOutput.class.getName();
+    private static final String OBJECT_NAME_PREFIX = "com.arpnetworking.metrics:type=FileSink,name=";
+    private static final MBeanServer MBEAN_SERVER = ManagementFactory.getPlatformMBeanServer();
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(SinkOutput.class);
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import com.arpnetworking.metrics.Event;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * The outputs of a file sink and the routing of its events to them. The
+ * events of a sink with additional outputs are written to every output,
+ * while the events of a sharded sink are each written to the one shard
+ * chosen by its {@link ShardRouter}. The backpressure of the sink is that
+ * of its most loaded output.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class SinkOutputs {
+
+    /* package private */ SinkOutputs(
+            final LoggerContext loggerContext,
+            final BaseFileSink.Builder<?, ?> builder,
+            final Encoder<ILoggingEvent> encoder) {
+        _logger = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        _queueCapacity = builder._maxQueueSize;
+        _configuration = new AtomicReference<>(new FileSinkConfiguration(
+                builder._maxQueueSize,
+                builder._dropWhenQueueFull,
+                builder._immediateFlush,
+                builder._maxFileSize));
+        _outputs = createOutputs(loggerContext, builder, encoder, _configuration::get);
+        final List<List<SinkOutput>> shards = new ArrayList<>(_outputs.size());
+        for (final SinkOutput output : _outputs) {
+            shards.add(Collections.singletonList(output));
+        }
+        _shards = Collections.unmodifiableList(shards);
+        _shardRouter = builder._shardCount > 1 ? new ShardRouter(builder._shardCount, builder._shardAnnotation) : null;
+    }
+
+    /* package private */ FileSinkConfiguration getConfiguration() {
+        return _configuration.get();
+    }
+
+    /* package private */ void reconfigure(final FileSinkConfiguration configuration) {
+        if (configuration.getMaxQueueSize() > _queueCapacity) {
+            throw new IllegalArgumentException(String.format(
+                    "Max queue size exceeds queue capacity; maxQueueSize=%d, queueCapacity=%d",
+                    configuration.getMaxQueueSize(),
+                    _queueCapacity));
+        }
+        _configuration.set(configuration);
+        for (final SinkOutput output : _outputs) {
+            output.onReconfigure();
+        }
+    }
+
+    /* package private */ List<SinkOutput> getOutputs() {
+        return _outputs;
+    }
+
+    /* package private */ SinkOutput getPrimary() {
+        return _outputs.get(0);
+    }
+
+    /* package private */ int getShardCount() {
+        return _shardRouter == null ? 1 : _shards.size();
+    }
+
+    /* package private */ int route(final Event event) {
+        return _shardRouter == null ? 0 : _shardRouter.route(event);
+    }
+
+    /* package private */ void enqueue(
+            final int shard,
+            final String serializedEvents,
+            final int eventCount,
+            final long serializationNanos) {
+        final long startNanos = System.nanoTime();
+        final List<SinkOutput> targets = getTargets(shard);
+        final EncodedLoggingEvent loggingEvent = new EncodedLoggingEvent(_logger, serializedEvents, eventCount);
+        for (int i = 0; i < targets.size(); ++i) {
+            targets.get(i).getInstrumentation().onEnqueue(eventCount);
+        }
+        for (int i = 0; i < targets.size(); ++i) {
+            targets.get(i).getAppender().doAppend(loggingEvent);
+        }
+        final long enqueueNanos = System.nanoTime() - startNanos;
+        for (int i = 0; i < targets.size(); ++i) {
+            targets.get(i).getInstrumentation().onRecord(eventCount, serializationNanos, enqueueNanos);
+        }
+    }
+
+    /* package private */ void onSerializationFailure(final Event event) {
+        for (final SinkOutput output : getTargets(route(event))) {
+            output.getInstrumentation().onSerializationFailure();
+        }
+    }
+
+    /* package private */ void writeDropSummary() {
+        for (final SinkOutput output : _outputs) {
+            output.writeDropSummary(_logger);
+        }
+    }
+
+    /* package private */ void stop(final Duration timeout) {
+        // NOTE: A single deadline is shared so that stopping the outputs in turn honors the timeout
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.min(Integer.MAX_VALUE, timeout.toMillis()));
+        for (final SinkOutput output : _outputs) {
+            output.stop(deadlineNanos);
+            _logger.detachAppender(output.getAppender());
+        }
+    }
+
+    /* package private */ void unregisterMBeans() {
+        for (final SinkOutput output : _outputs) {
+            output.unregisterMBean();
+        }
+    }
+
+    /* package private */ List<FileSinkStatistics> getStatistics() {
+        final List<FileSinkStatistics> statistics = new ArrayList<>(_outputs.size());
+        for (final SinkOutput output : _outputs) {
+            statistics.add(output.getInstrumentation().snapshot());
+        }
+        return statistics;
+    }
+
+    /* package private */ double getQueueFillFraction() {
+        double queueFillFraction = 0;
+        for (int i = 0; i < _outputs.size(); ++i) {
+            queueFillFraction = Math.max(queueFillFraction, _outputs.get(i).getBackpressureMonitor().getQueueFillFraction());
+        }
+        return queueFillFraction;
+    }
+
+    /* package private */ long getWriterLagNanos() {
+        long writerLagNanos = 0;
+        for (int i = 0; i < _outputs.size(); ++i) {
+            writerLagNanos = Math.max(writerLagNanos, _outputs.get(i).getBackpressureMonitor().getWriterLagNanos());
+        }
+        return writerLagNanos;
+    }
+
+    /* package private */ boolean isOverloaded() {
+        for (int i = 0; i < _outputs.size(); ++i) {
+            if (_outputs.get(i).getBackpressureMonitor().isOverloaded()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* package private */ long getPendingCount() {
+        long pendingCount = 0;
+        for (final SinkOutput output : _outputs) {
+            pendingCount += output.getInstrumentation().getPendingCount();
+        }
+        return pendingCount;
+    }
+
+    private List<SinkOutput> getTargets(final int shard) {
+        return _shardRouter == null ? _outputs : _shards.get(shard);
+    }
+
+    /**
+     * Create the outputs of a sink; the primary output followed by the
+     * additional outputs, or the shards of a sharded sink.
+     *
+     * @param loggerContext The sink's {@link LoggerContext}.
+     * @param builder The sink's {@link BaseFileSink.Builder}.
+     * @param encoder The started encoder of the sink's events.
+     * @return The outputs of the sink.
+     */
+    private static List<SinkOutput> createOutputs(
+            final LoggerContext loggerContext,
+            final BaseFileSink.Builder<?, ?> builder,
+            final Encoder<ILoggingEvent> encoder,
+            final Supplier<FileSinkConfiguration> configuration) {
+        final List<SinkOutput> outputs = new ArrayList<>();
+        if (builder._shardCount > 1) {
+            final List<File> directories = builder._shardDirectories.isEmpty()
+                    ? Collections.singletonList(builder._directory)
+                    : builder._shardDirectories;
+            for (int i = 0; i < builder._shardCount; ++i) {
+                outputs.add(new SinkOutput(
+                        loggerContext,
+                        builder,
+                        encoder,
+                        directories.get(i % directories.size()),
+                        builder._name + "-" + i,
+                        builder._socketPath,
+                        configuration));
+            }
+        } else {
+            outputs.add(new SinkOutput(
+                    loggerContext,
+                    builder,
+                    encoder,
+                    builder._directory,
+                    builder._name,
+                    builder._socketPath,
+                    configuration));
+            for (final FileSinkOutput output : builder._additionalOutputs) {
+                outputs.add(new SinkOutput(
+                        loggerContext,
+                        builder,
+                        encoder,
+                        output.getDirectory(),
+                        builder._name,
+                        output.getSocketPath(),
+                        configuration));
+            }
+        }
+        return Collections.unmodifiableList(outputs);
+    }
+
+    private final Logger _logger;
+    private final int _queueCapacity;
+    private final AtomicReference<FileSinkConfiguration> _configuration;
+    // NOTE: The primary output or the first shard is first
+    private final List<SinkOutput> _outputs;
+    // NOTE: The singleton list of each output to route without allocating
+    private final List<List<SinkOutput>> _shards;
+    @Nullable
+    private final ShardRouter _shardRouter;
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Recovers the active file from a torn write before appending to it. A
+ * process killed while writing can leave the file ending in a partial
+ * record; appending after it would corrupt the next record for every
+ * reader. Records end with a line separator, so the file is scanned
+ * backwards from its end to the last line separator. The fragment after it
+ * is appended to a quarantine file named {@code <file>.torn} and then
+ * truncated from the file.
+ *
+ * The scan reads at most {@link #MAX_SCAN_SIZE} bytes from the end of the
+ * file, so recovery takes constant time regardless of the file size; a
+ * file which ends with a line separator is checked by reading one byte. If
+ * no line separator is found within the scanned bytes of a larger file the
+ * fragment cannot be bounded; a line separator is appended instead so that
+ * only the torn record is corrupt.
+ *
+ * A file written with streaming compression is a sequence of gzip members
+ * and a torn member makes every member appended after it unreadable. The
+ * scanned bytes are instead searched backwards for the last member header
+ * and the members from there are inflated and checked against their CRC and
+ * size trailers; everything after the end of the last complete member is
+ * quarantined. In either case entries of the file's index beyond the
+ * recovered end of the file are removed.
+ *
+ * This class is not thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class TornWriteRecovery {
+
+    /**
+     * Recover the file from a torn write.
+     *
+     * @param file The file to recover.
+     * @param maxScanSize The maximum number of bytes to scan from the end of the file.
+     * @return The number of bytes quarantined.
+     * @throws IOException If the file or the quarantine file could not be read or written.
+     */
+    /* package private */ static long recover(final File file, final int maxScanSize) throws IOException {
+        if (!file.isFile()) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return recover(channel, file, maxScanSize);
+        }
+    }
+
+    /**
+     * Recover the file written with streaming compression from a torn write.
+     *
+     * @param file The file to recover.
+     * @param maxScanSize The maximum number of bytes to scan from the end of the file.
+     * @return The number of bytes quarantined.
+     * @throws IOException If the file or the quarantine file could not be read or written.
+     */
+    /* package private */ static long recoverCompressed(final File file, final int maxScanSize) throws IOException {
+        if (!file.isFile()) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return recoverCompressed(channel, file, maxScanSize);
+        }
+    }
+
+    private static long recover(final FileChannel channel, final File file, final int maxScanSize) throws IOException {
+        final long size = channel.size();
+        final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(maxScanSize, Math.max(1, size)));
+        if (size == 0 || endsWithLineSeparator(channel, size, buffer)) {
+            return 0;
+        }
+        final long boundary = findBoundary(channel, size, maxScanSize, buffer);
+        if (boundary < 0) {
+            LOGGER.warn(String.format(
+                    "Torn write not bounded; terminated partial record; file=%s, scanned=%d",
+                    file,
+                    maxScanSize));
+            channel.write(ByteBuffer.wrap(LINE_SEPARATOR), size);
+            channel.force(false);
+            return 0;
+        }
+        return truncate(channel, file, size, boundary);
+    }
+
+    private static long recoverCompressed(final FileChannel channel, final File file, final int maxScanSize) throws IOException {
+        final long size = channel.size();
+        final long start = Math.max(0, size - maxScanSize);
+        final byte[] window = new byte[(int) (size - start)];
+        read(channel, ByteBuffer.wrap(window), start);
+        final int header = findLastHeader(window);
+        if (header < 0 && start > 0) {
+            LOGGER.warn(String.format(
+                    "Torn frame not bounded; file=%s, scanned=%d",
+                    file,
+                    maxScanSize));
+            return 0;
+        }
+        // NOTE: The whole file is a fragment if it was scanned completely without finding a header
+        final long boundary = start + (header < 0 ? 0 : findFrameBoundary(window, header));
+        if (boundary == size) {
+            return 0;
+        }
+        return truncate(channel, file, size, boundary);
+    }
+
+    private static long truncate(
+            final FileChannel channel,
+            final File file,
+            final long size,
+            final long boundary) throws IOException {
+        final long fragmentSize = size - boundary;
+        quarantine(channel, boundary, fragmentSize, new File(file.getPath() + EXTENSION));
+        channel.truncate(boundary);
+        channel.force(false);
+        truncateIndex(SegmentIndex.getFile(file), boundary);
+        LOGGER.warn(String.format(
+                "Recovered torn write; file=%s, quarantined=%d, offset=%d",
+                file,
+                fragmentSize,
+                boundary));
+        return fragmentSize;
+    }
+
+    private static boolean endsWithLineSeparator(
+            final FileChannel channel,
+            final long size,
+            final ByteBuffer buffer) throws IOException {
+        buffer.clear().limit(1);
+        read(channel, buffer, size - 1);
+        return buffer.get(0) == '\n';
+    }
+
+    private static long findBoundary(
+            final FileChannel channel,
+            final long size,
+            final int maxScanSize,
+            final ByteBuffer buffer) throws IOException {
+        final long start = Math.max(0, size - maxScanSize);
+        final int length = (int) (size - start);
+        buffer.clear().limit(length);
+        read(channel, buffer, start);
+        for (int i = length - 1; i >= 0; --i) {
+            if (buffer.get(i) == '\n') {
+                return start + i + 1;
+            }
+        }
+        // NOTE: The whole file is a fragment if it was scanned completely
+        return start == 0 ? 0 : -1;
+    }
+
+    private static int findLastHeader(final byte[] window) {
+        for (int i = window.length - GzipFrameOutputStream.HEADER.length; i >= 0; --i) {
+            if (isHeader(window, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isHeader(final byte[] window, final int offset) {
+        return Arrays.equals(
+                window,
+                offset,
+                offset + GzipFrameOutputStream.HEADER.length,
+                GzipFrameOutputStream.HEADER,
+                0,
+                GzipFrameOutputStream.HEADER.length);
+    }
+
+    private static int findFrameBoundary(final byte[] window, final int offset) {
+        int position = offset;
+        while (position < window.length) {
+            final int end = findFrameEnd(window, position);
+            if (end < 0) {
+                break;
+            }
+            position = end;
+        }
+        return position;
+    }
+
+    private static int findFrameEnd(final byte[] window, final int offset) {
+        final int dataOffset = offset + GzipFrameOutputStream.HEADER.length;
+        if (dataOffset + TRAILER_SIZE > window.length || !isHeader(window, offset)) {
+            return -1;
+        }
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(window, dataOffset, window.length - dataOffset);
+            final CRC32 crc = new CRC32();
+            final byte[] buffer = new byte[INFLATE_BUFFER_SIZE];
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    return -1;
+                }
+                crc.update(buffer, 0, inflater.inflate(buffer));
+            }
+            final int trailerOffset = window.length - inflater.getRemaining();
+            if (trailerOffset + TRAILER_SIZE > window.length) {
+                return -1;
+            }
+            final ByteBuffer trailer = ByteBuffer.wrap(window, trailerOffset, TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (trailer.getInt() != (int) crc.getValue() || trailer.getInt() != (int) inflater.getBytesWritten()) {
+                return -1;
+            }
+            return trailerOffset + TRAILER_SIZE;
+        } catch (final DataFormatException e) {
+            return -1;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void truncateIndex(final File indexFile, final long boundary) throws IOException {
+        if (!indexFile.isFile()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final ByteBuffer entries = ByteBuffer.allocate((int) channel.size());
+            read(channel, entries, 0);
+            final int size = entries.capacity() / SegmentIndex.ENTRY_SIZE;
+            int count = 0;
+            // NOTE: Index offsets are ascending so the entries to keep are a prefix
+            while (count < size && entries.getLong(count * SegmentIndex.ENTRY_SIZE + Long.BYTES) <= boundary) {
+                ++count;
+            }
+            channel.truncate((long) count * SegmentIndex.ENTRY_SIZE);
+            channel.force(false);
+        }
+    }
+
+    private static void quarantine(
+            final FileChannel channel,
+            final long offset,
+            final long length,
+            final File quarantineFile) throws IOException {
+        try (FileChannel quarantineChannel = FileChannel.open(
+                quarantineFile.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            long transferred = 0;
+            while (transferred < length) {
+                transferred += channel.transferTo(offset + transferred, length - transferred, quarantineChannel);
+            }
+            // NOTE: The fragment is durable before it is truncated from the file
+            quarantineChannel.force(false);
+        }
+    }
+
+    /* package private */ static void read(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException(String.format("Unexpected end of file; position=%d", position + buffer.position()));
+            }
+        }
+    }
+
+    private TornWriteRecovery() { }
+
+    /* package private */ static final String EXTENSION = ".torn";
+    /* package private */ static final int MAX_SCAN_SIZE = 1024 * 1024;
+    private static final int TRAILER_SIZE = 2 * Integer.BYTES;
+    private static final int INFLATE_BUFFER_SIZE = 8 * 1024;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(TornWriteRecovery.class);
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Appender which streams a file sink's events to a co-located agent over a
+ * Unix domain socket instead of writing them to the file. Each event is
+ * encoded as it would be written to the file and framed by its length as a
+ * four byte big endian integer. Frames are accumulated in a buffer which is
+ * written with non-blocking writes once a batch has accumulated, on each
+ * event if immediate flush is enabled in the sink's current
+ * {@link FileSinkConfiguration}, and periodically otherwise, so the writer
+ * never blocks on the agent.
+ *
+ * While the agent is unavailable events are written to the fallback
+ * {@link Appender}, the sink's rolling file appender, and connecting is
+ * retried at most once per reconnect interval. Events still buffered when
+ * the connection fails or the appender is stopped, and events which do not
+ * fit in the buffer because the agent is not reading, are also written to
+ * the fallback. This includes an event whose frame was partially written,
+ * since the agent discards an incomplete frame, so an event is delivered at
+ * least once to either the agent or the file.
+ *
+ * Events are reported as written to the {@link SinkInstrumentation} once
+ * their frame was written to the socket.
+ *
+ * This class is thread safe.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class UnixSocketAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    /* package private */ UnixSocketAppender(
+            final Connector connector,
+            final Encoder<ILoggingEvent> encoder,
+            final Appender<ILoggingEvent> fallback,
+            final int bufferSize,
+            final Supplier<FileSinkConfiguration> configuration,
+            final long reconnectIntervalInMillis,
+            final SinkInstrumentation instrumentation) {
+        _connector = connector;
+        _encoder = encoder;
+        _fallback = fallback;
+        _buffer = ByteBuffer.allocateDirect(bufferSize);
+        _configuration = configuration;
+        _reconnectIntervalInNanos = TimeUnit.MILLISECONDS.toNanos(reconnectIntervalInMillis);
+        _instrumentation = instrumentation;
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        _lock.lock();
+        try {
+            connect();
+        } finally {
+            _lock.unlock();
+        }
+        _flushFuture = getContext().getScheduledExecutorService().scheduleAtFixedRate(
+                this::flush,
+                FLUSH_INTERVAL_IN_MILLIS,
+                FLUSH_INTERVAL_IN_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        _flushFuture.cancel(false);
+        _lock.lock();
+        try {
+            write();
+            disconnect(null);
+        } finally {
+            _lock.unlock();
+        }
+        _fallback.stop();
+    }
+
+    /* package private */ Appender<ILoggingEvent> getFallback() {
+        return _fallback;
+    }
+
+    /* package private */ boolean isConnected() {
+        _lock.lock();
+        try {
+            return _channel != null;
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    /* package private */ void flush() {
+        _lock.lock();
+        try {
+            write();
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    @Override
+    protected void append(final ILoggingEvent event) {
+        _lock.lock();
+        try {
+            if (_channel == null && !reconnect()) {
+                _fallback.doAppend(event);
+                return;
+            }
+            final byte[] record = _encoder.encode(event);
+            final int frameSize = FRAME_HEADER_SIZE + record.length;
+            if (_buffer.remaining() < frameSize) {
+                write();
+                if (_buffer.remaining() < frameSize) {
+                    // NOTE: The agent is not reading, the connection failed or the event is larger than the buffer
+                    _fallback.doAppend(event);
+                    return;
+                }
+            }
+            _buffer.putInt(record.length);
+            _buffer.put(record);
+            _pending.addLast(new PendingEvent(event, frameSize));
+            if (_configuration.get().isImmediateFlush() || _buffer.position() >= BATCH_SIZE) {
+                write();
+            }
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    private void write() {
+        if (_channel == null || _buffer.position() == 0) {
+            return;
+        }
+        final long startNanos = System.nanoTime();
+        _buffer.flip();
+        try {
+            _channel.write(_buffer);
+        } catch (final IOException e) {
+            disconnect(e);
+            return;
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        _written += _buffer.position();
+        _buffer.compact();
+        while (!_pending.isEmpty() && _written >= _pending.peekFirst().getFrameSize()) {
+            final PendingEvent event = _pending.removeFirst();
+            _written -= event.getFrameSize();
+            _instrumentation.onWrite(EncodedLoggingEvent.getEventCount(event.getEvent()), event.getFrameSize(), elapsedNanos);
+        }
+    }
+
+    private boolean reconnect() {
+        if (System.nanoTime() - _nextConnectNanos < 0) {
+            return false;
+        }
+        return connect();
+    }
+
+    private boolean connect() {
+        try {
+            _channel = _connector.connect();
+            addInfo(String.format("Connected to agent; agent=%s", _connector));
+            return true;
+        } catch (final IOException e) {
+            _nextConnectNanos = System.nanoTime() + _reconnectIntervalInNanos;
+            addWarn(String.format("Unable to connect to agent, writing to file; agent=%s", _connector), e);
+            return false;
+        }
+    }
+
+    private void disconnect(@Nullable final IOException cause) {
+        if (_channel == null) {
+            return;
+        }
+        if (cause != null) {
+            addWarn(String.format("Connection to agent failed, writing to file; agent=%s", _connector), cause);
+        }
+        try {
+            _channel.close();
+        } catch (final IOException e) {
+            addWarn(String.format("Unable to close connection to agent; agent=%s", _connector), e);
+        }
+        _channel = null;
+        _nextConnectNanos = System.nanoTime() + _reconnectIntervalInNanos;
+        // NOTE: Events not completely written are written to the file instead
+        for (final PendingEvent event : _pending) {
+            _fallback.doAppend(event.getEvent());
+        }
+        _pending.clear();
+        _buffer.clear();
+        _written = 0;
+    }
+
+    private final Connector _connector;
+    private final Encoder<ILoggingEvent> _encoder;
+    private final Appender<ILoggingEvent> _fallback;
+    private final ByteBuffer _buffer;
+    private final Supplier<FileSinkConfiguration> _configuration;
+    private final long _reconnectIntervalInNanos;
+    private final SinkInstrumentation _instrumentation;
+    private final ReentrantLock _lock = new ReentrantLock();
+    // NOTE: Events whose frames are buffered in order; the first may be partially written
+    private final Deque<PendingEvent> _pending = new ArrayDeque<>();
+    @Nullable
+    private SocketChannel _channel;
+    private long _written = 0;
+    private long _nextConnectNanos = System.nanoTime();
+    private ScheduledFuture<?> _flushFuture;
+
+    private static final int FRAME_HEADER_SIZE = Integer.BYTES;
+    /* package private */ static final int BATCH_SIZE = 64 * 1024;
+    /* package private */ static final long FLUSH_INTERVAL_IN_MILLIS = 100;
+    /* package private */ static final long RECONNECT_INTERVAL_IN_MILLIS = 1000;
+
+    /**
+     * Opens a connection to the agent.
+     */
+    /* package private */ interface Connector {
+
+        /**
+         * Open a connected non-blocking channel to the agent.
+         *
+         * @return The connected channel.
+         * @throws IOException If the agent is unavailable.
+         */
+        SocketChannel connect() throws IOException;
+    }
+
+    /**
+     * {@link Connector} for an agent listening on a Unix domain socket.
+     */
+    /* package private */ static final class UnixDomainSocketConnector implements Connector {
+
+        /* package private */ UnixDomainSocketConnector(final Path path) {
+            _address = UnixDomainSocketAddress.of(path);
+        }
+
+        @Override
+        public SocketChannel connect() throws IOException {
+            final SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            boolean connected = false;
+            try {
+                channel.connect(_address);
+                channel.configureBlocking(false);
+                connected = true;
+                return channel;
+            } finally {
+                if (!connected) {
+                    channel.close();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return _address.toString();
+        }
+
+        private final UnixDomainSocketAddress _address;
+    }
+
+    private static final class PendingEvent {
+
+        PendingEvent(final ILoggingEvent event, final int frameSize) {
+            _event = event;
+            _frameSize = frameSize;
+        }
+
+        public ILoggingEvent getEvent() {
+            return _event;
+        }
+
+        public int getFrameSize() {
+            return _frameSize;
+        }
+
+        private final ILoggingEvent _event;
+        private final int _frameSize;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight recorder event for writing an event to the file.
+ *
+ * @author agent (agent at local)
+ */
+@Name("com.arpnetworking.metrics.FileSinkWrite")
+@Label("File Sink Write")
+@Description("Writing an event to the file")
+@Category({"Metrics", "File Sink"})
+@StackTrace(false)
+@Threshold("1 ms")
+/* package private */ final class WriteEvent extends Event {
+
+    /* package private */ void setBytes(final int value) {
+        _bytes = value;
+    }
+
+    @Label("Bytes")
+    @Description("The number of bytes written before any compression")
+    @DataAmount
+    @Name("bytes")
+    private int _bytes;
+}
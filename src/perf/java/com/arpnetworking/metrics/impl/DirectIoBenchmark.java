@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.arpnetworking.metrics.Event;
+import com.arpnetworking.metrics.Sink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares writing the active file through the page cache with writing it
+ * with direct I/O. Each iteration records events into a new synchronous
+ * {@link FileSink} so that the cost of the writes is charged to the
+ * producer, then closes the sink and reports the growth of the page cache
+ * while it was written; the growth is read from {@code Cached} in
+ * {@code /proc/meminfo} so it is only reported on Linux and includes the
+ * activity of the rest of the system. For the page cache residency of a
+ * single file use {@code fincore} or {@code vmtouch} on a copy of the
+ * benchmark directory before it is deleted.
+ *
+ * Run with {@code ./mvnw -Pbenchmarks verify -Dbenchmarks.args="DirectIoBenchmark"}
+ * from a directory on the filesystem under test; where the filesystem does
+ * not support direct I/O both modes write through the page cache.
+ *
+ * @author agent (agent at local)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirectIoBenchmark {
+
+    /**
+     * Create the sink for this iteration.
+     *
+     * @throws IOException If the page cache size cannot be read.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        _directory = new File(DIRECTORY, UUID.randomUUID().toString());
+        if (!_directory.mkdirs()) {
+            throw new IllegalStateException(String.format("Unable to create directory; directory=%s", _directory));
+        }
+        _sink = new FileSink.Builder()
+                .setDirectory(_directory)
+                .setName("benchmark-query")
+                .setAsync(false)
+                .setImmediateFlush(immediateFlush)
+                .setCompress(false)
+                .setMaxFileSize("1GB")
+                .setDirectIo(directIo)
+                .setJmxEnabled(false)
+                .build();
+        _cachedKilobytesAtStart = readCachedKilobytes();
+    }
+
+    /**
+     * Close the sink for this iteration, report the growth of the page
+     * cache and delete the files written.
+     *
+     * @throws IOException If the files cannot be read or deleted.
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        ((BaseFileSink) _sink).close(CLOSE_TIMEOUT);
+        final long cachedKilobytes = readCachedKilobytes() - _cachedKilobytesAtStart;
+        long writtenBytes = 0;
+        final List<Path> files;
+        try (Stream<Path> stream = Files.list(_directory.toPath())) {
+            files = stream.collect(Collectors.toList());
+        }
+        for (final Path file : files) {
+            writtenBytes += Files.size(file);
+            Files.delete(file);
+        }
+        Files.delete(_directory.toPath());
+        System.out.printf(
+                "%nPage cache growth: %d KB for %d KB written (directIo=%b)%n",
+                cachedKilobytes,
+                writtenBytes / 1024,
+                directIo);
+    }
+
+    /**
+     * Record events from a single producer thread.
+     */
+    @Benchmark
+    @Threads(1)
+    public void record() {
+        _sink.record(EVENT);
+    }
+
+    private static long readCachedKilobytes() throws IOException {
+        if (!Files.isReadable(MEMINFO)) {
+            return 0;
+        }
+        for (final String line : Files.readAllLines(MEMINFO, StandardCharsets.US_ASCII)) {
+            if (line.startsWith("Cached:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return 0;
+    }
+
+    private static Event createEvent() {
+        final Map<String, String> annotations = new TreeMap<>();
+        annotations.put("_id", UUID.randomUUID().toString());
+        annotations.put("_start", "2026-01-01T00:00:00.000Z");
+        annotations.put("_end", "2026-01-01T00:00:00.125Z");
+        annotations.put("_host", "benchmark.example.com");
+        annotations.put("_service", "benchmark");
+        annotations.put("_cluster", "benchmark-cluster");
+        return new TsdEvent(
+                annotations,
+                Collections.singletonMap("request/latency", Collections.singletonList(TsdQuantity.newInstance(125L))),
+                Collections.singletonMap("request/count", Collections.singletonList(TsdQuantity.newInstance(1L))),
+                Collections.emptyMap(),
+                Collections.emptyMap());
+    }
+
+    // CHECKSTYLE.OFF: MemberName - Parameter names are specified on the JMH command line
+    @Param({"false", "true"})
+    private boolean directIo;
+    @Param({"false"})
+    private boolean immediateFlush;
+    // CHECKSTYLE.ON: MemberName
+    private File _directory;
+    private Sink _sink;
+    private long _cachedKilobytesAtStart;
+
+    private static final File DIRECTORY = new File("./target/benchmarks");
+    private static final Path MEMINFO = Paths.get("/proc/meminfo");
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+    private static final Event EVENT = createEvent();
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.arpnetworking.metrics.Event;
+import com.arpnetworking.metrics.Quantity;
+import com.arpnetworking.metrics.Sink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end throughput and {@code record()} latency benchmarks for
+ * {@link FileSink}. Each trial writes to a new directory under
+ * {@code target/benchmarks} with a sink configured from the parameters and
+ * records events shaped like those produced by a typical request handler
+ * (a handful of annotations, timers, counters and gauges).
+ *
+ * Run with {@code ./mvnw -Pbenchmarks verify}; the throughput mode reports
+ * events per microsecond and the sample time mode reports the distribution
+ * of {@code record()} latency including its percentiles.
+ *
+ * @author agent (agent at local)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileSinkBenchmark {
+
+    /**
+     * Create the sink for this trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final File directory = new File(DIRECTORY, UUID.randomUUID().toString());
+        if (!directory.mkdirs()) {
+            throw new IllegalStateException(String.format("Unable to create directory; directory=%s", directory));
+        }
+        _sink = new FileSink.Builder()
+                .setDirectory(directory)
+                .setName("benchmark-query")
+                .setAsync(async)
+                .setImmediateFlush(immediateFlush)
+                .setCompress(compress)
+                .setMaxQueueSize(maxQueueSize)
+                .setJmxEnabled(false)
+                .build();
+    }
+
+    /**
+     * Close the sink for this trial writing any queued events.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (_sink instanceof BaseFileSink) {
+            ((BaseFileSink) _sink).close(CLOSE_TIMEOUT);
+        }
+    }
+
+    /**
+     * Record events from a single producer thread.
+     */
+    @Benchmark
+    @Threads(1)
+    public void recordSingleThread() {
+        _sink.record(EVENT);
+    }
+
+    /**
+     * Record events from four producer threads.
+     */
+    @Benchmark
+    @Threads(4)
+    public void recordFourThreads() {
+        _sink.record(EVENT);
+    }
+
+    /**
+     * Record events from one producer thread per available processor.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void recordMaxThreads() {
+        _sink.record(EVENT);
+    }
+
+    private static Event createEvent() {
+        final Map<String, String> annotations = new TreeMap<>();
+        annotations.put("_id", UUID.randomUUID().toString());
+        annotations.put("_start", "2026-01-01T00:00:00.000Z");
+        annotations.put("_end", "2026-01-01T00:00:00.125Z");
+        annotations.put("_host", "benchmark.example.com");
+        annotations.put("_service", "benchmark");
+        annotations.put("_cluster", "benchmark-cluster");
+        annotations.put("requestType", "GET");
+        annotations.put("endpoint", "/v1/resource/{id}");
+        return new TsdEvent(
+                annotations,
+                createQuantityMap(
+                        "request/latency", 125L, "db/query/latency", 12L, 15L, 9L,
+                        "cache/lookup/latency", 1L, 2L, "serialize/latency", 3L),
+                createQuantityMap(
+                        "request/count", 1L, "request/status/2xx", 1L, "request/status/5xx", 0L,
+                        "cache/hit", 1L, "cache/miss", 0L, "db/query/count", 3L),
+                createQuantityMap(
+                        "jvm/heap/used", 268435456L, "jvm/threads/live", 42L, "pool/connections/active", 7L),
+                Collections.emptyMap());
+    }
+
+    private static Map<String, List<Quantity>> createQuantityMap(final Object... arguments) {
+        final Map<String, List<Quantity>> map = new TreeMap<>();
+        List<Quantity> samples = null;
+        for (final Object argument : arguments) {
+            if (argument instanceof String) {
+                samples = new ArrayList<>();
+                map.put((String) argument, samples);
+            } else if (samples != null) {
+                samples.add(TsdQuantity.newInstance((Long) argument));
+            }
+        }
+        return map;
+    }
+
+    // CHECKSTYLE.OFF: MemberName - Parameter names are specified on the JMH command line
+    @Param({"true", "false"})
+    private boolean async;
+    @Param({"true", "false"})
+    private boolean immediateFlush;
+    @Param({"false", "true"})
+    private boolean compress;
+    @Param({"500", "10000"})
+    private int maxQueueSize;
+    // CHECKSTYLE.ON: MemberName
+    private Sink _sink;
+
+    private static final File DIRECTORY = new File("./target/benchmarks");
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+    private static final Event EVENT = createEvent();
+}
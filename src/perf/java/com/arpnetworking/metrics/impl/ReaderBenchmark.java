@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark of reading a file sink segment with {@link SegmentReader}. The
+ * segment contains events of each {@link EventShape} and is read either
+ * uncompressed or gzip compressed. The uncompressed bytes read per second
+ * are reported as the {@code bytes} secondary result.
+ *
+ * @author agent (agent at local)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReaderBenchmark {
+
+    /**
+     * Write the segment.
+     *
+     * @throws IOException If the segment cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < EVENTS_PER_SHAPE; ++i) {
+            for (final EventShape shape : EventShape.values()) {
+                content.append(FileSink.getObjectMapper().writeValueAsString(shape.createEvent())).append('\n');
+            }
+        }
+        final byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(DIRECTORY);
+        final Path file = Files.createTempFile(DIRECTORY, "segment", compress ? ".log.gz" : ".log");
+        try (OutputStream stream = compress ? new GZIPOutputStream(Files.newOutputStream(file)) : Files.newOutputStream(file)) {
+            stream.write(bytes);
+        }
+        _file = file.toFile();
+        _size = bytes.length;
+    }
+
+    /**
+     * Read every event of the segment.
+     *
+     * @param counters The bytes read.
+     * @return The number of samples read.
+     * @throws IOException If the segment cannot be read.
+     */
+    @Benchmark
+    public long read(final Counters counters) throws IOException {
+        long samples = 0;
+        try (SegmentReader reader = SegmentReader.open(_file)) {
+            while (reader.next()) {
+                samples += reader.getEvent().getTimers().size();
+            }
+        }
+        counters.bytes += _size;
+        return samples;
+    }
+
+    // CHECKSTYLE.OFF: MemberName - Parameter names are specified on the JMH command line
+    @Param({"false", "true"})
+    private boolean compress;
+    // CHECKSTYLE.ON: MemberName
+    private File _file;
+    private long _size;
+
+    private static final Path DIRECTORY = Paths.get("./target/benchmarks");
+    private static final int EVENTS_PER_SHAPE = 200;
+
+    /**
+     * Uncompressed bytes read.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        // CHECKSTYLE.OFF: VisibilityModifier - Required by JMH
+        public long bytes;
+        // CHECKSTYLE.ON: VisibilityModifier
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark of replaying a day of hourly gzip compressed segments with
+ * {@link SegmentReplayer}. Each segment contains events of each
+ * {@link EventShape}; the end time advances across the segments as when
+ * written by a sink.
+ *
+ * @author agent (agent at local)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ReplayBenchmark {
+
+    /**
+     * Write the segments and create the replayer.
+     *
+     * @throws IOException If the segments cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Files.createDirectories(DIRECTORY);
+        final Path directory = Files.createTempDirectory(DIRECTORY, "replay");
+        _segments = new ArrayList<>(SEGMENTS);
+        long time = 0;
+        for (int i = 0; i < SEGMENTS; ++i) {
+            final Path file = directory.resolve(String.format("query.2026-01-01-%02d.0.log.gz", i));
+            try (OutputStream stream = new GZIPOutputStream(Files.newOutputStream(file))) {
+                for (int j = 0; j < EVENTS_PER_SHAPE; ++j) {
+                    for (final EventShape shape : EventShape.values()) {
+                        final String line = FileSink.getObjectMapper()
+                                .writeValueAsString(shape.createEvent())
+                                .replaceFirst("\"_end\":\"[^\"]*\"", "\"_end\":\"" + Instant.ofEpochMilli(++time) + "\"");
+                        stream.write(line.getBytes(StandardCharsets.UTF_8));
+                        stream.write('\n');
+                    }
+                }
+            }
+            _segments.add(file.toFile());
+        }
+        _replayer = new SegmentReplayer.Builder()
+                .setThreadCount(threadCount)
+                .setOrder(SegmentReplayer.Order.valueOf(order))
+                .build();
+    }
+
+    /**
+     * Replay every event of the segments.
+     *
+     * @return The number of events replayed.
+     * @throws IOException If a segment cannot be read.
+     */
+    @Benchmark
+    public long replay() throws IOException {
+        final long[] samples = {0};
+        _replayer.replay(_segments, event -> samples[0] += event.getTimers().size());
+        return samples[0];
+    }
+
+    // CHECKSTYLE.OFF: MemberName - Parameter names are specified on the JMH command line
+    @Param({"1", "4", "8"})
+    private int threadCount;
+    @Param({"PER_FILE", "TIME_MERGED"})
+    private String order;
+    // CHECKSTYLE.ON: MemberName
+    private List<File> _segments;
+    private SegmentReplayer _replayer;
+
+    private static final Path DIRECTORY = Paths.get("./target/benchmarks");
+    private static final int SEGMENTS = 24;
+    private static final int EVENTS_PER_SHAPE = 500;
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.arpnetworking.metrics.Event;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Harness measuring {@code record()} latency stalls caused by rotation and
+ * compression. A single producer records events at a fixed rate into a
+ * {@link FileSink} with a small maximum file size so that it rolls many
+ * times. The latency of each event is measured from its scheduled start
+ * rather than its actual start so that a stall is also charged to the
+ * events delayed behind it; the rate must therefore be sustainable or the
+ * latency grows for the whole run. Warm up events are recorded back to
+ * back before the measured events and are not reported.
+ *
+ * Events scheduled within the window around a roll are reported as the
+ * rotation window and all others as steady state, each with p50, p99,
+ * p99.9 and max latency. The sink's own write and roll latency statistics
+ * are reported as well. Only size based rotation is exercised; time based
+ * rotation uses the same roll path.
+ *
+ * Arguments are specified as {@code key=value} pairs; for example:
+ *
+ * {@code ./mvnw -Pbenchmarks verify -Dbenchmarks.main=com.arpnetworking.metrics.impl.RotationStallHarness
+ * -Dbenchmarks.args="events=1000000 rate=100000 maxFileSize=1MB compress=true"}
+ *
+ * @author agent (agent at local)
+ */
+public final class RotationStallHarness {
+
+    /**
+     * Run the harness.
+     *
+     * @param args The {@code key=value} arguments.
+     * @throws IOException If the output directory cannot be created.
+     */
+    public static void main(final String[] args) throws IOException {
+        final Map<String, String> options = parseOptions(args);
+        final int events = Integer.parseInt(options.get("events"));
+        final int warmupEvents = Integer.parseInt(options.get("warmupEvents"));
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Long.parseLong(options.get("rate"));
+        final long windowNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(options.get("windowMillis")));
+        System.out.printf("Options: %s%n", options);
+
+        Files.createDirectories(DIRECTORY);
+        final Path directory = Files.createTempDirectory(DIRECTORY, "RotationStallHarness");
+        final BaseFileSink sink = (BaseFileSink) new FileSink.Builder()
+                .setDirectory(directory.toFile())
+                .setName("query")
+                .setMaxFileSize(options.get("maxFileSize"))
+                .setMaxHistory(Integer.parseInt(options.get("maxHistory")))
+                .setCompress(Boolean.parseBoolean(options.get("compress")))
+                .setStreamingCompression(Boolean.parseBoolean(options.get("streamingCompression")))
+                .setAsync(Boolean.parseBoolean(options.get("async")))
+                .setImmediateFlush(Boolean.parseBoolean(options.get("immediateFlush")))
+                .setJmxEnabled(false)
+                .build();
+
+        final Event event = EventShape.LONG_VALUES.createEvent();
+        for (int i = 0; i < warmupEvents; ++i) {
+            sink.record(event);
+        }
+        final long[] scheduledNanos = new long[events];
+        final long[] latencyNanos = new long[events];
+        final long[] rollNanos = new long[events];
+        int rollCount = 0;
+        long lastRolls = sink.getStatistics().getRollLatency().getCount();
+        final long startNanos = System.nanoTime();
+        for (int i = 0; i < events; ++i) {
+            final long scheduled = startNanos + i * intervalNanos;
+            long now = System.nanoTime();
+            while (now < scheduled) {
+                LockSupport.parkNanos(scheduled - now);
+                now = System.nanoTime();
+            }
+            sink.record(event);
+            final long end = System.nanoTime();
+            scheduledNanos[i] = scheduled;
+            latencyNanos[i] = end - scheduled;
+            final long rolls = sink.getStatistics().getRollLatency().getCount();
+            if (rolls != lastRolls) {
+                rollNanos[rollCount++] = end;
+                lastRolls = rolls;
+            }
+        }
+        final Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+        sink.close(CLOSE_TIMEOUT);
+
+        final long[] rotation = new long[events];
+        final long[] steady = new long[events];
+        int rotationCount = 0;
+        int steadyCount = 0;
+        for (int i = 0; i < events; ++i) {
+            if (isNearRoll(scheduledNanos[i], rollNanos, rollCount, windowNanos)) {
+                rotation[rotationCount++] = latencyNanos[i];
+            } else {
+                steady[steadyCount++] = latencyNanos[i];
+            }
+        }
+
+        final FileSinkStatistics statistics = sink.getStatistics();
+        final double achievedRate = events * (double) TimeUnit.SECONDS.toNanos(1) / elapsed.toNanos();
+        System.out.printf("Recorded %d events in %s (%.0f/s) with %d rolls%n", events, elapsed, achievedRate, rollCount);
+        if (achievedRate * intervalNanos < SUSTAINED_RATE_FRACTION * TimeUnit.SECONDS.toNanos(1)) {
+            System.out.println("WARNING: The producer did not sustain the requested rate; reduce the rate");
+        }
+        System.out.printf("%-10s %10s %12s %12s %12s %12s%n", "window", "events", "p50 (us)", "p99 (us)", "p99.9 (us)", "max (us)");
+        report("steady", Arrays.copyOf(steady, steadyCount));
+        report("rotation", Arrays.copyOf(rotation, rotationCount));
+        report("all", latencyNanos.clone());
+        System.out.printf("Sink write latency: %s%n", statistics.getWriteLatency());
+        System.out.printf("Sink flush latency: %s%n", statistics.getFlushLatency());
+        System.out.printf("Sink roll latency: %s%n", statistics.getRollLatency());
+        System.out.printf("Sink discarded: %d%n", statistics.getDiscardedCount());
+    }
+
+    private static boolean isNearRoll(
+            final long nanos,
+            final long[] rollNanos,
+            final int rollCount,
+            final long windowNanos) {
+        final int index = Arrays.binarySearch(rollNanos, 0, rollCount, nanos);
+        if (index >= 0) {
+            return true;
+        }
+        final int insertion = -index - 1;
+        return insertion < rollCount && rollNanos[insertion] - nanos <= windowNanos
+                || insertion > 0 && nanos - rollNanos[insertion - 1] <= windowNanos;
+    }
+
+    private static void report(final String window, final long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf(
+                "%-10s %10d %12.1f %12.1f %12.1f %12.1f%n",
+                window,
+                latencies.length,
+                percentile(latencies, 50),
+                percentile(latencies, 99),
+                percentile(latencies, 99.9),
+                percentile(latencies, 100));
+    }
+
+    private static double percentile(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000.0;
+    }
+
+    private static Map<String, String> parseOptions(final String[] args) {
+        final Map<String, String> options = new LinkedHashMap<>(DEFAULT_OPTIONS);
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (separator < 0 || !options.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException(String.format(
+                        "Unknown argument; argument=%s, options=%s",
+                        arg,
+                        DEFAULT_OPTIONS.keySet()));
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private RotationStallHarness() {}
+
+    private static final Path DIRECTORY = Paths.get("./target/benchmarks");
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+    private static final double SUSTAINED_RATE_FRACTION = 0.95;
+    private static final Map<String, String> DEFAULT_OPTIONS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_OPTIONS.put("events", "500000");
+        DEFAULT_OPTIONS.put("warmupEvents", "100000");
+        DEFAULT_OPTIONS.put("rate", "5000");
+        DEFAULT_OPTIONS.put("windowMillis", "50");
+        DEFAULT_OPTIONS.put("maxFileSize", "1MB");
+        DEFAULT_OPTIONS.put("maxHistory", "10");
+        DEFAULT_OPTIONS.put("compress", "true");
+        DEFAULT_OPTIONS.put("streamingCompression", "false");
+        DEFAULT_OPTIONS.put("async", "false");
+        DEFAULT_OPTIONS.put("immediateFlush", "false");
+    }
+}
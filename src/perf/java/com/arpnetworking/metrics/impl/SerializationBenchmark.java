@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.arpnetworking.metrics.Event;
+import com.arpnetworking.metrics.Quantity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the "2f" serialization of events and quantities by
+ * {@link FileSink}. Events are serialized for each {@link EventShape} used
+ * by the golden output tests so that any optimization measured here is also
+ * verified to be byte compatible by {@code FileSinkSerializationTest}.
+ *
+ * Run with {@code ./mvnw -Pbenchmarks verify -Dbenchmarks.args="SerializationBenchmark -prof gc"};
+ * the GC profiler reports the bytes allocated per operation as
+ * {@code gc.alloc.rate.norm}.
+ *
+ * @author agent (agent at local)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    /**
+     * Serialize an event.
+     *
+     * @param state The event to serialize.
+     * @return The serialized event.
+     * @throws JsonProcessingException If serialization fails.
+     */
+    @Benchmark
+    public String serializeEvent(final EventState state) throws JsonProcessingException {
+        return OBJECT_MAPPER.writeValueAsString(state.getEvent());
+    }
+
+    /**
+     * Serialize a quantity.
+     *
+     * @param state The quantity to serialize.
+     * @return The serialized quantity.
+     * @throws JsonProcessingException If serialization fails.
+     */
+    @Benchmark
+    public String serializeQuantity(final QuantityState state) throws JsonProcessingException {
+        return OBJECT_MAPPER.writeValueAsString(state.getQuantity());
+    }
+
+    private static final ObjectMapper OBJECT_MAPPER = FileSink.getObjectMapper();
+
+    /**
+     * The event to serialize.
+     */
+    @State(Scope.Thread)
+    public static class EventState {
+
+        /**
+         * Create the event.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            _event = shape.createEvent();
+        }
+
+        /* package private */ Event getEvent() {
+            return _event;
+        }
+
+        // CHECKSTYLE.OFF: MemberName - Parameter names are specified on the JMH command line
+        @Param
+        private EventShape shape;
+        // CHECKSTYLE.ON: MemberName
+        private Event _event;
+    }
+
+    /**
+     * The quantity to serialize.
+     */
+    @State(Scope.Thread)
+    public static class QuantityState {
+
+        /**
+         * Create the quantity.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            if ("double".equals(valueType)) {
+                _quantity = TsdQuantity.newInstance(1234.567d);
+            } else {
+                _quantity = TsdQuantity.newInstance(1234567L);
+            }
+        }
+
+        /* package private */ Quantity getQuantity() {
+            return _quantity;
+        }
+
+        // CHECKSTYLE.OFF: MemberName - Parameter names are specified on the JMH command line
+        @Param({"long", "double"})
+        private String valueType;
+        // CHECKSTYLE.ON: MemberName
+        private Quantity _quantity;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tests for {@link AlignedBufferPool}.
+ *
+ * @author agent (agent at local)
+ */
+public class AlignedBufferPoolTest {
+
+    @Test
+    public void testAcquire() {
+        final ByteBuffer buffer = new AlignedBufferPool(1).acquire(8192, 4096);
+        Assert.assertTrue(buffer.isDirect());
+        Assert.assertEquals(8192, buffer.capacity());
+        Assert.assertEquals(8192, buffer.remaining());
+        Assert.assertEquals(0, buffer.alignmentOffset(0, 4096));
+    }
+
+    @Test
+    public void testReuse() {
+        final AlignedBufferPool pool = new AlignedBufferPool(1);
+        final ByteBuffer buffer = pool.acquire(8192, 4096);
+        buffer.put((byte) 1);
+        pool.release(buffer);
+        Assert.assertEquals(1, pool.size());
+        final ByteBuffer reused = pool.acquire(8192, 4096);
+        Assert.assertSame(buffer, reused);
+        Assert.assertEquals(0, reused.position());
+        Assert.assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testReuseRequiresCapacityAndAlignment() {
+        final AlignedBufferPool pool = new AlignedBufferPool(2);
+        final ByteBuffer buffer = pool.acquire(8192, 4096);
+        final ByteBuffer unaligned = ByteBuffer.allocateDirect(8193).alignedSlice(2).position(1).slice();
+        pool.release(buffer);
+        pool.release(unaligned);
+        Assert.assertNotSame(buffer, pool.acquire(4096, 4096));
+        Assert.assertNotSame(unaligned, pool.acquire(unaligned.capacity(), 2));
+        Assert.assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testMaxPooledBuffers() {
+        final AlignedBufferPool pool = new AlignedBufferPool(1);
+        final ByteBuffer first = pool.acquire(4096, 4096);
+        final ByteBuffer second = pool.acquire(4096, 4096);
+        pool.release(first);
+        pool.release(second);
+        Assert.assertEquals(1, pool.size());
+        Assert.assertSame(second, pool.acquire(4096, 4096));
+    }
+}
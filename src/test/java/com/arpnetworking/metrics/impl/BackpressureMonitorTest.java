@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link BackpressureMonitor}.
+ *
+ * @author agent (agent at local)
+ */
+public class BackpressureMonitorTest {
+
+    @Test
+    public void testQueueFillFraction() {
+        final AtomicInteger queueDepth = new AtomicInteger(0);
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(queueDepth::get);
+        final BackpressureMonitor monitor = new BackpressureMonitor(instrumentation, () -> 4, 0.75, Duration.ofHours(1));
+        Assert.assertEquals(0.0, monitor.getQueueFillFraction(), 0.0);
+        Assert.assertFalse(monitor.isOverloaded());
+
+        queueDepth.set(2);
+        Assert.assertEquals(0.5, monitor.getQueueFillFraction(), 0.0);
+        Assert.assertFalse(monitor.isOverloaded());
+
+        queueDepth.set(3);
+        Assert.assertEquals(0.75, monitor.getQueueFillFraction(), 0.0);
+        Assert.assertTrue(monitor.isOverloaded());
+
+        queueDepth.set(5);
+        Assert.assertEquals(1.0, monitor.getQueueFillFraction(), 0.0);
+
+        queueDepth.set(2);
+        Assert.assertEquals(0.5, monitor.getQueueFillFraction(), 0.0);
+        Assert.assertFalse(monitor.isOverloaded());
+    }
+
+    @Test
+    public void testQueueFillFractionBatch() {
+        final AtomicInteger queueDepth = new AtomicInteger(0);
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(queueDepth::get);
+        final BackpressureMonitor monitor = new BackpressureMonitor(instrumentation, () -> 4, 0.75, Duration.ofHours(1));
+
+        // A batch of events occupies a single queue entry
+        instrumentation.onEnqueue(100);
+        queueDepth.set(1);
+        Assert.assertEquals(100, instrumentation.getPendingCount());
+        Assert.assertEquals(0.25, monitor.getQueueFillFraction(), 0.0);
+        Assert.assertFalse(monitor.isOverloaded());
+    }
+
+    @Test
+    public void testWithoutQueue() {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final BackpressureMonitor monitor = new BackpressureMonitor(instrumentation, () -> 0, 1.0, Duration.ofHours(1));
+        instrumentation.onEnqueue(1);
+        Assert.assertEquals(0.0, monitor.getQueueFillFraction(), 0.0);
+        Assert.assertFalse(monitor.isOverloaded());
+    }
+
+    @Test
+    public void testWriterLag() throws InterruptedException {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final BackpressureMonitor monitor = new BackpressureMonitor(instrumentation, () -> 100, 1.0, Duration.ofMillis(10));
+        instrumentation.onEnqueue(1);
+        Thread.sleep(20);
+        Assert.assertTrue(monitor.getWriterLagNanos() >= Duration.ofMillis(20).toNanos());
+        Assert.assertTrue(monitor.isOverloaded());
+
+        instrumentation.onWrite(1, 10, 1);
+        Assert.assertEquals(0, monitor.getWriterLagNanos());
+        Assert.assertFalse(monitor.isOverloaded());
+    }
+}
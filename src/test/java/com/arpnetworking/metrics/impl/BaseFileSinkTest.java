@@ -16,12 +16,12 @@
 package com.arpnetworking.metrics.impl;
 
 import ch.qos.logback.classic.AsyncAppender;
-import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.encoder.Encoder;
 import ch.qos.logback.core.rolling.RollingFileAppender;
 import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.rolling.helper.CompressionMode;
 import com.arpnetworking.logback.SizeAndRandomizedTimeBasedFNATP;
 import com.arpnetworking.metrics.Event;
 import com.arpnetworking.metrics.Sink;
@@ -33,7 +33,18 @@ import org.mockito.Mockito;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
 
 /**
  * Tests for {@link BaseFileSink}.
@@ -126,20 +137,843 @@ public class BaseFileSinkTest {
                 (SizeAndRandomizedTimeBasedFNATP<ILoggingEvent>) rollingPolicy.getTimeBasedFileNamingAndTriggeringPolicy();
     }
 
+    @Test
+    public void testStreamingCompressionBuilder() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testStreamingCompressionBuilder/";
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setStreamingCompression(Boolean.TRUE)
+                .build();
+
+        final AsyncAppender asyncAppender = (AsyncAppender)
+                sink.getMetricsLogger().getAppender("query-log-async");
+        final RollingFileAppender<ILoggingEvent> rollingAppender = (RollingFileAppender<ILoggingEvent>)
+                asyncAppender.getAppender("query-log");
+        @SuppressWarnings("unchecked")
+        final TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = (TimeBasedRollingPolicy<ILoggingEvent>)
+                rollingAppender.getRollingPolicy();
+
+        Assert.assertEquals(expectedPath + "query.log.gz", rollingAppender.getFile());
+        Assert.assertEquals(expectedPath + "query.%d{yyyy-MM-dd-HH}.%i.log.gz", rollingPolicy.getFileNamePattern());
+        Assert.assertEquals(CompressionMode.NONE, rollingPolicy.getCompressionMode());
+        MatcherAssert.assertThat(
+                ((InstrumentedOutputStream) rollingAppender.getOutputStream()).getDelegate(),
+                Matchers.instanceOf(GzipFrameOutputStream.class));
+
+        sink.getMetricsLogger().getLoggerContext().stop();
+        Assert.assertFalse(rollingAppender.isStarted());
+    }
+
+    @Test
+    public void testBuilderStreamingCompressionWithoutCompress() throws IOException {
+        final Sink sink = new TestFileSink.Builder()
+                .setDirectory(createDirectory("./target/BaseFileSinkTest/testBuilderStreamingCompressionWithoutCompress/"))
+                .setCompress(Boolean.FALSE)
+                .setStreamingCompression(Boolean.TRUE)
+                .build();
+
+        Assert.assertNotNull(sink);
+        MatcherAssert.assertThat(sink, Matchers.instanceOf(WarningSink.class));
+    }
+
+    @Test
+    public void testIndexedRetentionBuilder() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testIndexedRetentionBuilder/";
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setIndexedRetention(Boolean.TRUE)
+                .setMaxTotalSize("1GB")
+                .setMinFreeDiskPercentage(10)
+                .build();
+
+        final AsyncAppender asyncAppender = (AsyncAppender)
+                sink.getMetricsLogger().getAppender("query-log-async");
+        final RollingFileAppender<ILoggingEvent> rollingAppender = (RollingFileAppender<ILoggingEvent>)
+                asyncAppender.getAppender("query-log");
+        @SuppressWarnings("unchecked")
+        final TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = (TimeBasedRollingPolicy<ILoggingEvent>)
+                rollingAppender.getRollingPolicy();
+
+        // Retention is not delegated to Logback
+        Assert.assertEquals(0, rollingPolicy.getMaxHistory());
+        Assert.assertTrue(rollingPolicy.isStarted());
+
+        sink.getMetricsLogger().getLoggerContext().stop();
+    }
+
+    @Test
+    public void testIndexedRetentionUncompressedBuilder() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testIndexedRetentionUncompressedBuilder/";
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setIndexedRetention(Boolean.TRUE)
+                .setCompress(Boolean.FALSE)
+                .build();
+
+        final AsyncAppender asyncAppender = (AsyncAppender)
+                sink.getMetricsLogger().getAppender("query-log-async");
+        final RollingFileAppender<ILoggingEvent> rollingAppender = (RollingFileAppender<ILoggingEvent>)
+                asyncAppender.getAppender("query-log");
+        @SuppressWarnings("unchecked")
+        final TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = (TimeBasedRollingPolicy<ILoggingEvent>)
+                rollingAppender.getRollingPolicy();
+
+        Assert.assertEquals(0, rollingPolicy.getMaxHistory());
+        Assert.assertEquals(expectedPath + "query.%d{yyyy-MM-dd-HH}.%i.log", rollingPolicy.getFileNamePattern());
+
+        sink.getMetricsLogger().getLoggerContext().stop();
+    }
+
+    @Test
+    public void testBuilderMinFreeDiskPercentageWithoutIndexedRetention() throws IOException {
+        final Sink sink = new TestFileSink.Builder()
+                .setDirectory(createDirectory("./target/BaseFileSinkTest/testBuilderMinFreeDiskPercentageWithoutIndexedRetention/"))
+                .setMinFreeDiskPercentage(10)
+                .build();
+
+        Assert.assertNotNull(sink);
+        MatcherAssert.assertThat(sink, Matchers.instanceOf(WarningSink.class));
+    }
+
+    @Test
+    public void testBuilderMinFreeDiskPercentageOutOfRange() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testBuilderMinFreeDiskPercentageOutOfRange/");
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder()
+                        .setDirectory(directory)
+                        .setIndexedRetention(Boolean.TRUE)
+                        .setMinFreeDiskPercentage(-1)
+                        .build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder()
+                        .setDirectory(directory)
+                        .setIndexedRetention(Boolean.TRUE)
+                        .setMinFreeDiskPercentage(101)
+                        .build(),
+                Matchers.instanceOf(WarningSink.class));
+    }
+
+    @Test
+    public void testLazyStartBuilder() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testLazyStartBuilder/";
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setLazyStart(Boolean.TRUE)
+                .build();
+
+        final LazyStartAppender lazyStartAppender = (LazyStartAppender)
+                sink.getMetricsLogger().getAppender("query-log-lazy");
+        Assert.assertNull(sink.getMetricsLogger().getAppender("query-log-async"));
+        final AsyncAppender asyncAppender = (AsyncAppender) lazyStartAppender.getDelegate();
+        final RollingFileAppender<ILoggingEvent> rollingAppender = (RollingFileAppender<ILoggingEvent>)
+                asyncAppender.getAppender("query-log");
+
+        lazyStartAppender.startDelegate();
+        Assert.assertTrue(asyncAppender.isStarted());
+        Assert.assertTrue(rollingAppender.isStarted());
+        Assert.assertTrue(rollingAppender.getRollingPolicy().isStarted());
+
+        sink.getMetricsLogger().getLoggerContext().stop();
+        Assert.assertFalse(rollingAppender.isStarted());
+    }
+
+    @Test
+    public void testIoSchedulerBuilder() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testIoSchedulerBuilder/";
+        try (IoScheduler ioScheduler = new IoScheduler.Builder().build()) {
+            final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                    .setDirectory(createDirectory(expectedPath))
+                    .setIoScheduler(ioScheduler)
+                    .setDropWhenQueueFull(Boolean.TRUE)
+                    .build();
+
+            Assert.assertNull(sink.getMetricsLogger().getAppender("query-log-async"));
+            final ScheduledAsyncAppender scheduledAsyncAppender = (ScheduledAsyncAppender)
+                    sink.getMetricsLogger().getAppender("query-log-scheduled");
+            final RollingFileAppender<ILoggingEvent> rollingAppender = (RollingFileAppender<ILoggingEvent>)
+                    scheduledAsyncAppender.getDelegate();
+            Assert.assertTrue(scheduledAsyncAppender.isStarted());
+            Assert.assertTrue(rollingAppender.isStarted());
+            Assert.assertEquals(500, scheduledAsyncAppender.getRemainingCapacity());
+
+            final TestFileSink blockingSink = (TestFileSink) new TestFileSink.Builder()
+                    .setDirectory(createDirectory(expectedPath))
+                    .setName("blocking")
+                    .setIoScheduler(ioScheduler)
+                    .build();
+            Assert.assertNotNull(blockingSink.getMetricsLogger().getAppender("query-log-scheduled"));
+
+            sink.getMetricsLogger().getLoggerContext().stop();
+            blockingSink.getMetricsLogger().getLoggerContext().stop();
+            Assert.assertFalse(rollingAppender.isStarted());
+        }
+    }
+
+    @Test
+    public void testWriterThreadFactory() throws IOException, InterruptedException {
+        final String expectedPath = "./target/BaseFileSinkTest/testWriterThreadFactory/";
+        final File file = new File(createDirectory(expectedPath), "query.log");
+        Files.deleteIfExists(file.toPath());
+        final List<Thread> threads = new ArrayList<>();
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(new File(expectedPath))
+                .setWriterThreadFactory(runnable -> {
+                    final Thread thread = new Thread(runnable, "test-writer");
+                    thread.setDaemon(true);
+                    threads.add(thread);
+                    return thread;
+                })
+                .build();
+        Assert.assertNull(sink.getMetricsLogger().getAppender("query-log-async"));
+        Assert.assertNotNull(sink.getMetricsLogger().getAppender("query-log-scheduled"));
+        for (int i = 0; i < 100; ++i) {
+            sink.record(Mockito.mock(Event.class));
+        }
+
+        Assert.assertTrue(sink.close(Duration.ofSeconds(10)).isComplete());
+        Assert.assertEquals(100, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+        Assert.assertEquals(1, threads.size());
+        threads.get(0).join(10000);
+        Assert.assertFalse(threads.get(0).isAlive());
+    }
+
+    @Test
+    public void testSocketBuilder() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testSocketBuilder/");
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(directory)
+                .setSocketPath(directory.toPath().resolve("agent.sock"))
+                .setSocketBufferSize("64KB")
+                .build();
+
+        final AsyncAppender asyncAppender = (AsyncAppender)
+                sink.getMetricsLogger().getAppender("query-log-async");
+        final UnixSocketAppender socketAppender = (UnixSocketAppender)
+                asyncAppender.getAppender("query-log-socket");
+        final RollingFileAppender<ILoggingEvent> rollingAppender = (RollingFileAppender<ILoggingEvent>)
+                socketAppender.getFallback();
+        Assert.assertTrue(socketAppender.isStarted());
+        Assert.assertTrue(rollingAppender.isStarted());
+        Assert.assertFalse(socketAppender.isConnected());
+
+        sink.close(Duration.ofSeconds(1));
+        Assert.assertFalse(socketAppender.isStarted());
+        Assert.assertFalse(rollingAppender.isStarted());
+
+        final TestFileSink syncSink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(directory)
+                .setName("sync")
+                .setAsync(Boolean.FALSE)
+                .setSocketPath(directory.toPath().resolve("agent.sock"))
+                .build();
+        Assert.assertNotNull(syncSink.getMetricsLogger().getAppender("query-log-socket"));
+        syncSink.close(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testBuilderInvalidSocketBufferSize() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testBuilderInvalidSocketBufferSize/");
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder().setDirectory(directory).setSocketBufferSize("0KB").build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder().setDirectory(directory).setSocketBufferSize("2GB").build(),
+                Matchers.instanceOf(WarningSink.class));
+    }
+
+    @Test
+    public void testAdditionalOutputs() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testAdditionalOutputs/primary/");
+        final File otherDirectory = createDirectory("./target/BaseFileSinkTest/testAdditionalOutputs/other/");
+        final File socketDirectory = createDirectory("./target/BaseFileSinkTest/testAdditionalOutputs/socket/");
+        for (final File outputDirectory : List.of(directory, otherDirectory, socketDirectory)) {
+            Files.deleteIfExists(new File(outputDirectory, "query.log").toPath());
+        }
+        final TestFileSink sink = (TestFileSink) createUncompressedBuilder(directory)
+                .setAsync(Boolean.FALSE)
+                .setImmediateFlush(Boolean.TRUE)
+                .setDropSummaryInterval(Duration.ofMinutes(1))
+                .setAdditionalOutputs(List.of(
+                        new FileSinkOutput.Builder()
+                                .setDirectory(otherDirectory)
+                                .build(),
+                        new FileSinkOutput.Builder()
+                                .setDirectory(socketDirectory)
+                                .setSocketPath(socketDirectory.toPath().resolve("agent.sock"))
+                                .build()))
+                .build();
+        Assert.assertEquals(3, sink.getOutputs().size());
+        sink.record(Mockito.mock(Event.class));
+        sink.record(Mockito.mock(Event.class));
+
+        final List<FileSinkStatistics> statistics = sink.getOutputStatistics();
+        Assert.assertEquals(3, statistics.size());
+        for (final FileSinkStatistics outputStatistics : statistics) {
+            Assert.assertEquals(2, outputStatistics.getWrittenCount());
+        }
+        Assert.assertEquals(0, sink.getPendingCount());
+        Assert.assertEquals(0.0, sink.getQueueFillFraction(), 0.0);
+        Assert.assertEquals(Duration.ZERO, sink.getWriterLag());
+        Assert.assertFalse(sink.isOverloaded());
+
+        // Drops are accounted and summarized per output
+        sink.getOutputs().get(1).getInstrumentation().onDiscard(1);
+        sink.close(Duration.ofSeconds(1));
+        Assert.assertEquals(0, sink.getStatistics().getDiscardedCount());
+
+        final List<String> lines = Files.readAllLines(new File(directory, "query.log").toPath(), StandardCharsets.UTF_8);
+        final List<String> otherLines = Files.readAllLines(new File(otherDirectory, "query.log").toPath(), StandardCharsets.UTF_8);
+        final List<String> socketLines = Files.readAllLines(new File(socketDirectory, "query.log").toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(2, lines.size());
+        Assert.assertEquals(lines, socketLines);
+        Assert.assertEquals(3, otherLines.size());
+        Assert.assertEquals(lines, otherLines.subList(0, 2));
+        MatcherAssert.assertThat(otherLines.get(2), Matchers.containsString("\"dropped\":{\"queueFull\":1,"));
+    }
+
+    @Test
+    public void testBuilderInvalidAdditionalOutputs() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testBuilderInvalidAdditionalOutputs/");
+        final File otherDirectory = createDirectory("./target/BaseFileSinkTest/testBuilderInvalidAdditionalOutputs/other/");
+        final File file = new File(directory, "file");
+        Files.write(file.toPath(), new byte[0]);
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder()
+                        .setDirectory(directory)
+                        .setAdditionalOutputs(List.of(new FileSinkOutput.Builder().setDirectory(file).build()))
+                        .build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder()
+                        .setDirectory(directory)
+                        .setAdditionalOutputs(List.of(new FileSinkOutput.Builder().setDirectory(new File(otherDirectory, "..")).build()))
+                        .build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder()
+                        .setDirectory(directory)
+                        .setAdditionalOutputs(List.of(
+                                new FileSinkOutput.Builder().setDirectory(otherDirectory).build(),
+                                new FileSinkOutput.Builder().setDirectory(otherDirectory).build()))
+                        .build(),
+                Matchers.instanceOf(WarningSink.class));
+    }
+
+    @Test
+    public void testSharded() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testSharded/");
+        final File evenDirectory = createDirectory("./target/BaseFileSinkTest/testSharded/even/");
+        final File oddDirectory = createDirectory("./target/BaseFileSinkTest/testSharded/odd/");
+        final List<File> files = List.of(
+                new File(evenDirectory, "query-0.log"),
+                new File(oddDirectory, "query-1.log"),
+                new File(evenDirectory, "query-2.log"));
+        for (final File file : files) {
+            Files.deleteIfExists(file.toPath());
+        }
+        final TestFileSink sink = (TestFileSink) createUncompressedBuilder(directory)
+                .setShardCount(3)
+                .setShardDirectories(List.of(evenDirectory, oddDirectory))
+                .setShardAnnotation("service")
+                .setAsync(Boolean.FALSE)
+                .build();
+        Assert.assertEquals(3, sink.getOutputs().size());
+        for (int i = 0; i < 30; ++i) {
+            final Event event = Mockito.mock(Event.class);
+            Mockito.doReturn(Map.of("service", "service-" + i % 10)).when(event).getAnnotations();
+            sink.record(event);
+        }
+        sink.record(Mockito.mock(Event.class));
+        sink.record(Mockito.mock(Event.class));
+        sink.close(Duration.ofSeconds(1));
+
+        // Each event is written to exactly one shard
+        long writtenCount = 0;
+        for (final FileSinkStatistics statistics : sink.getOutputStatistics()) {
+            Assert.assertEquals(statistics.getRecordedCount(), statistics.getWrittenCount());
+            writtenCount += statistics.getWrittenCount();
+        }
+        Assert.assertEquals(32, writtenCount);
+        final Map<String, File> shardByLine = new LinkedHashMap<>();
+        for (final File file : files) {
+            for (final String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                Assert.assertNull(shardByLine.put(line, file));
+            }
+        }
+        Assert.assertEquals(32, shardByLine.size());
+        Assert.assertFalse(new File(directory, "query.log").exists());
+    }
+
+    @Test
+    public void testBuilderInvalidShards() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testBuilderInvalidShards/");
+        final File file = new File(directory, "file");
+        Files.write(file.toPath(), new byte[0]);
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder().setDirectory(directory).setShardCount(0).build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder().setDirectory(directory).setShardDirectories(List.of(file)).build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder()
+                        .setDirectory(directory)
+                        .setShardCount(2)
+                        .setAdditionalOutputs(List.of(new FileSinkOutput.Builder().setDirectory(file).build()))
+                        .build(),
+                Matchers.instanceOf(WarningSink.class));
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testClose/";
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setSyncOnClose(Boolean.TRUE)
+                .build();
+        final AsyncAppender asyncAppender = (AsyncAppender)
+                sink.getMetricsLogger().getAppender("query-log-async");
+        final RollingFileAppender<ILoggingEvent> rollingAppender = (RollingFileAppender<ILoggingEvent>)
+                asyncAppender.getAppender("query-log");
+        for (int i = 0; i < 100; ++i) {
+            sink.record(Mockito.mock(Event.class));
+        }
+
+        final DrainResult result = sink.close(Duration.ofSeconds(10));
+        Assert.assertTrue(result.isComplete());
+        Assert.assertFalse(rollingAppender.isStarted());
+        Assert.assertSame(DrainResult.EMPTY, sink.close(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    public void testDirectIo() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testDirectIo/";
+        final File file = new File(createDirectory(expectedPath), "query.log");
+        Files.deleteIfExists(file.toPath());
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(new File(expectedPath))
+                .setDirectIo(Boolean.TRUE)
+                .build();
+        final AsyncAppender asyncAppender = (AsyncAppender)
+                sink.getMetricsLogger().getAppender("query-log-async");
+        final RollingFileAppender<ILoggingEvent> rollingAppender = (RollingFileAppender<ILoggingEvent>)
+                asyncAppender.getAppender("query-log");
+        final InstrumentedOutputStream outputStream = (InstrumentedOutputStream) rollingAppender.getOutputStream();
+        Assert.assertTrue(((FileSinkOutputStream) outputStream.getDelegate()).isDirectIo());
+        for (int i = 0; i < 100; ++i) {
+            sink.record(Mockito.mock(Event.class));
+        }
+
+        Assert.assertTrue(sink.close(Duration.ofSeconds(10)).isComplete());
+        Assert.assertEquals(100, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void testCloseTimeout() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testCloseTimeout/";
+        // The writer thread exits immediately so that events remain queued
+        final IoScheduler ioScheduler = new IoScheduler.Builder()
+                .setThreadFactory(runnable -> new Thread(() -> { }))
+                .build();
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setIoScheduler(ioScheduler)
+                .build();
+        for (int i = 0; i < 10; ++i) {
+            sink.record(Mockito.mock(Event.class));
+        }
+
+        final DrainResult result = sink.close(Duration.ZERO);
+        Assert.assertFalse(result.isComplete());
+        Assert.assertEquals(10, result.getWrittenCount() + result.getAbandonedCount());
+    }
+
+    @Test
+    public void testClosedIoScheduler() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testClosedIoScheduler/";
+        final File file = new File(createDirectory(expectedPath), "query.log");
+        Files.deleteIfExists(file.toPath());
+        final IoScheduler ioScheduler = new IoScheduler.Builder().build();
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(new File(expectedPath))
+                .setIoScheduler(ioScheduler)
+                .setMaxQueueSize(2)
+                .setDropWhenQueueFull(Boolean.FALSE)
+                .build();
+        // Events recorded after the scheduler is closed are written on the recording thread
+        ioScheduler.close();
+        for (int i = 0; i < 10; ++i) {
+            sink.record(Mockito.mock(Event.class));
+        }
+
+        Assert.assertEquals(0, sink.getPendingCount());
+        Assert.assertTrue(sink.close(Duration.ofSeconds(1)).isComplete());
+        Assert.assertEquals(10, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void testCloseSync() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testCloseSync/";
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setAsync(Boolean.FALSE)
+                .build();
+        sink.record(Mockito.mock(Event.class));
+
+        final DrainResult result = sink.close(Duration.ofSeconds(10));
+        Assert.assertEquals(0, result.getWrittenCount());
+        Assert.assertEquals(0, result.getAbandonedCount());
+    }
+
+    @Test
+    public void testStatistics() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testStatistics/";
+        Files.deleteIfExists(new File(expectedPath + "query.log").toPath());
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setAsync(Boolean.FALSE)
+                .setImmediateFlush(Boolean.TRUE)
+                .build();
+        Assert.assertNull(sink.getObjectName());
+        sink.record(Mockito.mock(Event.class));
+
+        final FileSinkStatistics statistics = sink.getStatistics();
+        Assert.assertEquals(0, statistics.getQueueDepth());
+        Assert.assertEquals(1, statistics.getWrittenCount());
+        Assert.assertEquals(new File(expectedPath + "query.log").length(), statistics.getBytesWritten());
+        Assert.assertEquals(1, statistics.getFlushLatency().getCount());
+        sink.close(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testDropSummary() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testDropSummary/";
+        final File file = new File(expectedPath + "query.log");
+        Files.deleteIfExists(file.toPath());
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setDropSummaryInterval(Duration.ofMinutes(1))
+                .build();
+
+        // Nothing is written without drops
+        sink.writeDropSummary();
+        sink.getInstrumentation().onDiscard(1);
+        sink.close(Duration.ofSeconds(10));
+
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(1, lines.size());
+        MatcherAssert.assertThat(lines.get(0), Matchers.startsWith("{\"type\":\"dropSummary\",\"version\":\"1\","));
+        MatcherAssert.assertThat(lines.get(0), Matchers.containsString("\"dropped\":{\"queueFull\":1,"));
+    }
+
+    @Test
+    public void testDropSummaryDisabled() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testDropSummaryDisabled/";
+        final File file = new File(expectedPath + "query.log");
+        Files.deleteIfExists(file.toPath());
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .build();
+
+        sink.getInstrumentation().onDiscard(1);
+        sink.writeDropSummary();
+        sink.close(Duration.ofSeconds(10));
+        Assert.assertEquals(0, file.length());
+    }
+
+    @Test
+    public void testBuilderNegativeDropSummaryInterval() throws IOException {
+        final Sink sink = new TestFileSink.Builder()
+                .setDirectory(createDirectory("./target/BaseFileSinkTest/testBuilderNegativeDropSummaryInterval/"))
+                .setDropSummaryInterval(Duration.ofSeconds(-1))
+                .build();
+        MatcherAssert.assertThat(sink, Matchers.instanceOf(WarningSink.class));
+    }
+
+    @Test
+    public void testBackpressure() throws IOException, InterruptedException {
+        final String expectedPath = "./target/BaseFileSinkTest/testBackpressure/";
+        // The writer thread exits immediately so that events remain queued
+        final IoScheduler ioScheduler = new IoScheduler.Builder()
+                .setThreadFactory(runnable -> new Thread(() -> { }))
+                .build();
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setIoScheduler(ioScheduler)
+                .setMaxQueueSize(4)
+                .setOverloadQueueFraction(0.75)
+                .setOverloadWriterLag(Duration.ofMillis(50))
+                .build();
+        Assert.assertEquals(0.0, sink.getQueueFillFraction(), 0.0);
+        Assert.assertEquals(Duration.ZERO, sink.getWriterLag());
+        Assert.assertFalse(sink.isOverloaded());
+
+        sink.record(Mockito.mock(Event.class));
+        sink.record(Mockito.mock(Event.class));
+        Assert.assertEquals(0.5, sink.getQueueFillFraction(), 0.0);
+        Assert.assertFalse(sink.isOverloaded());
+
+        sink.record(Mockito.mock(Event.class));
+        Assert.assertEquals(0.75, sink.getQueueFillFraction(), 0.0);
+        Assert.assertTrue(sink.isOverloaded());
+
+        Thread.sleep(50);
+        Assert.assertTrue(sink.getWriterLag().compareTo(Duration.ofMillis(50)) >= 0);
+
+        sink.close(Duration.ZERO);
+    }
+
+    @Test
+    public void testBackpressureLazyStartCapacity() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testBackpressureLazyStartCapacity/";
+        // The writer thread exits immediately so that events remain queued
+        final IoScheduler ioScheduler = new IoScheduler.Builder()
+                .setThreadFactory(runnable -> new Thread(() -> { }))
+                .build();
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setIoScheduler(ioScheduler)
+                .setLazyStart(Boolean.TRUE)
+                .setMaxQueueSize(4)
+                .build();
+        // NOTE: The events are counted once whether buffered or queued for the writer
+        sink.record(Mockito.mock(Event.class));
+        sink.record(Mockito.mock(Event.class));
+        Assert.assertEquals(0.25, sink.getQueueFillFraction(), 0.0);
+        sink.close(Duration.ZERO);
+    }
+
+    @Test
+    public void testBackpressureSync() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testBackpressureSync/";
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setAsync(Boolean.FALSE)
+                .build();
+        sink.record(Mockito.mock(Event.class));
+        Assert.assertEquals(0.0, sink.getQueueFillFraction(), 0.0);
+        Assert.assertEquals(Duration.ZERO, sink.getWriterLag());
+        Assert.assertFalse(sink.isOverloaded());
+        sink.close(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testReconfigure() throws IOException {
+        final String expectedPath = "./target/BaseFileSinkTest/testReconfigure/";
+        // The writer thread exits immediately so that events remain queued
+        final IoScheduler ioScheduler = new IoScheduler.Builder()
+                .setThreadFactory(runnable -> new Thread(() -> { }))
+                .build();
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setIoScheduler(ioScheduler)
+                .setMaxQueueSize(4)
+                .build();
+        final FileSinkConfiguration initial = sink.getConfiguration();
+        Assert.assertEquals(4, initial.getMaxQueueSize());
+        Assert.assertFalse(initial.isDropWhenQueueFull());
+        Assert.assertFalse(initial.isImmediateFlush());
+        Assert.assertEquals("100MB", initial.getMaxFileSize());
+
+        final FileSinkConfiguration configuration = new FileSinkConfiguration.Builder(initial)
+                .setMaxQueueSize(2)
+                .setDropWhenQueueFull(true)
+                .build();
+        sink.reconfigure(configuration);
+        Assert.assertSame(configuration, sink.getConfiguration());
+
+        sink.record(Mockito.mock(Event.class));
+        sink.record(Mockito.mock(Event.class));
+        Assert.assertEquals(0.5, sink.getQueueFillFraction(), 0.0);
+        Assert.assertEquals(1, sink.getStatistics().getDiscardedCount());
+
+        try {
+            sink.reconfigure(new FileSinkConfiguration.Builder(initial).setMaxQueueSize(5).build());
+            Assert.fail("Expected exception not thrown");
+        } catch (final IllegalArgumentException e) {
+            Assert.assertSame(configuration, sink.getConfiguration());
+        }
+        sink.close(Duration.ZERO);
+    }
+
+    @Test
+    public void testReconfigureRolling() throws IOException {
+        // NOTE: A file left by an earlier run in an earlier period would be rolled on the first record
+        final File directory = Files.createTempDirectory(
+                createDirectory("./target/BaseFileSinkTest/").toPath(),
+                "testReconfigureRolling").toFile();
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(directory)
+                .setAsync(Boolean.FALSE)
+                .setCompress(Boolean.FALSE)
+                .build();
+        final RollingFileAppender<ILoggingEvent> rollingAppender = (RollingFileAppender<ILoggingEvent>)
+                sink.getMetricsLogger().getAppender("query-log");
+        sink.record(Mockito.mock(Event.class));
+        Assert.assertFalse(rollingAppender.isImmediateFlush());
+        Assert.assertEquals(0, sink.getStatistics().getRollLatency().getCount());
+
+        sink.reconfigure(new FileSinkConfiguration.Builder(sink.getConfiguration())
+                .setImmediateFlush(true)
+                .setMaxFileSize("1KB")
+                .build());
+        for (int i = 0; i < 200; ++i) {
+            sink.record(Mockito.mock(Event.class));
+        }
+        Assert.assertTrue(rollingAppender.isImmediateFlush());
+        Assert.assertTrue(sink.getStatistics().getRollLatency().getCount() > 0);
+        sink.close(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testBuilderInvalidOverloadQueueFraction() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testBuilderInvalidOverloadQueueFraction/");
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder().setDirectory(directory).setOverloadQueueFraction(0.0).build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder().setDirectory(directory).setOverloadQueueFraction(1.5).build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder().setDirectory(directory).setOverloadQueueFraction(Double.NaN).build(),
+                Matchers.instanceOf(WarningSink.class));
+    }
+
+    @Test
+    public void testBuilderIndex() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testBuilderIndex/");
+        final Sink sink = new TestFileSink.Builder()
+                .setDirectory(directory)
+                .setCompress(Boolean.FALSE)
+                .setIndexInterval(Duration.ofSeconds(1))
+                .build();
+        MatcherAssert.assertThat(sink, Matchers.instanceOf(TestFileSink.class));
+        ((TestFileSink) sink).close(Duration.ofSeconds(1));
+
+        final Sink compressedSink = new TestFileSink.Builder()
+                .setDirectory(directory)
+                .setStreamingCompression(Boolean.TRUE)
+                .setIndexIntervalSize("64KB")
+                .build();
+        MatcherAssert.assertThat(compressedSink, Matchers.instanceOf(TestFileSink.class));
+        ((TestFileSink) compressedSink).close(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testBuilderInvalidIndex() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testBuilderInvalidIndex/");
+        MatcherAssert.assertThat(
+                createUncompressedBuilder(directory).setIndexIntervalSize("0KB").build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                createUncompressedBuilder(directory).setIndexInterval(Duration.ZERO).build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                createUncompressedBuilder(directory).setIndexInterval(Duration.ofNanos(1)).build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                createUncompressedBuilder(directory).setIndexInterval(Duration.ofMillis(-1)).build(),
+                Matchers.instanceOf(WarningSink.class));
+        // A file compressed on roll has no offsets to index
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder()
+                        .setDirectory(directory)
+                        .setCompress(Boolean.TRUE)
+                        .setIndexInterval(Duration.ofSeconds(1))
+                        .build(),
+                Matchers.instanceOf(WarningSink.class));
+    }
+
+    @Test
+    public void testBuilderInvalidOverloadWriterLag() throws IOException {
+        final File directory = createDirectory("./target/BaseFileSinkTest/testBuilderInvalidOverloadWriterLag/");
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder().setDirectory(directory).setOverloadWriterLag(Duration.ZERO).build(),
+                Matchers.instanceOf(WarningSink.class));
+        MatcherAssert.assertThat(
+                new TestFileSink.Builder().setDirectory(directory).setOverloadWriterLag(Duration.ofMillis(-1)).build(),
+                Matchers.instanceOf(WarningSink.class));
+    }
+
+    @Test
+    public void testJmx() throws IOException, JMException {
+        final String expectedPath = "./target/BaseFileSinkTest/testJmx/";
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setJmxEnabled(Boolean.TRUE)
+                .build();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = sink.getObjectName();
+        Assert.assertNotNull(objectName);
+        Assert.assertEquals(
+                new ObjectName("com.arpnetworking.metrics:type=FileSink,name=" + ObjectName.quote(expectedPath + "query.log")),
+                objectName);
+        Assert.assertEquals(0, server.getAttribute(objectName, "QueueDepth"));
+        Assert.assertEquals(0L, server.getAttribute(objectName, "DiscardedCount"));
+        final CompositeData writeLatency = (CompositeData) server.getAttribute(objectName, "WriteLatency");
+        Assert.assertEquals(0L, writeLatency.get("count"));
+
+        // A second sink writing the same file cannot register
+        final TestFileSink duplicate = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setJmxEnabled(Boolean.TRUE)
+                .build();
+        Assert.assertNull(duplicate.getObjectName());
+        duplicate.close(Duration.ofSeconds(1));
+
+        sink.close(Duration.ofSeconds(1));
+        Assert.assertFalse(server.isRegistered(objectName));
+    }
+
+    @Test
+    public void testJmxAlreadyUnregistered() throws IOException, JMException {
+        final String expectedPath = "./target/BaseFileSinkTest/testJmxAlreadyUnregistered/";
+        final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
+                .setDirectory(createDirectory(expectedPath))
+                .setJmxEnabled(Boolean.TRUE)
+                .build();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.unregisterMBean(sink.getObjectName());
+
+        sink.close(Duration.ofSeconds(1));
+        Assert.assertFalse(server.isRegistered(sink.getObjectName()));
+    }
+
     @Test
     public void testBuilderWithNull() throws IOException {
         final String expectedPath = "./";
         final TestFileSink sink = (TestFileSink) new TestFileSink.Builder()
                 .setCompress(null)
+                .setStreamingCompression(null)
+                .setIndexedRetention(null)
+                .setMaxTotalSize(null)
+                .setMinFreeDiskPercentage(null)
                 .setDirectory(null)
                 .setExtension(null)
                 .setImmediateFlush(null)
                 .setAsync(null)
+                .setLazyStart(null)
+                .setSocketPath(null)
+                .setSocketBufferSize(null)
+                .setAdditionalOutputs(null)
+                .setShardCount(null)
+                .setShardDirectories(null)
+                .setShardAnnotation(null)
+                .setIoScheduler(null)
+                .setWriterThreadFactory(null)
+                .setShutdownCoordinator(null)
+                .setSyncOnClose(null)
+                .setDirectIo(null)
+                .setJmxEnabled(null)
+                .setDropSummaryInterval(null)
                 .setMaxHistory(null)
                 .setMaxFileSize(null)
                 .setName(null)
                 .setMaxQueueSize(null)
                 .setDropWhenQueueFull(null)
+                .setOverloadQueueFraction(null)
+                .setOverloadWriterLag(null)
                 .build();
 
         final AsyncAppender asyncAppender = (AsyncAppender)
@@ -202,11 +1036,24 @@ public class BaseFileSinkTest {
 
     @Test
     public void testShutdownHookThread() throws InterruptedException {
-        final LoggerContext context = Mockito.mock(LoggerContext.class);
-        final Thread shutdownThread = new TestFileSink.ShutdownHookThread(context);
+        final BaseFileSink sink = Mockito.mock(BaseFileSink.class);
+        final Thread shutdownThread = new ShutdownHookThread(sink, null);
         shutdownThread.start();
         shutdownThread.join();
-        Mockito.verify(context).stop();
+        Mockito.verify(sink).close(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testShutdownHookRemovedOnClose() {
+        final BaseFileSink sink = Mockito.mock(BaseFileSink.class);
+        final ShutdownHookThread shutdownHook = new ShutdownHookThread(sink, null);
+        shutdownHook.register();
+        shutdownHook.unregister();
+        Assert.assertFalse(Runtime.getRuntime().removeShutdownHook(shutdownHook));
+    }
+
+    private static TestFileSink.Builder createUncompressedBuilder(final File directory) {
+        return new TestFileSink.Builder().setDirectory(directory).setCompress(Boolean.FALSE);
     }
 
     private static File createDirectory(final String path) throws IOException {
@@ -219,7 +1066,7 @@ public class BaseFileSinkTest {
 
         @Override
         public void record(final Event event) {
-            getMetricsLogger().info(event.toString());
+            enqueue(event, event.toString(), 0);
         }
 
         private static Encoder<ILoggingEvent> createEncoder(final boolean immediateFlush) {
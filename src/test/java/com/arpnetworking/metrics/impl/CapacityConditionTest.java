@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for {@link CapacityCondition}.
+ *
+ * @author agent (agent at local)
+ */
+public class CapacityConditionTest {
+
+    @Test
+    public void testAwaitWithDeadline() {
+        final CapacityCondition condition = new CapacityCondition();
+        Assert.assertTrue(condition.await(() -> true, System.nanoTime()));
+        Assert.assertFalse(condition.await(() -> false, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10)));
+    }
+
+    @Test
+    public void testAwaitWithDeadlineSignalled() throws InterruptedException {
+        final CapacityCondition condition = new CapacityCondition();
+        final AtomicBoolean proceed = new AtomicBoolean(false);
+        final Thread signaller = new Thread(() -> {
+            proceed.set(true);
+            condition.signal();
+        });
+        signaller.start();
+        Assert.assertTrue(condition.await(proceed::get, System.nanoTime() + TimeUnit.SECONDS.toNanos(10)));
+        signaller.join();
+    }
+
+    @Test
+    public void testAwaitWithDeadlineInterrupted() {
+        final CapacityCondition condition = new CapacityCondition();
+        Thread.currentThread().interrupt();
+        Assert.assertFalse(condition.await(() -> false, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10)));
+        Assert.assertTrue(Thread.interrupted());
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.sun.nio.file.ExtendedOpenOption;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Tests for {@link DirectFileOutputStream}.
+ *
+ * @author agent (agent at local)
+ */
+public class DirectFileOutputStreamTest {
+
+    @Test
+    public void testWriteAndFlush() throws IOException {
+        final File file = createFile("testWriteAndFlush");
+        try (DirectFileOutputStream stream = DirectFileOutputStream.open(file, 1024)) {
+            Assert.assertEquals(0, stream.getBufferCapacity() % stream.getBlockSize());
+            Assert.assertTrue(stream.getBufferCapacity() >= DirectFileOutputStream.MIN_BUFFER_SIZE);
+            stream.write("abc".getBytes(StandardCharsets.UTF_8));
+            stream.write('\n');
+            stream.flush();
+            Assert.assertEquals("abc\n", read(file));
+            stream.write("def\n".getBytes(StandardCharsets.UTF_8));
+            stream.flush();
+            stream.flush();
+            Assert.assertEquals("abc\ndef\n", read(file));
+        }
+        Assert.assertEquals("abc\ndef\n", read(file));
+    }
+
+    @Test
+    public void testWriteBlocks() throws IOException {
+        final File file = createFile("testWriteBlocks");
+        final byte[] expected;
+        try (DirectFileOutputStream stream = DirectFileOutputStream.open(file, 0)) {
+            // Flush a partial block then fill the buffer more than twice from the carried over block
+            expected = createBytes(stream.getBufferCapacity() * 2 + stream.getBlockSize() + 7);
+            stream.write(expected, 0, 3);
+            stream.flush();
+            stream.write(expected, 3, expected.length - 4);
+            stream.write(expected[expected.length - 1]);
+            stream.flush();
+            Assert.assertArrayEquals(expected, Files.readAllBytes(file.toPath()));
+        }
+        Assert.assertArrayEquals(expected, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void testFlushWithoutPadding() throws IOException {
+        final File file = createFile("testFlushWithoutPadding");
+        final byte[] expected;
+        try (DirectFileOutputStream stream = DirectFileOutputStream.open(file, 0)) {
+            // The file never extends past the bytes written so a reader following it never observes padding
+            final int blockSize = stream.getBlockSize();
+            expected = createBytes(blockSize * 2 + 5);
+            stream.write(expected, 0, 3);
+            stream.flush();
+            Assert.assertArrayEquals(Arrays.copyOf(expected, 3), Files.readAllBytes(file.toPath()));
+            stream.write(expected, 3, blockSize - 3);
+            stream.flush();
+            Assert.assertArrayEquals(Arrays.copyOf(expected, blockSize), Files.readAllBytes(file.toPath()));
+            stream.write(expected, blockSize, blockSize + 5);
+            stream.flush();
+            Assert.assertArrayEquals(expected, Files.readAllBytes(file.toPath()));
+        }
+        Assert.assertArrayEquals(expected, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void testWriteSingleBytesToFillBuffer() throws IOException {
+        final File file = createFile("testWriteSingleBytesToFillBuffer");
+        final byte[] expected;
+        try (DirectFileOutputStream stream = DirectFileOutputStream.open(file, 0)) {
+            expected = createBytes(stream.getBufferCapacity() + 1);
+            for (final byte value : expected) {
+                stream.write(value);
+            }
+        }
+        Assert.assertArrayEquals(expected, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void testAppendToPartialBlock() throws IOException {
+        final File file = createFile("testAppendToPartialBlock");
+        Files.write(file.toPath(), "abc\n".getBytes(StandardCharsets.UTF_8));
+        try (DirectFileOutputStream stream = DirectFileOutputStream.open(file, 0)) {
+            stream.write("def\n".getBytes(StandardCharsets.UTF_8));
+        }
+        Assert.assertEquals("abc\ndef\n", read(file));
+    }
+
+    @Test
+    public void testAppendToWholeBlocks() throws IOException {
+        final File file = createFile("testAppendToWholeBlocks");
+        final byte[] existing;
+        try (DirectFileOutputStream stream = DirectFileOutputStream.open(file, 0)) {
+            existing = createBytes(stream.getBlockSize());
+        }
+        Files.write(file.toPath(), existing);
+        try (DirectFileOutputStream stream = DirectFileOutputStream.open(file, 0)) {
+            stream.write('x');
+        }
+        final byte[] expected = Arrays.copyOf(existing, existing.length + 1);
+        expected[existing.length] = 'x';
+        Assert.assertArrayEquals(expected, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void testInterrupted() throws IOException {
+        final File file = createFile("testInterrupted");
+        Files.write(file.toPath(), "abc\n".getBytes(StandardCharsets.UTF_8));
+        Thread.currentThread().interrupt();
+        try (DirectFileOutputStream stream = DirectFileOutputStream.open(file, 0)) {
+            Assert.assertTrue(Thread.currentThread().isInterrupted());
+            stream.write("def\n".getBytes(StandardCharsets.UTF_8));
+            stream.flush();
+            Assert.assertTrue(stream.getChannel().isOpen());
+        } finally {
+            Assert.assertTrue(Thread.interrupted());
+        }
+        Assert.assertEquals("abc\ndef\n", read(file));
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        final DirectFileOutputStream stream = DirectFileOutputStream.open(createFile("testClose"), 0);
+        stream.close();
+        stream.close();
+        Assert.assertFalse(stream.getChannel().isOpen());
+        assertClosed(() -> stream.write('a'));
+        assertClosed(() -> stream.write(new byte[] {'a'}));
+        assertClosed(stream::flush);
+    }
+
+    @Test
+    public void testPooledBuffer() throws IOException {
+        final AlignedBufferPool pool = new AlignedBufferPool(1);
+        final File file = createFile("testPooledBuffer");
+        final int blockSize = Math.toIntExact(Files.getFileStore(file.toPath()).getBlockSize());
+        final FileChannel channel = FileChannel.open(
+                file.toPath(),
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                ExtendedOpenOption.DIRECT);
+        try (DirectFileOutputStream stream = new DirectFileOutputStream(channel, file.toPath(), blockSize, 0, pool)) {
+            Assert.assertEquals(0, pool.size());
+            stream.write('a');
+        }
+        Assert.assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testPartialBlockReadFailure() throws IOException {
+        final AlignedBufferPool pool = new AlignedBufferPool(1);
+        // NOTE: Constructing the mock initializes the state used by the final close method
+        final FileChannel channel = Mockito.mock(FileChannel.class, Mockito.withSettings().useConstructor());
+        Mockito.doReturn(10L).when(channel).size();
+        Mockito.doReturn(-1).when(channel).read(Mockito.any(ByteBuffer.class), Mockito.eq(0L));
+        try {
+            new DirectFileOutputStream(channel, Paths.get("unused"), 512, 0, pool);
+            Assert.fail("Expected exception not thrown");
+        } catch (final IOException e) {
+            Assert.assertEquals(1, pool.size());
+            Assert.assertFalse(channel.isOpen());
+        }
+    }
+
+    private static void assertClosed(final IoAction action) {
+        try {
+            action.run();
+            Assert.fail("Expected exception not thrown");
+        } catch (final IOException e) {
+            Assert.assertEquals("Stream closed", e.getMessage());
+        }
+    }
+
+    private static byte[] createBytes(final int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        return bytes;
+    }
+
+    private static String read(final File file) throws IOException {
+        return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    private static File createFile(final String name) throws IOException {
+        final Path directory = Paths.get("./target/DirectFileOutputStreamTest/");
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, name, ".log").toFile();
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
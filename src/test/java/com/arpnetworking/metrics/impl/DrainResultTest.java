@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DrainResult}.
+ *
+ * @author agent (agent at local)
+ */
+public class DrainResultTest {
+
+    @Test
+    public void testAdd() {
+        final DrainResult result = new DrainResult(1, 2).add(new DrainResult(3, 4));
+        Assert.assertEquals(4, result.getWrittenCount());
+        Assert.assertEquals(6, result.getAbandonedCount());
+        Assert.assertFalse(result.isComplete());
+        Assert.assertTrue(new DrainResult(1, 0).isComplete());
+    }
+
+    @Test
+    public void testToString() {
+        Assert.assertEquals("DrainResult{WrittenCount=1, AbandonedCount=2}", new DrainResult(1, 2).toString());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Instant;
+
+/**
+ * Tests for {@link DropSummary}.
+ *
+ * @author agent (agent at local)
+ */
+public class DropSummaryTest {
+
+    @Test
+    public void testNoDrops() {
+        final DropSummary dropSummary = new DropSummary(new SinkInstrumentation(() -> 0), T0);
+        Assert.assertNull(dropSummary.createRecord(T1));
+    }
+
+    @Test
+    public void testDrops() {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final DropSummary dropSummary = new DropSummary(instrumentation, T0);
+        instrumentation.onDiscard(1);
+        instrumentation.onDiscard(1);
+        instrumentation.onSerializationFailure();
+        Assert.assertEquals(
+                "{\"type\":\"dropSummary\",\"version\":\"1\",\"start\":\"2026-01-01T00:00:00Z\",\"end\":\"2026-01-01T00:01:00Z\","
+                        + "\"dropped\":{\"queueFull\":2,\"serializationFailure\":1,\"ioError\":0},"
+                        + "\"totalDropped\":{\"queueFull\":2,\"serializationFailure\":1,\"ioError\":0}}",
+                dropSummary.createRecord(T1));
+
+        // No further drops
+        Assert.assertNull(dropSummary.createRecord(T2));
+
+        instrumentation.onIoError(1);
+        Assert.assertEquals(
+                "{\"type\":\"dropSummary\",\"version\":\"1\",\"start\":\"2026-01-01T00:02:00Z\",\"end\":\"2026-01-01T00:03:00Z\","
+                        + "\"dropped\":{\"queueFull\":0,\"serializationFailure\":0,\"ioError\":1},"
+                        + "\"totalDropped\":{\"queueFull\":2,\"serializationFailure\":1,\"ioError\":1}}",
+                dropSummary.createRecord(T3));
+    }
+
+    @Test
+    public void testEachReasonTriggersRecord() {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final DropSummary dropSummary = new DropSummary(instrumentation, T0);
+        instrumentation.onSerializationFailure();
+        Assert.assertNotNull(dropSummary.createRecord(T1));
+        instrumentation.onIoError(1);
+        Assert.assertNotNull(dropSummary.createRecord(T2));
+        instrumentation.onDiscard(1);
+        Assert.assertNotNull(dropSummary.createRecord(T3));
+    }
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant T1 = Instant.parse("2026-01-01T00:01:00Z");
+    private static final Instant T2 = Instant.parse("2026-01-01T00:02:00Z");
+    private static final Instant T3 = Instant.parse("2026-01-01T00:03:00Z");
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.arpnetworking.metrics.Event;
+import com.arpnetworking.metrics.Quantity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Representative {@link Event} shapes shared by the serialization golden
+ * output tests and the serialization benchmarks. The events are
+ * deterministic so that their serialized form can be compared byte for byte.
+ *
+ * @author agent (agent at local)
+ */
+public enum EventShape {
+    /**
+     * A few annotations and one sample of each metric type.
+     */
+    FEW_ANNOTATIONS(() -> createEvent(4, 1, 1, false)),
+    /**
+     * Many annotations and one sample of each metric type.
+     */
+    MANY_ANNOTATIONS(() -> createEvent(64, 1, 1, false)),
+    /**
+     * A few annotations and many metric names of each metric type.
+     */
+    MANY_METRICS(() -> createEvent(4, 64, 1, false)),
+    /**
+     * A few annotations and a single timer with many samples.
+     */
+    LARGE_TIMER_SAMPLES(() -> createEvent(4, 1, 1024, false)),
+    /**
+     * Several metrics with several samples each; all values are longs.
+     */
+    LONG_VALUES(() -> createEvent(4, 8, 8, false)),
+    /**
+     * Several metrics with several samples each; all values are doubles.
+     */
+    DOUBLE_VALUES(() -> createEvent(4, 8, 8, true)),
+    /**
+     * Annotations and metric names containing non-ASCII characters.
+     */
+    NON_ASCII(EventShape::createNonAsciiEvent);
+
+    EventShape(final Supplier<Event> factory) {
+        _factory = factory;
+    }
+
+    /**
+     * Create an instance of this shape.
+     *
+     * @return New {@link Event} instance.
+     */
+    public Event createEvent() {
+        return _factory.get();
+    }
+
+    private static Event createEvent(
+            final int annotationCount,
+            final int metricCount,
+            final int sampleCount,
+            final boolean doubleValues) {
+        final Map<String, String> annotations = new LinkedHashMap<>();
+        annotations.put("_start", "2026-01-01T00:00:00.000Z");
+        annotations.put("_end", "2026-01-01T00:00:00.125Z");
+        annotations.put("_id", "6f1c2a4e-1d2b-4c5a-9e8f-0a1b2c3d4e5f");
+        for (int i = annotations.size(); i < annotationCount; ++i) {
+            annotations.put("annotation" + i, "value" + i);
+        }
+        return new TsdEvent(
+                annotations,
+                createSamples("timer", metricCount, sampleCount, doubleValues),
+                createSamples("counter", metricCount, sampleCount, doubleValues),
+                createSamples("gauge", metricCount, sampleCount, doubleValues),
+                Collections.emptyMap());
+    }
+
+    private static Event createNonAsciiEvent() {
+        final Map<String, String> annotations = new LinkedHashMap<>();
+        annotations.put("_start", "2026-01-01T00:00:00.000Z");
+        annotations.put("_end", "2026-01-01T00:00:00.125Z");
+        annotations.put("_id", "6f1c2a4e-1d2b-4c5a-9e8f-0a1b2c3d4e5f");
+        annotations.put("région", "Zürich");
+        annotations.put("サービス", "東京");
+        annotations.put("emoji", "📈 \"quoted\" \\ \t");
+        return new TsdEvent(
+                annotations,
+                createSamples("время/запроса", 2, 2, false),
+                createSamples("compteur/événements", 2, 2, false),
+                createSamples("ゲージ", 2, 2, true),
+                Collections.emptyMap());
+    }
+
+    private static Map<String, List<Quantity>> createSamples(
+            final String prefix,
+            final int metricCount,
+            final int sampleCount,
+            final boolean doubleValues) {
+        final Map<String, List<Quantity>> samples = new LinkedHashMap<>();
+        for (int i = 0; i < metricCount; ++i) {
+            final List<Quantity> quantities = new ArrayList<>(sampleCount);
+            for (int j = 0; j < sampleCount; ++j) {
+                final long value = (i + 1L) * (j + 1L) * 1237L;
+                if (doubleValues) {
+                    quantities.add(TsdQuantity.newInstance(value / 1000.0d));
+                } else {
+                    quantities.add(TsdQuantity.newInstance(value));
+                }
+            }
+            samples.put(prefix + "/metric" + i, quantities);
+        }
+        return samples;
+    }
+
+    private final Supplier<Event> _factory;
+}
@@ -0,0 +1,468 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.rolling.RollingPolicy;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.util.FileSize;
+import jdk.jfr.consumer.RecordedEvent;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests for {@link FileSinkAppender}.
+ *
+ * @author agent (agent at local)
+ */
+public class FileSinkAppenderTest {
+
+    @Test
+    public void testStreamingCompressionWrapsOutputStream() {
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(true, false, INSTRUMENTATION);
+        appender.setContext(new LoggerContext());
+        appender.setOutputStream(new ByteArrayOutputStream());
+        MatcherAssert.assertThat(getDelegate(appender), Matchers.instanceOf(GzipFrameOutputStream.class));
+    }
+
+    @Test
+    public void testWithoutStreamingCompression() {
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, false, INSTRUMENTATION);
+        appender.setContext(new LoggerContext());
+        final OutputStream outputStream = new ByteArrayOutputStream();
+        appender.setOutputStream(outputStream);
+        Assert.assertSame(outputStream, getDelegate(appender));
+
+        // Flushing stale frames is a no-op without compression
+        appender.flushStaleFrame();
+        Assert.assertSame(outputStream, getDelegate(appender));
+    }
+
+    @Test
+    public void testFlushStaleFrameFailure() throws IOException, InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        Mockito.doThrow(new IOException("Test")).when(outputStream).write(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt());
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(true, false, INSTRUMENTATION);
+        appender.setContext(context);
+        appender.setOutputStream(outputStream);
+        appender.getOutputStream().write('a');
+
+        // Make the frame stale
+        Thread.sleep(FileSinkAppender.FRAME_FLUSH_INTERVAL_IN_MILLIS + 10);
+
+        appender.flushStaleFrame();
+        Assert.assertTrue(hasError(context));
+    }
+
+    @Test
+    public void testIndexWrapsOutputStream() throws IOException {
+        final Path directory = Paths.get("./target/FileSinkAppenderTest/");
+        Files.createDirectories(directory);
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, false, INSTRUMENTATION, 1024, 0);
+        appender.setContext(new LoggerContext());
+        appender.openFile(Files.createTempFile(directory, "testIndexWrapsOutputStream", ".log").toString());
+        MatcherAssert.assertThat(getDelegate(appender), Matchers.instanceOf(IndexingOutputStream.class));
+        appender.getOutputStream().close();
+
+        final FileSinkAppender<ILoggingEvent> timeAppender = new FileSinkAppender<>(true, false, INSTRUMENTATION, 0, 1000);
+        timeAppender.setContext(new LoggerContext());
+        timeAppender.openFile(Files.createTempFile(directory, "testIndexWrapsOutputStream", ".log.gz").toString());
+        MatcherAssert.assertThat(getDelegate(timeAppender), Matchers.instanceOf(IndexingOutputStream.class));
+        timeAppender.getOutputStream().close();
+
+        // Only files are indexed
+        final FileSinkAppender<ILoggingEvent> streamAppender = new FileSinkAppender<>(false, false, INSTRUMENTATION, 1024, 0);
+        streamAppender.setContext(new LoggerContext());
+        final OutputStream outputStream = new ByteArrayOutputStream();
+        streamAppender.setOutputStream(outputStream);
+        Assert.assertSame(outputStream, getDelegate(streamAppender));
+    }
+
+    @Test
+    public void testSyncOnStop() throws IOException {
+        final Path directory = Paths.get("./target/FileSinkAppenderTest/");
+        Files.createDirectories(directory);
+        final LoggerContext context = new LoggerContext();
+        final PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, true, INSTRUMENTATION);
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        final Path file = Files.createTempFile(directory, "testSyncOnStop", ".log");
+        appender.openFile(file.toString());
+        appender.getOutputStream().write('a');
+
+        appender.sync();
+        Assert.assertEquals(1, Files.size(file));
+        Assert.assertFalse(hasError(context));
+        appender.getOutputStream().close();
+    }
+
+    @Test
+    public void testSyncFinishesFrame() throws IOException {
+        final Path directory = Files.createTempDirectory(
+                Files.createDirectories(Paths.get("./target/FileSinkAppenderTest/")),
+                "testSyncFinishesFrame");
+        final Path file = directory.resolve("query.log.gz");
+        final LoggerContext context = new LoggerContext();
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(true, true, INSTRUMENTATION);
+        appender.setContext(context);
+        appender.openFile(file.toString());
+        appender.getOutputStream().write(new byte[] {'a', '\n'});
+
+        // Flushing leaves the frame open while syncing finishes it
+        appender.getOutputStream().flush();
+        Assert.assertEquals(GzipFrameOutputStream.HEADER.length, Files.size(file));
+        appender.sync();
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+            Assert.assertEquals("a\n", StandardCharsets.UTF_8.decode(ByteBuffer.wrap(inputStream.readAllBytes())).toString());
+        }
+        Assert.assertFalse(hasError(context));
+        appender.getOutputStream().close();
+    }
+
+    @Test
+    public void testAppendWithoutConfiguration() throws IOException {
+        final Path directory = Files.createTempDirectory(
+                Files.createDirectories(Paths.get("./target/FileSinkAppenderTest/")),
+                "testAppendWithoutConfiguration");
+        final LoggerContext context = new LoggerContext();
+        final PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, false, INSTRUMENTATION);
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setFile(directory.resolve("query.log").toString());
+        final TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = new TimeBasedRollingPolicy<>();
+        rollingPolicy.setContext(context);
+        rollingPolicy.setParent(appender);
+        rollingPolicy.setFileNamePattern(directory.resolve("query.%d{yyyy-MM-dd}.log").toString());
+        rollingPolicy.start();
+        appender.setRollingPolicy(rollingPolicy);
+        appender.start();
+
+        final Logger logger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "a", null, null));
+        appender.stop();
+        Assert.assertEquals("a\n", Files.readString(directory.resolve("query.log")));
+        Assert.assertTrue(appender.isImmediateFlush());
+    }
+
+    @Test
+    public void testSyncWithoutFile() throws IOException {
+        final LoggerContext context = new LoggerContext();
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, true, INSTRUMENTATION);
+        appender.setContext(context);
+
+        // No output stream
+        appender.sync();
+
+        // Not a file output stream
+        appender.setOutputStream(new ByteArrayOutputStream());
+        appender.sync();
+        Assert.assertFalse(hasError(context));
+
+        // Flush failure
+        final OutputStream outputStream = Mockito.mock(OutputStream.class);
+        Mockito.doThrow(new IOException("Test")).when(outputStream).flush();
+        appender.setOutputStream(outputStream);
+        appender.sync();
+        Assert.assertTrue(hasError(context));
+
+        // Not synced when not started
+        Mockito.reset(outputStream);
+        appender.stop();
+        Mockito.verify(outputStream, Mockito.never()).flush();
+    }
+
+    @Test
+    public void testInstrumentation() throws IOException, InterruptedException {
+        final Path directory = Paths.get("./target/FileSinkAppenderTest/");
+        Files.createDirectories(directory);
+        final Path file = Files.createTempFile(directory, "testInstrumentation", ".log.gz");
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final RollingPolicy rollingPolicy = Mockito.mock(RollingPolicy.class);
+        Mockito.doReturn(file.toString()).when(rollingPolicy).getActiveFileName();
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(true, false, instrumentation);
+        appender.setContext(new LoggerContext());
+        appender.setRollingPolicy(rollingPolicy);
+        appender.openFile(file.toString());
+        appender.getOutputStream().write(new byte[] {'a', '\n'});
+        Assert.assertEquals(1, instrumentation.getWrittenCount());
+        Assert.assertEquals(2, instrumentation.getBytesWritten());
+
+        // The frame is not stale yet
+        appender.flushStaleFrame();
+        Assert.assertEquals(0, instrumentation.getFlushLatency().getCount());
+
+        Thread.sleep(FileSinkAppender.FRAME_FLUSH_INTERVAL_IN_MILLIS + 10);
+        appender.flushStaleFrame();
+        Assert.assertEquals(1, instrumentation.getFlushLatency().getCount());
+
+        appender.rollover();
+        Mockito.verify(rollingPolicy).rollover();
+        Assert.assertEquals(1, instrumentation.getRollLatency().getCount());
+        appender.getOutputStream().close();
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        final Path directory = Paths.get("./target/FileSinkAppenderTest/");
+        Files.createDirectories(directory);
+        final Path file = Files.createTempFile(directory, "testFlightRecorderEvents", ".log.gz");
+        final RollingPolicy rollingPolicy = Mockito.mock(RollingPolicy.class);
+        Mockito.doReturn(file.toString()).when(rollingPolicy).getActiveFileName();
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(true, false, INSTRUMENTATION);
+        appender.setContext(new LoggerContext());
+        appender.setRollingPolicy(rollingPolicy);
+        appender.openFile(file.toString());
+
+        final List<RecordedEvent> writeEvents = FlightRecordings.record(
+                "FileSinkAppenderTest-testFlightRecorderEvents-write",
+                WriteEvent.class,
+                () -> appender.getOutputStream().write(new byte[] {'a', '\n'}));
+        Assert.assertEquals(1, writeEvents.size());
+        Assert.assertEquals(2, writeEvents.get(0).getInt("bytes"));
+
+        final List<RecordedEvent> flushEvents = FlightRecordings.record(
+                "FileSinkAppenderTest-testFlightRecorderEvents-flush",
+                FlushEvent.class,
+                () -> {
+                    Thread.sleep(FileSinkAppender.FRAME_FLUSH_INTERVAL_IN_MILLIS + 10);
+                    appender.flushStaleFrame();
+                    appender.getOutputStream().flush();
+                });
+        Assert.assertEquals(2, flushEvents.size());
+
+        final List<RecordedEvent> rollEvents = FlightRecordings.record(
+                "FileSinkAppenderTest-testFlightRecorderEvents-roll",
+                RollEvent.class,
+                appender::rollover);
+        Assert.assertEquals(1, rollEvents.size());
+        Assert.assertEquals(file.toString(), rollEvents.get(0).getString("file"));
+        appender.getOutputStream().close();
+    }
+
+    @Test
+    public void testOpenFileWithoutParentDirectory() throws IOException {
+        final Path directory = Paths.get("./target/FileSinkAppenderTest/");
+        Files.createDirectories(directory);
+        final Path parent = Files.createTempFile(directory, "testOpenFileWithoutParentDirectory", ".log");
+        final LoggerContext context = new LoggerContext();
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, false, INSTRUMENTATION);
+        appender.setContext(context);
+        try {
+            appender.openFile(parent.resolve("child/query.log").toString());
+            Assert.fail("Expected exception not thrown");
+        } catch (final IOException e) {
+            Assert.assertTrue(context.getStatusManager().getCopyOfStatusList().stream()
+                    .anyMatch(status -> status.getLevel() == Status.ERROR));
+        }
+    }
+
+    @Test
+    public void testOpenFile() throws IOException {
+        final Path directory = Paths.get("./target/FileSinkAppenderTest/");
+        Files.createDirectories(directory);
+        final Path file = Files.createTempFile(directory, "testOpenFile", ".log");
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, false, INSTRUMENTATION);
+        appender.setContext(new LoggerContext());
+        appender.setBufferSize(new FileSize(1));
+        appender.openFile(file.toString());
+        MatcherAssert.assertThat(getDelegate(appender), Matchers.instanceOf(FileSinkOutputStream.class));
+
+        // Not buffered
+        appender.getOutputStream().write(new byte[] {'a'});
+        Assert.assertEquals(1, Files.size(file));
+        appender.getOutputStream().close();
+    }
+
+    @Test
+    public void testOpenFileRecoversTornWrite() throws IOException {
+        final Path directory = Files.createTempDirectory(
+                Files.createDirectories(Paths.get("./target/FileSinkAppenderTest/")),
+                "testOpenFileRecoversTornWrite");
+        final Path file = directory.resolve("query.log");
+        Files.writeString(file, "a\n{\"partial", StandardCharsets.UTF_8);
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, false, INSTRUMENTATION);
+        appender.setContext(new LoggerContext());
+        appender.openFile(file.toString());
+        appender.getOutputStream().write(new byte[] {'b', '\n'});
+        appender.getOutputStream().close();
+
+        Assert.assertEquals("a\nb\n", Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertEquals("{\"partial", Files.readString(Paths.get(file + TornWriteRecovery.EXTENSION), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOpenFileRecoversTornFrame() throws IOException {
+        final Path directory = Files.createTempDirectory(
+                Files.createDirectories(Paths.get("./target/FileSinkAppenderTest/")),
+                "testOpenFileRecoversTornFrame");
+        final Path file = directory.resolve("query.log.gz");
+        final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        try (GzipFrameOutputStream frameOutputStream = new GzipFrameOutputStream(frames, Integer.MAX_VALUE)) {
+            frameOutputStream.write(new byte[] {'a', '\n'});
+            frameOutputStream.finishFrame();
+            frameOutputStream.write("{\"partial\":\"a record torn within its frame\"}\n".getBytes(StandardCharsets.UTF_8));
+        }
+        // The process died while writing the second frame
+        Files.write(file, Arrays.copyOf(frames.toByteArray(), frames.size() - 12));
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(true, false, INSTRUMENTATION);
+        appender.setContext(new LoggerContext());
+        appender.openFile(file.toString());
+        appender.getOutputStream().write(new byte[] {'b', '\n'});
+        appender.getOutputStream().close();
+
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+            Assert.assertEquals("a\nb\n", StandardCharsets.UTF_8.decode(ByteBuffer.wrap(inputStream.readAllBytes())).toString());
+        }
+        Assert.assertTrue(Files.exists(Paths.get(file + TornWriteRecovery.EXTENSION)));
+    }
+
+    @Test
+    public void testOpenFileWithoutAppend() throws IOException {
+        final Path directory = Files.createTempDirectory(
+                Files.createDirectories(Paths.get("./target/FileSinkAppenderTest/")),
+                "testOpenFileWithoutAppend");
+        final Path file = directory.resolve("query.log");
+        Files.writeString(file, "a\n{\"partial", StandardCharsets.UTF_8);
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, false, INSTRUMENTATION);
+        appender.setContext(new LoggerContext());
+        appender.setAppend(false);
+        appender.openFile(file.toString());
+        appender.getOutputStream().close();
+
+        Assert.assertEquals(0, Files.size(file));
+        Assert.assertFalse(Files.exists(Paths.get(file + TornWriteRecovery.EXTENSION)));
+    }
+
+    @Test
+    public void testOpenFileTornWriteRecoveryFailure() throws IOException {
+        final Path directory = Files.createTempDirectory(
+                Files.createDirectories(Paths.get("./target/FileSinkAppenderTest/")),
+                "testOpenFileTornWriteRecoveryFailure");
+        final Path file = directory.resolve("query.log");
+        Files.writeString(file, "a\n{\"partial", StandardCharsets.UTF_8);
+        // The quarantine file cannot be written
+        Files.createDirectories(Paths.get(file + TornWriteRecovery.EXTENSION));
+        final LoggerContext context = new LoggerContext();
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, false, INSTRUMENTATION);
+        appender.setContext(context);
+        appender.openFile(file.toString());
+        appender.getOutputStream().close();
+
+        Assert.assertTrue(hasError(context));
+        Assert.assertEquals("a\n{\"partial", Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOpenFileWithDirectIo() throws IOException {
+        final Path directory = Files.createTempDirectory(
+                Files.createDirectories(Paths.get("./target/FileSinkAppenderTest/")),
+                "testOpenFileWithDirectIo");
+        final Path file = directory.resolve("query.log");
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, false, INSTRUMENTATION);
+        appender.setContext(new LoggerContext());
+        appender.setDirectIo(true);
+        appender.openFile(file.toString());
+        Assert.assertTrue(((FileSinkOutputStream) getDelegate(appender)).isDirectIo());
+        appender.getOutputStream().write("a\n".getBytes(StandardCharsets.UTF_8));
+        appender.sync();
+        appender.getOutputStream().close();
+
+        Assert.assertEquals("a\n", Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOpenFileDirectIoUnsupported() throws IOException {
+        final Path directory = Files.createTempDirectory(
+                Files.createDirectories(Paths.get("./target/FileSinkAppenderTest/")),
+                "testOpenFileDirectIoUnsupported");
+        final Path file = directory.resolve("query.log");
+        final LoggerContext context = new LoggerContext();
+        final DirectFileOutputStream.Opener opener = Mockito.mock(DirectFileOutputStream.Opener.class);
+        Mockito.doThrow(new UnsupportedOperationException()).when(opener).open(Mockito.any(), Mockito.anyLong());
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(false, false, INSTRUMENTATION);
+        appender.setContext(context);
+        appender.setDirectIoOpener(opener);
+        appender.openFile(file.toString());
+        Assert.assertFalse(((FileSinkOutputStream) getDelegate(appender)).isDirectIo());
+        appender.getOutputStream().close();
+        // The file is not opened with direct I/O again
+        appender.openFile(file.toString());
+        appender.getOutputStream().close();
+
+        Mockito.verify(opener).open(Mockito.any(), Mockito.anyLong());
+        Assert.assertEquals(
+                1,
+                context.getStatusManager().getCopyOfStatusList().stream()
+                        .filter(status -> status.getThrowable() instanceof UnsupportedOperationException)
+                        .count());
+    }
+
+    @Test
+    public void testStartWithoutPolicies() {
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(true, false, INSTRUMENTATION);
+        appender.setContext(new LoggerContext());
+        appender.start();
+        Assert.assertFalse(appender.isStarted());
+        appender.stop();
+    }
+
+    private static OutputStream getDelegate(final FileSinkAppender<ILoggingEvent> appender) {
+        MatcherAssert.assertThat(appender.getOutputStream(), Matchers.instanceOf(InstrumentedOutputStream.class));
+        return ((InstrumentedOutputStream) appender.getOutputStream()).getDelegate();
+    }
+
+    private static boolean hasError(final LoggerContext context) {
+        for (final Status status : context.getStatusManager().getCopyOfStatusList()) {
+            if (status.getLevel() == Status.ERROR && status.getThrowable() instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final SinkInstrumentation INSTRUMENTATION = new SinkInstrumentation(() -> 0);
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link FileSinkAsyncAppender}.
+ *
+ * @author agent (agent at local)
+ */
+public class FileSinkAsyncAppenderTest {
+
+    @Test
+    public void testDiscardIsCounted() {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final FileSinkAsyncAppender appender = new FileSinkAsyncAppender(
+                instrumentation,
+                () -> new FileSinkConfiguration(10, true, false, "100MB"));
+        final Logger logger = new LoggerContext().getLogger(Logger.ROOT_LOGGER_NAME);
+
+        Assert.assertTrue(appender.isDiscardable(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "info", null, null)));
+        Assert.assertFalse(appender.isDiscardable(new LoggingEvent(Logger.FQCN, logger, Level.WARN, "warn", null, null)));
+        Assert.assertEquals(1, instrumentation.getDiscardedCount());
+    }
+
+    @Test
+    public void testReconfigure() throws InterruptedException {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final AtomicReference<FileSinkConfiguration> configuration = new AtomicReference<>(
+                new FileSinkConfiguration(10, false, false, "100MB"));
+        final LoggerContext context = new LoggerContext();
+        final Logger logger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        final BlockingAppender delegate = new BlockingAppender();
+        delegate.setContext(context);
+        delegate.start();
+        final FileSinkAsyncAppender appender = new FileSinkAsyncAppender(instrumentation, configuration::get);
+        appender.setContext(context);
+        appender.setQueueSize(10);
+        appender.addAppender(delegate);
+        appender.start();
+        Assert.assertEquals(0, appender.getDiscardingThreshold());
+
+        // The writer blocks on the first event
+        appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "first", null, null));
+        Assert.assertTrue(delegate._written.await(10, TimeUnit.SECONDS));
+        appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "second", null, null));
+        Assert.assertEquals(1, appender.getNumberOfElementsInQueue());
+
+        // Dropping discards while events are queued
+        configuration.set(new FileSinkConfiguration(10, true, false, "100MB"));
+        Assert.assertEquals(10, appender.getDiscardingThreshold());
+        appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "dropped", null, null));
+        Assert.assertEquals(1, appender.getNumberOfElementsInQueue());
+        Assert.assertEquals(1, instrumentation.getDiscardedCount());
+        appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.WARN, "warn", null, null));
+        Assert.assertEquals(2, appender.getNumberOfElementsInQueue());
+
+        // Blocking waits for the reduced capacity
+        configuration.set(new FileSinkConfiguration(1, false, false, "100MB"));
+        final Thread producer = new Thread(
+                () -> appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "third", null, null)));
+        producer.start();
+        producer.join(100);
+        Assert.assertTrue(producer.isAlive());
+        Assert.assertEquals(2, appender.getNumberOfElementsInQueue());
+
+        configuration.set(new FileSinkConfiguration(3, false, false, "100MB"));
+        appender.onReconfigure();
+        producer.join(10000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertEquals(3, appender.getNumberOfElementsInQueue());
+
+        // The worker signals the reduced capacity as it takes events
+        configuration.set(new FileSinkConfiguration(1, false, false, "100MB"));
+        final Thread blocked = new Thread(
+                () -> appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "fourth", null, null)));
+        blocked.start();
+        blocked.join(100);
+        Assert.assertTrue(blocked.isAlive());
+
+        delegate._release.countDown();
+        blocked.join(10000);
+        Assert.assertFalse(blocked.isAlive());
+        appender.stop();
+        Assert.assertEquals(0, appender.getNumberOfElementsInQueue());
+        Assert.assertEquals(1, instrumentation.getDiscardedCount());
+    }
+
+    @Test
+    public void testStopReleasesBlockedCaller() throws InterruptedException {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final AtomicReference<FileSinkConfiguration> configuration = new AtomicReference<>(
+                new FileSinkConfiguration(10, false, false, "100MB"));
+        final LoggerContext context = new LoggerContext();
+        final Logger logger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        final BlockingAppender delegate = new BlockingAppender();
+        delegate.setContext(context);
+        delegate.setName("blocking");
+        delegate.start();
+        final FileSinkAsyncAppender appender = new FileSinkAsyncAppender(instrumentation, configuration::get);
+        appender.setContext(context);
+        appender.setQueueSize(10);
+        appender.setMaxFlushTime(100);
+        appender.addAppender(delegate);
+        appender.start();
+        Assert.assertSame(delegate, appender.getAppender("blocking"));
+        Assert.assertNull(appender.getAppender("missing"));
+
+        // The writer blocks on the first event
+        appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "first", null, null));
+        Assert.assertTrue(delegate._written.await(10, TimeUnit.SECONDS));
+        appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "second", null, null));
+        configuration.set(new FileSinkConfiguration(1, false, false, "100MB"));
+        final Thread producer = new Thread(
+                () -> appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.INFO, "third", null, null)));
+        producer.start();
+        producer.join(100);
+        Assert.assertTrue(producer.isAlive());
+
+        // Stopping discards the event of the blocked caller
+        appender.stop();
+        producer.join(10000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertEquals(1, instrumentation.getDiscardedCount());
+        delegate._release.countDown();
+    }
+
+    private static final class BlockingAppender extends AppenderBase<ILoggingEvent> {
+
+        @Override
+        protected void append(final ILoggingEvent event) {
+            _written.countDown();
+            try {
+                _release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private final CountDownLatch _written = new CountDownLatch(1);
+        private final CountDownLatch _release = new CountDownLatch(1);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link FileSinkConfiguration}.
+ *
+ * @author agent (agent at local)
+ */
+public class FileSinkConfigurationTest {
+
+    @Test
+    public void testBuilder() {
+        final FileSinkConfiguration initial = new FileSinkConfiguration(500, false, true, "100MB");
+        Assert.assertEquals(0, initial.getDiscardingThreshold());
+
+        final FileSinkConfiguration configuration = new FileSinkConfiguration.Builder(initial)
+                .setMaxQueueSize(100)
+                .setDropWhenQueueFull(true)
+                .setImmediateFlush(false)
+                .setMaxFileSize("1KB")
+                .build();
+        Assert.assertEquals(100, configuration.getMaxQueueSize());
+        Assert.assertTrue(configuration.isDropWhenQueueFull());
+        Assert.assertFalse(configuration.isImmediateFlush());
+        Assert.assertEquals("1KB", configuration.getMaxFileSize());
+        Assert.assertEquals(1024, configuration.getMaxFileSizeInBytes().getSize());
+        Assert.assertEquals(100, configuration.getDiscardingThreshold());
+        Assert.assertEquals(
+                "FileSinkConfiguration{MaxQueueSize=100, DropWhenQueueFull=true, ImmediateFlush=false, MaxFileSize=1KB}",
+                configuration.toString());
+
+        final FileSinkConfiguration copy = new FileSinkConfiguration.Builder(configuration).build();
+        Assert.assertEquals(configuration.toString(), copy.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderInvalidMaxQueueSize() {
+        new FileSinkConfiguration.Builder(new FileSinkConfiguration(500, false, true, "100MB"))
+                .setMaxQueueSize(0)
+                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderInvalidMaxFileSize() {
+        new FileSinkConfiguration.Builder(new FileSinkConfiguration(500, false, true, "100MB"))
+                .setMaxFileSize("0MB")
+                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderMalformedMaxFileSize() {
+        new FileSinkConfiguration.Builder(new FileSinkConfiguration(500, false, true, "100MB"))
+                .setMaxFileSize("large")
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.LoggerContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link FileSinkOutputStream}.
+ *
+ * @author agent (agent at local)
+ */
+public class FileSinkOutputStreamTest {
+
+    @Test
+    public void testWrite() throws IOException {
+        final File file = createFile("testWrite");
+        try (FileSinkOutputStream stream = createStream(file, 1024)) {
+            stream.write(new byte[] {'a', 'b'});
+            stream.write('c');
+            stream.flush();
+            Assert.assertEquals(0, stream.getLostWriteCount());
+        }
+        Assert.assertEquals(3, file.length());
+    }
+
+    @Test
+    public void testPosition() throws IOException {
+        final File file = createFile("testPosition");
+        Files.write(file.toPath(), new byte[] {'x', 'y'});
+        try (FileSinkOutputStream stream = createStream(file, 1024)) {
+            Assert.assertEquals(2, stream.getPosition());
+            stream.write(new byte[] {'a', 'b'});
+            stream.write('c');
+            Assert.assertEquals(5, stream.getPosition());
+            stream.postIOFailure(new IOException("Test"));
+            stream.write(new byte[] {'d'});
+            stream.write('e');
+            Assert.assertEquals(5, stream.getPosition());
+        }
+        try (FileSinkOutputStream stream = new FileSinkOutputStream(file, false, 1024)) {
+            Assert.assertEquals(0, stream.getPosition());
+        }
+    }
+
+    @Test
+    public void testWriteWhileInError() throws IOException {
+        try (FileSinkOutputStream stream = createStream(createFile("testWriteWhileInError"), 1024)) {
+            stream.postIOFailure(new IOException("Test"));
+            stream.write(new byte[] {'a', 'b'});
+            stream.write('c');
+            Assert.assertEquals(2, stream.getLostWriteCount());
+        }
+    }
+
+    @Test
+    public void testWriteFailure() throws IOException {
+        final FileSinkOutputStream stream = createStream(createFile("testWriteFailure"), 1);
+        // Closing the file makes writes which bypass the buffer fail
+        stream.close();
+        stream.write(new byte[] {'a', 'b'});
+        Assert.assertEquals(1, stream.getLostWriteCount());
+    }
+
+    @Test
+    public void testSingleByteWriteFailure() throws IOException {
+        final FileSinkOutputStream stream = createStream(createFile("testSingleByteWriteFailure"), 1);
+        stream.close();
+        // The first byte is buffered and the second flushes the buffer
+        stream.write('a');
+        stream.write('b');
+        Assert.assertEquals(1, stream.getLostWriteCount());
+    }
+
+    @Test
+    public void testUseDirectIo() throws IOException {
+        final File file = createFile("testUseDirectIo");
+        Files.write(file.toPath(), new byte[] {'x', 'y'});
+        try (FileSinkOutputStream stream = createStream(file, 1024)) {
+            stream.useDirectIo(DirectFileOutputStream::open, 1024);
+            Assert.assertTrue(stream.isDirectIo());
+            stream.write(new byte[] {'a', 'b'});
+            stream.write('c');
+            stream.flush();
+            stream.getChannel().force(true);
+            Assert.assertEquals(5, stream.getPosition());
+            Assert.assertEquals(0, stream.getLostWriteCount());
+        }
+        Assert.assertEquals("xyabc", Files.readString(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testUseDirectIoFailure() throws IOException {
+        final File file = createFile("testUseDirectIoFailure");
+        try (FileSinkOutputStream stream = createStream(file, 1024)) {
+            try {
+                stream.useDirectIo(
+                        (f, bufferSize) -> {
+                            throw new IOException("Test");
+                        },
+                        1024);
+                Assert.fail("Expected exception not thrown");
+            } catch (final IOException e) {
+                Assert.assertFalse(stream.isDirectIo());
+            }
+            stream.write('a');
+            stream.flush();
+            Assert.assertTrue(stream.getChannel().isOpen());
+        }
+        Assert.assertEquals(1, file.length());
+    }
+
+    @Test
+    public void testDirectIoRecovery() throws IOException, InterruptedException {
+        final File file = createFile("testDirectIoRecovery");
+        try (FileSinkOutputStream stream = createStream(file, 1024)) {
+            stream.useDirectIo(DirectFileOutputStream::open, 1024);
+            final FileChannel directChannel = stream.getChannel();
+            // Closing the channel makes the flush of whole blocks fail
+            directChannel.close();
+            stream.write(new byte[DirectFileOutputStream.MIN_BUFFER_SIZE / 2]);
+            stream.flush();
+            // Writes are skipped until the file is reopened without direct I/O
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (stream.isDirectIo() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+                stream.write('b');
+            }
+            Assert.assertFalse(stream.isDirectIo());
+            Assert.assertNotSame(directChannel, stream.getChannel());
+            stream.write('c');
+        }
+        Assert.assertEquals("c", Files.readString(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    private static FileSinkOutputStream createStream(final File file, final int bufferSize) throws IOException {
+        final FileSinkOutputStream stream = new FileSinkOutputStream(file, true, bufferSize);
+        stream.setContext(new LoggerContext());
+        return stream;
+    }
+
+    private static File createFile(final String name) throws IOException {
+        final Path directory = Paths.get("./target/FileSinkOutputStreamTest/");
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, name, ".log").toFile();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Tests for {@link FileSinkOutput}.
+ *
+ * @author agent (agent at local)
+ */
+public class FileSinkOutputTest {
+
+    @Test
+    public void testBuilder() {
+        final File directory = new File("./target/FileSinkOutputTest");
+        final Path socketPath = Paths.get("./target/FileSinkOutputTest/agent.sock");
+        final FileSinkOutput output = new FileSinkOutput.Builder()
+                .setDirectory(directory)
+                .setSocketPath(socketPath)
+                .build();
+        Assert.assertEquals(directory, output.getDirectory());
+        Assert.assertEquals(socketPath, output.getSocketPath());
+        Assert.assertEquals(
+                "FileSinkOutput{Directory=./target/FileSinkOutputTest, SocketPath=./target/FileSinkOutputTest/agent.sock}",
+                output.toString());
+        Assert.assertNull(new FileSinkOutput.Builder().setDirectory(directory).build().getSocketPath());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderWithoutDirectory() {
+        new FileSinkOutput.Builder().build();
+    }
+}
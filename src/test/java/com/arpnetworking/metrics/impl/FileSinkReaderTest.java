@@ -0,0 +1,284 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.arpnetworking.metrics.Event;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests for {@link FileSinkReader}.
+ *
+ * @author agent (agent at local)
+ */
+public class FileSinkReaderTest {
+
+    @Test
+    public void testGetSegments() throws IOException {
+        final Path directory = createDirectory("testGetSegments");
+        createFile(directory, "query.log", "");
+        createFile(directory, "query.log.gz", "");
+        createFile(directory, "query.2026-01-01-01.0.log", "");
+        createFile(directory, "query.2026-01-01-00.10.log.gz", "");
+        createFile(directory, "query.2026-01-01-00.9.log", "");
+        createFile(directory, "query.2026-01-01-00.9.log.gz", "");
+        createFile(directory, "other.2026-01-01-00.0.log", "");
+        createFile(directory, "query.2026-01-01-00.x.log", "");
+        createFile(directory, "query.txt", "");
+
+        final FileSinkReader reader = new FileSinkReader.Builder()
+                .setDirectory(directory.toFile())
+                .build();
+        Assert.assertEquals(
+                Arrays.asList(
+                        "query.2026-01-01-00.9.log",
+                        "query.2026-01-01-00.9.log.gz",
+                        "query.2026-01-01-00.10.log.gz",
+                        "query.2026-01-01-01.0.log",
+                        "query.log",
+                        "query.log.gz"),
+                getNames(reader.getSegments()));
+    }
+
+    @Test
+    public void testGetRolledSegments() throws IOException {
+        final Path directory = createDirectory("testGetRolledSegments");
+        createFile(directory, "query.log", "");
+        createFile(directory, "query.2026-01-01-00.0.log", "");
+        createFile(directory, "query.2026-01-01-00.0.log.gz", "");
+        createFile(directory, "query.2026-01-01-00.1.log.gz", "");
+        createFile(directory, "query.2026-01-01-00.1.log123.tmp", "");
+        createFile(directory, "query.2026-01-01-00.2.log.gz", "");
+
+        final FileSinkReader reader = new FileSinkReader.Builder()
+                .setDirectory(directory.toFile())
+                .build();
+        final List<File> files = new ArrayList<>();
+        for (final FileSinkReader.RolledSegment segment : reader.getRolledSegments()) {
+            files.add(segment.getFile());
+        }
+        Assert.assertEquals(
+                Arrays.asList(
+                        "query.2026-01-01-00.0.log",
+                        "query.2026-01-01-00.1.log123.tmp",
+                        "query.2026-01-01-00.2.log.gz"),
+                getNames(files));
+    }
+
+    @Test
+    public void testGetSegmentsMissingDirectory() {
+        final FileSinkReader reader = new FileSinkReader.Builder()
+                .setDirectory(new File("./target/FileSinkReaderTest/testGetSegmentsMissingDirectory"))
+                .build();
+        Assert.assertEquals(Collections.emptyList(), reader.getSegments());
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        final Path directory = createDirectory("testRead");
+        createFile(directory, "metrics.2026-01-01-00.0.json", createRecord(0) + createRecord(1));
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream stream = new GZIPOutputStream(compressed)) {
+            stream.write(createRecord(2).getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(directory.resolve("metrics.2026-01-01-00.1.json.gz"), compressed.toByteArray());
+        createFile(directory, "metrics.json", createRecord(3) + createRecord(4).substring(0, 10));
+
+        final FileSinkReader reader = new FileSinkReader.Builder()
+                .setDirectory(directory.toFile())
+                .setName("metrics")
+                .setExtension(".json")
+                .build();
+        final List<String> ids = new ArrayList<>();
+        Assert.assertEquals(4, reader.read(event -> ids.add(event.getAnnotations().get("_id"))));
+        Assert.assertEquals(Arrays.asList("0", "1", "2", "3"), ids);
+    }
+
+    @Test
+    public void testReadFileSink() throws IOException {
+        final Path directory = createDirectory("testReadFileSink");
+        final BaseFileSink sink = (BaseFileSink) new FileSink.Builder()
+                .setDirectory(directory.toFile())
+                .setStreamingCompression(true)
+                .setAsync(false)
+                .build();
+        for (final EventShape shape : EventShape.values()) {
+            sink.record(shape.createEvent());
+        }
+        sink.close(Duration.ofSeconds(10));
+
+        final FileSinkReader reader = new FileSinkReader.Builder()
+                .setDirectory(directory.toFile())
+                .build();
+        final List<Integer> timerCounts = new ArrayList<>();
+        Assert.assertEquals(
+                EventShape.values().length,
+                reader.read(event -> timerCounts.add(event.getTimers().size())));
+        Assert.assertEquals(1, (int) timerCounts.get(EventShape.FEW_ANNOTATIONS.ordinal()));
+        Assert.assertEquals(64, (int) timerCounts.get(EventShape.MANY_METRICS.ordinal()));
+    }
+
+    @Test
+    public void testReadTimeRange() throws IOException {
+        final Path directory = createDirectory("testReadTimeRange");
+        final String content = createRecord(0, "2026-01-01T00:00:00Z")
+                + createRecord(1, "2026-01-01T00:00:10Z")
+                + createRecord(2)
+                + createRecord(3, "2026-01-01T00:00:20Z")
+                + createRecord(4, "2026-01-01T00:00:30Z");
+        final String[] lines = content.split("(?<=\n)");
+        createFile(directory, "metrics.2026-01-01-00.0.json", content);
+        final ByteBuffer index = ByteBuffer.allocate(3 * SegmentIndex.ENTRY_SIZE);
+        index.putLong(Instant.parse("2026-01-01T00:00:05Z").toEpochMilli()).putLong(lines[0].length());
+        index.putLong(Instant.parse("2026-01-01T00:00:15Z").toEpochMilli()).putLong(lines[0].length() + lines[1].length());
+        index.putLong(Instant.parse("2026-01-01T00:00:25Z").toEpochMilli()).putLong(content.length() - lines[4].length());
+        Files.write(directory.resolve("metrics.2026-01-01-00.0.json.idx"), index.array());
+        // A segment without an index is read in full
+        createFile(directory, "metrics.json", createRecord(5, "2026-01-01T00:00:10Z") + createRecord(6, "invalid"));
+
+        final FileSinkReader reader = new FileSinkReader.Builder()
+                .setDirectory(directory.toFile())
+                .setName("metrics")
+                .setExtension(".json")
+                .setMaxWriteDelay(Duration.ZERO)
+                .build();
+        final List<String> ids = new ArrayList<>();
+        Assert.assertEquals(
+                3,
+                reader.read(
+                        Instant.parse("2026-01-01T00:00:10Z"),
+                        Instant.parse("2026-01-01T00:00:30Z"),
+                        event -> ids.add(event.getAnnotations().get("_id"))));
+        Assert.assertEquals(Arrays.asList("1", "3", "5"), ids);
+
+        ids.clear();
+        Assert.assertEquals(
+                0,
+                reader.read(
+                        Instant.parse("2026-01-01T00:00:30Z"),
+                        Instant.parse("2026-01-01T00:00:10Z"),
+                        event -> ids.add(event.getAnnotations().get("_id"))));
+    }
+
+    @Test
+    public void testReadTimeRangeFileSink() throws IOException, InterruptedException {
+        assertReadTimeRangeFileSink(
+                createDirectory("testReadTimeRangeFileSink"),
+                new FileSink.Builder().setCompress(false).setIndexInterval(Duration.ofMillis(1)));
+        assertReadTimeRangeFileSink(
+                createDirectory("testReadTimeRangeFileSinkCompressed"),
+                new FileSink.Builder().setStreamingCompression(true).setIndexIntervalSize("1"));
+    }
+
+    @Test
+    public void testBuilderWithNull() {
+        final FileSinkReader reader = new FileSinkReader.Builder()
+                .setDirectory(null)
+                .setName(null)
+                .setExtension(null)
+                .setMaxWriteDelay(null)
+                .build();
+        Assert.assertNotNull(reader);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderNegativeMaxWriteDelay() {
+        new FileSinkReader.Builder().setMaxWriteDelay(Duration.ofMillis(-1)).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderEmptyName() {
+        new FileSinkReader.Builder().setName("").build();
+    }
+
+    private static List<String> getNames(final List<File> files) {
+        final List<String> names = new ArrayList<>();
+        for (final File file : files) {
+            names.add(file.getName());
+        }
+        return names;
+    }
+
+    private static void assertReadTimeRangeFileSink(
+            final Path directory,
+            final FileSink.Builder builder) throws IOException, InterruptedException {
+        final BaseFileSink sink = (BaseFileSink) builder
+                .setDirectory(directory.toFile())
+                .setAsync(false)
+                .build();
+        for (int i = 0; i < 3; ++i) {
+            sink.record(createEvent(Instant.now()));
+        }
+        Thread.sleep(50);
+        final Instant start = Instant.now();
+        for (int i = 0; i < 2; ++i) {
+            sink.record(createEvent(Instant.now()));
+        }
+        sink.close(Duration.ofSeconds(10));
+
+        final FileSinkReader reader = new FileSinkReader.Builder()
+                .setDirectory(directory.toFile())
+                .setMaxWriteDelay(Duration.ZERO)
+                .build();
+        Assert.assertEquals(2, reader.read(start, Instant.now().plusSeconds(60), event -> { }));
+        Assert.assertEquals(5, reader.read(Instant.EPOCH, Instant.now().plusSeconds(60), event -> { }));
+    }
+
+    private static Event createEvent(final Instant end) {
+        return new TsdEvent(
+                Collections.singletonMap("_end", end.toString()),
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                Collections.emptyMap());
+    }
+
+    private static String createRecord(final int id, final String end) {
+        return "{\"version\":\"2f\",\"annotations\":{\"_id\":\"" + id + "\",\"_end\":\"" + end + "\"}}\n";
+    }
+
+    private static String createRecord(final int id) {
+        return "{\"version\":\"2f\",\"annotations\":{\"_id\":\"" + id + "\"},"
+                + "\"timers\":{\"timer\":{\"values\":[{\"value\":" + id + "}]}}}\n";
+    }
+
+    private static void createFile(final Path directory, final String name, final String content) throws IOException {
+        Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private static Path createDirectory(final String name) throws IOException {
+        final Path basePath = Paths.get("./target/FileSinkReaderTest/");
+        Files.createDirectories(basePath);
+        return Files.createTempDirectory(basePath, name);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.TimeBasedFileNamingAndTriggeringPolicy;
+import ch.qos.logback.core.rolling.helper.CompressionMode;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.annotation.Nullable;
+
+/**
+ * Tests for {@link FileSinkRollingPolicy}.
+ *
+ * @author agent (agent at local)
+ */
+public class FileSinkRollingPolicyTest {
+
+    @Test
+    public void testPrecompressed() {
+        final FileSinkRollingPolicy<ILoggingEvent> policy = new FileSinkRollingPolicy<>(true);
+        policy.setContext(new LoggerContext());
+        policy.setFileNamePattern("query.%d{yyyy-MM-dd-HH}.%i.log.gz");
+        policy.determineCompressionMode();
+        Assert.assertEquals(CompressionMode.NONE, policy.getCompressionMode());
+    }
+
+    @Test
+    public void testNotPrecompressed() {
+        final FileSinkRollingPolicy<ILoggingEvent> policy = new FileSinkRollingPolicy<>(false);
+        policy.setContext(new LoggerContext());
+        policy.setFileNamePattern("query.%d{yyyy-MM-dd-HH}.%i.log.gz");
+        policy.determineCompressionMode();
+        Assert.assertEquals(CompressionMode.GZ, policy.getCompressionMode());
+    }
+
+    @Test
+    public void testRolloverWithoutRetentionManager() throws IOException {
+        final Path directory = createDirectory("testRolloverWithoutRetentionManager");
+        final FileSinkRollingPolicy<ILoggingEvent> policy = createPolicy(directory, ".log", false, null);
+
+        rollover(policy, directory, "query.2026-01-01-00.0.log");
+        Assert.assertTrue(Files.exists(directory.resolve("query.2026-01-01-00.0.log")));
+    }
+
+    @Test
+    public void testRolloverMovesIndex() throws IOException {
+        final Path directory = createDirectory("testRolloverMovesIndex");
+        final FileSinkRollingPolicy<ILoggingEvent> policy = createPolicy(directory, ".log", false, null);
+        Files.writeString(directory.resolve("query.2025-12-31-22.0.log"), "old\n", StandardCharsets.UTF_8);
+        Files.write(directory.resolve("query.2025-12-31-22.0.log.idx"), new byte[SegmentIndex.ENTRY_SIZE]);
+        Files.write(directory.resolve("query.2025-12-31-23.0.log.idx"), new byte[SegmentIndex.ENTRY_SIZE]);
+        Files.createDirectories(directory.resolve("query.2025-12-31-21.0.log.idx").resolve("nested"));
+        Files.write(directory.resolve("query.log.idx"), new byte[SegmentIndex.ENTRY_SIZE]);
+
+        rollover(policy, directory, "query.2026-01-01-00.0.log");
+        Assert.assertFalse(Files.exists(directory.resolve("query.log.idx")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.2026-01-01-00.0.log.idx")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.2025-12-31-22.0.log.idx")));
+        // Indexes whose segment was deleted are removed unless they cannot be
+        Assert.assertFalse(Files.exists(directory.resolve("query.2025-12-31-23.0.log.idx")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.2025-12-31-21.0.log.idx")));
+
+        // Indexes of rolled files are tracked rather than listed again
+        Files.delete(directory.resolve("query.2025-12-31-22.0.log"));
+        Files.delete(directory.resolve("query.2026-01-01-00.0.log"));
+        Files.write(directory.resolve("query.log.idx"), new byte[SegmentIndex.ENTRY_SIZE]);
+        rollover(policy, directory, "query.2026-01-01-01.0.log");
+        Assert.assertFalse(Files.exists(directory.resolve("query.2025-12-31-22.0.log.idx")));
+        Assert.assertFalse(Files.exists(directory.resolve("query.2026-01-01-00.0.log.idx")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.2026-01-01-01.0.log.idx")));
+    }
+
+    @Test
+    public void testRolloverIndexMoveFailure() throws IOException {
+        final Path directory = createDirectory("testRolloverIndexMoveFailure");
+        final RetentionManager retentionManager = new RetentionManager(directory.toFile(), "query", ".log", 0, 0, 0);
+        final FileSinkRollingPolicy<ILoggingEvent> policy = createPolicy(directory, ".log", false, retentionManager);
+        Files.createDirectories(directory.resolve("query.2026-01-01-00.0.log.idx").resolve("nested"));
+        Files.write(directory.resolve("query.log.idx"), new byte[SegmentIndex.ENTRY_SIZE]);
+
+        rollover(policy, directory, "query.2026-01-01-00.0.log");
+        Assert.assertTrue(Files.exists(directory.resolve("query.2026-01-01-00.0.log")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.log.idx")));
+    }
+
+    @Test
+    public void testRolloverNotifiesRetentionManager() throws IOException {
+        final Path directory = createDirectory("testRolloverNotifiesRetentionManager");
+        Files.writeString(directory.resolve("query.2025-12-31-23.0.log"), "old\n", StandardCharsets.UTF_8);
+        Files.write(directory.resolve("query.2025-12-31-23.0.log.idx"), new byte[SegmentIndex.ENTRY_SIZE]);
+        final RetentionManager retentionManager = new RetentionManager(directory.toFile(), "query", ".log", 2, 0, 0);
+        final FileSinkRollingPolicy<ILoggingEvent> policy = createPolicy(directory, ".log", false, retentionManager);
+        Assert.assertEquals(1, retentionManager.getFileCount());
+
+        rollover(policy, directory, "query.2026-01-01-00.0.log");
+        Assert.assertEquals(2, retentionManager.getFileCount());
+        Assert.assertEquals(12, retentionManager.getTotalSize());
+
+        rollover(policy, directory, "query.2026-01-01-00.1.log");
+        Assert.assertEquals(2, retentionManager.getFileCount());
+        Assert.assertEquals(16, retentionManager.getTotalSize());
+        Assert.assertFalse(Files.exists(directory.resolve("query.2025-12-31-23.0.log")));
+        Assert.assertFalse(Files.exists(directory.resolve("query.2025-12-31-23.0.log.idx")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.2026-01-01-00.0.log")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.2026-01-01-00.1.log")));
+    }
+
+    @Test
+    public void testRolloverCompressedNotifiesRetentionManager() throws IOException, InterruptedException {
+        final Path directory = createDirectory("testRolloverCompressedNotifiesRetentionManager");
+        final RetentionManager retentionManager = new RetentionManager(directory.toFile(), "query", ".log.gz", 0, 0, 0);
+        final FileSinkRollingPolicy<ILoggingEvent> policy = createPolicy(directory, ".log.gz", false, retentionManager);
+
+        rollover(policy, directory, "query.2026-01-01-00.0.log");
+        Assert.assertEquals(1, retentionManager.getFileCount());
+        policy.stop();
+        Assert.assertTrue(Files.exists(directory.resolve("query.2026-01-01-00.0.log.gz")));
+    }
+
+    @Test
+    public void testStartFailureDoesNotInitializeRetentionManager() throws IOException {
+        final Path directory = createDirectory("testStartFailureDoesNotInitializeRetentionManager");
+        Files.writeString(directory.resolve("query.2026-01-01-00.0.log"), "old\n", StandardCharsets.UTF_8);
+        final RetentionManager retentionManager = new RetentionManager(directory.toFile(), "query", ".log", 0, 0, 0);
+
+        @SuppressWarnings("unchecked")
+        final TimeBasedFileNamingAndTriggeringPolicy<ILoggingEvent> triggeringPolicy =
+                Mockito.mock(TimeBasedFileNamingAndTriggeringPolicy.class);
+        final FileSinkRollingPolicy<ILoggingEvent> policy = new FileSinkRollingPolicy<>(false, retentionManager);
+        policy.setContext(new LoggerContext());
+        policy.setTimeBasedFileNamingAndTriggeringPolicy(triggeringPolicy);
+        policy.setFileNamePattern(directory.resolve("query.%d{yyyy-MM-dd-HH}.%i.log").toString());
+        policy.start();
+
+        Assert.assertFalse(policy.isStarted());
+        Assert.assertEquals(0, retentionManager.getFileCount());
+    }
+
+    private static FileSinkRollingPolicy<ILoggingEvent> createPolicy(
+            final Path directory,
+            final String extension,
+            final boolean precompressed,
+            @Nullable final RetentionManager retentionManager) {
+        final LoggerContext context = new LoggerContext();
+        final FileSinkAppender<ILoggingEvent> appender = new FileSinkAppender<>(precompressed, false, INSTRUMENTATION);
+        appender.setContext(context);
+        appender.setFile(directory.resolve("query.log").toString());
+
+        @SuppressWarnings("unchecked")
+        final TimeBasedFileNamingAndTriggeringPolicy<ILoggingEvent> triggeringPolicy =
+                Mockito.mock(TimeBasedFileNamingAndTriggeringPolicy.class);
+        Mockito.doReturn(Boolean.TRUE).when(triggeringPolicy).isStarted();
+
+        final FileSinkRollingPolicy<ILoggingEvent> policy = new FileSinkRollingPolicy<>(precompressed, retentionManager);
+        policy.setContext(context);
+        policy.setParent(appender);
+        policy.setTimeBasedFileNamingAndTriggeringPolicy(triggeringPolicy);
+        policy.setFileNamePattern(directory.resolve("query.%d{yyyy-MM-dd-HH}.%i" + extension).toString());
+        policy.start();
+        Assert.assertTrue(policy.isStarted());
+        return policy;
+    }
+
+    private static void rollover(
+            final FileSinkRollingPolicy<ILoggingEvent> policy,
+            final Path directory,
+            final String elapsedPeriodsFileName) throws IOException {
+        Files.writeString(directory.resolve("query.log"), "content\n", StandardCharsets.UTF_8);
+        Mockito.doReturn(directory.resolve(elapsedPeriodsFileName).toString())
+                .when(policy.getTimeBasedFileNamingAndTriggeringPolicy())
+                .getElapsedPeriodsFileName();
+        policy.rollover();
+    }
+
+    private static Path createDirectory(final String name) throws IOException {
+        final Path basePath = Paths.get("./target/FileSinkRollingPolicyTest/");
+        Files.createDirectories(basePath);
+        return Files.createTempDirectory(basePath, name);
+    }
+
+    private static final SinkInstrumentation INSTRUMENTATION = new SinkInstrumentation(() -> 0);
+}
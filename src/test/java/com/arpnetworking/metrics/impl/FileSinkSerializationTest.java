@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Golden output tests for the "2f" serialization of {@link FileSink}. Each
+ * {@link EventShape} is serialized and compared byte for byte with the
+ * expected query log line under {@code src/test/resources}; any change to
+ * the serializers must leave the output unchanged. On mismatch the actual
+ * output is written under {@code target/FileSinkSerializationTest} for
+ * comparison.
+ *
+ * @author agent (agent at local)
+ */
+public final class FileSinkSerializationTest {
+
+    @Test
+    public void testGoldenOutput() throws IOException {
+        for (final EventShape shape : EventShape.values()) {
+            final String actualString = FileSink.getObjectMapper().writeValueAsString(shape.createEvent()) + "\n";
+            final byte[] actual = actualString.getBytes(StandardCharsets.UTF_8);
+            final byte[] expected = readGolden(shape);
+            final String expectedString = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(expected)).toString();
+            if (!actualString.equals(expectedString)) {
+                Files.createDirectories(DIRECTORY);
+                Files.write(DIRECTORY.resolve(shape.name() + ".json"), actual);
+            }
+            Assert.assertEquals(shape.name(), expectedString, actualString);
+            Assert.assertArrayEquals(shape.name(), expected, actual);
+        }
+    }
+
+    private static byte[] readGolden(final EventShape shape) throws IOException {
+        try (InputStream stream = FileSinkSerializationTest.class.getResourceAsStream(
+                "FileSinkSerializationTest/" + shape.name() + ".json")) {
+            Assert.assertNotNull("Missing golden output for " + shape.name(), stream);
+            return stream.readAllBytes();
+        }
+    }
+
+    private static final Path DIRECTORY = Paths.get("./target/FileSinkSerializationTest");
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.arpnetworking.metrics.Quantity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Soak test of a {@link FileSink} written to from many threads across
+ * rotations and compression. Each event is tagged with its producer and
+ * sequence number. Once the sink is closed every rolled and active file is
+ * read back to verify that no line is torn, no event is written twice and
+ * that the events missing are exactly those counted as dropped.
+ *
+ * The sink either blocks or drops events when its queue is full. Each
+ * mode runs for five seconds with eight producers by default; set the
+ * {@code soak.duration} (ISO-8601) and {@code soak.threads} system
+ * properties for a longer run, for example:
+ *
+ * {@code ./mvnw verify -Dit.test=FileSinkSoakIT -Dsoak.duration=PT1H -Dsoak.threads=32}
+ *
+ * @author agent (agent at local)
+ */
+public class FileSinkSoakIT {
+
+    @Test
+    public void testBlocking() throws Exception {
+        soak(false, "256KB");
+    }
+
+    @Test
+    public void testDropping() throws Exception {
+        soak(true, "16KB");
+    }
+
+    private void soak(final boolean dropWhenQueueFull, final String maxFileSize) throws Exception {
+        final Duration duration = Duration.parse(System.getProperty("soak.duration", DEFAULT_DURATION));
+        final int threadCount = Integer.parseInt(System.getProperty("soak.threads", DEFAULT_THREADS));
+        final Path basePath = Paths.get("./target/integration-test/");
+        Files.createDirectories(basePath);
+        final Path path = Files.createTempDirectory(basePath, "FileSinkSoakIT");
+
+        final BaseFileSink sink = (BaseFileSink) new FileSink.Builder()
+                .setDirectory(path.toFile())
+                .setMaxFileSize(maxFileSize)
+                .setMaxHistory(Integer.MAX_VALUE)
+                .setMaxTotalSize("1000GB")
+                .setCompress(true)
+                .setAsync(true)
+                .setDropWhenQueueFull(dropWhenQueueFull)
+                .setMaxQueueSize(1000)
+                .build();
+
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        final long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final long[] produced = new long[threadCount];
+        final List<Thread> threads = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; ++i) {
+            final int producer = i;
+            final Thread thread = new Thread(() -> produced[producer] = produce(sink, producer, running));
+            threads.add(thread);
+        }
+        final long startNanos = System.nanoTime();
+        threads.forEach(Thread::start);
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        final Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+        System.gc();
+        final long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        sink.close(CLOSE_TIMEOUT);
+
+        final BitSet[] written = new BitSet[threadCount];
+        for (int i = 0; i < threadCount; ++i) {
+            written[i] = new BitSet();
+        }
+        final long[] counts = new long[3];
+        final List<Path> files;
+        try (Stream<Path> stream = Files.list(path)) {
+            files = stream.collect(Collectors.toList());
+        }
+        for (final Path file : files) {
+            verify(file, written, counts);
+        }
+
+        long total = 0;
+        long missing = 0;
+        for (int i = 0; i < threadCount; ++i) {
+            total += produced[i];
+            missing += produced[i] - written[i].cardinality();
+        }
+        final FileSinkStatistics statistics = sink.getStatistics();
+        final long dropped = statistics.getDiscardedCount()
+                + statistics.getSerializationFailureCount()
+                + statistics.getIoErrorCount();
+        System.out.printf(
+                "Soak: dropWhenQueueFull=%b, threads=%d, elapsed=%s, recorded=%d (%.0f/s), written=%d, dropped=%d, "
+                        + "files=%d, heapGrowth=%d bytes%n",
+                dropWhenQueueFull,
+                threadCount,
+                elapsed,
+                total,
+                total * 1e9 / elapsed.toNanos(),
+                total - missing,
+                dropped,
+                files.size(),
+                heapAfter - heapBefore);
+
+        Assert.assertEquals("Torn lines", 0, counts[TORN]);
+        Assert.assertEquals("Duplicate events", 0, counts[DUPLICATE]);
+        Assert.assertEquals("Dropped events", dropped, missing);
+        Assert.assertTrue("Expected rotation", files.size() > 1);
+    }
+
+    private static long produce(final BaseFileSink sink, final int producer, final AtomicBoolean running) {
+        final Map<String, List<Quantity>> timers = Collections.singletonMap(
+                "soak/latency",
+                Collections.singletonList(TsdQuantity.newInstance(producer)));
+        long sequence = 0;
+        while (running.get()) {
+            final Map<String, String> annotations = new LinkedHashMap<>();
+            annotations.put("_host", "soak.example.com");
+            annotations.put(PRODUCER, Integer.toString(producer));
+            annotations.put(SEQUENCE, Long.toString(sequence));
+            sink.record(new TsdEvent(
+                    annotations,
+                    timers,
+                    Collections.emptyMap(),
+                    Collections.emptyMap(),
+                    Collections.emptyMap()));
+            ++sequence;
+        }
+        return sequence;
+    }
+
+    private static void verify(final Path file, final BitSet[] written, final long[] counts) throws IOException {
+        try (InputStream stream = open(file);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while (line != null) {
+                final JsonNode annotations = parse(line);
+                if (annotations == null) {
+                    ++counts[TORN];
+                    System.out.printf("Torn line; file=%s, line=%s%n", file, line);
+                } else {
+                    final BitSet sequences = written[annotations.get(PRODUCER).asInt()];
+                    final int sequence = annotations.get(SEQUENCE).asInt();
+                    if (sequences.get(sequence)) {
+                        ++counts[DUPLICATE];
+                    }
+                    sequences.set(sequence);
+                }
+                line = reader.readLine();
+            }
+        }
+    }
+
+    private static InputStream open(final Path file) throws IOException {
+        final InputStream stream = Files.newInputStream(file);
+        if (file.toString().endsWith(".gz")) {
+            return new GZIPInputStream(stream);
+        }
+        return stream;
+    }
+
+    private static JsonNode parse(final String line) {
+        try {
+            final JsonNode node = OBJECT_MAPPER.readTree(line);
+            final JsonNode annotations = node.get("annotations");
+            if (!"2f".equals(node.path("version").asText())
+                    || annotations == null
+                    || !annotations.has(PRODUCER)
+                    || !annotations.has(SEQUENCE)) {
+                return null;
+            }
+            return annotations;
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String DEFAULT_DURATION = "PT5S";
+    private static final String DEFAULT_THREADS = "8";
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+    private static final String PRODUCER = "producer";
+    private static final String SEQUENCE = "sequence";
+    private static final int TORN = 0;
+    private static final int DUPLICATE = 1;
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests for {@link FileSinkTailer}.
+ *
+ * @author agent (agent at local)
+ */
+public class FileSinkTailerTest {
+
+    @Test
+    public void testFollowsRoll() throws Exception {
+        final Path directory = createDirectory("testFollowsRoll");
+        final Path active = directory.resolve("query.log");
+        append(active, createRecord(0) + createRecord(1));
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint).setCheckpointInterval(Duration.ZERO))) {
+            Assert.assertEquals(Arrays.asList("0", "1"), tail.take(2));
+
+            final String record = createRecord(2);
+            append(active, record.substring(0, 10));
+            Thread.sleep(50);
+            append(active, record.substring(10));
+            Assert.assertEquals(Collections.singletonList("2"), tail.take(1));
+
+            append(active, createRecord(3));
+            Files.move(active, directory.resolve("query.2026-01-01-00.0.log"));
+            append(active, createRecord(4));
+            Assert.assertEquals(Arrays.asList("3", "4"), tail.take(2));
+            tail.assertEmpty();
+        }
+        Assert.assertEquals(
+                String.format(
+                        "%d 2026-01-01-00 0 %s %s%n",
+                        createRecord(4).length(),
+                        getFingerprint(createRecord(4)),
+                        getFileKey(active)),
+                Files.readString(checkpoint.toPath()));
+
+        append(active, createRecord(5));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("5"), tail.take(1));
+            tail.assertEmpty();
+        }
+    }
+
+    @Test
+    public void testRestoreAfterRoll() throws Exception {
+        final Path directory = createDirectory("testRestoreAfterRoll");
+        final Path active = directory.resolve("query.log");
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+        append(active, createRecord(0));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("0"), tail.take(1));
+        }
+        Assert.assertEquals(
+                String.format("%d - 0 %s %s%n", createRecord(0).length(), getFingerprint(createRecord(0)), getFileKey(active)),
+                Files.readString(checkpoint.toPath()));
+
+        // Resume the active segment
+        append(active, createRecord(1));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("1"), tail.take(1));
+        }
+
+        // Resume the active segment after it was rolled
+        append(active, createRecord(2));
+        Files.move(active, directory.resolve("query.2026-01-01-00.0.log"));
+        append(active, createRecord(3));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Arrays.asList("2", "3"), tail.take(2));
+            tail.assertEmpty();
+        }
+    }
+
+    @Test
+    public void testRestoreAfterCompressedRoll() throws Exception {
+        final Path directory = createDirectory("testRestoreAfterCompressedRoll");
+        final Path active = directory.resolve("query.log");
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+        append(active, createRecord(0));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("0"), tail.take(1));
+        }
+
+        append(active, createRecord(1));
+        Files.write(directory.resolve("query.2026-01-01-00.0.log.gz"), gzip(Files.readString(active)));
+        Files.delete(active);
+        append(active, createRecord(2));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Arrays.asList("1", "2"), tail.take(2));
+            tail.assertEmpty();
+        }
+    }
+
+    @Test
+    public void testRestoreAfterRollWithEarlierSegment() throws Exception {
+        final Path directory = createDirectory("testRestoreAfterRollWithEarlierSegment");
+        final Path active = directory.resolve("query.log");
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+        append(active, createRecord(0));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("0"), tail.take(1));
+        }
+
+        // A segment rolled before the checkpointed segment was opened is read after it
+        append(active, createRecord(1));
+        Files.move(active, directory.resolve("query.2026-01-01-00.1.log"));
+        append(directory.resolve("query.2026-01-01-00.0.log"), createRecord(9));
+        append(active, createRecord(2));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Arrays.asList("1", "9", "2"), tail.take(3));
+            tail.assertEmpty();
+        }
+    }
+
+    @Test
+    public void testRestoreAfterActiveDeleted() throws Exception {
+        final Path directory = createDirectory("testRestoreAfterActiveDeleted");
+        final Path active = directory.resolve("query.log");
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+        append(active, createRecord(0));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("0"), tail.take(1));
+        }
+
+        Files.delete(active);
+        append(active, createRecord(1));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("1"), tail.take(1));
+        }
+    }
+
+    @Test
+    public void testRestoreActiveShorterThanCheckpoint() throws Exception {
+        final Path directory = createDirectory("testRestoreActiveShorterThanCheckpoint");
+        final Path active = directory.resolve("query.log");
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+        final StringBuilder content = new StringBuilder();
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; content.length() < 2048; ++i) {
+            content.append(createRecord(i));
+            ids.add(String.valueOf(i));
+        }
+        append(active, content.toString());
+        Files.writeString(
+                checkpoint.toPath(),
+                "1000000 - 0 " + getFingerprint(content.substring(0, 1024)) + " " + getFileKey(active) + "\n");
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(ids, tail.take(ids.size()));
+        }
+
+        // A truncated segment no longer matches the checkpoint
+        Files.writeString(active, createRecord(0));
+        Files.writeString(
+                checkpoint.toPath(),
+                "1000000 - 0 " + getFingerprint(content.substring(0, 1024)) + " " + getFileKey(active) + "\n");
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("0"), tail.take(1));
+        }
+    }
+
+    @Test
+    public void testRestoreRolled() throws Exception {
+        final Path directory = createDirectory("testRestoreRolled");
+        append(directory.resolve("query.2026-01-01-00.0.log"), createRecord(0) + createRecord(1) + createRecord(2));
+        append(directory.resolve("query.log"), createRecord(3));
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+
+        Files.writeString(checkpoint.toPath(), createRecord(0).length() + " 2026-01-01-00 0 - -\n");
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint).setCheckpointInterval(Duration.ZERO))) {
+            Assert.assertEquals(Arrays.asList("1", "2", "3"), tail.take(3));
+        }
+
+        Files.writeString(checkpoint.toPath(), "0 2026-01-01-00 5 - -\n");
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("3"), tail.take(1));
+        }
+
+        Files.writeString(checkpoint.toPath(), "-1 2026-01-01-00 0 - -\n");
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("3"), tail.take(1));
+            tail.assertEmpty();
+        }
+    }
+
+    @Test
+    public void testInvalidCheckpoint() throws Exception {
+        final Path directory = createDirectory("testInvalidCheckpoint");
+        append(directory.resolve("query.2026-01-01-00.0.log"), createRecord(0));
+        append(directory.resolve("query.log"), createRecord(1));
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+        for (final String invalid : Arrays.asList("invalid", "x - 0 - -", "0 2026-01-01-00 x - -")) {
+            Files.writeString(checkpoint.toPath(), invalid);
+            try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+                Assert.assertEquals(Collections.singletonList("1"), tail.take(1));
+            }
+        }
+    }
+
+    @Test
+    public void testRolledSegmentCompressed() throws Exception {
+        final Path directory = createDirectory("testRolledSegmentCompressed");
+        // The uncompressed segments were deleted after being listed
+        Files.createSymbolicLink(directory.resolve("query.2026-01-01-00.0.log123.tmp"), directory.resolve("missing"));
+        Files.write(directory.resolve("query.2026-01-01-00.0.log.gz"), gzip(createRecord(0)));
+        Files.createSymbolicLink(directory.resolve("query.2026-01-01-00.1.log"), directory.resolve("missing"));
+        append(directory.resolve("query.log"), createRecord(1));
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+
+        Files.writeString(checkpoint.toPath(), "-1 2025-12-31-23 0 - -\n");
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Arrays.asList("0", "1"), tail.take(2));
+        }
+
+        Files.writeString(checkpoint.toPath(), "1000000 2026-01-01-00 0 - -\n");
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("1"), tail.take(1));
+            tail.assertEmpty();
+        }
+    }
+
+    @Test
+    public void testMalformedRecords() throws Exception {
+        final Path directory = createDirectory("testMalformedRecords");
+        append(directory.resolve("query.2026-01-01-00.0.log"), createRecord(0).trim());
+        final String large = "{\"version\":\"2f\",\"annotations\":{\"_id\":\"large\",\"value\":\"" + "x".repeat(100_000) + "\"}}\n";
+        append(
+                directory.resolve("query.log"),
+                "malformed\n" + "{\"version\":\"2f\",\"annotations\":{\n" + large + createRecord(1));
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+        Files.writeString(checkpoint.toPath(), "-1 2025-12-31-23 0 - -\n");
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Arrays.asList("0", "large", "1"), tail.take(3));
+            tail.assertEmpty();
+        }
+    }
+
+    @Test
+    public void testWithoutActiveSegment() throws Exception {
+        final Path directory = createDirectory("testWithoutActiveSegment");
+        final File checkpoint = directory.resolve("tail.checkpoint").toFile();
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            tail.assertEmpty();
+        }
+        Assert.assertFalse(checkpoint.exists());
+
+        append(directory.resolve("query.2026-01-01-00.0.log"), createRecord(0));
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            tail.assertEmpty();
+        }
+        Assert.assertEquals(String.format("-1 2026-01-01-00 0 - -%n"), Files.readString(checkpoint.toPath()));
+
+        // The checkpointed active segment was rolled and compressed while not tailing
+        Files.writeString(checkpoint.toPath(), "0 - 0 0 (dev=0,ino=0)\n");
+        try (Tail tail = new Tail(createBuilder(directory).setCheckpointFile(checkpoint))) {
+            Assert.assertEquals(Collections.singletonList("0"), tail.take(1));
+        }
+
+        // Without a checkpoint tailing starts at the beginning of the active segment
+        append(directory.resolve("query.log"), createRecord(1));
+        try (Tail tail = new Tail(createBuilder(directory))) {
+            Assert.assertEquals(Collections.singletonList("1"), tail.take(1));
+        }
+    }
+
+    @Test
+    public void testCloseBeforeTail() throws Exception {
+        final Path directory = createDirectory("testCloseBeforeTail");
+        append(directory.resolve("query.log"), createRecord(0));
+        final FileSinkTailer tailer = createBuilder(directory).build();
+        tailer.close();
+        final List<EventView> events = new ArrayList<>();
+        tailer.tail(events::add);
+        Assert.assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testBuilderWithNull() throws IOException {
+        final FileSinkTailer tailer = new FileSinkTailer.Builder()
+                .setReader(null)
+                .setCheckpointFile(null)
+                .setPollInterval(null)
+                .setCheckpointInterval(null)
+                .build();
+        Assert.assertNotNull(tailer);
+        tailer.close();
+    }
+
+    @Test
+    public void testBuilderInvalid() {
+        for (final Duration interval : Arrays.asList(Duration.ZERO, Duration.ofMillis(-1))) {
+            try {
+                new FileSinkTailer.Builder().setPollInterval(interval).build();
+                Assert.fail("Expected exception");
+            } catch (final IllegalArgumentException e) {
+                // Expected
+            }
+        }
+        try {
+            new FileSinkTailer.Builder().setCheckpointInterval(Duration.ofMillis(-1)).build();
+            Assert.fail("Expected exception");
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static FileSinkTailer.Builder createBuilder(final Path directory) {
+        return new FileSinkTailer.Builder()
+                .setReader(new FileSinkReader.Builder().setDirectory(directory.toFile()).build())
+                .setPollInterval(Duration.ofMillis(10));
+    }
+
+    private static String createRecord(final int id) {
+        return "{\"version\":\"2f\",\"annotations\":{\"_id\":\"" + id + "\"}}\n";
+    }
+
+    private static void append(final Path file, final String content) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String getFileKey(final Path file) throws IOException {
+        return String.valueOf(Files.readAttributes(file, BasicFileAttributes.class).fileKey());
+    }
+
+    private static String getFingerprint(final String content) {
+        final CRC32 checksum = new CRC32();
+        checksum.update(content.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(checksum.getValue());
+    }
+
+    private static byte[] gzip(final String content) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream stream = new GZIPOutputStream(bytes)) {
+            stream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Path createDirectory(final String name) throws IOException {
+        final Path basePath = Paths.get("./target/FileSinkTailerTest/");
+        Files.createDirectories(basePath);
+        return Files.createTempDirectory(basePath, name);
+    }
+
+    /**
+     * Tails on a background thread collecting the ids of the events.
+     */
+    private static final class Tail implements AutoCloseable {
+
+        Tail(final FileSinkTailer.Builder builder) {
+            _tailer = builder.build();
+            _thread = new Thread(() -> {
+                try {
+                    _tailer.tail(event -> _ids.add(event.getAnnotations().get("_id")));
+                } catch (final IOException | InterruptedException e) {
+                    _failure.set(e);
+                }
+            });
+            _thread.start();
+        }
+
+        public List<String> take(final int count) throws InterruptedException {
+            final List<String> ids = new ArrayList<>();
+            for (int i = 0; i < count; ++i) {
+                final String id = _ids.poll(10, TimeUnit.SECONDS);
+                Assert.assertNotNull("Timed out waiting for event " + i, id);
+                ids.add(id);
+            }
+            return ids;
+        }
+
+        public void assertEmpty() throws InterruptedException {
+            Assert.assertNull(_ids.poll(100, TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public void close() throws IOException {
+            _tailer.close();
+            try {
+                _thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            Assert.assertFalse(_thread.isAlive());
+            if (_failure.get() != null) {
+                throw new IOException(_failure.get());
+            }
+        }
+
+        private final FileSinkTailer _tailer;
+        private final Thread _thread;
+        private final BlockingQueue<String> _ids = new LinkedBlockingQueue<>();
+        private final AtomicReference<Exception> _failure = new AtomicReference<>();
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.arpnetworking.metrics.impl;
 
+import com.arpnetworking.metrics.Event;
 import com.arpnetworking.metrics.Quantity;
 import com.arpnetworking.metrics.Sink;
 import com.fasterxml.jackson.core.JsonParser;
@@ -27,16 +28,23 @@ import com.networknt.schema.JsonSchema;
 import com.networknt.schema.JsonSchemaFactory;
 import com.networknt.schema.SpecVersion;
 import com.networknt.schema.ValidationMessage;
+import jdk.jfr.consumer.RecordedEvent;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -46,6 +54,7 @@ import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Tests for {@link TsdMetrics}.
@@ -72,6 +81,216 @@ public class FileSinkTest {
         Mockito.verify(logger).warn(
                 Mockito.any(String.class),
                 Mockito.any(Throwable.class));
+        Assert.assertEquals(0, ((FileSink) sink).getStatistics().getRecordedCount());
+        Assert.assertEquals(1, ((FileSink) sink).getStatistics().getSerializationFailureCount());
+    }
+
+    @Test
+    public void testStatistics() throws IOException {
+        final FileSink sink = (FileSink) new FileSink.Builder()
+                .setDirectory(createDirectory("./target/FileSinkTest"))
+                .setName("testStatistics-Query")
+                .setAsync(false)
+                .build();
+
+        recordEmpty(sink);
+
+        final FileSinkStatistics statistics = sink.getStatistics();
+        Assert.assertEquals(1, statistics.getRecordedCount());
+        Assert.assertEquals(1, statistics.getSerializationLatency().getCount());
+        Assert.assertEquals(1, statistics.getEnqueueLatency().getCount());
+        Assert.assertEquals(1, statistics.getWrittenCount());
+        Assert.assertTrue(statistics.getBytesWritten() > 0);
+        Assert.assertTrue(statistics.getRecordLatency().getTotalNanos()
+                >= statistics.getSerializationLatency().getTotalNanos());
+    }
+
+    @Test
+    public void testRecordAll() throws IOException {
+        final File directory = createDirectory("./target/FileSinkTest/testRecordAll");
+        final File file = new File(directory, "query.log");
+        Files.deleteIfExists(file.toPath());
+        final FileSink sink = (FileSink) new FileSink.Builder()
+                .setDirectory(directory)
+                .setCompress(false)
+                .setAsync(false)
+                .build();
+
+        sink.recordAll(List.of(createEvent("a"), createEvent("b"), createEvent("c")), FileSink.BatchMode.ALL_OR_NOTHING);
+        sink.recordAll(Collections.emptyList(), FileSink.BatchMode.ALL_OR_NOTHING);
+        sink.close(Duration.ofSeconds(1));
+
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(3, lines.size());
+        for (int i = 0; i < lines.size(); ++i) {
+            assertMatchesJsonSchema(lines.get(i));
+            MatcherAssert.assertThat(lines.get(i), Matchers.containsString("\"id\":\"" + (char) ('a' + i) + "\""));
+        }
+        // The batch is written as a single entry but its events are counted individually
+        Assert.assertEquals(3, sink.getStatistics().getRecordedCount());
+        Assert.assertEquals(3, sink.getStatistics().getWrittenCount());
+        Assert.assertEquals(1, sink.getStatistics().getWriteLatency().getCount());
+    }
+
+    @Test
+    public void testRecordAllBackpressure() throws IOException {
+        final File directory = createDirectory("./target/FileSinkTest/testRecordAllBackpressure");
+        // The writer thread exits immediately so that the batch remains queued
+        final IoScheduler ioScheduler = new IoScheduler.Builder()
+                .setThreadFactory(runnable -> new Thread(() -> { }))
+                .build();
+        final FileSink sink = (FileSink) new FileSink.Builder()
+                .setDirectory(directory)
+                .setIoScheduler(ioScheduler)
+                .setMaxQueueSize(4)
+                .setOverloadQueueFraction(0.75)
+                .setOverloadWriterLag(Duration.ofHours(1))
+                .build();
+
+        final List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            events.add(createEvent("a"));
+        }
+        sink.recordAll(events, FileSink.BatchMode.ALL_OR_NOTHING);
+        Assert.assertEquals(10, sink.getStatistics().getRecordedCount());
+        Assert.assertEquals(0.25, sink.getQueueFillFraction(), 0.0);
+        Assert.assertFalse(sink.isOverloaded());
+
+        // The abandoned batch is counted in events rather than queue entries
+        final DrainResult result = sink.close(Duration.ZERO);
+        Assert.assertEquals(0, result.getWrittenCount());
+        Assert.assertEquals(10, result.getAbandonedCount());
+    }
+
+    @Test
+    public void testRecordAllSerializationFailure() throws IOException {
+        final File directory = createDirectory("./target/FileSinkTest/testRecordAllSerializationFailure");
+        final File file = new File(directory, "query.log");
+        Files.deleteIfExists(file.toPath());
+        final ObjectMapper objectMapper = Mockito.spy(FileSink.getObjectMapper());
+        final FileSink sink = new FileSink(
+                new FileSink.Builder()
+                        .setDirectory(directory)
+                        .setCompress(false)
+                        .setAsync(false),
+                objectMapper,
+                createSlf4jLoggerMock());
+        final Event failingEvent = createEvent("failing");
+        Mockito.doThrow(new JsonMappingException(Mockito.mock(JsonParser.class), "JsonMappingException"))
+                .when(objectMapper)
+                .writeValueAsString(failingEvent);
+        final List<Event> events = List.of(createEvent("a"), failingEvent, createEvent("b"));
+
+        sink.recordAll(events, FileSink.BatchMode.ALL_OR_NOTHING);
+        Assert.assertEquals(0, sink.getStatistics().getRecordedCount());
+        Assert.assertEquals(3, sink.getStatistics().getSerializationFailureCount());
+
+        sink.recordAll(events, FileSink.BatchMode.PER_EVENT);
+        Assert.assertEquals(2, sink.getStatistics().getRecordedCount());
+        Assert.assertEquals(4, sink.getStatistics().getSerializationFailureCount());
+        sink.close(Duration.ofSeconds(1));
+
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        Assert.assertEquals(2, lines.size());
+        MatcherAssert.assertThat(lines.get(0), Matchers.containsString("\"id\":\"a\""));
+        MatcherAssert.assertThat(lines.get(1), Matchers.containsString("\"id\":\"b\""));
+    }
+
+    @Test
+    public void testRecordAllSharded() throws IOException {
+        final File directory = createDirectory("./target/FileSinkTest/testRecordAllSharded");
+        for (int i = 0; i < 2; ++i) {
+            Files.deleteIfExists(new File(directory, "query-" + i + ".log").toPath());
+        }
+        final FileSink sink = (FileSink) new FileSink.Builder()
+                .setDirectory(directory)
+                .setCompress(false)
+                .setShardCount(2)
+                .setShardAnnotation("id")
+                .setAsync(false)
+                .build();
+
+        // NOTE: The hash codes of "a" and "b" differ by one so they are routed to different shards
+        sink.recordAll(List.of(createEvent("a"), createEvent("b"), createEvent("a")), FileSink.BatchMode.PER_EVENT);
+        sink.close(Duration.ofSeconds(1));
+
+        final List<FileSinkStatistics> statistics = sink.getOutputStatistics();
+        final int shard = Math.floorMod("a".hashCode(), 2);
+        Assert.assertEquals(2, statistics.get(shard).getWrittenCount());
+        Assert.assertEquals(1, statistics.get(1 - shard).getWrittenCount());
+        final List<String> lines = Files.readAllLines(
+                new File(directory, "query-" + shard + ".log").toPath(),
+                StandardCharsets.UTF_8);
+        Assert.assertEquals(2, lines.size());
+    }
+
+    @Test
+    public void testSharded() throws IOException {
+        final File directory = createDirectory("./target/FileSinkTest/testSharded");
+        final File file = new File(directory, "query-0.log");
+        Files.deleteIfExists(file.toPath());
+        final FileSink sink = (FileSink) new FileSink.Builder()
+                .setDirectory(directory)
+                .setCompress(false)
+                .setShardCount(2)
+                .setAsync(false)
+                .build();
+
+        recordEmpty(sink);
+        sink.close(Duration.ofSeconds(1));
+
+        Assert.assertEquals(1, sink.getOutputStatistics().get(0).getWrittenCount());
+        Assert.assertEquals(0, sink.getOutputStatistics().get(1).getWrittenCount());
+        Assert.assertEquals(1, Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        final FileSink sink = (FileSink) new FileSink.Builder()
+                .setDirectory(createDirectory("./target/FileSinkTest"))
+                .setName("testFlightRecorderEvents-Query")
+                .setAsync(false)
+                .build();
+
+        final List<RecordedEvent> recordEvents = FlightRecordings.record(
+                "FileSinkTest-testFlightRecorderEvents-record",
+                RecordEvent.class,
+                () -> recordEmpty(sink));
+        Assert.assertEquals(1, recordEvents.size());
+        Assert.assertTrue(recordEvents.get(0).getInt("bytes") > 0);
+
+        final List<RecordedEvent> serializeEvents = FlightRecordings.record(
+                "FileSinkTest-testFlightRecorderEvents-serialize",
+                SerializeEvent.class,
+                () -> recordEmpty(sink));
+        Assert.assertEquals(1, serializeEvents.size());
+        Assert.assertEquals(recordEvents.get(0).getInt("bytes"), serializeEvents.get(0).getInt("bytes"));
+    }
+
+    @Test
+    public void testFlightRecorderEncodedBytes() throws Exception {
+        final FileSink sink = (FileSink) new FileSink.Builder()
+                .setDirectory(createDirectory("./target/FileSinkTest/testFlightRecorderEncodedBytes"))
+                .setAsync(false)
+                .build();
+        // NOTE: Characters encoded as one, two, three and four bytes
+        final Event event = createEvent("a\u00e9\u20ac\ud83d\ude00");
+        final int expectedBytes = FileSink.getObjectMapper().writeValueAsString(event).getBytes(StandardCharsets.UTF_8).length;
+
+        final List<RecordedEvent> recordEvents = FlightRecordings.record(
+                "FileSinkTest-testFlightRecorderEncodedBytes-record",
+                RecordEvent.class,
+                () -> sink.record(event));
+        Assert.assertEquals(1, recordEvents.size());
+        Assert.assertEquals(expectedBytes, recordEvents.get(0).getInt("bytes"));
+
+        final List<RecordedEvent> batchEvents = FlightRecordings.record(
+                "FileSinkTest-testFlightRecorderEncodedBytes-recordAll",
+                RecordEvent.class,
+                () -> sink.recordAll(List.of(event, event), FileSink.BatchMode.ALL_OR_NOTHING));
+        Assert.assertEquals(1, batchEvents.size());
+        Assert.assertEquals(2 * expectedBytes, batchEvents.get(0).getInt("bytes"));
+        sink.close(Duration.ofSeconds(1));
     }
 
     @Test
@@ -148,6 +367,41 @@ public class FileSinkTest {
                 actual);
     }
 
+    @Test
+    public void testStreamingCompressionSerialization() throws IOException {
+        final File actualFile = new File("./target/FileSinkTest/testStreamingCompressionSerialization-Query.log.gz");
+        Files.deleteIfExists(actualFile.toPath());
+        final Sink sink = new FileSink.Builder()
+                .setDirectory(createDirectory("./target/FileSinkTest"))
+                .setName("testStreamingCompressionSerialization-Query")
+                .setImmediateFlush(Boolean.TRUE)
+                .setStreamingCompression(Boolean.TRUE)
+                .setAsync(false)
+                .build();
+
+        sink.record(new TsdEvent(
+                ANNOTATIONS,
+                TEST_EMPTY_SERIALIZATION_TIMERS,
+                TEST_EMPTY_SERIALIZATION_COUNTERS,
+                TEST_EMPTY_SERIALIZATION_GAUGES,
+                Collections.emptyMap()));
+        // NOTE: Immediate flush does not finish the gzip member; closing does
+        ((BaseFileSink) sink).close(Duration.ofSeconds(10));
+
+        final ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(actualFile.toPath()))) {
+            inputStream.transferTo(decompressed);
+        }
+        final String actualOriginalJson = decompressed.toString(StandardCharsets.UTF_8).trim();
+        assertMatchesJsonSchema(actualOriginalJson);
+        final String actualComparableJson = actualOriginalJson
+                .replaceAll("\"_host\":\"[^\"]*\"", "\"_host\":\"<HOST>\"")
+                .replaceAll("\"_id\":\"[^\"]*\"", "\"_id\":\"<ID>\"");
+        Assert.assertEquals(
+                OBJECT_MAPPER.readTree(EXPECTED_EMPTY_METRICS_JSON),
+                OBJECT_MAPPER.readTree(actualComparableJson));
+    }
+
     private static Map<String, List<Quantity>> createQuantityMap(final Object... arguments) {
         // CHECKSTYLE.OFF: IllegalInstantiation - No Guava
         final Map<String, List<Quantity>> map = new HashMap<>();
@@ -167,6 +421,15 @@ public class FileSinkTest {
         return map;
     }
 
+    private static Event createEvent(final String id) {
+        return new TsdEvent(
+                Collections.singletonMap("id", id),
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                Collections.emptyMap());
+    }
+
     private void recordEmpty(final Sink sink) {
         sink.record(new TsdEvent(
                 Collections.emptyMap(),
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Test helper which captures the flight recorder events emitted by file
+ * sinks.
+ *
+ * @author agent (agent at local)
+ */
+/* package private */ final class FlightRecordings {
+
+    /**
+     * Run an action with all file sink events enabled regardless of
+     * threshold and return the events of the specified type it emitted on
+     * the calling thread. Events emitted by other threads (e.g. by sinks of
+     * other tests) are ignored.
+     *
+     * @param name The name of the recording file.
+     * @param eventClass The type of event to return.
+     * @param action The action to run.
+     * @return The recorded events in the order they were committed.
+     * @throws Exception if the action or the recording fails.
+     */
+    /* package private */ static List<RecordedEvent> record(
+            final String name,
+            final Class<? extends Event> eventClass,
+            final Action action) throws Exception {
+        Files.createDirectories(DIRECTORY);
+        final Path file = DIRECTORY.resolve(name + ".jfr");
+        try (Recording recording = new Recording()) {
+            for (final Class<? extends Event> clazz : EVENT_CLASSES) {
+                recording.enable(clazz).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        final String eventName = eventClass.getAnnotation(jdk.jfr.Name.class).value();
+        final long threadId = Thread.currentThread().getId();
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .filter(event -> event.getThread() != null && event.getThread().getJavaThreadId() == threadId)
+                .sorted((a, b) -> a.getEndTime().compareTo(b.getEndTime()))
+                .collect(Collectors.toList());
+    }
+
+    private FlightRecordings() {}
+
+    private static final Path DIRECTORY = Paths.get("./target/FlightRecordings/");
+    private static final List<Class<? extends Event>> EVENT_CLASSES = List.of(
+            RecordEvent.class,
+            SerializeEvent.class,
+            WriteEvent.class,
+            BatchWriteEvent.class,
+            FlushEvent.class,
+            RollEvent.class,
+            CompressFrameEvent.class);
+
+    /**
+     * Action run while recording.
+     */
+    /* package private */ interface Action {
+
+        /**
+         * Run the action.
+         *
+         * @throws Exception if the action fails.
+         */
+        void run() throws Exception;
+    }
+}
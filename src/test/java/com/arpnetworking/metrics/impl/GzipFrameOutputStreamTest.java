@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests for {@link GzipFrameOutputStream}.
+ *
+ * @author agent (agent at local)
+ */
+public class GzipFrameOutputStreamTest {
+
+    @Test
+    public void testFramesAreIndependentlyDecompressible() throws IOException {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final GzipFrameOutputStream stream = new GzipFrameOutputStream(target, 1024);
+
+        stream.write("first\n".getBytes(StandardCharsets.UTF_8));
+        stream.flushIfOlderThan(0);
+        final byte[] firstFrame = target.toByteArray();
+
+        stream.write("second".getBytes(StandardCharsets.UTF_8));
+        stream.write("\n".getBytes(StandardCharsets.UTF_8));
+        stream.close();
+        final byte[] allFrames = target.toByteArray();
+        final byte[] secondFrame = Arrays.copyOfRange(allFrames, firstFrame.length, allFrames.length);
+
+        Assert.assertEquals("first\n", decompress(firstFrame));
+        Assert.assertEquals("second\n", decompress(secondFrame));
+        Assert.assertEquals("first\nsecond\n", decompress(allFrames));
+    }
+
+    @Test
+    public void testFrameFinishedAtMaxSize() throws IOException {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final GzipFrameOutputStream stream = new GzipFrameOutputStream(target, 4);
+
+        stream.write("abcd".getBytes(StandardCharsets.UTF_8));
+        final int sizeAfterFirstFrame = target.size();
+        Assert.assertTrue(sizeAfterFirstFrame > 0);
+        Assert.assertEquals("abcd", decompress(target.toByteArray()));
+
+        stream.write('e');
+        Assert.assertEquals(sizeAfterFirstFrame + 10, target.size());
+        stream.close();
+        Assert.assertEquals("abcde", decompress(target.toByteArray()));
+    }
+
+    @Test
+    public void testFlushDoesNotFinishFrame() throws IOException {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final GzipFrameOutputStream stream = new GzipFrameOutputStream(target, 1024);
+
+        // Only the header is written until the frame is finished
+        for (int i = 0; i < 10; ++i) {
+            stream.write("event\n".getBytes(StandardCharsets.UTF_8));
+            stream.flush();
+        }
+        Assert.assertEquals(10, target.size());
+
+        stream.close();
+        Assert.assertEquals("event\n".repeat(10), decompress(target.toByteArray()));
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final GzipFrameOutputStream stream = new GzipFrameOutputStream(target, 1024);
+        final byte[] content = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa\n".getBytes(StandardCharsets.UTF_8);
+
+        final List<RecordedEvent> events = FlightRecordings.record(
+                "GzipFrameOutputStreamTest-testFlightRecorderEvents",
+                CompressFrameEvent.class,
+                () -> {
+                    stream.write(content);
+                    stream.flushIfOlderThan(0);
+                });
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(content.length, events.get(0).getLong("uncompressedBytes"));
+        // NOTE: The frame is the compressed bytes plus a 10 byte header and an 8 byte trailer
+        Assert.assertEquals(target.size() - 18, events.get(0).getLong("compressedBytes"));
+        stream.close();
+    }
+
+    @Test
+    public void testEmptyWriteAndFlush() throws IOException {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final GzipFrameOutputStream stream = new GzipFrameOutputStream(target, 1024);
+
+        stream.write(new byte[0], 0, 0);
+        stream.flush();
+        stream.close();
+        Assert.assertEquals(0, target.size());
+    }
+
+    @Test
+    public void testFlushIfOlderThan() throws IOException {
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final GzipFrameOutputStream stream = new GzipFrameOutputStream(target, 1024);
+
+        stream.flushIfOlderThan(0);
+        Assert.assertEquals(0, target.size());
+
+        stream.write("data".getBytes(StandardCharsets.UTF_8));
+        stream.flushIfOlderThan(Long.MAX_VALUE);
+        Assert.assertEquals(10, target.size());
+
+        stream.flushIfOlderThan(0);
+        Assert.assertEquals("data", decompress(target.toByteArray()));
+
+        stream.write("more".getBytes(StandardCharsets.UTF_8));
+        final int sizeBeforeClose = target.size();
+        stream.close();
+        Assert.assertTrue(target.size() > sizeBeforeClose);
+        final int sizeAfterClose = target.size();
+        stream.flushIfOlderThan(0);
+        Assert.assertEquals(sizeAfterClose, target.size());
+    }
+
+    @Test
+    public void testCloseTwice() throws IOException {
+        final OutputStream target = Mockito.mock(OutputStream.class);
+        final GzipFrameOutputStream stream = new GzipFrameOutputStream(target, 1024);
+
+        stream.close();
+        stream.close();
+        Mockito.verify(target, Mockito.times(1)).close();
+    }
+
+    @Test
+    public void testCloseFailure() throws IOException {
+        final OutputStream target = Mockito.mock(OutputStream.class);
+        Mockito.doThrow(new IOException("Test")).when(target).write(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt());
+        try (GzipFrameOutputStream stream = new GzipFrameOutputStream(target, 1024)) {
+            stream.write('a');
+        } catch (final IOException e) {
+            // Expected; the frame is finished on close
+            Mockito.verify(target).close();
+            return;
+        }
+        Assert.fail("Expected exception not thrown");
+    }
+
+    private static String decompress(final byte[] bytes) throws IOException {
+        final ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            inputStream.transferTo(decompressed);
+        }
+        return decompressed.toString(StandardCharsets.UTF_8);
+    }
+}
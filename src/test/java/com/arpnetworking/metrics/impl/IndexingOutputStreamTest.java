@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Tests for {@link IndexingOutputStream}.
+ *
+ * @author agent (agent at local)
+ */
+public class IndexingOutputStreamTest {
+
+    @Test
+    public void testIntervalInBytes() throws IOException {
+        final File file = createFile("testIntervalInBytes.log");
+        final FileSinkOutputStream fileStream = new FileSinkOutputStream(file, false, 1024);
+        try (IndexingOutputStream stream = new IndexingOutputStream(fileStream, fileStream, null, 20, 0)) {
+            Assert.assertEquals(SegmentIndex.getFile(file), stream.getIndexFile());
+            stream.write(LINE);
+            stream.write(LINE);
+            stream.write(LINE);
+            stream.write(new byte[0]);
+            stream.write('\n');
+            stream.write(LINE);
+        }
+        final SegmentIndex index = SegmentIndex.read(file);
+        Assert.assertEquals(2, index.size());
+        Assert.assertEquals(0, index.getEndOffset(0));
+        Assert.assertEquals(LINE.length * 2, index.getStartOffset(Long.MAX_VALUE));
+        Assert.assertEquals(4L * LINE.length + 1, file.length());
+    }
+
+    @Test
+    public void testIntervalInMillis() throws IOException, InterruptedException {
+        final File file = createFile("testIntervalInMillis.log");
+        FileSinkOutputStream fileStream = new FileSinkOutputStream(file, false, 1024);
+        try (IndexingOutputStream stream = new IndexingOutputStream(fileStream, fileStream, null, 0, 3_600_000)) {
+            stream.write(LINE);
+            stream.write(LINE);
+        }
+        Assert.assertEquals(1, SegmentIndex.read(file).size());
+
+        fileStream = new FileSinkOutputStream(file, false, 1024);
+        try (IndexingOutputStream stream = new IndexingOutputStream(fileStream, fileStream, null, 0, 1)) {
+            stream.write(LINE);
+            Thread.sleep(10);
+            stream.write(LINE);
+        }
+        final SegmentIndex index = SegmentIndex.read(file);
+        Assert.assertEquals(2, index.size());
+        Assert.assertEquals(LINE.length, index.getStartOffset(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testAppend() throws IOException {
+        final File file = createFile("testAppend.log");
+        FileSinkOutputStream fileStream = new FileSinkOutputStream(file, true, 1024);
+        try (IndexingOutputStream stream = new IndexingOutputStream(fileStream, fileStream, null, 1, 0)) {
+            stream.write(LINE);
+        }
+        fileStream = new FileSinkOutputStream(file, true, 1024);
+        try (IndexingOutputStream stream = new IndexingOutputStream(fileStream, fileStream, null, 1, 0)) {
+            stream.write(LINE);
+        }
+        SegmentIndex index = SegmentIndex.read(file);
+        Assert.assertEquals(2, index.size());
+        Assert.assertEquals(LINE.length, index.getStartOffset(Long.MAX_VALUE));
+
+        // An index of a previous segment is replaced when the segment is truncated
+        fileStream = new FileSinkOutputStream(file, false, 1024);
+        try (IndexingOutputStream stream = new IndexingOutputStream(fileStream, fileStream, null, 1, 0)) {
+            stream.write(LINE);
+        }
+        index = SegmentIndex.read(file);
+        Assert.assertEquals(1, index.size());
+        Assert.assertEquals(0, index.getStartOffset(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testCompressed() throws IOException {
+        final File file = createFile("testCompressed.log.gz");
+        final FileSinkOutputStream fileStream = new FileSinkOutputStream(file, false, 1024);
+        final GzipFrameOutputStream frameStream = new GzipFrameOutputStream(fileStream, 1024 * 1024);
+        try (IndexingOutputStream stream = new IndexingOutputStream(frameStream, fileStream, frameStream, 1, 0)) {
+            stream.write(EVENT);
+            stream.write(EVENT);
+            stream.write(EVENT);
+        }
+        final SegmentIndex index = SegmentIndex.read(file);
+        Assert.assertEquals(3, index.size());
+        final long offset = index.getStartOffset(Long.MAX_VALUE);
+        Assert.assertTrue(offset > 0);
+        Assert.assertEquals(1, count(file, offset));
+        Assert.assertEquals(3, count(file, 0));
+    }
+
+    @Test
+    public void testBatches() throws IOException {
+        final File file = createFile("testBatches.log");
+        final FileSinkOutputStream fileStream = new FileSinkOutputStream(file, false, 1024);
+        try (IndexingOutputStream stream = new IndexingOutputStream(fileStream, fileStream, null, 1, 0)) {
+            for (int i = 0; i < 64; ++i) {
+                stream.write(LINE);
+            }
+            // The full batch is written without a flush
+            Assert.assertEquals(64, SegmentIndex.read(file).size());
+            stream.write(LINE);
+            stream.flush();
+            Assert.assertEquals(64, SegmentIndex.read(file).size());
+        }
+        Assert.assertEquals(65, SegmentIndex.read(file).size());
+    }
+
+    @Test
+    public void testFlush() throws IOException, InterruptedException {
+        final File file = createFile("testFlush.log");
+        final FileSinkOutputStream fileStream = new FileSinkOutputStream(file, false, 1024);
+        try (IndexingOutputStream stream = new IndexingOutputStream(fileStream, fileStream, null, 1, 0)) {
+            stream.write(LINE);
+            stream.flush();
+            Assert.assertFalse(SegmentIndex.getFile(file).exists());
+            Thread.sleep(1100);
+            stream.flush();
+            Assert.assertEquals(1, SegmentIndex.read(file).size());
+        }
+        Assert.assertEquals(1, SegmentIndex.read(file).size());
+    }
+
+    @Test
+    public void testIndexFailure() throws IOException {
+        final File file = createFile("testIndexFailure.log");
+        Files.createDirectories(SegmentIndex.getFile(file).toPath());
+        final FileSinkOutputStream fileStream = new FileSinkOutputStream(file, false, 1024);
+        try (IndexingOutputStream stream = new IndexingOutputStream(fileStream, fileStream, null, 1, 0)) {
+            for (int i = 0; i < 66; ++i) {
+                stream.write(LINE);
+            }
+        }
+        Assert.assertEquals(66L * LINE.length, file.length());
+    }
+
+    private static int count(final File file, final long offset) throws IOException {
+        int count = 0;
+        try (SegmentReader reader = SegmentReader.open(file, offset, Long.MAX_VALUE)) {
+            while (reader.next()) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private static File createFile(final String name) throws IOException {
+        final Path directory = Paths.get("target", "IndexingOutputStreamTest");
+        Files.createDirectories(directory);
+        final File file = directory.resolve(name).toFile();
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(SegmentIndex.getFile(file).toPath());
+        return file;
+    }
+
+    private static final byte[] LINE = "0123456789\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT = ("{\"version\":\"2f\",\"annotations\":{\"_id\":\"1\"},"
+            + "\"counters\":{},\"gauges\":{},\"timers\":{}}\n").getBytes(StandardCharsets.UTF_8);
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.LoggerContext;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link InstrumentedOutputStream}.
+ *
+ * @author agent (agent at local)
+ */
+public class InstrumentedOutputStreamTest {
+
+    @Test
+    public void testWriteAndFlush() throws IOException {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final AtomicInteger eventCount = new AtomicInteger(1);
+        try (InstrumentedOutputStream stream = new InstrumentedOutputStream(target, null, instrumentation, eventCount::get)) {
+            Assert.assertSame(target, stream.getDelegate());
+            stream.write("foo\n".getBytes(StandardCharsets.UTF_8));
+            stream.write("bar\n".getBytes(StandardCharsets.UTF_8));
+            // The events of a batch are written together but counted individually
+            eventCount.set(2);
+            stream.write("baz\nqux\n".getBytes(StandardCharsets.UTF_8));
+            stream.write('x');
+            stream.flush();
+        }
+
+        Assert.assertEquals("foo\nbar\nbaz\nqux\nx", target.toString(StandardCharsets.UTF_8));
+        Assert.assertEquals(4, instrumentation.getWrittenCount());
+        Assert.assertEquals(3, instrumentation.getWriteLatency().getCount());
+        Assert.assertEquals(16, instrumentation.getBytesWritten());
+        Assert.assertEquals(1, instrumentation.getFlushLatency().getCount());
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        final OutputStream target = Mockito.mock(OutputStream.class);
+        new InstrumentedOutputStream(target, null, new SinkInstrumentation(() -> 0), () -> 1).close();
+        Mockito.verify(target).close();
+    }
+
+    @Test
+    public void testWriteFailure() throws IOException {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final OutputStream target = Mockito.mock(OutputStream.class);
+        Mockito.doThrow(new IOException("Test")).when(target).write(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt());
+        try (InstrumentedOutputStream stream = new InstrumentedOutputStream(target, null, instrumentation, () -> 1)) {
+            stream.write(new byte[] {'\n'});
+            Assert.fail("Expected exception not thrown");
+        } catch (final IOException e) {
+            Assert.assertEquals(0, instrumentation.getWrittenCount());
+            Assert.assertEquals(1, instrumentation.getIoErrorCount());
+        }
+    }
+
+    @Test
+    public void testLostWrite() throws IOException {
+        final Path directory = Paths.get("./target/InstrumentedOutputStreamTest/");
+        Files.createDirectories(directory);
+        final File file = Files.createTempFile(directory, "testLostWrite", ".log").toFile();
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        final FileSinkOutputStream fileOutputStream = new FileSinkOutputStream(file, true, 1024);
+        fileOutputStream.setContext(new LoggerContext());
+        try (InstrumentedOutputStream stream = new InstrumentedOutputStream(fileOutputStream, fileOutputStream, instrumentation, () -> 1)) {
+            stream.write(new byte[] {'\n'});
+            Assert.assertEquals(1, instrumentation.getWrittenCount());
+
+            fileOutputStream.postIOFailure(new IOException("Test"));
+            stream.write(new byte[] {'\n'});
+            Assert.assertEquals(1, instrumentation.getWrittenCount());
+            Assert.assertEquals(1, instrumentation.getIoErrorCount());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link IoScheduler}.
+ *
+ * @author agent (agent at local)
+ */
+public class IoSchedulerTest {
+
+    @Test
+    public void testBuilderWithDefaults() {
+        try (IoScheduler scheduler = new IoScheduler.Builder().build()) {
+            Assert.assertEquals(1, scheduler.getThreadCount());
+        }
+    }
+
+    @Test
+    public void testBuilderWithNull() {
+        try (IoScheduler scheduler = new IoScheduler.Builder()
+                .setThreadCount(null)
+                .setBatchSize(null)
+                .build()) {
+            Assert.assertEquals(1, scheduler.getThreadCount());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderInvalidThreadCount() {
+        new IoScheduler.Builder().setThreadCount(0).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderInvalidBatchSize() {
+        new IoScheduler.Builder().setBatchSize(0).build();
+    }
+
+    @Test
+    public void testBuilderWithThreadFactory() throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+        final IoScheduler scheduler = new IoScheduler.Builder()
+                .setThreadCount(2)
+                .setThreadFactory(runnable -> {
+                    final Thread thread = new Thread(runnable, "test-writer-" + threads.size());
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    threads.add(thread);
+                    return thread;
+                })
+                .build();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Thread> runner = new AtomicReference<>();
+        scheduler.schedule(maxEvents -> {
+            runner.set(Thread.currentThread());
+            latch.countDown();
+        });
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(threads.contains(runner.get()));
+        Assert.assertEquals(Thread.MIN_PRIORITY, runner.get().getPriority());
+
+        scheduler.close();
+        for (final Thread thread : threads) {
+            thread.join(10000);
+            Assert.assertFalse(thread.isAlive());
+        }
+    }
+
+    @Test
+    public void testBuilderWithRejectingThreadFactory() throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+        try {
+            new IoScheduler.Builder()
+                    .setThreadCount(2)
+                    .setThreadFactory(runnable -> {
+                        if (!threads.isEmpty()) {
+                            return null;
+                        }
+                        final Thread thread = new Thread(runnable);
+                        threads.add(thread);
+                        return thread;
+                    })
+                    .build();
+            Assert.fail("Expected exception not thrown");
+        } catch (final IllegalStateException e) {
+            // The threads already started are stopped
+            threads.get(0).join(10000);
+            Assert.assertFalse(threads.get(0).isAlive());
+        }
+    }
+
+    @Test
+    public void testRunsTasksWithBatchSize() throws InterruptedException {
+        try (IoScheduler scheduler = new IoScheduler.Builder()
+                .setThreadCount(2)
+                .setBatchSize(10)
+                .build()) {
+            Assert.assertEquals(2, scheduler.getThreadCount());
+            final CountDownLatch latch = new CountDownLatch(2);
+            final IoScheduler.Task task = maxEvents -> {
+                Assert.assertEquals(10, maxEvents);
+                latch.countDown();
+            };
+            scheduler.schedule(task);
+            scheduler.schedule(task);
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testTaskFailureDoesNotStopThread() throws InterruptedException {
+        try (IoScheduler scheduler = new IoScheduler.Builder().build()) {
+            final CountDownLatch latch = new CountDownLatch(1);
+            scheduler.schedule(maxEvents -> {
+                throw new IllegalStateException("Test");
+            });
+            scheduler.schedule(maxEvents -> latch.countDown());
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testClose() throws InterruptedException {
+        final IoScheduler scheduler = new IoScheduler.Builder().build();
+        scheduler.close();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Assert.assertFalse(scheduler.schedule(maxEvents -> latch.countDown()));
+        Assert.assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testCloseRunsScheduledTasks() {
+        // The writer thread exits immediately so that the task remains scheduled
+        final IoScheduler scheduler = new IoScheduler.Builder()
+                .setThreadFactory(runnable -> new Thread(() -> { }))
+                .build();
+        final List<Integer> runs = new ArrayList<>();
+        Assert.assertTrue(scheduler.schedule(runs::add));
+        Assert.assertTrue(runs.isEmpty());
+
+        scheduler.close();
+        Assert.assertEquals(List.of(Integer.MAX_VALUE), runs);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LatencyHistogram}.
+ *
+ * @author agent (agent at local)
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketIndex() {
+        Assert.assertEquals(0, LatencyHistogram.getBucketIndex(0));
+        Assert.assertEquals(1, LatencyHistogram.getBucketIndex(1));
+        Assert.assertEquals(2, LatencyHistogram.getBucketIndex(2));
+        Assert.assertEquals(2, LatencyHistogram.getBucketIndex(3));
+        Assert.assertEquals(11, LatencyHistogram.getBucketIndex(1024));
+        Assert.assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.getBucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testBucketUpperBound() {
+        Assert.assertEquals(1, LatencyHistogram.getBucketUpperBound(0));
+        Assert.assertEquals(2048, LatencyHistogram.getBucketUpperBound(11));
+        Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.getBucketUpperBound(LatencyHistogram.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    public void testRecord() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.record(1000);
+        histogram.record(-5);
+
+        final LatencyStatistics statistics = histogram.snapshot();
+        Assert.assertEquals(3, statistics.getCount());
+        Assert.assertEquals(1100, statistics.getTotalNanos());
+        Assert.assertEquals(1000, statistics.getMaxNanos());
+        final long[] counts = statistics.getBucketCounts();
+        Assert.assertEquals(1, counts[0]);
+        Assert.assertEquals(1, counts[LatencyHistogram.getBucketIndex(100)]);
+        Assert.assertEquals(1, counts[LatencyHistogram.getBucketIndex(1000)]);
+    }
+
+    @Test
+    public void testSnapshotIsIndependent() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LatencyStatistics before = histogram.snapshot();
+        histogram.record(1);
+        Assert.assertEquals(0, before.getCount());
+        Assert.assertEquals(1, histogram.snapshot().getCount());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LatencyStatistics}.
+ *
+ * @author agent (agent at local)
+ */
+public class LatencyStatisticsTest {
+
+    @Test
+    public void testEmpty() {
+        final LatencyStatistics statistics = new LatencyHistogram().snapshot();
+        Assert.assertEquals(0, statistics.getCount());
+        Assert.assertEquals(0, statistics.getMeanNanos(), 0.0);
+        Assert.assertEquals(0, statistics.getPercentileNanos(50));
+        Assert.assertEquals(0, statistics.getPercentileNanos(0));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; ++i) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+        final LatencyStatistics statistics = histogram.snapshot();
+
+        Assert.assertEquals(128, statistics.getPercentileNanos(0));
+        Assert.assertEquals(128, statistics.getPercentileNanos(50));
+        Assert.assertEquals(128, statistics.getPercentileNanos(99));
+        Assert.assertEquals(5000, statistics.getPercentileNanos(99.9));
+        Assert.assertEquals(5000, statistics.getPercentileNanos(100));
+        Assert.assertEquals(149.0, statistics.getMeanNanos(), 0.001);
+    }
+
+    @Test
+    public void testBuckets() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        final LatencyStatistics statistics = histogram.snapshot();
+
+        final long[] upperBounds = statistics.getBucketUpperBoundsNanos();
+        Assert.assertEquals(LatencyHistogram.BUCKET_COUNT, upperBounds.length);
+        Assert.assertEquals(4, upperBounds[2]);
+        Assert.assertEquals(Long.MAX_VALUE, upperBounds[upperBounds.length - 1]);
+
+        final long[] counts = statistics.getBucketCounts();
+        Assert.assertEquals(1, counts[2]);
+        counts[2] = 0;
+        Assert.assertEquals(1, statistics.getBucketCounts()[2]);
+    }
+
+    @Test
+    public void testToString() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        Assert.assertEquals(
+                "LatencyStatistics{Count=1, MeanNanos=100.0, P50Nanos=100, P99Nanos=100, MaxNanos=100}",
+                histogram.snapshot().toString());
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.status.Status;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for {@link LazyStartAppender}.
+ *
+ * @author agent (agent at local)
+ */
+public class LazyStartAppenderTest {
+
+    @Test
+    public void testBuffersUntilStarted() throws InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final LazyStartAppender appender = createAppender(context, delegate, latch, 10, false);
+
+        final ILoggingEvent first = createEvent(context, "first");
+        final ILoggingEvent second = createEvent(context, "second");
+        appender.doAppend(first);
+        appender.doAppend(second);
+        Assert.assertFalse(appender.isDelegateStarted());
+        Assert.assertTrue(delegate.list.isEmpty());
+
+        latch.countDown();
+        appender.startDelegate();
+        Assert.assertTrue(appender.isDelegateStarted());
+        Assert.assertEquals(Arrays.asList(first, second), delegate.list);
+
+        final ILoggingEvent third = createEvent(context, "third");
+        appender.doAppend(third);
+        Assert.assertEquals(Arrays.asList(first, second, third), delegate.list);
+        Assert.assertSame(delegate, appender.getDelegate());
+
+        appender.stop();
+        Assert.assertFalse(delegate.isStarted());
+    }
+
+    @Test
+    public void testDiscardWhenFull() throws InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final LazyStartAppender appender = createAppender(context, delegate, latch, 1, true);
+
+        final ILoggingEvent first = createEvent(context, "first");
+        appender.doAppend(first);
+        appender.doAppend(createEvent(context, "second"));
+
+        latch.countDown();
+        appender.startDelegate();
+        Assert.assertEquals(Arrays.asList(first), delegate.list);
+        Assert.assertEquals(1, _instrumentation.getDiscardedCount());
+        appender.stop();
+    }
+
+    @Test
+    public void testBlockWhenFull() throws InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final LazyStartAppender appender = createAppender(context, delegate, latch, 1, false);
+
+        final ILoggingEvent first = createEvent(context, "first");
+        final ILoggingEvent second = createEvent(context, "second");
+        appender.doAppend(first);
+        final Thread producer = new Thread(() -> appender.doAppend(second));
+        producer.start();
+        producer.join(100);
+        Assert.assertTrue(producer.isAlive());
+
+        latch.countDown();
+        producer.join();
+        appender.startDelegate();
+        Assert.assertEquals(Arrays.asList(first, second), delegate.list);
+        Assert.assertEquals(0, _instrumentation.getDiscardedCount());
+        appender.stop();
+    }
+
+    @Test
+    public void testInterruptedWhileBlocked() throws InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final LazyStartAppender appender = createAppender(context, delegate, latch, 0, false);
+
+        final Thread producer = new Thread(() -> appender.doAppend(createEvent(context, "first")));
+        producer.start();
+        producer.interrupt();
+        producer.join();
+
+        latch.countDown();
+        appender.startDelegate();
+        Assert.assertTrue(delegate.list.isEmpty());
+        Assert.assertTrue(hasStatus(context, Status.WARN));
+        Assert.assertEquals(1, _instrumentation.getDiscardedCount());
+        appender.stop();
+    }
+
+    @Test
+    public void testStopStartsDelegate() {
+        final LoggerContext context = new LoggerContext();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final LazyStartAppender appender = new LazyStartAppender(
+                delegate,
+                delegate::start,
+                () -> createConfiguration(10, false),
+                _instrumentation);
+        appender.setContext(context);
+
+        appender.stop();
+        Assert.assertTrue(appender.isDelegateStarted());
+        Assert.assertFalse(delegate.isStarted());
+    }
+
+    @Test
+    public void testStartFailure() {
+        final LoggerContext context = new LoggerContext();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final LazyStartAppender appender = new LazyStartAppender(
+                delegate,
+                () -> {
+                    throw new IllegalStateException("Test");
+                },
+                () -> createConfiguration(10, false),
+                _instrumentation);
+        appender.setContext(context);
+
+        appender.startDelegate();
+        Assert.assertTrue(appender.isDelegateStarted());
+        Assert.assertFalse(delegate.isStarted());
+        Assert.assertTrue(hasStatus(context, Status.ERROR));
+    }
+
+    @Test
+    public void testQueueing() throws InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final LazyStartAppender appender = createAppender(context, delegate, latch, 10, false);
+
+        appender.doAppend(createEvent(context, "first"));
+        Assert.assertEquals(1, appender.getNumberOfElementsInQueue());
+        appender.setMaxFlushTime(1);
+        appender.onReconfigure();
+
+        latch.countDown();
+        appender.startDelegate();
+        Assert.assertEquals(0, appender.getNumberOfElementsInQueue());
+        appender.stop();
+    }
+
+    @Test
+    public void testQueueingDelegate() {
+        final FileSinkAsyncAppender delegate = Mockito.mock(FileSinkAsyncAppender.class);
+        Mockito.doReturn(3).when(delegate).getNumberOfElementsInQueue();
+        final LazyStartAppender appender = new LazyStartAppender(
+                delegate,
+                () -> { },
+                () -> createConfiguration(10, false),
+                _instrumentation);
+
+        Assert.assertEquals(3, appender.getNumberOfElementsInQueue());
+        appender.setMaxFlushTime(1);
+        Mockito.verify(delegate).setMaxFlushTime(1);
+        appender.onReconfigure();
+        Mockito.verify(delegate).onReconfigure();
+    }
+
+    private LazyStartAppender createAppender(
+            final LoggerContext context,
+            final ListAppender<ILoggingEvent> delegate,
+            final CountDownLatch latch,
+            final int bufferSize,
+            final boolean discardWhenFull) {
+        final LazyStartAppender appender = new LazyStartAppender(
+                delegate,
+                () -> {
+                    try {
+                        latch.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    delegate.start();
+                },
+                () -> createConfiguration(bufferSize, discardWhenFull),
+                _instrumentation);
+        appender.setContext(context);
+        appender.start();
+        return appender;
+    }
+
+    private static FileSinkConfiguration createConfiguration(final int bufferSize, final boolean discardWhenFull) {
+        return new FileSinkConfiguration(bufferSize, discardWhenFull, false, "100MB");
+    }
+
+    private static ListAppender<ILoggingEvent> createDelegate(final LoggerContext context) {
+        final ListAppender<ILoggingEvent> delegate = new ListAppender<>();
+        delegate.setContext(context);
+        return delegate;
+    }
+
+    private static ILoggingEvent createEvent(final LoggerContext context, final String message) {
+        final Logger logger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        return new LoggingEvent(Logger.FQCN, logger, Level.INFO, message, null, null);
+    }
+
+    private static boolean hasStatus(final LoggerContext context, final int level) {
+        for (final Status status : context.getStatusManager().getCopyOfStatusList()) {
+            if (status.getLevel() == level) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final SinkInstrumentation _instrumentation = new SinkInstrumentation(() -> 0);
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for {@link RecordEncoder}.
+ *
+ * @author agent (agent at local)
+ */
+public class RecordEncoderTest {
+
+    @Test
+    public void testEncodesOnce() {
+        final RecordEncoder encoder = createEncoder();
+        final RecordEncoder otherEncoder = createEncoder();
+        final EncodedLoggingEvent event = new EncodedLoggingEvent(getLogger(encoder), "record", 1);
+
+        final byte[] encoded = encoder.encode(event);
+        Assert.assertArrayEquals("record\n".getBytes(StandardCharsets.UTF_8), encoded);
+        Assert.assertSame(encoded, encoder.encode(event));
+        Assert.assertSame(encoded, otherEncoder.encode(event));
+    }
+
+    @Test
+    public void testEncodesOtherEvents() {
+        final RecordEncoder encoder = createEncoder();
+        final LoggingEvent event = new LoggingEvent("fqcn", getLogger(encoder), Level.WARN, "summary", null, null);
+
+        final byte[] encoded = encoder.encode(event);
+        Assert.assertArrayEquals("summary\n".getBytes(StandardCharsets.UTF_8), encoded);
+        Assert.assertNotSame(encoded, encoder.encode(event));
+    }
+
+    private static RecordEncoder createEncoder() {
+        final RecordEncoder encoder = new RecordEncoder();
+        encoder.setContext(new LoggerContext());
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        return encoder;
+    }
+
+    private static Logger getLogger(final RecordEncoder encoder) {
+        return ((LoggerContext) encoder.getContext()).getLogger(Logger.ROOT_LOGGER_NAME);
+    }
+}
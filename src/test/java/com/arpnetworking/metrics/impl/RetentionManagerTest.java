@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Tests for {@link RetentionManager}.
+ *
+ * @author agent (agent at local)
+ */
+public class RetentionManagerTest {
+
+    @Test
+    public void testInitializeOrdersAndEnforcesMaxFiles() throws IOException {
+        final Path directory = createDirectory("testInitializeOrdersAndEnforcesMaxFiles");
+        createFile(directory, "query.2026-01-01-01.10.log", 1);
+        createFile(directory, "query.2026-01-01-01.9.log", 1);
+        createFile(directory, "query.2026-01-01-00.20.log", 1);
+        createFile(directory, "query.2026-01-01-02.0.log", 1);
+        createFile(directory, "query.log", 1);
+        createFile(directory, "other.2026-01-01-00.0.log", 1);
+        createFile(directory, "query.2026-01-01-00.0.log.gz", 1);
+
+        final RetentionManager retentionManager = new RetentionManager(directory.toFile(), "query", ".log", 2, 0, 0);
+        retentionManager.initialize();
+
+        Assert.assertEquals(2, retentionManager.getFileCount());
+        Assert.assertEquals(2, retentionManager.getTotalSize());
+        Assert.assertFalse(Files.exists(directory.resolve("query.2026-01-01-00.20.log")));
+        Assert.assertFalse(Files.exists(directory.resolve("query.2026-01-01-01.9.log")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.2026-01-01-01.10.log")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.2026-01-01-02.0.log")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.log")));
+        Assert.assertTrue(Files.exists(directory.resolve("other.2026-01-01-00.0.log")));
+        Assert.assertTrue(Files.exists(directory.resolve("query.2026-01-01-00.0.log.gz")));
+    }
+
+    @Test
+    public void testInitializeMissingDirectory() {
+        final RetentionManager retentionManager = new RetentionManager(
+                new File("./target/RetentionManagerTest/testInitializeMissingDirectory"), "query", ".log", 2, 0, 0);
+        retentionManager.initialize();
+        Assert.assertEquals(0, retentionManager.getFileCount());
+        Assert.assertEquals(0, retentionManager.getTotalSize());
+    }
+
+    @Test
+    public void testRolloverEnforcesMaxTotalSize() throws IOException {
+        final Path directory = createDirectory("testRolloverEnforcesMaxTotalSize");
+        final RetentionManager retentionManager = new RetentionManager(directory.toFile(), "query", ".log", 0, 10, 0);
+        retentionManager.initialize();
+
+        retentionManager.onRollover(createFile(directory, "query.2026-01-01-00.0.log", 4), 100);
+        retentionManager.onRollover(createFile(directory, "query.2026-01-01-00.1.log", 4), 100);
+        Assert.assertEquals(2, retentionManager.getFileCount());
+        Assert.assertEquals(8, retentionManager.getTotalSize());
+
+        retentionManager.onRollover(createFile(directory, "query.2026-01-01-00.2.log", 4), 100);
+        Assert.assertEquals(2, retentionManager.getFileCount());
+        Assert.assertEquals(8, retentionManager.getTotalSize());
+        Assert.assertFalse(Files.exists(directory.resolve("query.2026-01-01-00.0.log")));
+    }
+
+    @Test
+    public void testRolloverResolvesPendingSize() throws IOException {
+        final Path directory = createDirectory("testRolloverResolvesPendingSize");
+        final RetentionManager retentionManager = new RetentionManager(directory.toFile(), "query", ".log.gz", 0, 10, 0);
+        retentionManager.initialize();
+
+        // Being compressed; the estimate exceeds the budget but the file is not deleted
+        final File pending = directory.resolve("query.2026-01-01-00.0.log.gz").toFile();
+        retentionManager.onRollover(pending, 100);
+        Assert.assertEquals(1, retentionManager.getFileCount());
+        Assert.assertEquals(100, retentionManager.getTotalSize());
+
+        // Compression completed; the actual size replaces the estimate
+        createFile(directory, "query.2026-01-01-00.0.log.gz", 2);
+        retentionManager.onRollover(createFile(directory, "query.2026-01-01-00.1.log.gz", 3), 100);
+        Assert.assertEquals(2, retentionManager.getFileCount());
+        Assert.assertEquals(5, retentionManager.getTotalSize());
+
+        // Compression failed; the estimate is kept and the file is deleted normally
+        retentionManager.onRollover(directory.resolve("query.2026-01-01-00.2.log.gz").toFile(), 6);
+        Assert.assertEquals(2, retentionManager.getFileCount());
+        Assert.assertEquals(9, retentionManager.getTotalSize());
+        Assert.assertFalse(Files.exists(directory.resolve("query.2026-01-01-00.0.log.gz")));
+        retentionManager.onRollover(createFile(directory, "query.2026-01-01-00.3.log.gz", 1), 100);
+        retentionManager.onRollover(createFile(directory, "query.2026-01-01-00.4.log.gz", 5), 100);
+        Assert.assertEquals(2, retentionManager.getFileCount());
+        Assert.assertEquals(6, retentionManager.getTotalSize());
+        Assert.assertFalse(Files.exists(directory.resolve("query.2026-01-01-00.1.log.gz")));
+    }
+
+    @Test
+    public void testMinFreeDiskPercentage() throws IOException {
+        final Path directory = createDirectory("testMinFreeDiskPercentage");
+        createFile(directory, "query.2026-01-01-00.0.log", 1);
+
+        final RetentionManager retainingManager = new RetentionManager(directory.toFile(), "query", ".log", 0, 0, 1);
+        retainingManager.initialize();
+        Assert.assertEquals(1, retainingManager.getFileCount());
+
+        // No disk can have more than 100% free space
+        final RetentionManager deletingManager = new RetentionManager(directory.toFile(), "query", ".log", 0, 0, 101);
+        deletingManager.initialize();
+        Assert.assertEquals(0, deletingManager.getFileCount());
+        Assert.assertFalse(Files.exists(directory.resolve("query.2026-01-01-00.0.log")));
+    }
+
+    @Test
+    public void testDeleteFailure() throws IOException {
+        final Path directory = createDirectory("testDeleteFailure");
+        // A non-empty directory cannot be deleted
+        final Path undeletable = Files.createDirectories(directory.resolve("query.2026-01-01-00.0.log"));
+        createFile(undeletable, "content", 1);
+
+        final RetentionManager retentionManager = new RetentionManager(directory.toFile(), "query", ".log", 0, 0, 101);
+        retentionManager.initialize();
+        Assert.assertEquals(0, retentionManager.getFileCount());
+        Assert.assertTrue(Files.exists(undeletable));
+    }
+
+    private static File createFile(final Path directory, final String name, final int size) throws IOException {
+        final Path file = directory.resolve(name);
+        Files.writeString(file, "x".repeat(size), StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    private static Path createDirectory(final String name) throws IOException {
+        final Path basePath = Paths.get("./target/RetentionManagerTest/");
+        Files.createDirectories(basePath);
+        return Files.createTempDirectory(basePath, name);
+    }
+}
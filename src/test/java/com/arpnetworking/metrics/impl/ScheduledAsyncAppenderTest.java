@@ -0,0 +1,382 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.status.Status;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link ScheduledAsyncAppender}.
+ *
+ * @author agent (agent at local)
+ */
+public class ScheduledAsyncAppenderTest {
+
+    @Test
+    public void testWritesInOrder() {
+        final LoggerContext context = new LoggerContext();
+        try (IoScheduler scheduler = new IoScheduler.Builder().setThreadCount(2).setBatchSize(3).build()) {
+            final ListAppender<ILoggingEvent> first = createDelegate(context);
+            final ListAppender<ILoggingEvent> second = createDelegate(context);
+            final ScheduledAsyncAppender firstAppender = createAppender(context, first, scheduler, 100, false);
+            final ScheduledAsyncAppender secondAppender = createAppender(context, second, scheduler, 100, false);
+            Assert.assertSame(first, firstAppender.getDelegate());
+
+            final List<ILoggingEvent> expected = new ArrayList<>();
+            for (int i = 0; i < 50; ++i) {
+                final ILoggingEvent event = createEvent(context, "event-" + i, Level.INFO);
+                expected.add(event);
+                firstAppender.doAppend(event);
+                secondAppender.doAppend(event);
+            }
+            firstAppender.stop();
+            secondAppender.stop();
+
+            Assert.assertEquals(expected, first.list);
+            Assert.assertEquals(expected, second.list);
+            Assert.assertFalse(first.isStarted());
+            Assert.assertFalse(second.isStarted());
+            Assert.assertEquals(0, firstAppender.getNumberOfElementsInQueue());
+            Assert.assertEquals(100, firstAppender.getRemainingCapacity());
+
+            // Stopping twice and appending after stop are no-ops
+            firstAppender.stop();
+            firstAppender.doAppend(createEvent(context, "late", Level.INFO));
+            Assert.assertEquals(expected, first.list);
+        }
+    }
+
+    @Test
+    public void testDiscardsBelowThreshold() {
+        final LoggerContext context = new LoggerContext();
+        final IoScheduler scheduler = createPausedScheduler();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final ScheduledAsyncAppender appender = createAppender(context, delegate, scheduler, 2, true);
+
+        appender.doAppend(createEvent(context, "info", Level.INFO));
+        Assert.assertEquals(1, appender.getNumberOfElementsInQueue());
+        appender.doAppend(createEvent(context, "info", Level.INFO));
+        Assert.assertEquals(1, appender.getNumberOfElementsInQueue());
+        appender.doAppend(createEvent(context, "warn", Level.WARN));
+        Assert.assertEquals(2, appender.getNumberOfElementsInQueue());
+        Assert.assertEquals(0, appender.getRemainingCapacity());
+        Assert.assertEquals(1, _instrumentation.getDiscardedCount());
+
+        // Each event of a discarded batch is counted
+        appender.doAppend(new EncodedLoggingEvent(context.getLogger(Logger.ROOT_LOGGER_NAME), "a\nb\nc", 3));
+        Assert.assertEquals(4, _instrumentation.getDiscardedCount());
+    }
+
+    @Test
+    public void testStopTimeout() {
+        final LoggerContext context = new LoggerContext();
+        final IoScheduler scheduler = createPausedScheduler();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final ScheduledAsyncAppender appender = createAppender(context, delegate, scheduler, 10, false);
+        appender.setMaxFlushTime(10);
+
+        appender.doAppend(createEvent(context, "event", Level.INFO));
+        appender.doAppend(createEvent(context, "event", Level.INFO));
+        appender.stop();
+        Assert.assertTrue(delegate.list.isEmpty());
+        Assert.assertFalse(delegate.isStarted());
+
+        // A late run after stop does not reschedule
+        appender.run(1);
+        Assert.assertEquals(1, appender.getNumberOfElementsInQueue());
+        boolean foundWarning = false;
+        for (final Status status : context.getStatusManager().getCopyOfStatusList()) {
+            if (status.getLevel() == Status.WARN) {
+                foundWarning = true;
+            }
+        }
+        Assert.assertTrue(foundWarning);
+    }
+
+    @Test
+    public void testStopWritesWithinTimeout() {
+        final LoggerContext context = new LoggerContext();
+        final ListAppender<ILoggingEvent> delegate = new SlowAppender();
+        delegate.setContext(context);
+        final ScheduledAsyncAppender appender;
+        try (IoScheduler scheduler = new IoScheduler.Builder().setBatchSize(1).build()) {
+            appender = createAppender(context, delegate, scheduler, 1000, false);
+            appender.setMaxFlushTime(100);
+            for (int i = 0; i < 1000; ++i) {
+                appender.doAppend(createEvent(context, "event-" + i, Level.WARN));
+            }
+
+            // The events written on stop are bounded by the max flush time; the remainder is abandoned
+            appender.stop();
+        }
+        Assert.assertTrue(delegate.list.size() < 1000);
+        Assert.assertEquals(1000, delegate.list.size() + appender.getNumberOfElementsInQueue());
+        boolean foundWarning = false;
+        for (final Status status : context.getStatusManager().getCopyOfStatusList()) {
+            if (status.getLevel() == Status.WARN) {
+                foundWarning = true;
+            }
+        }
+        Assert.assertTrue(foundWarning);
+    }
+
+    @Test
+    public void testInterruptedWhileBlocked() throws InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final IoScheduler scheduler = createPausedScheduler();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final ScheduledAsyncAppender appender = createAppender(context, delegate, scheduler, 1, false);
+        appender.doAppend(createEvent(context, "first", Level.INFO));
+
+        final AtomicBoolean interrupted = new AtomicBoolean(false);
+        final Thread producer = new Thread(() -> {
+            appender.doAppend(createEvent(context, "second", Level.INFO));
+            interrupted.set(Thread.currentThread().isInterrupted());
+        });
+        producer.start();
+        producer.interrupt();
+
+        // Write on this thread in place of the paused scheduler to unblock the producer
+        appender.run(1);
+        producer.join();
+        appender.run(1);
+        Assert.assertTrue(interrupted.get());
+        Assert.assertEquals(2, delegate.list.size());
+    }
+
+    @Test
+    public void testReconfigure() throws InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final IoScheduler scheduler = createPausedScheduler();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final AtomicReference<FileSinkConfiguration> configuration = new AtomicReference<>(
+                new FileSinkConfiguration(10, true, false, "100MB"));
+        final ScheduledAsyncAppender appender = new ScheduledAsyncAppender(
+                delegate,
+                scheduler,
+                false,
+                10,
+                configuration::get,
+                _instrumentation);
+        appender.setContext(context);
+        delegate.start();
+        appender.start();
+
+        appender.doAppend(createEvent(context, "first", Level.INFO));
+        appender.doAppend(createEvent(context, "dropped", Level.INFO));
+        Assert.assertEquals(1, appender.getNumberOfElementsInQueue());
+
+        // Blocking waits for the reduced capacity
+        configuration.set(new FileSinkConfiguration(1, false, false, "100MB"));
+        final Thread producer = new Thread(() -> appender.doAppend(createEvent(context, "second", Level.INFO)));
+        producer.start();
+        producer.join(100);
+        Assert.assertTrue(producer.isAlive());
+        Assert.assertEquals(1, appender.getNumberOfElementsInQueue());
+
+        // Write on this thread in place of the paused scheduler to unblock the producer
+        appender.run(1);
+        producer.join(10000);
+        Assert.assertFalse(producer.isAlive());
+        appender.run(1);
+        Assert.assertEquals(2, delegate.list.size());
+        appender.stop();
+    }
+
+    @Test
+    public void testReleasedOnReconfigure() throws InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final IoScheduler scheduler = createPausedScheduler();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final AtomicReference<FileSinkConfiguration> configuration = new AtomicReference<>(
+                new FileSinkConfiguration(1, false, false, "100MB"));
+        final ScheduledAsyncAppender appender = new ScheduledAsyncAppender(
+                delegate,
+                scheduler,
+                false,
+                10,
+                configuration::get,
+                _instrumentation);
+        appender.setContext(context);
+        delegate.start();
+        appender.start();
+        appender.doAppend(createEvent(context, "first", Level.INFO));
+
+        final Thread producer = new Thread(() -> appender.doAppend(createEvent(context, "second", Level.INFO)));
+        producer.start();
+        producer.join(100);
+        Assert.assertTrue(producer.isAlive());
+
+        configuration.set(new FileSinkConfiguration(2, false, false, "100MB"));
+        appender.onReconfigure();
+        producer.join(10000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertEquals(2, appender.getNumberOfElementsInQueue());
+    }
+
+    @Test
+    public void testStopReleasesBlockedCaller() throws InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final IoScheduler scheduler = createPausedScheduler();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final ScheduledAsyncAppender appender = new ScheduledAsyncAppender(
+                delegate,
+                scheduler,
+                false,
+                10,
+                () -> new FileSinkConfiguration(1, false, false, "100MB"),
+                _instrumentation);
+        appender.setContext(context);
+        delegate.start();
+        appender.start();
+        appender.doAppend(createEvent(context, "first", Level.INFO));
+
+        final Thread producer = new Thread(() -> appender.doAppend(createEvent(context, "second", Level.INFO)));
+        producer.start();
+        producer.join(100);
+        Assert.assertTrue(producer.isAlive());
+
+        // Stopping discards the event of the blocked caller; the queued event is abandoned
+        appender.setMaxFlushTime(10);
+        appender.stop();
+        producer.join(10000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertEquals(1, _instrumentation.getDiscardedCount());
+        Assert.assertEquals(1, appender.getNumberOfElementsInQueue());
+    }
+
+    @Test
+    public void testStopClosesOwnedScheduler() throws InterruptedException {
+        final LoggerContext context = new LoggerContext();
+        final List<Thread> threads = new ArrayList<>();
+        final IoScheduler scheduler = new IoScheduler.Builder()
+                .setThreadFactory(runnable -> {
+                    final Thread thread = new Thread(runnable, "test-writer");
+                    threads.add(thread);
+                    return thread;
+                })
+                .build();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final ScheduledAsyncAppender appender = new ScheduledAsyncAppender(
+                delegate,
+                scheduler,
+                true,
+                10,
+                () -> new FileSinkConfiguration(10, false, false, "100MB"),
+                _instrumentation);
+        appender.setContext(context);
+        delegate.start();
+        appender.start();
+        appender.doAppend(createEvent(context, "event", Level.INFO));
+        appender.stop();
+
+        Assert.assertEquals(1, delegate.list.size());
+        Assert.assertEquals(1, threads.size());
+        threads.get(0).join(10000);
+        Assert.assertFalse(threads.get(0).isAlive());
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        final LoggerContext context = new LoggerContext();
+        final IoScheduler scheduler = createPausedScheduler();
+        final ListAppender<ILoggingEvent> delegate = createDelegate(context);
+        final ScheduledAsyncAppender appender = createAppender(context, delegate, scheduler, 10, false);
+        for (int i = 0; i < 5; ++i) {
+            appender.doAppend(createEvent(context, "event-" + i, Level.INFO));
+        }
+
+        final List<RecordedEvent> events = FlightRecordings.record(
+                "ScheduledAsyncAppenderTest-testFlightRecorderEvents",
+                BatchWriteEvent.class,
+                () -> {
+                    appender.run(3);
+                    appender.run(3);
+                });
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(3, events.get(0).getInt("batchSize"));
+        Assert.assertEquals(2, events.get(0).getInt("queueDepth"));
+        Assert.assertEquals(2, events.get(1).getInt("batchSize"));
+        Assert.assertEquals(0, events.get(1).getInt("queueDepth"));
+        Assert.assertEquals(5, delegate.list.size());
+        appender.stop();
+    }
+
+    private ScheduledAsyncAppender createAppender(
+            final LoggerContext context,
+            final ListAppender<ILoggingEvent> delegate,
+            final IoScheduler scheduler,
+            final int queueSize,
+            final boolean dropWhenQueueFull) {
+        final ScheduledAsyncAppender appender = new ScheduledAsyncAppender(
+                delegate,
+                scheduler,
+                false,
+                queueSize,
+                () -> new FileSinkConfiguration(queueSize, dropWhenQueueFull, false, "100MB"),
+                _instrumentation);
+        appender.setContext(context);
+        delegate.start();
+        appender.start();
+        return appender;
+    }
+
+    private static IoScheduler createPausedScheduler() {
+        // NOTE: The writer thread exits immediately so that events remain queued
+        return new IoScheduler.Builder()
+                .setThreadFactory(runnable -> new Thread(() -> { }))
+                .build();
+    }
+
+    private static ListAppender<ILoggingEvent> createDelegate(final LoggerContext context) {
+        final ListAppender<ILoggingEvent> delegate = new ListAppender<>();
+        delegate.setContext(context);
+        return delegate;
+    }
+
+    private static ILoggingEvent createEvent(final LoggerContext context, final String message, final Level level) {
+        final Logger logger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        return new LoggingEvent(Logger.FQCN, logger, level, message, null, null);
+    }
+
+    private final SinkInstrumentation _instrumentation = new SinkInstrumentation(() -> 0);
+
+    private static final class SlowAppender extends ListAppender<ILoggingEvent> {
+
+        @Override
+        protected void append(final ILoggingEvent event) {
+            try {
+                Thread.sleep(1);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.append(event);
+        }
+    }
+}
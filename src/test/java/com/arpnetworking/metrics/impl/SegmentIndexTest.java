@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Tests for {@link SegmentIndex}.
+ *
+ * @author agent (agent at local)
+ */
+public class SegmentIndexTest {
+
+    @Test
+    public void testMissing() throws IOException {
+        final SegmentIndex index = SegmentIndex.read(createSegment("testMissing.log"));
+        Assert.assertEquals(0, index.size());
+        Assert.assertEquals(0, index.getStartOffset(1000));
+        Assert.assertEquals(Long.MAX_VALUE, index.getEndOffset(1000));
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        final File segment = createSegment("testRead.log");
+        final ByteBuffer buffer = ByteBuffer.allocate(3 * SegmentIndex.ENTRY_SIZE + 4);
+        buffer.putLong(100).putLong(0);
+        buffer.putLong(200).putLong(50);
+        buffer.putLong(300).putLong(120);
+        buffer.putInt(1);
+        Files.write(SegmentIndex.getFile(segment).toPath(), buffer.array());
+
+        final SegmentIndex index = SegmentIndex.read(segment);
+        Assert.assertEquals(3, index.size());
+
+        Assert.assertEquals(0, index.getStartOffset(50));
+        Assert.assertEquals(0, index.getStartOffset(100));
+        Assert.assertEquals(0, index.getStartOffset(150));
+        Assert.assertEquals(50, index.getStartOffset(250));
+        Assert.assertEquals(120, index.getStartOffset(400));
+
+        Assert.assertEquals(0, index.getEndOffset(50));
+        Assert.assertEquals(50, index.getEndOffset(200));
+        Assert.assertEquals(120, index.getEndOffset(250));
+        Assert.assertEquals(Long.MAX_VALUE, index.getEndOffset(301));
+    }
+
+    @Test
+    public void testGetFile() {
+        Assert.assertEquals(new File("a/b.log.idx"), SegmentIndex.getFile(new File("a/b.log")));
+    }
+
+    private static File createSegment(final String name) throws IOException {
+        final Path directory = Paths.get("target", "SegmentIndexTest");
+        Files.createDirectories(directory);
+        final File segment = directory.resolve(name).toFile();
+        Files.deleteIfExists(SegmentIndex.getFile(segment).toPath());
+        return segment;
+    }
+}
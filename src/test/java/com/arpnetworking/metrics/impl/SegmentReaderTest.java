@@ -0,0 +1,255 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests for {@link SegmentReader}.
+ *
+ * @author agent (agent at local)
+ */
+public class SegmentReaderTest {
+
+    @Test
+    public void testReadEvents() throws IOException {
+        final File file = createFile("testReadEvents.log", EVENT + "\n" + EVENT_2 + "\n");
+        try (SegmentReader reader = SegmentReader.open(file)) {
+            Assert.assertSame(file, reader.getFile());
+            Assert.assertTrue(reader.next());
+            final EventView event = reader.getEvent();
+            Assert.assertEquals("2026-01-01T00:00:00Z", event.getAnnotations().get("_start"));
+            Assert.assertEquals("value", event.getAnnotations().get("key"));
+            Assert.assertEquals(Arrays.asList(1, 2), event.getCounters().get("counter"));
+            Assert.assertEquals(Collections.singletonList(1.5), event.getGauges().get("gauge"));
+            Assert.assertEquals(Collections.singletonList(12345678901L), event.getTimers().get("timer"));
+            Assert.assertTrue(event.toString().contains("counter=[1, 2]"));
+
+            Assert.assertTrue(reader.next());
+            Assert.assertSame(event, reader.getEvent());
+            Assert.assertEquals(Collections.singletonMap("_id", "2"), event.getAnnotations());
+            Assert.assertEquals(Collections.singletonMap("counter", Collections.singletonList(3)), event.getCounters());
+            Assert.assertTrue(event.getGauges().isEmpty());
+            Assert.assertTrue(event.getTimers().isEmpty());
+
+            Assert.assertFalse(reader.next());
+            Assert.assertFalse(reader.isTruncated());
+            Assert.assertTrue(event.getAnnotations().isEmpty());
+        }
+    }
+
+    @Test
+    public void testSkipsOtherRecordsAndFields() throws IOException {
+        final File file = createFile(
+                "testSkipsOtherRecordsAndFields.log",
+                "{\"type\":\"dropSummary\",\"version\":\"1\",\"dropped\":{\"queueFull\":1}}\n"
+                        + "{\"version\":2,\"annotations\":[],\"counters\":1,\"gauges\":\"x\",\"timers\":null}\n"
+                        + "{\"version\":\"2f\",\"other\":{\"nested\":[1,{}]},"
+                        + "\"annotations\":{\"object\":{\"a\":1},\"number\":1,\"text\":\"t\"},"
+                        + "\"counters\":{\"counter\":{\"other\":[1],\"values\":[{\"count\":1,\"value\":1},{\"value\":\"2\"}]}},"
+                        + "\"gauges\":{\"gauge\":{\"values\":{}}}}\n");
+        try (SegmentReader reader = SegmentReader.open(file)) {
+            Assert.assertTrue(reader.next());
+            final EventView event = reader.getEvent();
+            Assert.assertEquals(2, event.getAnnotations().size());
+            Assert.assertEquals("1", event.getAnnotations().get("number"));
+            Assert.assertEquals("t", event.getAnnotations().get("text"));
+            Assert.assertEquals(Collections.singletonList(1), event.getCounters().get("counter"));
+            Assert.assertEquals(Collections.emptyList(), event.getGauges().get("gauge"));
+            Assert.assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        final File file = createFile("testTruncated.log", EVENT + "\n" + EVENT.substring(0, 40));
+        try (SegmentReader reader = SegmentReader.open(file)) {
+            Assert.assertTrue(reader.next());
+            Assert.assertFalse(reader.isTruncated());
+            Assert.assertFalse(reader.next());
+            Assert.assertTrue(reader.isTruncated());
+            Assert.assertTrue(reader.getEvent().getAnnotations().isEmpty());
+            Assert.assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void testFeed() throws IOException {
+        final File file = new File("testFeed.log");
+        try (SegmentReader reader = SegmentReader.create(file)) {
+            Assert.assertSame(file, reader.getFile());
+            Assert.assertFalse(reader.next());
+
+            final byte[] first = (EVENT + "\n").getBytes(StandardCharsets.UTF_8);
+            reader.feed(first, 0, first.length);
+            Assert.assertTrue(reader.next());
+            final EventView event = reader.getEvent();
+            Assert.assertEquals("value", event.getAnnotations().get("key"));
+            Assert.assertFalse(reader.next());
+
+            final byte[] second = ("\n" + EVENT_2 + "\n").getBytes(StandardCharsets.UTF_8);
+            reader.feed(second, 1, second.length);
+            Assert.assertTrue(reader.next());
+            Assert.assertSame(event, reader.getEvent());
+            Assert.assertEquals(Collections.singletonMap("_id", "2"), event.getAnnotations());
+            Assert.assertFalse(reader.next());
+            Assert.assertFalse(reader.isTruncated());
+        }
+    }
+
+    @Test
+    public void testFeedTruncated() throws IOException {
+        try (SegmentReader reader = SegmentReader.create(new File("testFeedTruncated.log"))) {
+            final byte[] bytes = "{\"version\":\"2f\",\"other\":{\"nested\":[1,".getBytes(StandardCharsets.UTF_8);
+            reader.feed(bytes, 0, bytes.length);
+            Assert.assertFalse(reader.next());
+            Assert.assertTrue(reader.isTruncated());
+            Assert.assertTrue(reader.getEvent().getAnnotations().isEmpty());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRecordNotObject() throws IOException {
+        read(createFile("testRecordNotObject.log", "[1]\n"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMetricNotObject() throws IOException {
+        read(createFile("testMetricNotObject.log", "{\"version\":\"2f\",\"timers\":{\"timer\":[1]}}\n"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testSampleNotObject() throws IOException {
+        read(createFile("testSampleNotObject.log", "{\"version\":\"2f\",\"timers\":{\"timer\":{\"values\":[1]}}}\n"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformed() throws IOException {
+        read(createFile("testMalformed.log", "{\"version\":\"2f\"}}\n"));
+    }
+
+    @Test
+    public void testGzipMembers() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(gzip(EVENT + "\n"));
+        bytes.write(gzip(EVENT_2 + "\n"));
+        final File file = createFile("testGzipMembers.log.gz", bytes.toByteArray());
+        Assert.assertEquals(2, read(file));
+    }
+
+    @Test
+    public void testGzipTruncated() throws IOException {
+        final byte[] member = gzip(EVENT_2 + "\n");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(gzip(EVENT + "\n"));
+        bytes.write(member, 0, member.length - 10);
+        final File file = createFile("testGzipTruncated.log.gz", bytes.toByteArray());
+        try (SegmentReader reader = SegmentReader.open(file)) {
+            Assert.assertTrue(reader.next());
+            Assert.assertFalse(reader.next());
+            Assert.assertTrue(reader.isTruncated());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testGzipInvalid() throws IOException {
+        SegmentReader.open(createFile("testGzipInvalid.log.gz", EVENT));
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        final String content = EVENT + "\n" + EVENT_2 + "\n" + EVENT + "\n";
+        final int first = EVENT.length() + 1;
+        final File file = createFile("testRange.log", content);
+        Assert.assertEquals(2, read(file, first, Long.MAX_VALUE));
+        Assert.assertEquals(2, read(file, 5, Long.MAX_VALUE));
+        Assert.assertEquals(1, read(file, 0, first));
+        Assert.assertEquals(1, read(file, 5, first + EVENT_2.length() + 1));
+        Assert.assertEquals(0, read(file, 5, 5));
+        Assert.assertEquals(0, read(file, content.length(), Long.MAX_VALUE));
+
+        final File unterminated = createFile("testRangeUnterminated.log", EVENT + "\n" + EVENT_2);
+        Assert.assertEquals(0, read(unterminated, first + 3, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testGzipRange() throws IOException {
+        final byte[] member = gzip(EVENT + "\n");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(member);
+        bytes.write(gzip(EVENT_2 + "\n"));
+        final File file = createFile("testGzipRange.log.gz", bytes.toByteArray());
+        Assert.assertEquals(1, read(file, member.length, Long.MAX_VALUE));
+        Assert.assertEquals(1, read(file, 0, member.length));
+        Assert.assertEquals(0, read(file, member.length, member.length));
+        // A range not starting at a member is read in full
+        Assert.assertEquals(2, read(file, 3, Long.MAX_VALUE));
+    }
+
+    private static int read(final File file) throws IOException {
+        return read(file, 0, Long.MAX_VALUE);
+    }
+
+    private static int read(final File file, final long startOffset, final long endOffset) throws IOException {
+        int count = 0;
+        try (SegmentReader reader = SegmentReader.open(file, startOffset, endOffset)) {
+            while (reader.next()) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private static byte[] gzip(final String content) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream stream = new GZIPOutputStream(bytes)) {
+            stream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static File createFile(final String name, final String content) throws IOException {
+        return createFile(name, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static File createFile(final String name, final byte[] content) throws IOException {
+        final Path basePath = Paths.get("./target/SegmentReaderTest/");
+        Files.createDirectories(basePath);
+        final Path file = Files.createTempDirectory(basePath, "segment").resolve(name);
+        Files.write(file, content);
+        return file.toFile();
+    }
+
+    private static final String EVENT = "{\"version\":\"2f\",\"annotations\":{\"_start\":\"2026-01-01T00:00:00Z\",\"key\":\"value\"},"
+            + "\"counters\":{\"counter\":{\"values\":[{\"value\":1},{\"value\":2}]}},"
+            + "\"gauges\":{\"gauge\":{\"values\":[{\"value\":1.5}]}},"
+            + "\"timers\":{\"timer\":{\"values\":[{\"value\":12345678901}]}}}";
+    private static final String EVENT_2 = "{\"version\":\"2f\",\"annotations\":{\"_id\":\"2\"},"
+            + "\"counters\":{\"counter\":{\"values\":[{\"value\":3}]}}}";
+}
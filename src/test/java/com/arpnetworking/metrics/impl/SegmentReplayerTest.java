@@ -0,0 +1,400 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+
+/**
+ * Tests for {@link SegmentReplayer}.
+ *
+ * @author agent (agent at local)
+ */
+public class SegmentReplayerTest {
+
+    @Test
+    public void testReplayPerFile() throws IOException {
+        final Path directory = createDirectory("testReplayPerFile");
+        final List<File> segments = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            final StringBuilder content = new StringBuilder();
+            for (int j = 0; j < 3; ++j) {
+                content.append(createRecord(i + "-" + j, null));
+                expected.add(i + "-" + j);
+            }
+            segments.add(createFile(directory, "segment-" + i + ".log", content.toString()));
+        }
+
+        final SegmentReplayer replayer = new SegmentReplayer.Builder()
+                .setThreadCount(2)
+                .setBufferSize(1)
+                .build();
+        final List<EventView> events = new ArrayList<>();
+        Assert.assertEquals(15, replayer.replay(segments, events::add));
+        Assert.assertEquals(expected, getIds(events));
+    }
+
+    @Test
+    public void testReplayTimeMerged() throws IOException {
+        final Path directory = createDirectory("testReplayTimeMerged");
+        final List<File> segments = Arrays.asList(
+                createFile(
+                        directory,
+                        "a.log",
+                        createRecord("a1", "2026-01-01T00:00:01Z")
+                                + createRecord("a4", "2026-01-01T00:00:04Z")
+                                + createRecord("a7", "2026-01-01T00:00:07Z")),
+                createFile(
+                        directory,
+                        "b.log.gz",
+                        compress(createRecord("b2", "2026-01-01T00:00:02Z")
+                                + createRecord("b5", "2026-01-01T00:00:05.500Z")
+                                + createRecord("b8", "2026-01-01T00:00:08Z"))),
+                createFile(directory, "c.log", ""),
+                createFile(
+                        directory,
+                        "d.log",
+                        createRecord("d0", null)
+                                + createRecord("d1", "invalid")
+                                + createRecord("d3", "2026-01-01T00:00:03Z")));
+
+        final SegmentReplayer replayer = new SegmentReplayer.Builder()
+                .setThreadCount(2)
+                .setBufferSize(1)
+                .setOrder(SegmentReplayer.Order.TIME_MERGED)
+                .build();
+        final List<EventView> events = new ArrayList<>();
+        Assert.assertEquals(9, replayer.replay(segments, events::add));
+        Assert.assertEquals(Arrays.asList("d0", "d1", "a1", "b2", "d3", "a4", "b5", "a7", "b8"), getIds(events));
+    }
+
+    @Test
+    public void testReplayTimeAnnotation() throws IOException {
+        final Path directory = createDirectory("testReplayTimeAnnotation");
+        final List<File> segments = Arrays.asList(
+                createFile(
+                        directory,
+                        "a.log",
+                        "{\"version\":\"2f\",\"annotations\":{\"_id\":\"a\",\"_start\":\"2026-01-01T00:00:02Z\"}}\n"),
+                createFile(
+                        directory,
+                        "b.log",
+                        "{\"version\":\"2f\",\"annotations\":{\"_id\":\"b\",\"_start\":\"2026-01-01T00:00:01Z\"}}\n"));
+
+        final SegmentReplayer replayer = new SegmentReplayer.Builder()
+                .setOrder(SegmentReplayer.Order.TIME_MERGED)
+                .setTimeAnnotation("_start")
+                .build();
+        final List<EventView> events = new ArrayList<>();
+        Assert.assertEquals(2, replayer.replay(segments, events::add));
+        Assert.assertEquals(Arrays.asList("b", "a"), getIds(events));
+    }
+
+    @Test
+    public void testReplayFileSinkReader() throws IOException {
+        final Path directory = createDirectory("testReplayFileSinkReader");
+        createFile(directory, "query.2026-01-01-00.0.log.gz", compress(createRecord("0", null) + createRecord("1", null)));
+        createFile(directory, "query.2026-01-01-01.0.log.gz", compress(createRecord("2", null)));
+        createFile(directory, "query.log", createRecord("3", null));
+
+        final FileSinkReader reader = new FileSinkReader.Builder()
+                .setDirectory(directory.toFile())
+                .build();
+        final List<EventView> events = new ArrayList<>();
+        Assert.assertEquals(4, new SegmentReplayer.Builder().build().replay(reader, events::add));
+        Assert.assertEquals(Arrays.asList("0", "1", "2", "3"), getIds(events));
+    }
+
+    @Test
+    public void testReplayEmpty() throws IOException {
+        final Consumer<EventView> consumer = new FailingConsumer();
+        Assert.assertEquals(0, new SegmentReplayer.Builder().build().replay(Collections.emptyList(), consumer));
+        Assert.assertEquals(
+                0,
+                new SegmentReplayer.Builder()
+                        .setOrder(SegmentReplayer.Order.TIME_MERGED)
+                        .build()
+                        .replay(Collections.emptyList(), consumer));
+    }
+
+    @Test
+    public void testReplayMalformed() throws IOException {
+        final Path directory = createDirectory("testReplayMalformed");
+        final List<File> segments = Arrays.asList(
+                createFile(directory, "a.log", createRecord("0", null) + createRecord("1", null)),
+                createFile(directory, "b.log", createRecord("2", null) + "{\"version\":\"2f\",\"annotations\":[}\n"),
+                createFile(directory, "c.log", createRecord("3", null)));
+
+        final SegmentReplayer replayer = new SegmentReplayer.Builder()
+                .setThreadCount(1)
+                .setBufferSize(1)
+                .build();
+        final List<EventView> events = new ArrayList<>();
+        try {
+            replayer.replay(segments, events::add);
+            Assert.fail("Expected exception not thrown");
+        } catch (final IOException e) {
+            Assert.assertTrue(e.getMessage().contains("b.log"));
+        }
+        Assert.assertEquals(Arrays.asList("0", "1", "2"), getIds(events));
+    }
+
+    @Test
+    public void testReplayMissing() throws IOException {
+        final Path directory = createDirectory("testReplayMissing");
+        final List<File> segments = Arrays.asList(
+                createFile(directory, "a.log", createRecord("0", null)),
+                directory.resolve("missing.log").toFile());
+
+        final SegmentReplayer replayer = new SegmentReplayer.Builder()
+                .setOrder(SegmentReplayer.Order.TIME_MERGED)
+                .build();
+        try {
+            replayer.replay(segments, new FailingConsumer());
+            Assert.fail("Expected exception not thrown");
+        } catch (final IOException e) {
+            Assert.assertTrue(e.getMessage().contains("missing.log"));
+        }
+    }
+
+    @Test
+    public void testReplayConsumerFailure() throws IOException {
+        final Path directory = createDirectory("testReplayConsumerFailure");
+        final List<File> segments = new ArrayList<>();
+        for (int i = 0; i < 8; ++i) {
+            segments.add(createFile(directory, "segment-" + i + ".log", createRecord("0", null) + createRecord("1", null)));
+        }
+
+        final SegmentReplayer replayer = new SegmentReplayer.Builder()
+                .setThreadCount(2)
+                .setBufferSize(1)
+                .build();
+        try {
+            replayer.replay(segments, event -> {
+                throw new IllegalStateException("Failed");
+            });
+            Assert.fail("Expected exception not thrown");
+        } catch (final IllegalStateException e) {
+            Assert.assertEquals("Failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSourceReschedule() throws IOException {
+        final Path directory = createDirectory("testSourceReschedule");
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5; ++i) {
+            content.append(createRecord(String.valueOf(i), null));
+        }
+        final File file = createFile(directory, "a.log", content.toString());
+        final List<Runnable> tasks = new ArrayList<>();
+        final SegmentReplayer.SegmentSource source = new SegmentReplayer.SegmentSource(
+                file, 0, SegmentReader::open, tasks::add, 4, "_end");
+
+        source.start();
+        source.start();
+        Assert.assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        Assert.assertEquals("0", takeId(source));
+        Assert.assertEquals(1, tasks.size());
+        Assert.assertEquals("1", takeId(source));
+        Assert.assertEquals(2, tasks.size());
+        Assert.assertEquals("2", takeId(source));
+        Assert.assertEquals(2, tasks.size());
+        tasks.get(1).run();
+        Assert.assertEquals("3", takeId(source));
+        Assert.assertEquals("4", takeId(source));
+        Assert.assertEquals(2, tasks.size());
+        Assert.assertNull(source.take());
+        source.close();
+    }
+
+    @Test
+    public void testSourceCloseWhileScheduled() throws IOException {
+        final Path directory = createDirectory("testSourceCloseWhileScheduled");
+        final File file = createFile(directory, "a.log", createRecord("0", null) + createRecord("1", null));
+        final List<Runnable> tasks = new ArrayList<>();
+        final AtomicBoolean closed = new AtomicBoolean(false);
+        final SegmentReplayer.SegmentSource source = new SegmentReplayer.SegmentSource(
+                file, 0, segment -> openTracked(segment, closed, false), tasks::add, 1, "_end");
+
+        source.start();
+        tasks.get(0).run();
+        Assert.assertEquals("0", takeId(source));
+        source.close();
+        Assert.assertFalse(closed.get());
+        tasks.get(1).run();
+        Assert.assertTrue(closed.get());
+    }
+
+    @Test
+    public void testSourceCloseBeforeOpen() throws IOException {
+        final List<Runnable> tasks = new ArrayList<>();
+        final AtomicBoolean opened = new AtomicBoolean(false);
+        final SegmentReplayer.SegmentSource source = new SegmentReplayer.SegmentSource(
+                new File("a.log"),
+                0,
+                segment -> {
+                    opened.set(true);
+                    return SegmentReader.open(segment);
+                },
+                tasks::add,
+                1,
+                "_end");
+
+        source.start();
+        source.close();
+        tasks.get(0).run();
+        Assert.assertFalse(opened.get());
+    }
+
+    @Test
+    public void testSourceCloseWhileParked() throws IOException {
+        final Path directory = createDirectory("testSourceCloseWhileParked");
+        final File file = createFile(directory, "a.log", createRecord("0", null) + createRecord("1", null));
+        final List<Runnable> tasks = new ArrayList<>();
+        final AtomicBoolean closed = new AtomicBoolean(false);
+        final SegmentReplayer.SegmentSource source = new SegmentReplayer.SegmentSource(
+                file, 0, segment -> openTracked(segment, closed, true), tasks::add, 1, "_end");
+
+        source.start();
+        tasks.get(0).run();
+        source.close();
+        Assert.assertTrue(closed.get());
+        source.close();
+    }
+
+    @Test
+    public void testSourceInterrupted() throws IOException {
+        final List<Runnable> tasks = new ArrayList<>();
+        final SegmentReplayer.SegmentSource source = new SegmentReplayer.SegmentSource(
+                new File("a.log"), 0, SegmentReader::open, tasks::add, 1, "_end");
+        source.start();
+        Thread.currentThread().interrupt();
+        try {
+            source.take();
+            Assert.fail("Expected exception not thrown");
+        } catch (final InterruptedIOException e) {
+            Assert.assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test
+    public void testBuilderWithNull() {
+        final SegmentReplayer replayer = new SegmentReplayer.Builder()
+                .setThreadCount(null)
+                .setBufferSize(null)
+                .setOrder(null)
+                .setTimeAnnotation(null)
+                .build();
+        Assert.assertNotNull(replayer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderInvalidThreadCount() {
+        new SegmentReplayer.Builder().setThreadCount(0).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderInvalidBufferSize() {
+        new SegmentReplayer.Builder().setBufferSize(0).build();
+    }
+
+    private static SegmentReader openTracked(
+            final File file,
+            final AtomicBoolean closed,
+            final boolean failClose) throws IOException {
+        return new SegmentReader(file, new ByteArrayInputStream(Files.readAllBytes(file.toPath())) {
+            @Override
+            public void close() throws IOException {
+                closed.set(true);
+                if (failClose) {
+                    throw new IOException("Failed");
+                }
+            }
+        });
+    }
+
+    private static String takeId(final SegmentReplayer.SegmentSource source) throws IOException {
+        final SegmentReplayer.Entry entry = source.take();
+        Assert.assertNotNull(entry);
+        return entry.getEvent().getAnnotations().get("_id");
+    }
+
+    private static List<String> getIds(final List<EventView> events) {
+        final List<String> ids = new ArrayList<>();
+        for (final EventView event : events) {
+            ids.add(event.getAnnotations().get("_id"));
+        }
+        return ids;
+    }
+
+    private static String createRecord(final String id, @Nullable final String end) {
+        return "{\"version\":\"2f\",\"annotations\":{\"_id\":\"" + id + "\""
+                + (end == null ? "" : ",\"_end\":\"" + end + "\"")
+                + "},\"counters\":{\"counter\":{\"values\":[{\"value\":1}]}}}\n";
+    }
+
+    private static byte[] compress(final String content) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream stream = new GZIPOutputStream(compressed)) {
+            stream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+
+    private static File createFile(final Path directory, final String name, final String content) throws IOException {
+        return createFile(directory, name, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static File createFile(final Path directory, final String name, final byte[] content) throws IOException {
+        return Files.write(directory.resolve(name), content).toFile();
+    }
+
+    private static Path createDirectory(final String name) throws IOException {
+        final Path basePath = Paths.get("./target/SegmentReplayerTest/");
+        Files.createDirectories(basePath);
+        return Files.createTempDirectory(basePath, name);
+    }
+
+    private static final class FailingConsumer implements Consumer<EventView> {
+
+        @Override
+        public void accept(final EventView event) {
+            Assert.fail("Unexpected event: " + event);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.arpnetworking.metrics.Event;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link ShardRouter}.
+ *
+ * @author agent (agent at local)
+ */
+public class ShardRouterTest {
+
+    @Test
+    public void testRouteByAnnotation() {
+        final ShardRouter router = new ShardRouter(4, "service");
+        // NOTE: The hash code of "polygenelubricants" is Integer.MIN_VALUE
+        Assert.assertEquals(0, router.route(createEvent(Map.of("service", "polygenelubricants"))));
+        Assert.assertEquals(Math.floorMod("b".hashCode(), 4), router.route(createEvent(Map.of("service", "b"))));
+        Assert.assertEquals(router.route(createEvent(Map.of("service", "c"))), router.route(createEvent(Map.of("service", "c"))));
+    }
+
+    @Test
+    public void testRouteByThread() throws InterruptedException {
+        final ShardRouter router = new ShardRouter(2, "service");
+        final int shard = router.route(createEvent(Map.of("other", "a")));
+        Assert.assertEquals(shard, router.route(createEvent(Collections.emptyMap())));
+
+        final AtomicInteger otherShard = new AtomicInteger(-1);
+        final Thread thread = new Thread(() -> otherShard.set(router.route(createEvent(Collections.emptyMap()))));
+        thread.start();
+        thread.join();
+        Assert.assertEquals(1 - shard, otherShard.get());
+    }
+
+    @Test
+    public void testRouteByThreadWithoutAnnotation() {
+        final ShardRouter router = new ShardRouter(3, null);
+        Assert.assertEquals(0, router.route(createEvent(Map.of("service", "a"))));
+        Assert.assertEquals(0, router.route(createEvent(Map.of("service", "b"))));
+    }
+
+    private static Event createEvent(final Map<String, String> annotations) {
+        final Event event = Mockito.mock(Event.class);
+        Mockito.doReturn(annotations).when(event).getAnnotations();
+        return event;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import com.arpnetworking.metrics.Sink;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * Tests for {@link ShutdownCoordinator}.
+ *
+ * @author agent (agent at local)
+ */
+public class ShutdownCoordinatorTest {
+
+    @Test
+    public void testBuilderWithDefaults() {
+        final ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .setShutdownHook(false)
+                .build();
+        Assert.assertEquals(Duration.ofSeconds(5), coordinator.getTimeout());
+    }
+
+    @Test
+    public void testBuilderWithNull() {
+        final ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .setTimeout(null)
+                .setShutdownHook(null)
+                .build();
+        Assert.assertEquals(Duration.ofSeconds(5), coordinator.getTimeout());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderNegativeTimeout() {
+        new ShutdownCoordinator.Builder()
+                .setTimeout(Duration.ofSeconds(-1))
+                .setShutdownHook(false)
+                .build();
+    }
+
+    @Test
+    public void testCloseWithoutSinks() {
+        final ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .setShutdownHook(false)
+                .build();
+        final DrainResult result = coordinator.close();
+        Assert.assertEquals(0, result.getWrittenCount());
+        Assert.assertEquals(0, result.getAbandonedCount());
+    }
+
+    @Test
+    public void testCloseSinks() throws IOException {
+        final ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .setTimeout(Duration.ofSeconds(10))
+                .setShutdownHook(false)
+                .build();
+        final File directory = createDirectory("testCloseSinks");
+        final Sink first = new FileSink.Builder()
+                .setDirectory(directory)
+                .setName("first")
+                .setShutdownCoordinator(coordinator)
+                .build();
+        final Sink second = new FileSink.Builder()
+                .setDirectory(directory)
+                .setName("second")
+                .setShutdownCoordinator(coordinator)
+                .build();
+        Assert.assertEquals(2, coordinator.getRegisteredCount());
+        for (int i = 0; i < 100; ++i) {
+            first.record(createEvent());
+            second.record(createEvent());
+        }
+
+        final DrainResult result = coordinator.close();
+        Assert.assertTrue(result.isComplete());
+        Assert.assertEquals(0, result.getAbandonedCount());
+        Assert.assertEquals(0, coordinator.getRegisteredCount());
+        Assert.assertEquals(100, Files.readAllLines(directory.toPath().resolve("first.log")).size());
+        Assert.assertEquals(100, Files.readAllLines(directory.toPath().resolve("second.log")).size());
+
+        // Sinks are closed only once
+        Assert.assertEquals(0, ((FileSink) first).close(Duration.ZERO).getWrittenCount());
+    }
+
+    @Test
+    public void testUnregisterClosedSink() throws IOException {
+        final ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .setShutdownHook(false)
+                .build();
+        final Sink sink = new FileSink.Builder()
+                .setDirectory(createDirectory("testUnregisterClosedSink"))
+                .setShutdownCoordinator(coordinator)
+                .build();
+        Assert.assertEquals(1, coordinator.getRegisteredCount());
+
+        ((FileSink) sink).close(Duration.ofSeconds(1));
+        Assert.assertEquals(0, coordinator.getRegisteredCount());
+        Assert.assertSame(DrainResult.EMPTY, coordinator.close());
+    }
+
+    @Test
+    public void testCloseSinkTimeout() {
+        final ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .setShutdownHook(false)
+                .build();
+        final BaseFileSink sink = Mockito.mock(BaseFileSink.class);
+        Mockito.doReturn(5L).when(sink).getPendingCount();
+        Mockito.doAnswer(invocation -> {
+            Thread.sleep(10000);
+            return DrainResult.EMPTY;
+        }).when(sink).close(Mockito.any());
+        coordinator.register(sink);
+
+        final DrainResult result = coordinator.close(Duration.ZERO);
+        Assert.assertFalse(result.isComplete());
+        Assert.assertEquals(0, result.getWrittenCount());
+        Assert.assertEquals(5, result.getAbandonedCount());
+    }
+
+    @Test
+    public void testCloseSinkFailure() {
+        final ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .setShutdownHook(false)
+                .build();
+        final BaseFileSink failingSink = Mockito.mock(BaseFileSink.class);
+        Mockito.doReturn(3L).when(failingSink).getPendingCount();
+        Mockito.doThrow(new IllegalStateException("Test")).when(failingSink).close(Mockito.any());
+        final BaseFileSink sink = Mockito.mock(BaseFileSink.class);
+        Mockito.doReturn(new DrainResult(7, 0)).when(sink).close(Mockito.any());
+        coordinator.register(failingSink);
+        coordinator.register(sink);
+
+        final DrainResult result = coordinator.close();
+        Assert.assertEquals(7, result.getWrittenCount());
+        Assert.assertEquals(3, result.getAbandonedCount());
+    }
+
+    @Test
+    public void testCloseInterrupted() {
+        final ShutdownCoordinator coordinator = new ShutdownCoordinator.Builder()
+                .setShutdownHook(false)
+                .build();
+        final BaseFileSink sink = Mockito.mock(BaseFileSink.class);
+        Mockito.doReturn(2L).when(sink).getPendingCount();
+        Mockito.doAnswer(invocation -> {
+            Thread.sleep(10000);
+            return DrainResult.EMPTY;
+        }).when(sink).close(Mockito.any());
+        coordinator.register(sink);
+
+        Thread.currentThread().interrupt();
+        final DrainResult result = coordinator.close();
+        Assert.assertTrue(Thread.interrupted());
+        Assert.assertEquals(2, result.getAbandonedCount());
+    }
+
+    private static TsdEvent createEvent() {
+        return new TsdEvent(
+                Collections.singletonMap("_id", "id"),
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                Collections.emptyMap());
+    }
+
+    private static File createDirectory(final String name) throws IOException {
+        final Path basePath = Paths.get("./target/ShutdownCoordinatorTest/");
+        Files.createDirectories(basePath);
+        return Files.createTempDirectory(basePath, name).toFile();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link SinkInstrumentation}.
+ *
+ * @author agent (agent at local)
+ */
+public class SinkInstrumentationTest {
+
+    @Test
+    public void testEventCounts() {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        instrumentation.onEnqueue(5);
+        instrumentation.onRecord(5, 10, 20);
+        instrumentation.onWrite(3, 100, 50);
+        instrumentation.onIoError(1);
+        instrumentation.onDiscard(1);
+
+        // Entries of several events are counted per event while latencies are recorded per entry
+        Assert.assertEquals(5, instrumentation.getRecordedCount());
+        Assert.assertEquals(1, instrumentation.getRecordLatency().getCount());
+        Assert.assertEquals(3, instrumentation.getWrittenCount());
+        Assert.assertEquals(1, instrumentation.getWriteLatency().getCount());
+        Assert.assertEquals(1, instrumentation.getIoErrorCount());
+        Assert.assertEquals(1, instrumentation.getDiscardedCount());
+        Assert.assertEquals(0, instrumentation.getPendingCount());
+    }
+
+    @Test
+    public void testCounters() {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 3);
+        instrumentation.onRecord(1, 10, 20);
+        instrumentation.onRecord(1, 30, 40);
+        instrumentation.onDiscard(1);
+        instrumentation.onSerializationFailure();
+        instrumentation.onIoError(1);
+        instrumentation.onIoError(1);
+        instrumentation.onWrite(1, 100, 50);
+        instrumentation.onFlush(60);
+        instrumentation.onRoll(70);
+
+        Assert.assertEquals(3, instrumentation.getQueueDepth());
+        Assert.assertEquals(1, instrumentation.getSerializationFailureCount());
+        Assert.assertEquals(2, instrumentation.getIoErrorCount());
+        Assert.assertEquals(2, instrumentation.getRecordedCount());
+        Assert.assertEquals(1, instrumentation.getDiscardedCount());
+        Assert.assertEquals(1, instrumentation.getWrittenCount());
+        Assert.assertEquals(100, instrumentation.getBytesWritten());
+        Assert.assertEquals(100, instrumentation.getRecordLatency().getTotalNanos());
+        Assert.assertEquals(40, instrumentation.getSerializationLatency().getTotalNanos());
+        Assert.assertEquals(60, instrumentation.getEnqueueLatency().getTotalNanos());
+        Assert.assertEquals(50, instrumentation.getWriteLatency().getTotalNanos());
+        Assert.assertEquals(60, instrumentation.getFlushLatency().getTotalNanos());
+        Assert.assertEquals(70, instrumentation.getRollLatency().getTotalNanos());
+    }
+
+    @Test
+    public void testSnapshot() {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 3);
+        instrumentation.onRecord(1, 10, 20);
+        instrumentation.onDiscard(1);
+        instrumentation.onSerializationFailure();
+        instrumentation.onIoError(1);
+        instrumentation.onWrite(1, 100, 50);
+        instrumentation.onFlush(60);
+        instrumentation.onRoll(70);
+
+        final FileSinkStatistics statistics = instrumentation.snapshot();
+        instrumentation.onRecord(1, 10, 20);
+
+        Assert.assertEquals(3, statistics.getQueueDepth());
+        Assert.assertEquals(1, statistics.getRecordedCount());
+        Assert.assertEquals(1, statistics.getDiscardedCount());
+        Assert.assertEquals(1, statistics.getSerializationFailureCount());
+        Assert.assertEquals(1, statistics.getIoErrorCount());
+        Assert.assertEquals(1, statistics.getWrittenCount());
+        Assert.assertEquals(100, statistics.getBytesWritten());
+        Assert.assertEquals(30, statistics.getRecordLatency().getTotalNanos());
+        Assert.assertEquals(10, statistics.getSerializationLatency().getTotalNanos());
+        Assert.assertEquals(20, statistics.getEnqueueLatency().getTotalNanos());
+        Assert.assertEquals(50, statistics.getWriteLatency().getTotalNanos());
+        Assert.assertEquals(60, statistics.getFlushLatency().getTotalNanos());
+        Assert.assertEquals(70, statistics.getRollLatency().getTotalNanos());
+        Assert.assertTrue(statistics.toString().startsWith(
+                "FileSinkStatistics{QueueDepth=3, RecordedCount=1, DiscardedCount=1, SerializationFailureCount=1, "
+                        + "IoErrorCount=1, WrittenCount=1, BytesWritten=100, "
+                        + "RecordLatency=LatencyStatistics{Count=1"));
+    }
+
+    @Test
+    public void testPendingCount() {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        Assert.assertEquals(0, instrumentation.getPendingCount());
+        Assert.assertEquals(0, instrumentation.getWriterLagNanos());
+
+        instrumentation.onEnqueue(1);
+        instrumentation.onEnqueue(1);
+        instrumentation.onEnqueue(1);
+        instrumentation.onEnqueue(1);
+        Assert.assertEquals(4, instrumentation.getPendingCount());
+
+        instrumentation.onWrite(1, 10, 1);
+        instrumentation.onIoError(1);
+        instrumentation.onDiscard(1);
+        Assert.assertEquals(1, instrumentation.getPendingCount());
+
+        // Not counted as pending
+        instrumentation.onSerializationFailure();
+        Assert.assertEquals(1, instrumentation.getPendingCount());
+
+        instrumentation.onWrite(1, 10, 1);
+        Assert.assertEquals(0, instrumentation.getPendingCount());
+        Assert.assertEquals(0, instrumentation.getWriterLagNanos());
+
+        // Written before being counted as enqueued
+        instrumentation.onWrite(1, 10, 1);
+        Assert.assertEquals(0, instrumentation.getPendingCount());
+        Assert.assertEquals(0, instrumentation.getWriterLagNanos());
+        instrumentation.onEnqueue(1);
+        Assert.assertEquals(0, instrumentation.getPendingCount());
+    }
+
+    @Test
+    public void testWriterLag() throws InterruptedException {
+        final SinkInstrumentation instrumentation = new SinkInstrumentation(() -> 0);
+        Thread.sleep(20);
+
+        // Lag is measured from when the writer has work
+        instrumentation.onEnqueue(1);
+        MatcherAssert.assertThat(instrumentation.getWriterLagNanos(), Matchers.lessThan(TimeUnit.MILLISECONDS.toNanos(20)));
+
+        Thread.sleep(20);
+        instrumentation.onEnqueue(1);
+        MatcherAssert.assertThat(
+                instrumentation.getWriterLagNanos(),
+                Matchers.greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20)));
+
+        // Progress resets the lag
+        instrumentation.onWrite(1, 10, 1);
+        MatcherAssert.assertThat(instrumentation.getWriterLagNanos(), Matchers.lessThan(TimeUnit.MILLISECONDS.toNanos(20)));
+    }
+}
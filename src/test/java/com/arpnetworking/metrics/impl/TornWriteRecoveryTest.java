@@ -0,0 +1,267 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests for {@link TornWriteRecovery}.
+ *
+ * @author agent (agent at local)
+ */
+public class TornWriteRecoveryTest {
+
+    @Test
+    public void testCompleteFile() throws IOException {
+        final Path file = createFile("testCompleteFile", "a\nb\n");
+        Assert.assertEquals(0, TornWriteRecovery.recover(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals("a\nb\n", Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertFalse(Files.exists(getQuarantineFile(file)));
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        final Path file = createFile("testEmptyFile", "");
+        Assert.assertEquals(0, TornWriteRecovery.recover(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertFalse(Files.exists(getQuarantineFile(file)));
+    }
+
+    @Test
+    public void testMissingFile() throws IOException {
+        final Path file = createFile("testMissingFile", "");
+        Files.delete(file);
+        Assert.assertEquals(0, TornWriteRecovery.recover(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testTornWrite() throws IOException {
+        final Path file = createFile("testTornWrite", "a\nb\n{\"partial");
+        Assert.assertEquals(9, TornWriteRecovery.recover(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals("a\nb\n", Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertEquals("{\"partial", Files.readString(getQuarantineFile(file), StandardCharsets.UTF_8));
+
+        // Fragments of later torn writes are appended to the quarantine file
+        Files.writeString(file, "c\n{\"another", StandardCharsets.UTF_8);
+        Assert.assertEquals(9, TornWriteRecovery.recover(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals("c\n", Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertEquals("{\"partial{\"another", Files.readString(getQuarantineFile(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTornWriteWithinScan() throws IOException {
+        final Path file = createFile("testTornWriteWithinScan", "aaaaaaaaaaaaaaaa\nbb");
+        final Path indexFile = SegmentIndex.getFile(file.toFile()).toPath();
+        Files.write(indexFile, createIndex(0, 17));
+        Assert.assertEquals(2, TornWriteRecovery.recover(file.toFile(), 4));
+        Assert.assertEquals("aaaaaaaaaaaaaaaa\n", Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertArrayEquals(createIndex(0, 17), Files.readAllBytes(indexFile));
+    }
+
+    @Test
+    public void testWholeFileFragment() throws IOException {
+        final Path file = createFile("testWholeFileFragment", "{\"partial");
+        Assert.assertEquals(9, TornWriteRecovery.recover(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals(0, Files.size(file));
+        Assert.assertEquals("{\"partial", Files.readString(getQuarantineFile(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testUnboundedFragment() throws IOException {
+        final Path file = createFile("testUnboundedFragment", "a\n{\"partial record\"");
+        Assert.assertEquals(0, TornWriteRecovery.recover(file.toFile(), 8));
+        Assert.assertEquals(
+                "a\n{\"partial record\"" + System.lineSeparator(),
+                Files.readString(file, StandardCharsets.UTF_8));
+        Assert.assertFalse(Files.exists(getQuarantineFile(file)));
+    }
+
+    @Test
+    public void testCompressedCompleteFile() throws IOException {
+        final Path file = createFile("testCompressedCompleteFile", compress("a\n"), compress("b\n"));
+        Assert.assertEquals(0, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals("a\nb\n", decompress(file));
+        Assert.assertFalse(Files.exists(getQuarantineFile(file)));
+    }
+
+    @Test
+    public void testCompressedEmptyFile() throws IOException {
+        final Path file = createFile("testCompressedEmptyFile", "");
+        Assert.assertEquals(0, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertFalse(Files.exists(getQuarantineFile(file)));
+    }
+
+    @Test
+    public void testCompressedMissingFile() throws IOException {
+        final Path file = createFile("testCompressedMissingFile", "");
+        Files.delete(file);
+        Assert.assertEquals(0, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testCompressedTornFrame() throws IOException {
+        final byte[] frame = compress("a\n");
+        final byte[] fragment = Arrays.copyOf(compress(PARTIAL_RECORD), 30);
+        final Path file = createFile("testCompressedTornFrame", frame, fragment);
+        final Path indexFile = SegmentIndex.getFile(file.toFile()).toPath();
+        Files.write(indexFile, createIndex(0, frame.length, frame.length + 1));
+
+        Assert.assertEquals(30, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals("a\n", decompress(file));
+        Assert.assertArrayEquals(fragment, Files.readAllBytes(getQuarantineFile(file)));
+        // Index entries beyond the recovered end of the file are removed
+        Assert.assertArrayEquals(createIndex(0, frame.length), Files.readAllBytes(indexFile));
+
+        // Frames appended after recovery are readable
+        Files.write(file, compress("b\n"), StandardOpenOption.APPEND);
+        Assert.assertEquals("a\nb\n", decompress(file));
+    }
+
+    @Test
+    public void testCompressedPartialHeader() throws IOException {
+        final Path file = createFile("testCompressedPartialHeader", compress("a\n"), Arrays.copyOf(GzipFrameOutputStream.HEADER, 5));
+        Assert.assertEquals(5, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals("a\n", decompress(file));
+    }
+
+    @Test
+    public void testCompressedTrailingGarbage() throws IOException {
+        final byte[] garbage = new byte[20];
+        Arrays.fill(garbage, (byte) 'x');
+        final Path file = createFile("testCompressedTrailingGarbage", compress("a\n"), garbage);
+        Assert.assertEquals(20, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals("a\n", decompress(file));
+    }
+
+    @Test
+    public void testCompressedInvalidData() throws IOException {
+        final byte[] data = new byte[8];
+        // NOTE: Block type three is reserved
+        Arrays.fill(data, (byte) 0xff);
+        final Path file = createFile("testCompressedInvalidData", compress("a\n"), GzipFrameOutputStream.HEADER, data);
+        Assert.assertEquals(18, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals("a\n", decompress(file));
+    }
+
+    @Test
+    public void testCompressedMissingTrailer() throws IOException {
+        final byte[] frame = compress("b\n");
+        final Path file = createFile("testCompressedMissingTrailer", compress("a\n"), Arrays.copyOf(frame, frame.length - 4));
+        Assert.assertEquals(frame.length - 4, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals("a\n", decompress(file));
+    }
+
+    @Test
+    public void testCompressedInvalidChecksum() throws IOException {
+        final byte[] frame = compress("a\n");
+        frame[frame.length - 8] ^= 1;
+        final Path file = createFile("testCompressedInvalidChecksum", frame);
+        Assert.assertEquals(frame.length, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals(0, Files.size(file));
+    }
+
+    @Test
+    public void testCompressedInvalidSize() throws IOException {
+        final byte[] frame = compress("a\n");
+        frame[frame.length - 4] ^= 1;
+        final Path file = createFile("testCompressedInvalidSize", frame);
+        Assert.assertEquals(frame.length, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals(0, Files.size(file));
+    }
+
+    @Test
+    public void testCompressedWholeFileFragment() throws IOException {
+        final Path file = createFile("testCompressedWholeFileFragment", "{\"partial");
+        Assert.assertEquals(9, TornWriteRecovery.recoverCompressed(file.toFile(), TornWriteRecovery.MAX_SCAN_SIZE));
+        Assert.assertEquals(0, Files.size(file));
+        Assert.assertEquals("{\"partial", Files.readString(getQuarantineFile(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCompressedUnboundedFrame() throws IOException {
+        final byte[] frame = compress(PARTIAL_RECORD);
+        final Path file = createFile("testCompressedUnboundedFrame", compress("a\n"), Arrays.copyOf(frame, 30));
+        Assert.assertEquals(0, TornWriteRecovery.recoverCompressed(file.toFile(), 8));
+        Assert.assertFalse(Files.exists(getQuarantineFile(file)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadPastEnd() throws IOException {
+        final Path file = createFile("testReadPastEnd", "a\n");
+        try (FileChannel channel = FileChannel.open(file)) {
+            TornWriteRecovery.read(channel, ByteBuffer.allocate(4), 0);
+        }
+    }
+
+    private static Path createFile(final String name, final String content) throws IOException {
+        final Path directory = Files.createTempDirectory(Files.createDirectories(BASE_PATH), name);
+        final Path file = directory.resolve("query.log");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static Path createFile(final String name, final byte[]... contents) throws IOException {
+        final Path file = createFile(name, "");
+        for (final byte[] content : contents) {
+            Files.write(file, content, StandardOpenOption.APPEND);
+        }
+        return file;
+    }
+
+    private static byte[] compress(final String content) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GzipFrameOutputStream frameOutputStream = new GzipFrameOutputStream(outputStream, Integer.MAX_VALUE)) {
+            frameOutputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static String decompress(final Path file) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+            return StandardCharsets.UTF_8.decode(ByteBuffer.wrap(inputStream.readAllBytes())).toString();
+        }
+    }
+
+    private static byte[] createIndex(final long... offsets) {
+        final ByteBuffer buffer = ByteBuffer.allocate(offsets.length * SegmentIndex.ENTRY_SIZE);
+        for (final long offset : offsets) {
+            buffer.putLong(offset).putLong(offset);
+        }
+        return buffer.array();
+    }
+
+    private static Path getQuarantineFile(final Path file) {
+        return Paths.get(file + TornWriteRecovery.EXTENSION);
+    }
+
+    private static final String PARTIAL_RECORD = "{\"partial\":\"a record long enough that its frame spans more than thirty bytes\"}\n";
+    private static final Path BASE_PATH = Paths.get("./target/TornWriteRecoveryTest/");
+}
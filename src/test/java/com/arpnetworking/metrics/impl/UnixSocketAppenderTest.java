@@ -0,0 +1,455 @@
+/*
+ * Copyright 2026 agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.arpnetworking.metrics.impl;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Tests for {@link UnixSocketAppender}.
+ *
+ * @author agent (agent at local)
+ */
+public class UnixSocketAppenderTest {
+
+    @After
+    public void tearDown() {
+        _context.stop();
+    }
+
+    @Test
+    public void testStreamsFrames() throws IOException {
+        final Path path = createSocketPath("testStreamsFrames");
+        try (ServerSocketChannel server = bind(path)) {
+            final UnixSocketAppender appender = createAppender(path, 1024, false, 10);
+            Assert.assertTrue(appender.isConnected());
+            Assert.assertSame(_fallback, appender.getFallback());
+            try (SocketChannel agent = server.accept()) {
+                appender.doAppend(createEvent("a"));
+                appender.doAppend(createEvent("b"));
+                Assert.assertEquals(0, _instrumentation.getWrittenCount());
+
+                // The buffer is written when it is full or periodically
+                appender.flush();
+                appender.flush();
+                Assert.assertEquals(Arrays.asList("a", "b"), readFrames(agent, 2));
+                Assert.assertEquals(2, _instrumentation.getWrittenCount());
+                Assert.assertEquals(12, _instrumentation.getBytesWritten());
+
+                for (int i = 0; i < 100; ++i) {
+                    appender.doAppend(createEvent("event-" + i));
+                }
+                final List<String> expected = new ArrayList<>();
+                for (int i = 0; i < 100; ++i) {
+                    expected.add("event-" + i);
+                }
+                appender.stop();
+                appender.stop();
+                Assert.assertEquals(expected, readFrames(agent, 100));
+                Assert.assertEquals(Collections.emptyList(), readFrames(agent, 1));
+                Assert.assertTrue(_fallback.list.isEmpty());
+                Assert.assertFalse(_fallback.isStarted());
+                Assert.assertFalse(appender.isConnected());
+            }
+        }
+    }
+
+    @Test
+    public void testImmediateFlush() throws IOException {
+        final Path path = createSocketPath("testImmediateFlush");
+        try (ServerSocketChannel server = bind(path)) {
+            final UnixSocketAppender appender = createAppender(path, 1024, true, 10);
+            try (SocketChannel agent = server.accept()) {
+                appender.doAppend(createEvent("a"));
+                Assert.assertEquals(Collections.singletonList("a"), readFrames(agent, 1));
+            }
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void testFallbackWhileUnavailable() throws IOException, InterruptedException {
+        final Path path = createSocketPath("testFallbackWhileUnavailable");
+        final UnixSocketAppender appender = createAppender(path, 1024, true, 50);
+        Assert.assertFalse(appender.isConnected());
+        appender.doAppend(createEvent("a"));
+        appender.flush();
+
+        try (ServerSocketChannel server = bind(path)) {
+            // Connecting is retried after the reconnect interval
+            appender.doAppend(createEvent("b"));
+            Thread.sleep(100);
+            appender.doAppend(createEvent("c"));
+            Assert.assertTrue(appender.isConnected());
+            try (SocketChannel agent = server.accept()) {
+                Assert.assertEquals(Collections.singletonList("c"), readFrames(agent, 1));
+            }
+        }
+        appender.stop();
+        Assert.assertEquals(Arrays.asList("a", "b"), getMessages(_fallback.list));
+    }
+
+    @Test
+    public void testFallbackWhenAgentNotReading() throws IOException {
+        final Path path = createSocketPath("testFallbackWhenAgentNotReading");
+        try (ServerSocketChannel server = bind(path)) {
+            final UnixSocketAppender appender = createAppender(path, 128 * 1024, false, 10);
+            try (SocketChannel agent = server.accept()) {
+                final String padding = "x".repeat(1000);
+                final int count = 1000;
+                for (int i = 0; i < count; ++i) {
+                    appender.doAppend(createEvent(i + padding));
+                }
+                // An event larger than the buffer is always written to the file
+                appender.doAppend(createEvent(count + "x".repeat(200 * 1024)));
+                Assert.assertFalse(_fallback.list.isEmpty());
+                appender.stop();
+
+                // Every event was written to the agent or the file
+                final List<String> agentIds = getIds(readFrames(agent, Integer.MAX_VALUE));
+                final List<String> fileIds = getIds(getMessages(_fallback.list));
+                Assert.assertFalse(agentIds.isEmpty());
+                Assert.assertTrue(fileIds.contains(String.valueOf(count)));
+                final Set<Integer> ids = new TreeSet<>();
+                for (final String id : agentIds) {
+                    ids.add(Integer.parseInt(id));
+                }
+                for (final String id : fileIds) {
+                    ids.add(Integer.parseInt(id));
+                }
+                Assert.assertEquals(count + 1, ids.size());
+                Assert.assertEquals(agentIds.size(), _instrumentation.getWrittenCount());
+            }
+        }
+    }
+
+    @Test
+    public void testReconnectAfterAgentCloses() throws IOException, InterruptedException {
+        final Path path = createSocketPath("testReconnectAfterAgentCloses");
+        try (ServerSocketChannel server = bind(path)) {
+            final UnixSocketAppender appender = createAppender(path, 1024, true, 10);
+            try (SocketChannel agent = server.accept()) {
+                appender.doAppend(createEvent("a"));
+                Assert.assertEquals(Collections.singletonList("a"), readFrames(agent, 1));
+            }
+            appender.doAppend(createEvent("b"));
+            Assert.assertFalse(appender.isConnected());
+            Assert.assertEquals(Collections.singletonList("b"), getMessages(_fallback.list));
+
+            Thread.sleep(50);
+            appender.doAppend(createEvent("c"));
+            try (SocketChannel agent = server.accept()) {
+                Assert.assertEquals(Collections.singletonList("c"), readFrames(agent, 1));
+            }
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void testWriteFailure() {
+        final FakeSocketChannel channel = new FakeSocketChannel();
+        final UnixSocketAppender appender = createAppender(() -> channel, 1024, false, 60_000);
+        Assert.assertTrue(appender.isConnected());
+
+        // A partially written event is also written to the file
+        channel.setWriteLimit(10);
+        appender.doAppend(createEvent("a"));
+        appender.doAppend(createEvent("bbbbbbbbbbbb"));
+        appender.flush();
+        Assert.assertEquals(1, _instrumentation.getWrittenCount());
+        channel.setFailure(new IOException("Broken pipe"));
+        appender.doAppend(createEvent("c"));
+        appender.flush();
+        Assert.assertFalse(appender.isConnected());
+        Assert.assertTrue(channel.isCloseAttempted());
+        Assert.assertEquals(Arrays.asList("bbbbbbbbbbbb", "c"), getMessages(_fallback.list));
+
+        // Connecting is not retried until the reconnect interval
+        appender.doAppend(createEvent("d"));
+        appender.stop();
+        Assert.assertEquals(Arrays.asList("bbbbbbbbbbbb", "c", "d"), getMessages(_fallback.list));
+    }
+
+    @Test
+    public void testUnixDomainSocketConnector() throws IOException {
+        final Path path = createSocketPath("testUnixDomainSocketConnector");
+        final UnixSocketAppender.Connector connector = new UnixSocketAppender.UnixDomainSocketConnector(path);
+        Assert.assertEquals(path.toString(), connector.toString());
+        try {
+            connector.connect();
+            Assert.fail("Expected exception not thrown");
+        } catch (final IOException e) {
+            // Expected exception
+        }
+        try (ServerSocketChannel server = bind(path); SocketChannel channel = connector.connect()) {
+            Assert.assertFalse(channel.isBlocking());
+            Assert.assertEquals(server.getLocalAddress(), channel.getRemoteAddress());
+        }
+    }
+
+    private UnixSocketAppender createAppender(
+            final Path path,
+            final int bufferSize,
+            final boolean immediateFlush,
+            final long reconnectIntervalInMillis) {
+        return createAppender(
+                new UnixSocketAppender.UnixDomainSocketConnector(path),
+                bufferSize,
+                immediateFlush,
+                reconnectIntervalInMillis);
+    }
+
+    private UnixSocketAppender createAppender(
+            final UnixSocketAppender.Connector connector,
+            final int bufferSize,
+            final boolean immediateFlush,
+            final long reconnectIntervalInMillis) {
+        final PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(_context);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        _fallback.setContext(_context);
+        _fallback.start();
+        final UnixSocketAppender appender = new UnixSocketAppender(
+                connector,
+                encoder,
+                _fallback,
+                bufferSize,
+                () -> new FileSinkConfiguration(1, false, immediateFlush, "100MB"),
+                reconnectIntervalInMillis,
+                _instrumentation);
+        appender.setContext(_context);
+        appender.start();
+        return appender;
+    }
+
+    private ILoggingEvent createEvent(final String message) {
+        final Logger logger = _context.getLogger(Logger.ROOT_LOGGER_NAME);
+        return new LoggingEvent(Logger.FQCN, logger, Level.INFO, message, null, null);
+    }
+
+    private static List<String> readFrames(final SocketChannel agent, final int maxFrames) throws IOException {
+        final List<String> frames = new ArrayList<>();
+        final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        while (frames.size() < maxFrames && readFully(agent, header.clear())) {
+            final ByteBuffer frame = ByteBuffer.allocate(header.flip().getInt());
+            if (!readFully(agent, frame)) {
+                // NOTE: An incomplete frame at the end of the stream is discarded
+                break;
+            }
+            frames.add(StandardCharsets.UTF_8.decode(frame.flip()).toString().trim());
+        }
+        return frames;
+    }
+
+    private static boolean readFully(final SocketChannel agent, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (agent.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> getMessages(final List<ILoggingEvent> events) {
+        final List<String> messages = new ArrayList<>();
+        for (final ILoggingEvent event : events) {
+            messages.add(event.getFormattedMessage());
+        }
+        return messages;
+    }
+
+    private static List<String> getIds(final List<String> messages) {
+        final List<String> ids = new ArrayList<>();
+        for (final String message : messages) {
+            ids.add(message.substring(0, message.indexOf('x')));
+        }
+        return ids;
+    }
+
+    private static ServerSocketChannel bind(final Path path) throws IOException {
+        final ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(path));
+        return server;
+    }
+
+    private static Path createSocketPath(final String name) throws IOException {
+        final Path basePath = Paths.get("./target/UnixSocketAppenderTest/");
+        Files.createDirectories(basePath);
+        return Files.createTempDirectory(basePath, name).resolve("agent.sock");
+    }
+
+    private final LoggerContext _context = new LoggerContext();
+    private final ListAppender<ILoggingEvent> _fallback = new ListAppender<>();
+    private final SinkInstrumentation _instrumentation = new SinkInstrumentation(() -> 0);
+
+    /**
+     * Channel which accepts a limited number of bytes per write and fails
+     * writes and closing on demand.
+     */
+    private static final class FakeSocketChannel extends SocketChannel {
+
+        FakeSocketChannel() {
+            super(SelectorProvider.provider());
+        }
+
+        void setWriteLimit(final int value) {
+            _writeLimit = value;
+        }
+
+        void setFailure(final IOException value) {
+            _failure = value;
+        }
+
+        boolean isCloseAttempted() {
+            return _closeAttempted;
+        }
+
+        @Override
+        public int write(final ByteBuffer source) throws IOException {
+            if (_failure != null) {
+                throw _failure;
+            }
+            final int length = Math.min(_writeLimit, source.remaining());
+            source.position(source.position() + length);
+            return length;
+        }
+
+        @Override
+        protected void implCloseSelectableChannel() throws IOException {
+            _closeAttempted = true;
+            throw new IOException("Close failed");
+        }
+
+        @Override
+        protected void implConfigureBlocking(final boolean block) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SocketChannel bind(final SocketAddress local) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> SocketChannel setOption(final SocketOption<T> name, final T value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T getOption(final SocketOption<T> name) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<SocketOption<?>> supportedOptions() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SocketChannel shutdownInput() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SocketChannel shutdownOutput() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Socket socket() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public boolean isConnectionPending() {
+            return false;
+        }
+
+        @Override
+        public boolean connect(final SocketAddress remote) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean finishConnect() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SocketAddress getRemoteAddress() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(final ByteBuffer destination) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long read(final ByteBuffer[] destinations, final int offset, final int length) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long write(final ByteBuffer[] sources, final int offset, final int length) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() {
+            throw new UnsupportedOperationException();
+        }
+
+        private int _writeLimit = Integer.MAX_VALUE;
+        private IOException _failure;
+        private boolean _closeAttempted = false;
+    }
+}